@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+#
+# Runs a partitioned connection graph on one machine: N application processes, each owning one shard.
+#
+# Every process serves HTTP on BASE_PORT + i and its shard on SHARD_PORT + i. They share one H2 file database
+# in server mode, so each loads its own partition of the same connections and any of them answers queries,
+# e.g. GET http://localhost:8080/api/paths/{userId}. Each process journals its logins to its own directory, a
+# journal directory being locked by the process using it. Stop the cluster with Ctrl-C.
+#
+# Shard servers listen on the loopback interface and authenticate each other with SHARD_SECRET, a random one
+# unless set.
+#
+# Usage: scripts/shard-cluster.sh [shards]
+#   shards  number of processes (default 3)
+#
+set -euo pipefail
+
+SHARDS="${1:-3}"
+BASE_PORT="${BASE_PORT:-8080}"
+SHARD_PORT="${SHARD_PORT:-7700}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$ROOT/target/linkedme-0.0.1-SNAPSHOT.jar"
+DATA_DIR="$ROOT/target/shard-cluster"
+SHARD_SECRET="${SHARD_SECRET:-$(head -c 32 /dev/urandom | od -An -tx1 | tr -d ' \n')}"
+
+cd "$ROOT"
+./mvnw -q -B -DskipTests package
+mkdir -p "$DATA_DIR"
+
+NODES=$(for i in $(seq 0 $((SHARDS - 1))); do printf 'localhost:%d,' $((SHARD_PORT + i)); done)
+NODES="${NODES%,}"
+
+PIDS=()
+trap 'kill "${PIDS[@]}" 2> /dev/null || true' EXIT INT TERM
+for i in $(seq 0 $((SHARDS - 1))); do
+  java -jar "$JAR" \
+    --server.port=$((BASE_PORT + i)) \
+    --spring.datasource.url="jdbc:h2:file:$DATA_DIR/linkedme;AUTO_SERVER=TRUE;NON_KEYWORDS=user" \
+    --linkedme.graph.sharding.enabled=true \
+    --linkedme.graph.sharding.nodes="$NODES" \
+    --linkedme.graph.sharding.shard-id="$i" \
+    --linkedme.graph.sharding.secret="$SHARD_SECRET" \
+    --linkedme.login-journal.directory="$DATA_DIR/journal-$i" \
+    --linkedin-client-id="${LINKEDIN_CLIENT_ID:-cluster}" \
+    --linkedin-client-secret="${LINKEDIN_CLIENT_SECRET:-cluster}" \
+    > "$DATA_DIR/shard-$i.log" 2>&1 &
+  PIDS+=($!)
+  echo "shard $i: http://localhost:$((BASE_PORT + i)), shard server localhost:$((SHARD_PORT + i)), log $DATA_DIR/shard-$i.log"
+done
+wait
@@ -0,0 +1,89 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark for the "startup" profile.
+#
+# Builds the application as an AOT-processed jar (and optionally a native image), trains an AppCDS archive,
+# then starts each variant several times and reports:
+#   - time to first successful request: from process start until GET /oauth2/authorization/linkedin answers 302
+#   - RSS of the process at that moment (VmRSS from /proc)
+#
+# Usage: scripts/startup-benchmark.sh [runs] [variants]
+#   runs      number of starts per variant (default 5), the median is reported
+#   variants  comma-separated subset of jvm,cds,native (default jvm,cds; native needs GraalVM)
+#
+set -euo pipefail
+
+RUNS="${1:-5}"
+VARIANTS="${2:-jvm,cds}"
+PORT="${PORT:-18080}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+TARGET="$ROOT/target"
+JAR="$TARGET/linkedme-0.0.1-SNAPSHOT.jar"
+CDS_DIR="$TARGET/cds"
+CDS_JAR="$CDS_DIR/linkedme-0.0.1-SNAPSHOT.jar"
+CDS_ARCHIVE="$CDS_DIR/application.jsa"
+NATIVE="$TARGET/linkedme"
+
+APP_ARGS=(--server.port="$PORT" --spring.profiles.active=startup
+          --linkedin-client-id=benchmark --linkedin-client-secret=benchmark)
+PROBE_URL="http://localhost:$PORT/oauth2/authorization/linkedin"
+
+build() {
+  cd "$ROOT"
+  ./mvnw -q -B -Pstartup -DskipTests package
+  if [[ ",$VARIANTS," == *",cds,"* ]]; then
+    rm -rf "$CDS_DIR"
+    java -Djarmode=tools -jar "$JAR" extract --destination "$CDS_DIR"
+    # Training run: refresh the context, then exit and dump the loaded classes into the archive
+    java -XX:ArchiveClassesAtExit="$CDS_ARCHIVE" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+      -jar "$CDS_JAR" "${APP_ARGS[@]}" > /dev/null
+  fi
+  if [[ ",$VARIANTS," == *",native,"* ]]; then
+    ./mvnw -q -B -Pnative,startup -DskipTests native:compile
+  fi
+}
+
+command_for() {
+  case "$1" in
+    jvm)    echo java -Dspring.aot.enabled=true -jar "$JAR" ;;
+    cds)    echo java -XX:SharedArchiveFile="$CDS_ARCHIVE" -Dspring.aot.enabled=true -jar "$CDS_JAR" ;;
+    native) echo "$NATIVE" ;;
+    *)      echo "unknown variant: $1" >&2; exit 1 ;;
+  esac
+}
+
+# Prints "<millis> <rss-kb>" for one cold start of the given variant
+measure_once() {
+  local start_ns pid elapsed_ms rss_kb
+  start_ns=$(date +%s%N)
+  # shellcheck disable=SC2046
+  $(command_for "$1") "${APP_ARGS[@]}" > /dev/null 2>&1 &
+  pid=$!
+  until [[ "$(curl -s -o /dev/null -w '%{http_code}' "$PROBE_URL" || true)" == "302" ]]; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "variant $1 exited before serving a request" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  elapsed_ms=$(( ($(date +%s%N) - start_ns) / 1000000 ))
+  rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  echo "$elapsed_ms $rss_kb"
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+build
+
+printf '%-8s %28s %16s\n' variant "first-request ms (median)" "rss MB (median)"
+IFS=',' read -ra SELECTED <<< "$VARIANTS"
+for variant in "${SELECTED[@]}"; do
+  results=$(for _ in $(seq "$RUNS"); do measure_once "$variant"; done)
+  ms=$(cut -d' ' -f1 <<< "$results" | median)
+  rss=$(cut -d' ' -f2 <<< "$results" | median)
+  printf '%-8s %28s %16s\n' "$variant" "$ms" "$(( rss / 1024 ))"
+done
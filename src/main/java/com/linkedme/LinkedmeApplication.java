@@ -1,18 +1,23 @@
 package com.linkedme;
 
-import com.linkedme.persistence.entity.Role;
-import com.linkedme.persistence.repository.RoleRepository;
+import com.linkedme.persistence.seed.RoleSeeder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.ComponentScan;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableCaching
+@Order(Ordered.HIGHEST_PRECEDENCE) // Seed before any other runner, e.g. the warm-up
 public class LinkedmeApplication implements CommandLineRunner {
 
 	@Autowired
-	private RoleRepository roleRepository;
+	private RoleSeeder roleSeeder;
 
 	public static void main(String[] args) {
 		SpringApplication.run(LinkedmeApplication.class, args);
@@ -20,7 +25,6 @@ public class LinkedmeApplication implements CommandLineRunner {
 
 	@Override
 	public void run(String... args) throws Exception {
-		roleRepository.save(Role.builder().name(Role.ROLE_USER).build());
-		roleRepository.save(Role.builder().name(Role.ROLE_ADMIN).build());
+		roleSeeder.seed();
 	}
 }
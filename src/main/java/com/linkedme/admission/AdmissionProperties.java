@@ -0,0 +1,67 @@
+package com.linkedme.admission;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the admission of the OAuth2 login callbacks, see {@link LoginConcurrencyLimiter}.
+ *
+ * <p>Bound from the {@code linkedme.admission} prefix, e.g. {@code linkedme.admission.max-limit=50}.</p>
+ */
+@ConfigurationProperties(prefix = "linkedme.admission")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class AdmissionProperties {
+
+    /**
+     * Whether to limit the concurrent login callbacks at all.
+     */
+    boolean enabled = true;
+
+    /**
+     * Limit before the first callback completes.
+     */
+    int initialLimit = 20;
+
+    /**
+     * Lowest limit, however slow the callbacks get.
+     */
+    int minLimit = 4;
+
+    /**
+     * Highest limit; keep it well below {@code server.tomcat.threads.max}, so that authenticated requests
+     * always find a thread while LinkedIn is slow.
+     */
+    int maxLimit = 100;
+
+    /**
+     * Ratio of a callback's latency to the average latency above which the limit shrinks.
+     */
+    double rttTolerance = 1.5;
+
+    /**
+     * Weight of each callback in the limit, between 0 and 1.
+     */
+    double smoothing = 0.2;
+
+    /**
+     * Number of callbacks averaged into the long-term latency.
+     */
+    int longWindow = 100;
+
+    /**
+     * Ratio applied to the limit when a callback fails with a server error.
+     */
+    double backoffRatio = 0.9;
+
+    /**
+     * Delay after which a rejected login is retried, sent as "Retry-After" and used by the retry page.
+     */
+    Duration retryAfter = Duration.ofSeconds(2);
+}
@@ -0,0 +1,96 @@
+package com.linkedme.admission;
+
+/**
+ * Concurrency limit adjusted to the latency of the requests it admits, after the gradient algorithm of
+ * Netflix' concurrency-limits.
+ *
+ * <p>Each sample compares its latency with a long-term average of the latencies: while they match, the limit
+ * grows by the square root of itself, so that some requests always queue and the latency keeps telling whether
+ * the backend keeps up; when the latency rises above {@code tolerance} times the average, the limit shrinks in
+ * proportion, by half at most per sample. The average follows a lasting change of latency within about
+ * {@code longWindow} samples, after which the limit grows again.</p>
+ */
+final class GradientLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int longWindow;
+    private final double backoffRatio;
+    private double estimatedLimit;
+    private double longRtt;
+    private long samples;
+    private volatile int limit;
+
+    /**
+     * @param initialLimit the limit before the first sample.
+     * @param minLimit     the lowest limit.
+     * @param maxLimit     the highest limit.
+     * @param tolerance    the ratio of latency to its average above which the limit shrinks.
+     * @param smoothing    the weight of each sample in the limit, between 0 and 1.
+     * @param longWindow   the number of samples averaged into the long-term latency.
+     * @param backoffRatio the ratio applied to the limit when a request fails.
+     */
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing, int longWindow,
+                  double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance < 1 || smoothing <= 0 || smoothing > 1
+                || longWindow < 1 || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("minLimit=" + minLimit + ", maxLimit=" + maxLimit + ", tolerance="
+                    + tolerance + ", smoothing=" + smoothing + ", longWindow=" + longWindow + ", backoffRatio="
+                    + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.backoffRatio = backoffRatio;
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return the current limit.
+     */
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * Adjusts the limit to a completed request.
+     *
+     * @param rttNanos the latency of the request.
+     * @param inFlight the number of requests in flight when it was admitted.
+     * @param dropped  whether the request failed, e.g. timed out.
+     */
+    synchronized void sample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            update(estimatedLimit * backoffRatio);
+            return;
+        }
+        double shortRtt = Math.max(1, rttNanos);
+        samples++;
+        longRtt += (shortRtt - longRtt) / Math.min(samples, longWindow);
+
+        // Latency far below the average: the backend recovered, forget the slow period faster
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double gradient = Math.clamp(tolerance * longRtt / shortRtt, 0.5, 1.0);
+        double newLimit = estimatedLimit * (1 - smoothing)
+                + (estimatedLimit * gradient + Math.sqrt(estimatedLimit)) * smoothing;
+
+        // The limit is not what holds the requests back, no reason to raise it
+        if (newLimit > estimatedLimit && inFlight < estimatedLimit / 2) {
+            return;
+        }
+        update(newLimit);
+    }
+
+    private void update(double newLimit) {
+        estimatedLimit = Math.clamp(newLimit, minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,80 @@
+package com.linkedme.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.client.web.OAuth2LoginAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Admits the OAuth2 login callbacks through the {@link LoginConcurrencyLimiter}, in front of the
+ * {@link OAuth2LoginAuthenticationFilter} and so of the code exchange and the user service.
+ *
+ * <p>A rejected callback gets a "503 Service Unavailable" with a "Retry-After" and a page reloading itself after
+ * that delay. Nothing of the login is consumed before the filter, so the reload completes the same login with
+ * the same authorization code.</p>
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LoginAdmissionFilter extends OncePerRequestFilter {
+
+    private static final RequestMatcher CALLBACK =
+            new AntPathRequestMatcher(OAuth2LoginAuthenticationFilter.DEFAULT_FILTER_PROCESSES_URI);
+
+    LoginConcurrencyLimiter limiter;
+    AdmissionProperties properties;
+    ITemplateEngine templateEngine;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !CALLBACK.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Optional<LoginConcurrencyLimiter.Permit> permit = limiter.tryAcquire();
+        if (permit.isEmpty()) {
+            reject(request, response);
+            return;
+        }
+        boolean dropped = true;
+        try {
+            chain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            permit.get().release(dropped);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long retryAfter = Math.max(1, properties.getRetryAfter().toSeconds());
+        Context context = new Context(request.getLocale());
+        context.setVariable("retryAfter", retryAfter);
+        byte[] page = templateEngine.process("login-retry", context).getBytes(StandardCharsets.UTF_8);
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        response.setContentType(MediaType.TEXT_HTML_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(page.length);
+        response.getOutputStream().write(page);
+    }
+}
@@ -0,0 +1,112 @@
+package com.linkedme.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit of the OAuth2 login callbacks in flight.
+ *
+ * <p>A callback exchanges the authorization code, loads the userinfo and resolves the local user, so it holds
+ * a server thread, and at times a database connection, for as long as LinkedIn takes to answer. When LinkedIn
+ * or the database slows down, the callbacks get slower and the {@link GradientLimit} shrinks; the callbacks over
+ * the limit are rejected at once instead of piling up, and authenticated requests, which are never limited,
+ * keep the threads and connections they need.</p>
+ *
+ * <p>Metrics: {@code linkedme.admission.limit} (current limit), {@code linkedme.admission.in-flight} (callbacks
+ * in flight) and {@code linkedme.admission.requests} (callbacks admitted and rejected).</p>
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LoginConcurrencyLimiter {
+
+    AdmissionProperties properties;
+    GradientLimit limit;
+    AtomicInteger inFlight = new AtomicInteger();
+    Counter admitted;
+    Counter rejected;
+
+    public LoginConcurrencyLimiter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = new GradientLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getRttTolerance(), properties.getSmoothing(),
+                properties.getLongWindow(), properties.getBackoffRatio());
+        Gauge.builder("linkedme.admission.limit", limit, GradientLimit::limit)
+                .description("Login callbacks allowed in flight")
+                .register(meterRegistry);
+        Gauge.builder("linkedme.admission.in-flight", inFlight, AtomicInteger::get)
+                .description("Login callbacks in flight")
+                .register(meterRegistry);
+        this.admitted = requests(meterRegistry, "admitted");
+        this.rejected = requests(meterRegistry, "rejected");
+    }
+
+    /**
+     * Admits a callback if the limit allows it.
+     *
+     * @return the permit of the callback, to release once it completes, or empty if the callback must be
+     * rejected.
+     */
+    public Optional<Permit> tryAcquire() {
+        if (!properties.isEnabled()) {
+            return Optional.of(new Permit(0, false));
+        }
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit.limit()) {
+                rejected.increment();
+                return Optional.empty();
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        admitted.increment();
+        return Optional.of(new Permit(current + 1, true));
+    }
+
+    /**
+     * @return the current limit.
+     */
+    public int limit() {
+        return limit.limit();
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("linkedme.admission.requests")
+                .description("Login callbacks per outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Slot of an admitted callback, released once when the callback completes.
+     */
+    public final class Permit {
+
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+        private final boolean counted;
+
+        private Permit(int inFlightAtStart, boolean counted) {
+            this.inFlightAtStart = inFlightAtStart;
+            this.counted = counted;
+        }
+
+        /**
+         * Frees the slot and adjusts the limit to the latency of the callback.
+         *
+         * @param dropped whether the callback failed with a server error.
+         */
+        public void release(boolean dropped) {
+            if (counted) {
+                inFlight.decrementAndGet();
+                limit.sample(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+            }
+        }
+    }
+}
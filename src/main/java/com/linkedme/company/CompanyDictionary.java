@@ -0,0 +1,171 @@
+package com.linkedme.company;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Concurrent dictionary between company names and dense integer codes.
+ *
+ * <p>Every {@link CompanyNameNormalizer canonical key} gets the next code, starting at 0, so a column of
+ * company names can be stored as an {@code int[]} and grouped by code. Codes map back to the identifier of the
+ * {@link com.linkedme.persistence.entity.Company} they were bound to; companies created under different
+ * spellings before names were normalized share the code of their key, and the first one bound is the one a
+ * code resolves to. Display names are not kept here: they are read from the
+ * {@link com.linkedme.directory.OffHeapDirectory} by the company a code resolves to.</p>
+ *
+ * <p>Names to codes is a {@link ConcurrentHashMap}, whose lookups take no lock and whose insertions only lock
+ * the bin of their key. Codes to company identifiers are chunks of {@value #CHUNK_SIZE} slots, so encoding
+ * never copies the slots already assigned; the array of chunks is copied when a chunk is added, once every
+ * {@value #CHUNK_SIZE} new names.</p>
+ */
+public final class CompanyDictionary {
+
+    /**
+     * Code of a name without any letter or digit, or of a name or company not in the dictionary.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Company identifier of a code not bound to any company yet.
+     */
+    public static final long NO_COMPANY = -1;
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> codesByCompany = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Object growLock = new Object();
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    /**
+     * Returns the code of a company name, assigning the next one if its canonical key is new.
+     *
+     * @param name the company name.
+     * @return the code, or {@link #UNKNOWN} if the name has no letter or digit.
+     */
+    public int encode(String name) {
+        String key = CompanyNameNormalizer.canonicalize(name);
+        if (key == null) {
+            return UNKNOWN;
+        }
+        Integer code = codes.get(key);
+        return code != null ? code : codes.computeIfAbsent(key, ignored -> assign());
+    }
+
+    /**
+     * Encodes a column of company names, normalizing them in parallel on the common fork-join pool.
+     *
+     * <p>Codes are assigned in no particular order, the code of a name does not depend on the rows around it.</p>
+     *
+     * @param names the company names, may contain nulls.
+     * @return the code of each name, {@link #UNKNOWN} for nulls and names without any letter or digit.
+     */
+    public int[] encodeAll(List<String> names) {
+        String[] column = names.toArray(String[]::new);
+        int[] encoded = new int[column.length];
+        IntStream.range(0, column.length).parallel().forEach(row -> encoded[row] = encode(column[row]));
+        return encoded;
+    }
+
+    /**
+     * Returns the code of a company name without assigning one.
+     *
+     * @param name the company name.
+     * @return the code, or {@link #UNKNOWN} if no spelling of the name was encoded.
+     */
+    public int find(String name) {
+        String key = CompanyNameNormalizer.canonicalize(name);
+        Integer code = key == null ? null : codes.get(key);
+        return code == null ? UNKNOWN : code;
+    }
+
+    /**
+     * Returns the code a company was bound to.
+     *
+     * @param companyId the company identifier.
+     * @return the code, or {@link #UNKNOWN} if the company was never bound.
+     */
+    public int codeOf(long companyId) {
+        Integer code = codesByCompany.get(companyId);
+        return code == null ? UNKNOWN : code;
+    }
+
+    /**
+     * Returns the company a code resolves to.
+     *
+     * @param code a code returned by this dictionary.
+     * @return the company identifier, or {@link #NO_COMPANY} if the code was never bound.
+     */
+    public long companyId(int code) {
+        return chunk(code).companyIds.get(code & CHUNK_MASK);
+    }
+
+    /**
+     * Binds a company to the code of its name. The first company bound to a code is the one it resolves to.
+     *
+     * @param companyId the company identifier.
+     * @param name      the name of the company.
+     * @return the code, or {@link #UNKNOWN} if the name has no letter or digit.
+     */
+    public int bind(long companyId, String name) {
+        int code = encode(name);
+        if (code != UNKNOWN) {
+            chunk(code).companyIds.compareAndSet(code & CHUNK_MASK, NO_COMPANY, companyId);
+            codesByCompany.put(companyId, code);
+        }
+        return code;
+    }
+
+    /**
+     * @return the number of codes assigned.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Assigns the next code, called once per key under the lock of its bin.
+     */
+    private int assign() {
+        int code = size.getAndIncrement();
+        int index = code >>> CHUNK_BITS;
+        if (index >= chunks.length) {
+            synchronized (growLock) {
+                Chunk[] current = chunks;
+                if (index >= current.length) {
+                    Chunk[] grown = new Chunk[index + 1];
+                    System.arraycopy(current, 0, grown, 0, current.length);
+                    for (int i = current.length; i < grown.length; i++) {
+                        grown[i] = new Chunk();
+                    }
+                    chunks = grown;
+                }
+            }
+        }
+        return code;
+    }
+
+    private Chunk chunk(int code) {
+        return chunks[code >>> CHUNK_BITS];
+    }
+
+    /**
+     * Company identifiers of {@value #CHUNK_SIZE} consecutive codes.
+     */
+    private static final class Chunk {
+        final AtomicLongArray companyIds = new AtomicLongArray(CHUNK_SIZE);
+
+        Chunk() {
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                companyIds.set(i, NO_COMPANY);
+            }
+        }
+    }
+}
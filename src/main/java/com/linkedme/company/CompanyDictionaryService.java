@@ -0,0 +1,129 @@
+package com.linkedme.company;
+
+import com.linkedme.persistence.event.CompanySavedEvent;
+import com.linkedme.persistence.projection.CompanySummary;
+import com.linkedme.persistence.repository.CompanyRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+/**
+ * Company names normalized and dictionary-encoded, see {@link CompanyDictionary}.
+ *
+ * <p>The dictionary is loaded with every company on startup, before the warm-up, and then kept up to date from
+ * {@link CompanySavedEvent}s once their transaction has committed. Imports encode the company column of their
+ * rows in bulk with {@link #encodeAll} and only create the companies whose code is not bound yet; searches
+ * compare codes, so that users of companies created under another spelling before names were normalized are
+ * found too. Every spelling is shown with the name of the company its code resolves to, which the
+ * {@link com.linkedme.directory.UserDirectoryService directory} keeps off-heap.</p>
+ *
+ * <p>Metrics: {@code linkedme.companies.dictionary.size} (number of canonical company names).</p>
+ */
+@Slf4j
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE + 40) // After the directory, before the warm-up
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CompanyDictionaryService implements ApplicationRunner {
+
+    CompanyDictionary dictionary = new CompanyDictionary();
+    CompanyRepository companyRepository;
+
+    public CompanyDictionaryService(CompanyRepository companyRepository, MeterRegistry meterRegistry) {
+        this.companyRepository = companyRepository;
+        Gauge.builder("linkedme.companies.dictionary.size", dictionary, CompanyDictionary::size)
+                .description("Number of canonical company names")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encodes a column of company names in parallel.
+     *
+     * @param names the company names, may contain nulls.
+     * @return the code of each name, {@link CompanyDictionary#UNKNOWN} for nulls and blank names.
+     */
+    public int[] encodeAll(List<String> names) {
+        return dictionary.encodeAll(names);
+    }
+
+    /**
+     * Returns the company a code resolves to.
+     *
+     * @param code a code returned by {@link #encodeAll}.
+     * @return the company identifier, or empty if no company with that name was committed yet.
+     */
+    public OptionalLong companyId(int code) {
+        long companyId = dictionary.companyId(code);
+        return companyId == CompanyDictionary.NO_COMPANY ? OptionalLong.empty() : OptionalLong.of(companyId);
+    }
+
+    /**
+     * Finds a company by any spelling of its name.
+     *
+     * @param name the company name, e.g. "google inc." for "Google".
+     * @return the company identifier, or empty if unknown.
+     */
+    public OptionalLong findCompanyId(String name) {
+        int code = dictionary.find(name);
+        return code == CompanyDictionary.UNKNOWN ? OptionalLong.empty() : companyId(code);
+    }
+
+    /**
+     * Returns the company shown for every spelling of the name of a company.
+     *
+     * @param companyId the company identifier.
+     * @return the first company bound to the code of its name, or the company itself if it is not bound yet.
+     */
+    public long canonicalCompanyId(long companyId) {
+        int code = dictionary.codeOf(companyId);
+        long canonical = code == CompanyDictionary.UNKNOWN ? CompanyDictionary.NO_COMPANY : dictionary.companyId(code);
+        return canonical == CompanyDictionary.NO_COMPANY ? companyId : canonical;
+    }
+
+    /**
+     * Returns the code of a company, shared by the companies created under other spellings of its name.
+     *
+     * @param companyId the company identifier.
+     * @return the code, or {@link CompanyDictionary#UNKNOWN} if the company is unknown.
+     */
+    public int codeOf(long companyId) {
+        return dictionary.codeOf(companyId);
+    }
+
+    /**
+     * Binds every company to the code of its name.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        // Ordered by identifier, so that the oldest company of a name is the one its code resolves to
+        try (Stream<CompanySummary> companies = companyRepository.streamAllSummaries()) {
+            companies.forEach(company -> dictionary.bind(company.id(), company.name()));
+        }
+        log.info("stage=company-dictionary, message=loaded, names={}, durationMs={}", dictionary.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Binds a saved company once its transaction has committed.
+     *
+     * @param event the saved company.
+     */
+    @TransactionalEventListener
+    public void onCompanySaved(CompanySavedEvent event) {
+        dictionary.bind(event.id(), event.name());
+    }
+}
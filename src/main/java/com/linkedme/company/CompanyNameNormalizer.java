@@ -0,0 +1,84 @@
+package com.linkedme.company;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces the spellings of a company name found in LinkedIn exports to a single canonical key.
+ *
+ * <p>"Google", "Google LLC", "google inc." and "GOOGLE, Inc" all become {@code google}: accents are removed,
+ * letters are lowercased, punctuation separates words except for dots and apostrophes ("S.A.", "McDonald's"),
+ * "&amp;" reads "and", and a leading "the" and trailing legal forms ("Inc", "LLC", "GmbH", "&amp; Co"...) are
+ * dropped as long as a word remains. The key is only used to group names, the name shown is the one first
+ * seen, see {@link CompanyDictionary}.</p>
+ *
+ * <p>Names made of ASCII characters only, the vast majority, skip the Unicode decomposition.</p>
+ */
+public final class CompanyNameNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Set<String> LEGAL_FORMS = Set.of("inc", "incorporated", "llc", "llp", "lp", "ltd",
+            "limited", "corp", "corporation", "co", "company", "plc", "gmbh", "ag", "kg", "sa", "sas", "sarl", "srl",
+            "spa", "bv", "nv", "ab", "oy", "as", "pty", "pte", "pvt", "ltda");
+
+    private CompanyNameNormalizer() {
+    }
+
+    /**
+     * Returns the canonical key of a company name.
+     *
+     * @param name the company name, as found in an export.
+     * @return the canonical key, or null if the name has no letter or digit.
+     */
+    public static String canonicalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        String text = isAscii(name) ? name
+                : COMBINING_MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFKD)).replaceAll("");
+        List<String> words = new ArrayList<>(4);
+        StringBuilder word = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (c != '.' && c != '\'' && c != '\u2019') {
+                flush(word, words);
+                if (c == '&') {
+                    words.add("and");
+                }
+            }
+        }
+        flush(word, words);
+
+        int from = words.size() > 1 && words.get(0).equals("the") ? 1 : 0;
+        int to = words.size();
+        boolean stripped = false;
+        while (to - from > 1 && (LEGAL_FORMS.contains(words.get(to - 1))
+                || stripped && words.get(to - 1).equals("and"))) {
+            stripped = true;
+            to--;
+        }
+        return from == to ? null : String.join(" ", words.subList(from, to));
+    }
+
+    private static void flush(StringBuilder word, List<String> words) {
+        if (!word.isEmpty()) {
+            words.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static boolean isAscii(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
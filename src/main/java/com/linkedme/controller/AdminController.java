@@ -1,11 +1,29 @@
 package com.linkedme.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.linkedme.journal.LoginJournalService;
+import com.linkedme.model.UserImportResult;
+import com.linkedme.persistence.entity.LoginActivity;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.security.authorization.RequiresRole;
+import com.linkedme.service.UserTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
 
 /**
  * REST controller for managing admin-related endpoints.
@@ -18,18 +36,34 @@ import org.springframework.web.bind.annotation.RestController;
  *     <li>@RestController: Marks this class as a Spring REST controller, making it capable
  *     of handling HTTP requests and returning HTTP responses.</li>
  *     <li>@RequestMapping: Maps the base URL for all endpoints in this controller to "/admins".</li>
+ *     <li>@RequiredArgsConstructor: Generates a constructor for final fields, allowing dependency injection.</li>
+ *     <li>@FieldDefaults: Sets the default access level for fields to private and makes them final.</li>
  * </ul>
  */
 @RestController
 @RequestMapping("/admins")
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
 public class AdminController {
 
+    /**
+     * Media type of newline-delimited JSON, one record per line.
+     */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    // Service performing the bulk user export and import
+    UserTransferService userTransferService;
+
+    // Service recording the login activity
+    LoginJournalService loginJournalService;
+
     /**
      * Endpoint to retrieve a greeting for admins.
      *
      * <p>Authorization:</p>
      * <ul>
-     *     <li>@PreAuthorize: Ensures that only users with the role "ROLE_ADMIN" can access this endpoint.</li>
+     *     <li>@RequiresRole: Ensures that only users with the role "ROLE_ADMIN" can access this endpoint,
+     *     checked against the role mask of the principal.</li>
      * </ul>
      *
      * <p>Response:</p>
@@ -40,9 +74,88 @@ public class AdminController {
      *
      * @return a ResponseEntity containing a greeting message for admins.
      */
-    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @RequiresRole(Role.ROLE_ADMIN)
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<String> getUserS() {
         return ResponseEntity.ok("Hello Admin");
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint to export all users and their roles.
+     *
+     * <p>Authorization:</p>
+     * <ul>
+     *     <li>@RequiresRole: Ensures that only users with the role "ROLE_ADMIN" can access this endpoint.</li>
+     * </ul>
+     *
+     * <p>Response:</p>
+     * <ul>
+     *     <li>Returns an HTTP 200 OK status with one {@link com.linkedme.model.UserTransferRecord} per line
+     *     (NDJSON), streamed while the users are read so memory stays constant whatever the number of users.</li>
+     * </ul>
+     *
+     * @return a ResponseEntity streaming the users.
+     */
+    @RequiresRole(Role.ROLE_ADMIN)
+    @GetMapping(path = "/users/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(userTransferService::exportUsers);
+    }
+
+    /**
+     * Endpoint to import users and their roles, in the format produced by {@link #exportUsers()}.
+     *
+     * <p>Authorization:</p>
+     * <ul>
+     *     <li>@RequiresRole: Ensures that only users with the role "ROLE_ADMIN" can access this endpoint.</li>
+     * </ul>
+     *
+     * <p>Response:</p>
+     * <ul>
+     *     <li>Returns an HTTP 200 OK status with the import counters in JSON format.</li>
+     *     <li>Returns an HTTP 400 Bad Request status if a line is not a valid record; the batches before
+     *     it are already imported.</li>
+     * </ul>
+     *
+     * @param request the HTTP request whose body is read as a stream.
+     * @return a ResponseEntity containing the {@link UserImportResult}.
+     * @throws IOException if the request body cannot be read.
+     */
+    @RequiresRole(Role.ROLE_ADMIN)
+    @PostMapping(path = "/users/import", consumes = APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserImportResult> importUsers(HttpServletRequest request) throws IOException {
+        try {
+            return ResponseEntity.ok(userTransferService.importUsers(request.getInputStream()));
+        } catch (JsonProcessingException e) {
+            String line = e.getLocation() == null ? "?" : String.valueOf(e.getLocation().getLineNr());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid record at line " + line, e);
+        }
+    }
+
+    /**
+     * Endpoint to retrieve the latest logins of a user, for auditing.
+     *
+     * <p>Authorization:</p>
+     * <ul>
+     *     <li>@RequiresRole: Ensures that only users with the role "ROLE_ADMIN" can access this endpoint.</li>
+     * </ul>
+     *
+     * <p>Response:</p>
+     * <ul>
+     *     <li>Returns an HTTP 200 OK status with the logins, latest first, in JSON format. Logins are loaded from
+     *     the journal in the background, so the last second or so of activity may not be listed yet.</li>
+     * </ul>
+     *
+     * @param userId the user identifier.
+     * @param limit  the maximum number of logins, at most 500.
+     * @return a ResponseEntity containing the logins.
+     */
+    @RequiresRole(Role.ROLE_ADMIN)
+    @GetMapping(path = "/users/{userId}/logins", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<LoginActivity>> getLogins(@PathVariable long userId,
+                                                         @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(loginJournalService.recentLogins(userId, Math.clamp(limit, 1, 500)));
+    }
+}
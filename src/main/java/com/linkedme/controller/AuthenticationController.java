@@ -1,14 +1,24 @@
 package com.linkedme.controller;
 
+import com.linkedme.security.service.AuthenticationProfileCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Objects;
 
 /**
  * REST controller for handling authentication-related endpoints.
@@ -35,6 +45,12 @@ public class AuthenticationController {
      */
     public static final String AUTHENTICATION_ENDPOINT_PATH = "/api/authentication";
 
+    // Cache of the serialized profile per session
+    AuthenticationProfileCache authenticationProfileCache;
+
+    // Registry for the response size metrics
+    MeterRegistry meterRegistry;
+
     /**
      * Endpoint to retrieve information about the currently authenticated user.
      *
@@ -45,14 +61,64 @@ public class AuthenticationController {
      *
      * <p>Response:</p>
      * <ul>
-     *     <li>Returns an HTTP 200 OK status with the authenticated user's details in JSON format.</li>
+     *     <li>Returns an HTTP 200 OK status with the compact {@link com.linkedme.model.AuthenticationProfile}
+     *     of the authenticated user in JSON format, serialized once per session.</li>
+     *     <li>Returns an HTTP 304 Not Modified status without a body when the If-None-Match header matches
+     *     the ETag of the current profile.</li>
+     *     <li>The body is gzip-encoded when the client accepts it and it makes the body smaller.</li>
      * </ul>
      *
-     * @param oidcUser the currently authenticated user, automatically injected by Spring Security.
-     * @return a ResponseEntity containing the authenticated user's details.
+     * @param oidcUser       the currently authenticated user, automatically injected by Spring Security.
+     * @param session        the session of the authenticated user, holding the serialized profile.
+     * @param acceptEncoding the Accept-Encoding header of the request, if any.
+     * @param webRequest     the current request, used for the conditional request handling.
+     * @return a ResponseEntity containing the authenticated user's profile, or null if not modified.
      */
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<OidcUser> authenticate(@AuthenticationPrincipal OidcUser oidcUser) {
-        return ResponseEntity.ok(oidcUser);
+    public ResponseEntity<byte[]> authenticate(@AuthenticationPrincipal OidcUser oidcUser, HttpSession session,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                               ServletWebRequest webRequest) {
+        var profile = authenticationProfileCache.get(session, oidcUser);
+
+        // Only use gzip when it actually pays off, small profiles can grow when compressed
+        boolean gzip = acceptsGzip(acceptEncoding) && profile.gzip().length < profile.json().length;
+
+        // Clients must revalidate, which is cheap thanks to the ETag
+        HttpServletResponse response = Objects.requireNonNull(webRequest.getResponse());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // Sets the ETag header, and the 304 status if it matches If-None-Match
+        if (webRequest.checkNotModified(profile.etag(gzip))) {
+            recordResponseBytes("not-modified", 0);
+            return null;
+        }
+
+        byte[] body = gzip ? profile.gzip() : profile.json();
+        recordResponseBytes(gzip ? "gzip" : "identity", body.length);
+
+        var builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
+
+    private void recordResponseBytes(String encoding, int bytes) {
+        meterRegistry.summary("linkedme.authentication.response.bytes", "encoding", encoding).record(bytes);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" explicitly refuses the encoding
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
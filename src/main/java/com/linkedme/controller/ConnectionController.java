@@ -0,0 +1,65 @@
+package com.linkedme.controller;
+
+import com.linkedme.model.ConnectionImportRecord;
+import com.linkedme.model.ConnectionImportResult;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.security.authorization.RequiresRole;
+import com.linkedme.security.model.LinkedmeOidcUser;
+import com.linkedme.service.ConnectionImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for managing the connections of the authenticated user.
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@RestController: Marks this class as a Spring REST controller, making it capable
+ *     of handling HTTP requests and returning HTTP responses.</li>
+ *     <li>@RequestMapping: Maps the base URL for all endpoints in this controller to "/api/connections".</li>
+ *     <li>@RequiredArgsConstructor: Generates a constructor for final fields, allowing dependency injection.</li>
+ *     <li>@FieldDefaults: Sets the default access level for fields to private and makes them final.</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/connections")
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class ConnectionController {
+
+    // Service storing the imported connections
+    ConnectionImportService connectionImportService;
+
+    /**
+     * Endpoint to import the connections of the authenticated user.
+     *
+     * <p>Authorization:</p>
+     * <ul>
+     *     <li>@RequiresRole: Ensures that only users with the role "ROLE_USER" can access this endpoint.</li>
+     * </ul>
+     *
+     * <p>Response:</p>
+     * <ul>
+     *     <li>Returns an HTTP 200 OK status with the import counters in JSON format.</li>
+     * </ul>
+     *
+     * @param user    the authenticated user.
+     * @param records the contacts of the user.
+     * @return a ResponseEntity containing the {@link ConnectionImportResult}.
+     */
+    @RequiresRole(Role.ROLE_USER)
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ConnectionImportResult> importConnections(@AuthenticationPrincipal LinkedmeOidcUser user,
+                                                                    @RequestBody List<ConnectionImportRecord> records) {
+        return ResponseEntity.ok(connectionImportService.importConnections(user.getUserId(), records));
+    }
+}
@@ -0,0 +1,110 @@
+package com.linkedme.controller;
+
+import com.linkedme.company.CompanyDictionaryService;
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.model.ConnectionSort;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.security.authorization.RequiresRole;
+import com.linkedme.security.model.LinkedmeOidcUser;
+import com.linkedme.service.ConnectionFragmentCache;
+import com.linkedme.service.ConnectionPageService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.OptionalLong;
+
+/**
+ * Controller rendering the "friends" page.
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@Controller: Marks this class as a Spring MVC controller whose handlers return view names.</li>
+ *     <li>@RequestMapping: Maps the base URL for all endpoints in this controller to "/friends".</li>
+ *     <li>@RequiredArgsConstructor: Generates a constructor for final fields, allowing dependency injection.</li>
+ *     <li>@FieldDefaults: Sets the default access level for fields to private and makes them final.</li>
+ * </ul>
+ */
+@Controller
+@RequestMapping("/friends")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class FriendsController {
+
+    // Dictionary resolving company names to identifiers and back
+    CompanyDictionaryService companyDictionaryService;
+
+    // Directory holding the company names
+    UserDirectoryService userDirectoryService;
+
+    // Rendered pages of the connections of the users
+    ConnectionFragmentCache connectionFragmentCache;
+
+    /**
+     * Endpoint to render the page listing the connections of the authenticated user and finding introducers to a
+     * company.
+     *
+     * <p>Authorization:</p>
+     * <ul>
+     *     <li>@RequiresRole: Ensures that only users with the role "ROLE_USER" can access this endpoint.</li>
+     * </ul>
+     *
+     * <p>Response:</p>
+     * <ul>
+     *     <li>Lists one page of the connections of the user, see {@link ConnectionPageService}; the page comes
+     *     from the {@link ConnectionFragmentCache} and links to the next one. An invalid cursor renders the first
+     *     page with an error.</li>
+     *     <li>Returns the page right away; it loads the introducers from
+     *     {@link IntroducerController#streamIntroducers} by company identifier and renders them as they
+     *     arrive.</li>
+     *     <li>A company given by name is resolved to its identifier first, whatever its spelling ("Acme",
+     *     "ACME Inc."); an unknown name renders the page with an error.</li>
+     * </ul>
+     *
+     * @param user      the authenticated user.
+     * @param sort      the order of the connections.
+     * @param cursor    the cursor of the page of connections, none for the first page.
+     * @param size      the number of connections per page, at most {@value ConnectionPageService#MAX_PAGE_SIZE}.
+     * @param companyId the identifier of the company to search, if any.
+     * @param company   the name of the company to search, if any, used when no identifier is given.
+     * @param model     the model of the view.
+     * @return the name of the view.
+     */
+    @RequiresRole(Role.ROLE_USER)
+    @GetMapping
+    public String friends(@AuthenticationPrincipal LinkedmeOidcUser user,
+                          @RequestParam(defaultValue = "NAME") ConnectionSort sort,
+                          @RequestParam(required = false) String cursor,
+                          @RequestParam(defaultValue = "" + ConnectionPageService.DEFAULT_PAGE_SIZE) int size,
+                          @RequestParam(required = false) Long companyId,
+                          @RequestParam(required = false) String company, Model model) {
+        size = Math.max(1, Math.min(size, ConnectionPageService.MAX_PAGE_SIZE));
+        try {
+            model.addAttribute("connections", connectionFragmentCache.render(user.getUserId(), sort, cursor, size));
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("connections", connectionFragmentCache.render(user.getUserId(), sort, null, size));
+            model.addAttribute("error", e.getMessage());
+        }
+        if (companyId == null && StringUtils.hasText(company)) {
+            OptionalLong found = companyDictionaryService.findCompanyId(company);
+            if (found.isPresent()) {
+                companyId = found.getAsLong();
+            } else {
+                model.addAttribute("company", company);
+                model.addAttribute("error", "Unknown company: " + company);
+            }
+        }
+        if (companyId != null) {
+            model.addAttribute("companyId", companyId);
+            model.addAttribute("company", userDirectoryService.companyName(companyId).orElse(null));
+        }
+        return "friends";
+    }
+}
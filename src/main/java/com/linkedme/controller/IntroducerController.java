@@ -0,0 +1,152 @@
+package com.linkedme.controller;
+
+import com.linkedme.model.IntroducerCandidate;
+import com.linkedme.model.IntroducerSearchSummary;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.security.authorization.RequiresRole;
+import com.linkedme.security.model.LinkedmeOidcUser;
+import com.linkedme.service.IntroducerSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * REST controller streaming the contacts who can introduce the authenticated user to a company.
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@RestController: Marks this class as a Spring REST controller, making it capable
+ *     of handling HTTP requests and returning HTTP responses.</li>
+ *     <li>@RequestMapping: Maps the base URL for all endpoints in this controller to "/api/introducers".</li>
+ *     <li>@RequiredArgsConstructor: Generates a constructor for final fields, allowing dependency injection.</li>
+ *     <li>@FieldDefaults: Sets the default access level for fields to private and makes them final.</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/introducers")
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class IntroducerController {
+
+    /**
+     * Time after which a stream is closed, whether the search has ended or not.
+     */
+    static final Duration STREAM_TIMEOUT = Duration.ofMinutes(2);
+
+    /**
+     * Time after which a client should retry a rejected search.
+     */
+    static final Duration RETRY_AFTER = Duration.ofSeconds(2);
+
+    // Service walking the connection graph
+    IntroducerSearchService introducerSearchService;
+
+    /**
+     * Endpoint to stream the introducers of the authenticated user to a company as server-sent events.
+     *
+     * <p>Authorization:</p>
+     * <ul>
+     *     <li>@RequiresRole: Ensures that only users with the role "ROLE_USER" can access this endpoint.</li>
+     * </ul>
+     *
+     * <p>Response:</p>
+     * <ul>
+     *     <li>Returns an HTTP 200 OK status with a {@code text/event-stream}: {@code candidates} events holding
+     *     a JSON array of {@link IntroducerCandidate}s, sent as soon as each level of the search is complete, a
+     *     {@code level} event at the end of each level, then a single {@code summary} event holding the
+     *     {@link IntroducerSearchSummary}.</li>
+     *     <li>Events are written from the search thread, so a slow client slows the search down, and a client
+     *     that disconnects stops it.</li>
+     *     <li>Returns an HTTP 503 Service Unavailable status with a "Retry-After" header when too many searches,
+     *     overall or of this user, are running.</li>
+     * </ul>
+     *
+     * @param user      the authenticated user.
+     * @param companyId the identifier of the company.
+     * @param maxDepth  the maximum number of hops, at most {@value IntroducerSearchService#MAX_DEPTH}.
+     * @return the emitter of the events, or a 503 response if the search was rejected.
+     */
+    @RequiresRole(Role.ROLE_USER)
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamIntroducers(@AuthenticationPrincipal LinkedmeOidcUser user,
+                                                        @RequestParam long companyId,
+                                                        @RequestParam(defaultValue = "3") int maxDepth) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(error -> open.set(false));
+
+        Optional<CompletableFuture<IntroducerSearchSummary>> search = introducerSearchService.searchAsync(
+                user.getUserId(), companyId, Math.max(1, maxDepth),
+                new IntroducerSearchService.Listener() {
+                    @Override
+                    public boolean onCandidates(int depth, List<IntroducerCandidate> candidates) {
+                        return send(emitter, open, SseEmitter.event().name("candidates").data(candidates));
+                    }
+
+                    @Override
+                    public boolean onLevel(int depth, int visited) {
+                        return send(emitter, open, SseEmitter.event().name("level").id(String.valueOf(depth))
+                                .data(new Level(depth, visited)));
+                    }
+                });
+        if (search.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(RETRY_AFTER.toSeconds()))
+                    .build();
+        }
+        search.get().whenComplete((summary, error) -> {
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else if (send(emitter, open, SseEmitter.event().name("summary").data(summary))) {
+                emitter.complete();
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Sends an event unless the stream is closed.
+     *
+     * @return false if the stream is closed, e.g. because the client went away.
+     */
+    private static boolean send(SseEmitter emitter, AtomicBoolean open, SseEmitter.SseEventBuilder event) {
+        if (!open.get()) {
+            return false;
+        }
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            open.set(false);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    /**
+     * Progress of a search, sent at the end of each level.
+     *
+     * @param depth   the number of hops searched so far.
+     * @param visited the number of users reached so far.
+     */
+    public record Level(int depth, int visited) {
+    }
+}
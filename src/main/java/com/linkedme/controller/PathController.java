@@ -0,0 +1,74 @@
+package com.linkedme.controller;
+
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.graph.PathSearchService;
+import com.linkedme.model.PathMember;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.security.authorization.RequiresRole;
+import com.linkedme.security.model.LinkedmeOidcUser;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * REST controller for the chains of connections between the authenticated user and other users.
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@RestController: Marks this class as a Spring REST controller, making it capable
+ *     of handling HTTP requests and returning HTTP responses.</li>
+ *     <li>@RequestMapping: Maps the base URL for all endpoints in this controller to "/api/paths".</li>
+ *     <li>@RequiredArgsConstructor: Generates a constructor for final fields, allowing dependency injection.</li>
+ *     <li>@FieldDefaults: Sets the default access level for fields to private and makes them final.</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/paths")
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class PathController {
+
+    // Service searching the connection graph, partitioned or not
+    PathSearchService pathSearchService;
+
+    // Directory naming the users on the path
+    UserDirectoryService userDirectoryService;
+
+    /**
+     * Endpoint to find the shortest chain of connections from the authenticated user to another user.
+     *
+     * <p>Authorization:</p>
+     * <ul>
+     *     <li>@RequiresRole: Ensures that only users with the role "ROLE_USER" can access this endpoint.</li>
+     * </ul>
+     *
+     * <p>Response:</p>
+     * <ul>
+     *     <li>Returns an HTTP 200 OK status with the users on the path in JSON format, the caller first.</li>
+     *     <li>Returns an HTTP 404 Not Found status if there is no path within {@code maxDepth} hops.</li>
+     * </ul>
+     *
+     * @param user     the authenticated user.
+     * @param userId   the identifier of the user to reach.
+     * @param maxDepth the maximum number of hops, at most {@value PathSearchService#MAX_DEPTH}.
+     * @return a ResponseEntity containing the users on the path.
+     */
+    @RequiresRole(Role.ROLE_USER)
+    @GetMapping(value = "/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<PathMember>> shortestPath(@AuthenticationPrincipal LinkedmeOidcUser user,
+                                                         @PathVariable long userId,
+                                                         @RequestParam(defaultValue = "3") int maxDepth) {
+        return ResponseEntity.of(pathSearchService.shortestPath(user.getUserId(), userId, Math.max(1, maxDepth))
+                .map(path -> Arrays.stream(path).mapToObj(userDirectoryService::pathMember).toList()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.linkedme.controller;
+
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.search.SearchResult;
+import com.linkedme.search.TypeaheadSearchService;
+import com.linkedme.security.authorization.RequiresRole;
+import com.linkedme.security.model.LinkedmeOidcUser;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for the typeahead search of users and companies.
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@RestController: Marks this class as a Spring REST controller, making it capable
+ *     of handling HTTP requests and returning HTTP responses.</li>
+ *     <li>@RequestMapping: Maps the base URL for all endpoints in this controller to "/api/search".</li>
+ *     <li>@RequiredArgsConstructor: Generates a constructor for final fields, allowing dependency injection.</li>
+ *     <li>@FieldDefaults: Sets the default access level for fields to private and makes them final.</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
+public class SearchController {
+
+    /**
+     * Maximum number of results a client may ask for.
+     */
+    static final int MAX_LIMIT = 50;
+
+    // Service searching the in-memory index
+    TypeaheadSearchService typeaheadSearchService;
+
+    /**
+     * Endpoint to suggest users and companies while the caller types.
+     *
+     * <p>Authorization:</p>
+     * <ul>
+     *     <li>@RequiresRole: Ensures that only users with the role "ROLE_USER" can access this endpoint.</li>
+     * </ul>
+     *
+     * <p>Response:</p>
+     * <ul>
+     *     <li>Returns an HTTP 200 OK status with the best matches in JSON format, people and companies close
+     *     to the caller first.</li>
+     * </ul>
+     *
+     * @param user  the authenticated user.
+     * @param query the text typed so far.
+     * @param limit the maximum number of results, at most {@value #MAX_LIMIT}.
+     * @return a ResponseEntity containing the results.
+     */
+    @RequiresRole(Role.ROLE_USER)
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<SearchResult>> search(@AuthenticationPrincipal LinkedmeOidcUser user,
+                                                     @RequestParam("q") String query,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(typeaheadSearchService.search(user.getUserId(), query,
+                Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+}
@@ -1,9 +1,10 @@
 package com.linkedme.controller;
 
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.security.authorization.RequiresRole;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -32,7 +33,8 @@ public class UserController {
      *
      * <p>Authorization:</p>
      * <ul>
-     *     <li>@PreAuthorize: Ensures that only users with the role "ROLE_USER" can access this endpoint.</li>
+     *     <li>@RequiresRole: Ensures that only users with the role "ROLE_USER" can access this endpoint,
+     *     checked against the role mask of the principal.</li>
      * </ul>
      *
      * <p>Response:</p>
@@ -43,7 +45,7 @@ public class UserController {
      *
      * @return a ResponseEntity containing a greeting message.
      */
-    @PreAuthorize("hasRole('ROLE_USER')")
+    @RequiresRole(Role.ROLE_USER)
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<String> getUserS() {
         return ResponseEntity.ok("Hello User");
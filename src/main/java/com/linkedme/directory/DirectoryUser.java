@@ -0,0 +1,17 @@
+package com.linkedme.directory;
+
+import java.io.Serializable;
+
+/**
+ * A user read from the {@link OffHeapDirectory}, with what is needed to log them in or to display them.
+ *
+ * @param id          the user identifier.
+ * @param name        the name of the user.
+ * @param email       the email of the user.
+ * @param companyId   the identifier of the user's company, or null.
+ * @param companyName the name of the user's company, or null.
+ * @param roleMask    the roles of the user as a bitmask.
+ */
+public record DirectoryUser(long id, String name, String email, Long companyId, String companyName, long roleMask)
+        implements Serializable {
+}
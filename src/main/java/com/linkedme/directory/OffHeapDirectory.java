@@ -0,0 +1,584 @@
+package com.linkedme.directory;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Directory of users and companies kept outside the Java heap, so that millions of names and emails add
+ * nothing for the garbage collector to trace.
+ *
+ * <p>Everything lives in {@link MemorySegment}s:</p>
+ * <ul>
+ *     <li>strings are appended as UTF-8, prefixed by their length, to chunks of a string arena and referenced
+ *     by a {@code long} (chunk index and offset);</li>
+ *     <li>users are fixed-width records (identifier, name, email, company identifier, role mask) and companies
+ *     are records (identifier, name), both addressed by slot;</li>
+ *     <li>open-addressing hash tables with linear probing map user and company identifiers to slots, and email
+ *     hashes to user slots; an email match is confirmed by comparing the stored bytes.</li>
+ * </ul>
+ *
+ * <p>Only strings that actually change are appended again; the space of replaced strings is not reclaimed
+ * until the directory is rebuilt, which happens on every restart. Record stores and hash tables grow by
+ * doubling into a new arena and closing the previous one.</p>
+ *
+ * <p>The directory is safe for concurrent use: lookups share a read lock and updates take the write lock,
+ * which also guarantees no reader is using a segment when its arena is closed.</p>
+ */
+public class OffHeapDirectory implements AutoCloseable {
+
+    /**
+     * Size of the first string chunk; later chunks double up to {@link #MAX_STRING_CHUNK_BYTES}.
+     */
+    static final long MIN_STRING_CHUNK_BYTES = 1L << 20;
+
+    /**
+     * Maximum size of a string chunk.
+     */
+    static final long MAX_STRING_CHUNK_BYTES = 64L << 20;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final long NO_COMPANY = -1;
+
+    // User record layout
+    private static final long USER_ID = 0;
+    private static final long USER_NAME = 8;
+    private static final long USER_EMAIL = 16;
+    private static final long USER_COMPANY = 24;
+    private static final long USER_ROLES = 32;
+    private static final long USER_BYTES = 40;
+
+    // Company record layout
+    private static final long COMPANY_ID = 0;
+    private static final long COMPANY_NAME = 8;
+    private static final long COMPANY_BYTES = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StringHeap strings = new StringHeap();
+    private final Records users = new Records(USER_BYTES);
+    private final Records companies = new Records(COMPANY_BYTES);
+    private final IdIndex userSlots = new IdIndex();
+    private final IdIndex companySlots = new IdIndex();
+    private final EmailIndex emailSlots = new EmailIndex();
+
+    /**
+     * Adds or replaces a user.
+     *
+     * @param id        the user identifier.
+     * @param name      the name of the user.
+     * @param email     the email of the user.
+     * @param companyId the identifier of the user's company, or null.
+     * @param roleMask  the roles of the user as a bitmask.
+     */
+    public void putUser(long id, String name, String email, Long companyId, long roleMask) {
+        byte[] nameBytes = Objects.requireNonNull(name).getBytes(StandardCharsets.UTF_8);
+        byte[] emailBytes = Objects.requireNonNull(email).getBytes(StandardCharsets.UTF_8);
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            int slot = userSlots.get(id);
+            if (slot < 0) {
+                slot = users.add();
+                users.set(slot, USER_ID, id);
+                users.set(slot, USER_NAME, strings.add(nameBytes));
+                users.set(slot, USER_EMAIL, strings.add(emailBytes));
+                userSlots.put(id, slot);
+                emailSlots.put(hash(emailBytes), slot);
+            } else {
+                if (!strings.matches(users.get(slot, USER_NAME), nameBytes)) {
+                    users.set(slot, USER_NAME, strings.add(nameBytes));
+                }
+                long emailRef = users.get(slot, USER_EMAIL);
+                if (!strings.matches(emailRef, emailBytes)) {
+                    emailSlots.remove(hash(strings.bytes(emailRef)), slot);
+                    users.set(slot, USER_EMAIL, strings.add(emailBytes));
+                    emailSlots.put(hash(emailBytes), slot);
+                }
+            }
+            users.set(slot, USER_COMPANY, companyId == null ? NO_COMPANY : companyId);
+            users.set(slot, USER_ROLES, roleMask);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a company.
+     *
+     * @param id   the company identifier.
+     * @param name the name of the company.
+     */
+    public void putCompany(long id, String name) {
+        byte[] nameBytes = Objects.requireNonNull(name).getBytes(StandardCharsets.UTF_8);
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            int slot = companySlots.get(id);
+            if (slot < 0) {
+                slot = companies.add();
+                companies.set(slot, COMPANY_ID, id);
+                companies.set(slot, COMPANY_NAME, strings.add(nameBytes));
+                companySlots.put(id, slot);
+            } else if (!strings.matches(companies.get(slot, COMPANY_NAME), nameBytes)) {
+                companies.set(slot, COMPANY_NAME, strings.add(nameBytes));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Applies many updates under a single acquisition of the write lock, e.g. while loading the directory.
+     *
+     * @param updates calls to {@link #putUser} and {@link #putCompany}.
+     */
+    public void batch(Runnable updates) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            updates.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Finds a user by identifier.
+     *
+     * @param id the user identifier.
+     * @return the user, or empty if unknown.
+     */
+    public Optional<DirectoryUser> findById(long id) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int slot = userSlots.get(id);
+            return slot < 0 ? Optional.empty() : Optional.of(userAt(slot));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Finds a user by email, matched exactly like {@code UserRepository#findByEmail}.
+     *
+     * @param email the email of the user.
+     * @return the user, or empty if unknown.
+     */
+    public Optional<DirectoryUser> findByEmail(String email) {
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int slot = emailSlots.get(hash(emailBytes), emailBytes);
+            return slot < 0 ? Optional.empty() : Optional.of(userAt(slot));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Tells whether a user works at a company, without reading the user's strings.
+     *
+     * @param id        the user identifier.
+     * @param companyId the company identifier.
+     * @return true if the user is known and works at the company.
+     */
+    public boolean worksAt(long id, long companyId) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int slot = userSlots.get(id);
+            return slot >= 0 && users.get(slot, USER_COMPANY) == companyId;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the company of a user, without reading the user's strings.
+     *
+     * @param id the user identifier.
+     * @return the identifier of the user's company, or empty if the user is unknown or works nowhere.
+     */
+    public OptionalLong companyId(long id) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int slot = userSlots.get(id);
+            long companyId = slot < 0 ? NO_COMPANY : users.get(slot, USER_COMPANY);
+            return companyId == NO_COMPANY ? OptionalLong.empty() : OptionalLong.of(companyId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the roles of a user, without reading the user's strings.
+     *
+     * @param id the user identifier.
+     * @return the roles of the user as a bitmask, or empty if the user is unknown.
+     */
+    public OptionalLong roleMask(long id) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int slot = userSlots.get(id);
+            return slot < 0 ? OptionalLong.empty() : OptionalLong.of(users.get(slot, USER_ROLES));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the name of a company.
+     *
+     * @param id the company identifier.
+     * @return the name of the company, or empty if unknown.
+     */
+    public Optional<String> companyName(long id) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int slot = companySlots.get(id);
+            return slot < 0 ? Optional.empty() : Optional.of(strings.get(companies.get(slot, COMPANY_NAME)));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of users in the directory.
+     */
+    public int userCount() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return users.size;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of companies in the directory.
+     */
+    public int companyCount() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return companies.size;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of bytes allocated outside the heap.
+     */
+    public long offHeapBytes() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return strings.allocated + users.segment.byteSize() + companies.segment.byteSize()
+                    + userSlots.table.byteSize() + companySlots.table.byteSize() + emailSlots.table.byteSize();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Frees the memory of the directory, which must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            strings.arena.close();
+            users.arena.close();
+            companies.arena.close();
+            userSlots.arena.close();
+            companySlots.arena.close();
+            emailSlots.arena.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the user at a slot, with the name of its company. Must hold a lock.
+     */
+    private DirectoryUser userAt(int slot) {
+        long companyId = users.get(slot, USER_COMPANY);
+        String companyName = null;
+        if (companyId != NO_COMPANY) {
+            int companySlot = companySlots.get(companyId);
+            companyName = companySlot < 0 ? null : strings.get(companies.get(companySlot, COMPANY_NAME));
+        }
+        return new DirectoryUser(users.get(slot, USER_ID), strings.get(users.get(slot, USER_NAME)),
+                strings.get(users.get(slot, USER_EMAIL)), companyId == NO_COMPANY ? null : companyId, companyName,
+                users.get(slot, USER_ROLES));
+    }
+
+    /**
+     * FNV-1a hash of UTF-8 bytes, folded to an int.
+     */
+    static int hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Append-only UTF-8 strings, each prefixed by its length as an unsigned short.
+     */
+    private static final class StringHeap {
+        final Arena arena = Arena.ofShared();
+        final List<MemorySegment> chunks = new ArrayList<>();
+        MemorySegment current;
+        long position;
+        long allocated;
+
+        long add(byte[] utf8) {
+            if (utf8.length > 0xFFFF) {
+                throw new IllegalArgumentException("String of " + utf8.length + " bytes is too long");
+            }
+            long needed = 2L + utf8.length;
+            if (current == null || position + needed > current.byteSize()) {
+                long size = current == null ? MIN_STRING_CHUNK_BYTES : Math.min(MAX_STRING_CHUNK_BYTES, current.byteSize() * 2);
+                current = arena.allocate(size);
+                chunks.add(current);
+                allocated += size;
+                position = 0;
+            }
+            current.set(ValueLayout.JAVA_SHORT_UNALIGNED, position, (short) utf8.length);
+            MemorySegment.copy(utf8, 0, current, ValueLayout.JAVA_BYTE, position + 2, utf8.length);
+            long ref = ((long) (chunks.size() - 1) << 32) | position;
+            position += needed;
+            return ref;
+        }
+
+        byte[] bytes(long ref) {
+            MemorySegment chunk = chunks.get((int) (ref >>> 32));
+            long offset = ref & 0xFFFFFFFFL;
+            byte[] utf8 = new byte[Short.toUnsignedInt(chunk.get(ValueLayout.JAVA_SHORT_UNALIGNED, offset))];
+            MemorySegment.copy(chunk, ValueLayout.JAVA_BYTE, offset + 2, utf8, 0, utf8.length);
+            return utf8;
+        }
+
+        String get(long ref) {
+            return new String(bytes(ref), StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Compares a stored string to UTF-8 bytes without copying it.
+         */
+        boolean matches(long ref, byte[] utf8) {
+            MemorySegment chunk = chunks.get((int) (ref >>> 32));
+            long offset = ref & 0xFFFFFFFFL;
+            if (Short.toUnsignedInt(chunk.get(ValueLayout.JAVA_SHORT_UNALIGNED, offset)) != utf8.length) {
+                return false;
+            }
+            return MemorySegment.mismatch(chunk, offset + 2, offset + 2 + utf8.length,
+                    MemorySegment.ofArray(utf8), 0, utf8.length) == -1;
+        }
+    }
+
+    /**
+     * Growable array of fixed-width records of {@code long} fields.
+     */
+    private static final class Records {
+        final long recordBytes;
+        Arena arena = Arena.ofShared();
+        MemorySegment segment;
+        int size;
+
+        Records(long recordBytes) {
+            this.recordBytes = recordBytes;
+            this.segment = arena.allocate(recordBytes * INITIAL_CAPACITY, 8);
+        }
+
+        int add() {
+            if ((size + 1) * recordBytes > segment.byteSize()) {
+                Arena next = Arena.ofShared();
+                MemorySegment grown = next.allocate(segment.byteSize() * 2, 8);
+                MemorySegment.copy(segment, 0, grown, 0, size * recordBytes);
+                arena.close();
+                arena = next;
+                segment = grown;
+            }
+            return size++;
+        }
+
+        long get(int slot, long field) {
+            return segment.get(ValueLayout.JAVA_LONG, slot * recordBytes + field);
+        }
+
+        void set(int slot, long field, long value) {
+            segment.set(ValueLayout.JAVA_LONG, slot * recordBytes + field, value);
+        }
+    }
+
+    /**
+     * Open-addressing map from identifiers to slots. Entries are 16 bytes: the identifier, then the slot plus one
+     * so that zeroed memory reads as empty. Identifiers are never removed.
+     */
+    private static final class IdIndex {
+        Arena arena = Arena.ofShared();
+        MemorySegment table = arena.allocate(16L * INITIAL_CAPACITY, 8);
+        int capacity = INITIAL_CAPACITY;
+        int size;
+
+        int get(long id) {
+            int mask = capacity - 1;
+            for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+                int value = table.get(ValueLayout.JAVA_INT, 16L * i + 8);
+                if (value == 0) {
+                    return -1;
+                }
+                if (table.get(ValueLayout.JAVA_LONG, 16L * i) == id) {
+                    return value - 1;
+                }
+            }
+        }
+
+        void put(long id, int slot) {
+            if ((size + 1) * 3L > capacity * 2L) {
+                grow();
+            }
+            insert(table, capacity, id, slot + 1);
+            size++;
+        }
+
+        private void grow() {
+            Arena next = Arena.ofShared();
+            MemorySegment grown = next.allocate(16L * capacity * 2, 8);
+            for (int i = 0; i < capacity; i++) {
+                int value = table.get(ValueLayout.JAVA_INT, 16L * i + 8);
+                if (value != 0) {
+                    insert(grown, capacity * 2, table.get(ValueLayout.JAVA_LONG, 16L * i), value);
+                }
+            }
+            arena.close();
+            arena = next;
+            table = grown;
+            capacity *= 2;
+        }
+
+        private static void insert(MemorySegment table, int capacity, long id, int value) {
+            int mask = capacity - 1;
+            int i = mix(id) & mask;
+            while (table.get(ValueLayout.JAVA_INT, 16L * i + 8) != 0) {
+                i = (i + 1) & mask;
+            }
+            table.set(ValueLayout.JAVA_LONG, 16L * i, id);
+            table.set(ValueLayout.JAVA_INT, 16L * i + 8, value);
+        }
+    }
+
+    /**
+     * Open-addressing multimap from email hashes to user slots. Entries are 8 bytes: the hash, then the slot plus
+     * one, 0 for an empty entry or -1 for a removed one.
+     */
+    private final class EmailIndex {
+        private static final int REMOVED = -1;
+
+        Arena arena = Arena.ofShared();
+        MemorySegment table = arena.allocate(8L * INITIAL_CAPACITY, 8);
+        int capacity = INITIAL_CAPACITY;
+        int used;
+
+        /**
+         * Returns the slot of the first user whose email is the given bytes, or -1.
+         */
+        int get(int hash, byte[] email) {
+            int mask = capacity - 1;
+            for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+                int value = table.get(ValueLayout.JAVA_INT, 8L * i + 4);
+                if (value == 0) {
+                    return -1;
+                }
+                if (value != REMOVED && table.get(ValueLayout.JAVA_INT, 8L * i) == hash
+                        && strings.matches(users.get(value - 1, USER_EMAIL), email)) {
+                    return value - 1;
+                }
+            }
+        }
+
+        void put(int hash, int slot) {
+            // Removed entries still lengthen probes, so they count towards the load factor
+            if ((used + 1) * 3L > capacity * 2L) {
+                rebuild();
+            }
+            insert(table, capacity, hash, slot + 1);
+            used++;
+        }
+
+        void remove(int hash, int slot) {
+            int mask = capacity - 1;
+            for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+                int value = table.get(ValueLayout.JAVA_INT, 8L * i + 4);
+                if (value == 0) {
+                    return;
+                }
+                if (value == slot + 1) {
+                    table.set(ValueLayout.JAVA_INT, 8L * i + 4, REMOVED);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Rehashes the live entries, dropping the removed ones, into a table twice as large if needed.
+         */
+        private void rebuild() {
+            int live = 0;
+            for (int i = 0; i < capacity; i++) {
+                int value = table.get(ValueLayout.JAVA_INT, 8L * i + 4);
+                live += value > 0 ? 1 : 0;
+            }
+            int nextCapacity = (live + 1) * 3L > capacity ? capacity * 2 : capacity;
+            Arena next = Arena.ofShared();
+            MemorySegment rebuilt = next.allocate(8L * nextCapacity, 8);
+            for (int i = 0; i < capacity; i++) {
+                int value = table.get(ValueLayout.JAVA_INT, 8L * i + 4);
+                if (value > 0) {
+                    insert(rebuilt, nextCapacity, table.get(ValueLayout.JAVA_INT, 8L * i), value);
+                }
+            }
+            arena.close();
+            arena = next;
+            table = rebuilt;
+            capacity = nextCapacity;
+            used = live;
+        }
+
+        private static void insert(MemorySegment table, int capacity, int hash, int value) {
+            int mask = capacity - 1;
+            int i = mix(hash) & mask;
+            while (table.get(ValueLayout.JAVA_INT, 8L * i + 4) > 0) {
+                i = (i + 1) & mask;
+            }
+            table.set(ValueLayout.JAVA_INT, 8L * i, hash);
+            table.set(ValueLayout.JAVA_INT, 8L * i + 4, value);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.linkedme.directory;
+
+import com.linkedme.company.CompanyDictionaryService;
+import com.linkedme.model.PathMember;
+import com.linkedme.persistence.event.CompanySavedEvent;
+import com.linkedme.persistence.event.UserSavedEvent;
+import com.linkedme.persistence.projection.CompanySummary;
+import com.linkedme.persistence.projection.UserSummary;
+import com.linkedme.persistence.repository.CompanyRepository;
+import com.linkedme.persistence.repository.UserRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Looks users and companies up without loading entities, from an {@link OffHeapDirectory}.
+ *
+ * <p>The directory is loaded on startup, before the warm-up and therefore before the application reports
+ * ready, and then kept up to date from {@link UserSavedEvent}s and {@link CompanySavedEvent}s once their
+ * transaction has committed. A user saved by a transaction that has not committed yet is not found, so callers
+ * fall back to the database on a miss.</p>
+ *
+ * <p>A company is shown with the name of the company its {@link CompanyDictionaryService dictionary code}
+ * resolves to, so that every spelling of a name is displayed the same way.</p>
+ */
+@Slf4j
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE + 30) // After the search index, before the warm-up
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserDirectoryService implements ApplicationRunner, AutoCloseable {
+
+    private static final int LOAD_BATCH_SIZE = 1_000;
+
+    OffHeapDirectory directory = new OffHeapDirectory();
+    UserRepository userRepository;
+    CompanyRepository companyRepository;
+    CompanyDictionaryService companyDictionaryService;
+
+    /**
+     * Finds a user by identifier.
+     *
+     * @param id the user identifier.
+     * @return the user, or empty if unknown or not committed yet.
+     */
+    public Optional<DirectoryUser> findById(long id) {
+        return directory.findById(id);
+    }
+
+    /**
+     * Finds a user by email.
+     *
+     * @param email the email of the user.
+     * @return the user, or empty if unknown or not committed yet.
+     */
+    public Optional<DirectoryUser> findByEmail(String email) {
+        return directory.findByEmail(email);
+    }
+
+    /**
+     * Describes a user for display on a chain of connections.
+     *
+     * @param id the user identifier.
+     * @return the user's name and company, all null if the user is unknown or not committed yet.
+     */
+    public PathMember pathMember(long id) {
+        return directory.findById(id)
+                .map(user -> new PathMember(id, user.name(), user.companyId(),
+                        user.companyId() == null ? null : companyName(user.companyId()).orElse(null)))
+                .orElseGet(() -> new PathMember(id, null, null, null));
+    }
+
+    /**
+     * Tells whether a user works at a company.
+     *
+     * @param id        the user identifier.
+     * @param companyId the company identifier.
+     * @return true if the user is known and works at the company.
+     */
+    public boolean worksAt(long id, long companyId) {
+        return directory.worksAt(id, companyId);
+    }
+
+    /**
+     * Returns the company of a user.
+     *
+     * @param id the user identifier.
+     * @return the identifier of the user's company, or empty if the user is unknown, not committed yet or works
+     * nowhere.
+     */
+    public OptionalLong companyId(long id) {
+        return directory.companyId(id);
+    }
+
+    /**
+     * Returns the roles of a user, which follow role changes once their transaction has committed.
+     *
+     * @param id the user identifier.
+     * @return the roles of the user as a bitmask, or empty if the user is unknown or not committed yet.
+     */
+    public OptionalLong roleMask(long id) {
+        return directory.roleMask(id);
+    }
+
+    /**
+     * Returns the name of a company, as shown for every spelling of it.
+     *
+     * @param id the company identifier.
+     * @return the name of the company, or empty if unknown.
+     */
+    public Optional<String> companyName(long id) {
+        long canonicalId = companyDictionaryService.canonicalCompanyId(id);
+        return directory.companyName(canonicalId).or(() -> directory.companyName(id));
+    }
+
+    /**
+     * Loads every company and user into the directory.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try (Stream<CompanySummary> companies = companyRepository.streamAllSummaries()) {
+            load(companies, company -> directory.putCompany(company.id(), company.name()));
+        }
+        try (Stream<UserSummary> users = userRepository.streamAllSummaries()) {
+            load(users, user -> directory.putUser(user.id(), user.name(), user.email(), user.companyId(),
+                    user.roleMask()));
+        }
+        log.info("stage=user-directory, message=loaded, users={}, companies={}, offHeapBytes={}, durationMs={}",
+                directory.userCount(), directory.companyCount(), directory.offHeapBytes(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Stores a saved user once its transaction has committed.
+     *
+     * @param event the saved user.
+     */
+    @TransactionalEventListener
+    public void onUserSaved(UserSavedEvent event) {
+        directory.putUser(event.id(), event.name(), event.email(), event.companyId(), event.roleMask());
+    }
+
+    /**
+     * Stores a saved company once its transaction has committed.
+     *
+     * @param event the saved company.
+     */
+    @TransactionalEventListener
+    public void onCompanySaved(CompanySavedEvent event) {
+        directory.putCompany(event.id(), event.name());
+    }
+
+    /**
+     * Frees the off-heap memory on shutdown.
+     */
+    @Override
+    public void close() {
+        directory.close();
+    }
+
+    /**
+     * Stores rows in batches, each under a single acquisition of the directory write lock so that lookups can
+     * run between batches.
+     */
+    private <T> void load(Stream<T> rows, Consumer<T> put) {
+        List<T> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        for (Iterator<T> iterator = rows.iterator(); iterator.hasNext(); ) {
+            batch.add(iterator.next());
+            if (batch.size() == LOAD_BATCH_SIZE || !iterator.hasNext()) {
+                directory.batch(() -> batch.forEach(put));
+                batch.clear();
+            }
+        }
+    }
+}
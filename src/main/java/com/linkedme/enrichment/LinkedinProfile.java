@@ -0,0 +1,14 @@
+package com.linkedme.enrichment;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The profile details returned by the profile API.
+ *
+ * @param headline   the headline of the member, e.g. their current position.
+ * @param company    the name of the company the member works at.
+ * @param pictureUrl the URL of the member's profile picture.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LinkedinProfile(String headline, String company, String pictureUrl) {
+}
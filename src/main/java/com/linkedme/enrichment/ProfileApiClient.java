@@ -0,0 +1,111 @@
+package com.linkedme.enrichment;
+
+import com.linkedme.linkedin.LinkedinApiInterceptor;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Fetches member profiles from the profile API with conditional requests.
+ *
+ * <p>The validators of the previous response are sent back, its ETag in "If-None-Match" and its Last-Modified
+ * date in "If-Modified-Since", so that an unchanged profile costs a bodiless "304 Not Modified". Requests go
+ * through the {@link LinkedinApiInterceptor}, which keeps them within the quota of the profile API.</p>
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProfileApiClient {
+
+    ProfileEnrichmentProperties properties;
+    RestTemplate restTemplate;
+
+    public ProfileApiClient(ProfileEnrichmentProperties properties, RestTemplateBuilder restTemplateBuilder,
+                            LinkedinApiInterceptor linkedinApiInterceptor) {
+        this.properties = properties;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(properties.getTimeout())
+                .setReadTimeout(properties.getTimeout())
+                .additionalInterceptors(linkedinApiInterceptor)
+                .build();
+    }
+
+    /**
+     * Outcome of a profile request.
+     */
+    public enum Outcome {
+        UPDATED, NOT_MODIFIED, NOT_FOUND, FAILED
+    }
+
+    /**
+     * Result of a profile request.
+     *
+     * @param outcome      the outcome.
+     * @param profile      the profile if {@link Outcome#UPDATED}, otherwise null.
+     * @param etag         the ETag of the response, or null.
+     * @param lastModified the Last-Modified date of the response, or null.
+     */
+    public record Fetch(Outcome outcome, LinkedinProfile profile, String etag, Instant lastModified) {
+
+        static Fetch of(Outcome outcome) {
+            return new Fetch(outcome, null, null, null);
+        }
+    }
+
+    /**
+     * @return true if profiles can be fetched for users without a member token.
+     */
+    public boolean hasApiToken() {
+        return properties.getApiToken() != null && !properties.getApiToken().isBlank();
+    }
+
+    /**
+     * Fetches a profile unless it has not changed since the previous response.
+     *
+     * @param email        the email of the member.
+     * @param accessToken  the member's access token, or null to use the application token.
+     * @param etag         the ETag of the previous response, or null.
+     * @param lastModified the Last-Modified date of the previous response, or null.
+     * @return the result; failures are reported as {@link Outcome#FAILED}, never thrown.
+     */
+    public Fetch fetch(String email, String accessToken, String etag, Instant lastModified) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.setBearerAuth(accessToken != null ? accessToken : properties.getApiToken());
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        if (lastModified != null) {
+            headers.setIfModifiedSince(lastModified.toEpochMilli());
+        }
+        try {
+            ResponseEntity<LinkedinProfile> response = restTemplate.exchange(properties.getProfileUri(),
+                    HttpMethod.GET, new HttpEntity<>(headers), LinkedinProfile.class, email);
+            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                return Fetch.of(Outcome.NOT_MODIFIED);
+            }
+            long modified = response.getHeaders().getLastModified();
+            return new Fetch(Outcome.UPDATED, response.getBody(), response.getHeaders().getETag(),
+                    modified < 0 ? null : Instant.ofEpochMilli(modified));
+        } catch (HttpClientErrorException.NotFound e) {
+            return Fetch.of(Outcome.NOT_FOUND);
+        } catch (RestClientException e) {
+            log.debug("stage=profile-enrichment, message=fetch-failed, email={}", email, e);
+            return Fetch.of(Outcome.FAILED);
+        }
+    }
+}
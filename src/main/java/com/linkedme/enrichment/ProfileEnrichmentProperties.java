@@ -0,0 +1,62 @@
+package com.linkedme.enrichment;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the background profile enrichment.
+ *
+ * <p>Bound from the {@code linkedme.enrichment} prefix, e.g. {@code linkedme.enrichment.batch-size=100}.</p>
+ */
+@ConfigurationProperties(prefix = "linkedme.enrichment")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class ProfileEnrichmentProperties {
+
+    /**
+     * Whether to enrich profiles at all.
+     */
+    boolean enabled = true;
+
+    /**
+     * URI template of the profile API, expanded with the email of the member.
+     */
+    String profileUri = "https://api.linkedin.com/v2/profiles/{email}";
+
+    /**
+     * Application token used for users without a member token, e.g. imported contacts; none by default, in
+     * which case only users who log in are enriched.
+     */
+    String apiToken;
+
+    /**
+     * Maximum number of users waiting for enrichment; further users are dropped until the queue drains.
+     */
+    int queueCapacity = 10_000;
+
+    /**
+     * Maximum number of profiles fetched concurrently and written back in one transaction.
+     */
+    int batchSize = 50;
+
+    /**
+     * Time to wait for a batch to fill up once its first user is queued.
+     */
+    Duration maxBatchDelay = Duration.ofMillis(200);
+
+    /**
+     * Age under which a profile is not fetched again.
+     */
+    Duration refreshAfter = Duration.ofDays(7);
+
+    /**
+     * Timeout to connect to the profile API and to read each response.
+     */
+    Duration timeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,310 @@
+package com.linkedme.enrichment;
+
+import com.linkedme.persistence.entity.UserProfile;
+import com.linkedme.persistence.event.ConnectionsImportedEvent;
+import com.linkedme.persistence.projection.ProfileState;
+import com.linkedme.persistence.repository.UserProfileRepository;
+import com.linkedme.security.service.MemberTokenService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fills the {@link UserProfile} of users in the background, so that logins never wait for the profile API.
+ *
+ * <p>The pipeline has three stages:</p>
+ * <ul>
+ *     <li><b>Queue</b>: logins and connection imports {@link #submit} users to a bounded queue, each user at
+ *     most once while pending. Submitting never blocks: when the queue is full the user is dropped, and will be
+ *     submitted again on its next login.</li>
+ *     <li><b>Fetch</b>: a single dispatcher takes users in batches of up to {@code batch-size}, waiting at most
+ *     {@code max-batch-delay} for a batch to fill, reads their emails and profile validators with one query,
+ *     skips the profiles fetched less than {@code refresh-after} ago, and fetches the others concurrently with
+ *     conditional requests, with the token of the login, else the {@link MemberTokenService stored token} of the
+ *     user, else the application token; users with none of them are skipped. The next batch is only taken once the current one is written, which
+ *     bounds the requests in flight and lets the queue absorb bursts.</li>
+ *     <li><b>Write-back</b>: the results of a batch are written in a single transaction, with JDBC batching.</li>
+ * </ul>
+ *
+ * <p>Metrics: {@code linkedme.enrichment.queue} (queue depth), {@code linkedme.enrichment.lag} (time from
+ * submission to write-back), {@code linkedme.enrichment.batch} (time to process a batch) and
+ * {@code linkedme.enrichment.profiles} (profiles handled per outcome, whose rate is the throughput).</p>
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProfileEnrichmentService implements ApplicationRunner, AutoCloseable {
+
+    ProfileEnrichmentProperties properties;
+    ProfileApiClient profileApiClient;
+    MemberTokenService memberTokenService;
+    UserProfileRepository userProfileRepository;
+    EntityManager entityManager;
+    TransactionTemplate writeTransaction;
+    BlockingQueue<Request> queue;
+    Set<Long> pending = ConcurrentHashMap.newKeySet();
+    ExecutorService fetchers = Executors.newVirtualThreadPerTaskExecutor();
+    Thread dispatcher = Thread.ofVirtual().name("profile-enrichment").unstarted(this::dispatch);
+    Timer lagTimer;
+    Timer batchTimer;
+    Map<ProfileApiClient.Outcome, Counter> fetched = new EnumMap<>(ProfileApiClient.Outcome.class);
+    Counter skipped;
+    Counter withoutToken;
+    Counter dropped;
+
+    public ProfileEnrichmentService(ProfileEnrichmentProperties properties, ProfileApiClient profileApiClient,
+                                    MemberTokenService memberTokenService, UserProfileRepository userProfileRepository,
+                                    EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.profileApiClient = profileApiClient;
+        this.memberTokenService = memberTokenService;
+        this.userProfileRepository = userProfileRepository;
+        this.entityManager = entityManager;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("linkedme.enrichment.queue", queue, BlockingQueue::size)
+                .description("Users waiting for profile enrichment")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("linkedme.enrichment.lag")
+                .description("Time from the submission of a user to the write-back of its profile")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("linkedme.enrichment.batch")
+                .description("Time to fetch and write back a batch of profiles")
+                .register(meterRegistry);
+        for (ProfileApiClient.Outcome outcome : ProfileApiClient.Outcome.values()) {
+            fetched.put(outcome, profiles(meterRegistry, outcome.name().toLowerCase().replace('_', '-')));
+        }
+        this.skipped = profiles(meterRegistry, "fresh");
+        this.withoutToken = profiles(meterRegistry, "no-token");
+        this.dropped = profiles(meterRegistry, "dropped");
+    }
+
+    /**
+     * Queues a user for enrichment.
+     *
+     * @param userId      the user identifier.
+     * @param accessToken the user's access token, or null to use the stored token of the user, else the
+     *                    application token.
+     * @return false if the user was not queued: enrichment is disabled or the queue is full.
+     */
+    public boolean submit(long userId, String accessToken) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        if (!pending.add(userId)) {
+            return true;
+        }
+        if (!queue.offer(new Request(userId, accessToken, System.nanoTime()))) {
+            pending.remove(userId);
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Queues the contacts of an import once its transaction has committed.
+     *
+     * @param event the imported connections.
+     */
+    @TransactionalEventListener
+    public void onConnectionsImported(ConnectionsImportedEvent event) {
+        for (long contactId : event.contactIds()) {
+            submit(contactId, null);
+        }
+    }
+
+    /**
+     * @return the number of users waiting for enrichment.
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Starts the dispatcher.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.isEnabled()) {
+            dispatcher.start();
+            log.info("stage=profile-enrichment, message=started, queueCapacity={}, batchSize={}",
+                    properties.getQueueCapacity(), properties.getBatchSize());
+        }
+    }
+
+    /**
+     * Stops the dispatcher and the requests in flight on shutdown; queued users are dropped.
+     */
+    @Override
+    public void close() {
+        dispatcher.interrupt();
+        fetchers.shutdownNow();
+    }
+
+    private void dispatch() {
+        List<Request> batch = new ArrayList<>(properties.getBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + properties.getMaxBatchDelay().toNanos();
+                while (batch.size() < properties.getBatchSize()) {
+                    Request next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, properties.getBatchSize() - batch.size());
+                }
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("stage=profile-enrichment, message=batch-failed, size={}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Request> batch) throws InterruptedException {
+        long start = System.nanoTime();
+        // From now on a new login of these users queues them again
+        batch.forEach(request -> pending.remove(request.userId()));
+        Map<Long, ProfileState> states = userProfileRepository.findStates(batch.stream().map(Request::userId).toList())
+                .stream()
+                .collect(Collectors.toMap(ProfileState::userId, Function.identity()));
+
+        Instant now = Instant.now();
+        Instant freshAfter = now.minus(properties.getRefreshAfter());
+        Map<Long, Future<ProfileApiClient.Fetch>> requests = new HashMap<>();
+        for (Request request : batch) {
+            ProfileState state = states.get(request.userId());
+            if (state == null || (state.fetchedAt() != null && state.fetchedAt().isAfter(freshAfter))) {
+                skipped.increment();
+                continue;
+            }
+            requests.put(request.userId(), fetchers.submit(() -> fetch(request, state)));
+        }
+
+        Map<Long, ProfileApiClient.Fetch> results = new HashMap<>();
+        for (Map.Entry<Long, Future<ProfileApiClient.Fetch>> entry : requests.entrySet()) {
+            ProfileApiClient.Fetch result = await(entry.getValue());
+            if (result == null) {
+                withoutToken.increment();
+                continue;
+            }
+            fetched.get(result.outcome()).increment();
+            if (result.outcome() != ProfileApiClient.Outcome.FAILED) {
+                results.put(entry.getKey(), result);
+            }
+        }
+        if (!results.isEmpty()) {
+            writeTransaction.executeWithoutResult(status -> write(results, now));
+        }
+
+        long end = System.nanoTime();
+        batch.forEach(request -> lagTimer.record(end - request.enqueuedNanos(), TimeUnit.NANOSECONDS));
+        batchTimer.record(end - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Fetches the profile of a user with the token of the login that queued the user, else the stored token of
+     * the user, e.g. for the contacts of an import who logged in before, else the application token.
+     *
+     * @return the result, or null if there is no token to call the API with.
+     */
+    private ProfileApiClient.Fetch fetch(Request request, ProfileState state) throws InterruptedException {
+        String accessToken = request.accessToken() != null ? request.accessToken()
+                : memberTokenService.accessToken(request.userId()).orElse(null);
+        if (accessToken == null && !profileApiClient.hasApiToken()) {
+            return null;
+        }
+        return profileApiClient.fetch(state.email(), accessToken, state.etag(), state.lastModified());
+    }
+
+    /**
+     * Writes the results of a batch, loading the existing profiles with a single query.
+     */
+    private void write(Map<Long, ProfileApiClient.Fetch> results, Instant fetchedAt) {
+        Map<Long, UserProfile> profiles = userProfileRepository.findAllById(results.keySet()).stream()
+                .collect(Collectors.toMap(UserProfile::getUserId, Function.identity()));
+        results.forEach((userId, result) -> {
+            UserProfile profile = profiles.get(userId);
+            boolean created = profile == null;
+            if (created) {
+                profile = UserProfile.builder().userId(userId).build();
+            }
+            if (result.outcome() == ProfileApiClient.Outcome.UPDATED) {
+                LinkedinProfile details = result.profile();
+                profile.setHeadline(details == null ? null : details.headline());
+                profile.setCompany(details == null ? null : details.company());
+                profile.setPictureUrl(details == null ? null : details.pictureUrl());
+                profile.setEtag(result.etag());
+                profile.setLastModified(result.lastModified());
+            }
+            // A missing profile is not asked for again before the refresh period either
+            profile.setFetchedAt(fetchedAt);
+            if (created) {
+                entityManager.persist(profile);
+            }
+        });
+    }
+
+    private static ProfileApiClient.Fetch await(Future<ProfileApiClient.Fetch> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // The client reports failures as outcomes, this is a bug
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Counter profiles(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("linkedme.enrichment.profiles")
+                .description("Users handled by profile enrichment, per outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A user waiting for enrichment.
+     *
+     * @param userId        the user identifier.
+     * @param accessToken   the user's access token, or null to use the stored token, else the application token.
+     * @param enqueuedNanos when the user was queued, from {@link System#nanoTime()}.
+     */
+    private record Request(long userId, String accessToken, long enqueuedNanos) {
+    }
+}
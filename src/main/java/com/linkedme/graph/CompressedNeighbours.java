@@ -0,0 +1,343 @@
+package com.linkedme.graph;
+
+/**
+ * Compact encoding of a sorted list of neighbour identifiers, typically 1 to 3 bytes per edge instead of the 8
+ * of a {@code long[]}.
+ *
+ * <p>An encoded list is a single byte array:</p>
+ * <pre>
+ * varint   number of identifiers
+ * skip     one entry per block but the first: its first identifier (8 bytes) and its offset (4 bytes)
+ * blocks   {@value #BLOCK_SIZE} identifiers each, as varint deltas to the previous identifier; the first block
+ *          starts with its first identifier as a varint, later blocks take it from their skip entry
+ * </pre>
+ *
+ * <p>Identifiers are non-negative, sorted and distinct, so deltas are positive and small for dense lists. The
+ * skip entries have a fixed width and are binary searched: a membership test decodes at most one block, and
+ * {@link Cursor#nextAtLeast(long)} jumps over whole blocks when intersecting lists.</p>
+ *
+ * <p>Decoding never allocates: traversals reuse a {@link Cursor}.</p>
+ */
+public final class CompressedNeighbours {
+
+    /**
+     * Number of identifiers per block, i.e. between two skip entries.
+     */
+    static final int BLOCK_SIZE = 64;
+
+    /**
+     * Returned by {@link Cursor#nextAtLeast(long)} once the list is exhausted.
+     */
+    public static final long END = -1;
+
+    /**
+     * The encoding of an empty list.
+     */
+    public static final byte[] EMPTY = {0};
+
+    private static final int SKIP_ENTRY_BYTES = 12;
+
+    private CompressedNeighbours() {
+    }
+
+    /**
+     * Encodes a list of identifiers.
+     *
+     * @param ids    the identifiers, non-negative and strictly increasing.
+     * @param length the number of identifiers to encode from the start of {@code ids}.
+     * @return the encoded list.
+     * @throws IllegalArgumentException if the identifiers are negative or not strictly increasing.
+     */
+    public static byte[] encode(long[] ids, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        if (ids[0] < 0) {
+            throw new IllegalArgumentException("Negative identifier: " + ids[0]);
+        }
+        int blocks = blockCount(length);
+        int blocksStart = varintSize(length) + (blocks - 1) * SKIP_ENTRY_BYTES;
+
+        // First pass to size the array exactly
+        int size = blocksStart + varintSize(ids[0]);
+        for (int i = 1; i < length; i++) {
+            if (ids[i] <= ids[i - 1]) {
+                throw new IllegalArgumentException("Identifiers not strictly increasing at index " + i);
+            }
+            if (i % BLOCK_SIZE != 0) {
+                size += varintSize(ids[i] - ids[i - 1]);
+            }
+        }
+
+        byte[] data = new byte[size];
+        int skip = writeVarint(data, 0, length);
+        int position = writeVarint(data, blocksStart, ids[0]);
+        for (int i = 1; i < length; i++) {
+            if (i % BLOCK_SIZE == 0) {
+                writeLong(data, skip, ids[i]);
+                writeInt(data, skip + 8, position);
+                skip += SKIP_ENTRY_BYTES;
+            } else {
+                position = writeVarint(data, position, ids[i] - ids[i - 1]);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Decodes a list into a new array.
+     *
+     * @param data the encoded list.
+     * @return the identifiers, sorted.
+     */
+    public static long[] decode(byte[] data) {
+        Cursor cursor = new Cursor().reset(data);
+        long[] ids = new long[cursor.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = cursor.next();
+        }
+        return ids;
+    }
+
+    /**
+     * @param data the encoded list.
+     * @return the number of identifiers in the list.
+     */
+    public static int size(byte[] data) {
+        return (int) readVarint(data, 0);
+    }
+
+    /**
+     * Tests whether a list contains an identifier, decoding at most one block.
+     *
+     * @param data the encoded list.
+     * @param id   the identifier to look for.
+     * @return true if the list contains the identifier.
+     */
+    public static boolean contains(byte[] data, long id) {
+        int size = (int) readVarint(data, 0);
+        if (size == 0 || id < 0) {
+            return false;
+        }
+        int skipStart = varintSize(size);
+        int blocks = blockCount(size);
+
+        // Last block starting at or before the identifier
+        int block = 0;
+        int low = 1;
+        int high = blocks - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (readLong(data, skipStart + (middle - 1) * SKIP_ENTRY_BYTES) <= id) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        long value;
+        int position;
+        if (block == 0) {
+            position = skipStart + (blocks - 1) * SKIP_ENTRY_BYTES;
+            value = readVarint(data, position);
+            position += varintSize(value);
+        } else {
+            value = readLong(data, skipStart + (block - 1) * SKIP_ENTRY_BYTES);
+            position = readInt(data, skipStart + (block - 1) * SKIP_ENTRY_BYTES + 8);
+        }
+        for (int remaining = Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE) - 1; value < id && remaining > 0;
+             remaining--) {
+            long delta = readVarint(data, position);
+            position += varintSize(delta);
+            value += delta;
+        }
+        return value == id;
+    }
+
+    /**
+     * Counts the identifiers two lists have in common, leapfrogging through the lists with their skip entries.
+     *
+     * @param first  a cursor at the start of a list.
+     * @param second a cursor at the start of another list.
+     * @return the size of the intersection; both cursors are consumed.
+     */
+    public static int intersectionSize(Cursor first, Cursor second) {
+        if (!first.hasNext() || !second.hasNext()) {
+            return 0;
+        }
+        int count = 0;
+        long left = first.next();
+        long right = second.next();
+        while (left != END && right != END) {
+            if (left == right) {
+                count++;
+                left = first.hasNext() ? first.next() : END;
+                right = second.hasNext() ? second.next() : END;
+            } else if (left < right) {
+                left = first.nextAtLeast(right);
+            } else {
+                right = second.nextAtLeast(left);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reusable, forward-only reader of an encoded list.
+     *
+     * <p>A cursor is not thread-safe; each traversal thread keeps its own and {@link #reset resets} it onto every
+     * list it reads.</p>
+     */
+    public static final class Cursor {
+
+        private byte[] data = EMPTY;
+        private int size;
+        private int skipStart;
+        private int index;
+        private int position;
+        private long value;
+
+        /**
+         * Moves the cursor to the start of a list.
+         *
+         * @param data the encoded list.
+         * @return this cursor.
+         */
+        public Cursor reset(byte[] data) {
+            this.data = data;
+            this.size = (int) readVarint(data, 0);
+            this.skipStart = varintSize(size);
+            this.position = size == 0 ? skipStart : skipStart + (blockCount(size) - 1) * SKIP_ENTRY_BYTES;
+            this.index = 0;
+            this.value = 0;
+            return this;
+        }
+
+        /**
+         * @return the number of identifiers in the list.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return true if {@link #next()} has an identifier to return.
+         */
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        /**
+         * Returns the next identifier; must only be called if {@link #hasNext()}.
+         *
+         * @return the next identifier.
+         */
+        public long next() {
+            if (index == 0) {
+                value = readVarint(data, position);
+                position += varintSize(value);
+            } else if (index % BLOCK_SIZE == 0) {
+                int entry = skipStart + (index / BLOCK_SIZE - 1) * SKIP_ENTRY_BYTES;
+                value = readLong(data, entry);
+                position = readInt(data, entry + 8);
+            } else {
+                long delta = readVarint(data, position);
+                position += varintSize(delta);
+                value += delta;
+            }
+            index++;
+            return value;
+        }
+
+        /**
+         * Skips to the first remaining identifier greater than or equal to a target, jumping over the blocks
+         * that end before it.
+         *
+         * @param target the identifier to reach.
+         * @return the identifier reached, which is consumed, or {@link #END} if there is none.
+         */
+        public long nextAtLeast(long target) {
+            int blocks = blockCount(size);
+            int jump = -1;
+            int low = index / BLOCK_SIZE + 1;
+            int high = blocks - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (readLong(data, skipStart + (middle - 1) * SKIP_ENTRY_BYTES) <= target) {
+                    jump = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            if (jump > 0) {
+                // The next call to next() reads the first identifier of the block from its skip entry
+                index = jump * BLOCK_SIZE;
+            }
+            while (index < size) {
+                long id = next();
+                if (id >= target) {
+                    return id;
+                }
+            }
+            return END;
+        }
+    }
+
+    private static int blockCount(int size) {
+        return (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    /**
+     * Returns the number of bytes of a value encoded as an unsigned varint.
+     */
+    static int varintSize(long value) {
+        return value == 0 ? 1 : (63 - Long.numberOfLeadingZeros(value)) / 7 + 1;
+    }
+
+    private static int writeVarint(byte[] data, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * Reads an unsigned varint; the encoding being minimal, it spans {@link #varintSize} bytes of the value.
+     */
+    private static long readVarint(byte[] data, int position) {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = data[position++];
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while (current < 0);
+        return value;
+    }
+
+    private static void writeLong(byte[] data, int position, long value) {
+        writeInt(data, position, (int) (value >>> 32));
+        writeInt(data, position + 4, (int) value);
+    }
+
+    private static long readLong(byte[] data, int position) {
+        return ((long) readInt(data, position) << 32) | (readInt(data, position + 4) & 0xFFFFFFFFL);
+    }
+
+    private static void writeInt(byte[] data, int position, int value) {
+        data[position] = (byte) (value >>> 24);
+        data[position + 1] = (byte) (value >>> 16);
+        data[position + 2] = (byte) (value >>> 8);
+        data[position + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] data, int position) {
+        return (data[position] & 0xFF) << 24 | (data[position + 1] & 0xFF) << 16
+                | (data[position + 2] & 0xFF) << 8 | (data[position + 3] & 0xFF);
+    }
+}
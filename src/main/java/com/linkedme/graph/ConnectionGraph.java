@@ -0,0 +1,210 @@
+package com.linkedme.graph;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory, read-mostly copy of the "user_connection" table.
+ *
+ * <p>Each user maps to the sorted list of its contacts, encoded by {@link CompressedNeighbours} to take a few
+ * bytes per edge instead of eight, so that reading the connections of a user is a single map lookup and testing
+ * a connection decodes at most one block. Encoded lists are never modified once published: writers build a new
+ * list and swap it in, so readers need no locking. Traversals should read the lists through a reused
+ * {@link CompressedNeighbours.Cursor}, which does not allocate.</p>
+ *
+ * <p>Connections are mutual and {@link #connect(long, long[])} always records both directions. Every change
+ * increments {@link #version()}, which lets callers cache values derived from the graph.</p>
+ */
+@Component
+public class ConnectionGraph {
+
+    private final Map<Long, byte[]> adjacency = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong edges = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Returns the contacts of a user, decoded into a new array.
+     *
+     * @param userId the user identifier.
+     * @return the sorted identifiers of the user's contacts.
+     */
+    public long[] neighbours(long userId) {
+        return CompressedNeighbours.decode(encodedNeighbours(userId));
+    }
+
+    /**
+     * Moves a cursor to the start of the contacts of a user.
+     *
+     * @param userId the user identifier.
+     * @param cursor the cursor to reuse.
+     * @return the cursor, iterating over the user's contacts in increasing order.
+     */
+    public CompressedNeighbours.Cursor neighbours(long userId, CompressedNeighbours.Cursor cursor) {
+        return cursor.reset(encodedNeighbours(userId));
+    }
+
+    /**
+     * Returns the encoded contacts of a user, e.g. to send them to another shard as they are.
+     *
+     * @param userId the user identifier.
+     * @return the contacts encoded by {@link CompressedNeighbours}; the array is shared and must not be modified.
+     */
+    public byte[] encodedNeighbours(long userId) {
+        return adjacency.getOrDefault(userId, CompressedNeighbours.EMPTY);
+    }
+
+    /**
+     * @param userId the user identifier.
+     * @return the number of contacts of the user.
+     */
+    public int degree(long userId) {
+        return CompressedNeighbours.size(encodedNeighbours(userId));
+    }
+
+    /**
+     * Tests whether two users are connected.
+     *
+     * @param userId    a user identifier.
+     * @param contactId another user identifier.
+     * @return true if the users are connected.
+     */
+    public boolean connected(long userId, long contactId) {
+        return CompressedNeighbours.contains(encodedNeighbours(userId), contactId);
+    }
+
+    /**
+     * Counts the contacts two users have in common.
+     *
+     * @param userId  a user identifier.
+     * @param otherId another user identifier.
+     * @return the number of mutual contacts.
+     */
+    public int mutualConnections(long userId, long otherId) {
+        return CompressedNeighbours.intersectionSize(neighbours(userId, new CompressedNeighbours.Cursor()),
+                neighbours(otherId, new CompressedNeighbours.Cursor()));
+    }
+
+    /**
+     * Replaces the contacts of a user, e.g. while loading the graph from the database.
+     *
+     * <p>Unlike {@link #connect(long, long[])}, the reverse direction is not recorded: the caller is expected to
+     * set the contacts of every user.</p>
+     *
+     * @param userId   the user identifier.
+     * @param contacts the sorted, distinct identifiers of the user's contacts.
+     * @param length   the number of contacts to read from the start of {@code contacts}.
+     */
+    public synchronized void setNeighbours(long userId, long[] contacts, int length) {
+        store(userId, CompressedNeighbours.encode(contacts, length));
+        version.incrementAndGet();
+    }
+
+    /**
+     * Connects a user to new contacts, in both directions.
+     *
+     * <p>Writers are serialized; concurrent readers see either the previous or the new contacts of each user.</p>
+     *
+     * @param userId     the user identifier.
+     * @param contactIds the identifiers of the new contacts, in any order.
+     */
+    public synchronized void connect(long userId, long[] contactIds) {
+        long[] sorted = contactIds.clone();
+        Arrays.sort(sorted);
+        update(userId, sorted);
+        for (long contactId : sorted) {
+            if (contactId != userId) {
+                update(contactId, new long[]{userId});
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Adds contacts to a user, in this direction only.
+     *
+     * <p>Used when the graph is partitioned: the reverse direction belongs to the shard owning each contact.</p>
+     *
+     * @param userId     the user identifier.
+     * @param contactIds the identifiers of the new contacts, in any order.
+     */
+    public synchronized void addContacts(long userId, long[] contactIds) {
+        long[] sorted = contactIds.clone();
+        Arrays.sort(sorted);
+        update(userId, sorted);
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return a number incremented by every change of the graph.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * @return the number of users having at least one contact.
+     */
+    public int userCount() {
+        return adjacency.size();
+    }
+
+    /**
+     * @return the number of directed edges, i.e. twice the number of connections.
+     */
+    public long edgeCount() {
+        return edges.get();
+    }
+
+    /**
+     * @return the size in bytes of the encoded contact lists, excluding the map holding them.
+     */
+    public long adjacencyBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Adds sorted contacts to a user, swapping in a new list.
+     */
+    private void update(long userId, long[] added) {
+        long[] current = neighbours(userId);
+        long[] merged = merge(current, added, userId);
+        if (merged.length != current.length) {
+            store(userId, CompressedNeighbours.encode(merged, merged.length));
+        }
+    }
+
+    /**
+     * Swaps in the encoded contacts of a user and updates the counters. Must be called by a writer.
+     */
+    private void store(long userId, byte[] contacts) {
+        int size = CompressedNeighbours.size(contacts);
+        byte[] previous = size == 0 ? adjacency.remove(userId) : adjacency.put(userId, contacts);
+        edges.addAndGet(size - (previous == null ? 0 : CompressedNeighbours.size(previous)));
+        bytes.addAndGet((size == 0 ? 0 : contacts.length) - (previous == null ? 0 : previous.length));
+    }
+
+    /**
+     * Merges two sorted arrays, dropping duplicates and self loops.
+     */
+    private static long[] merge(long[] current, long[] added, long self) {
+        long[] merged = new long[current.length + added.length];
+        int i = 0, j = 0, size = 0;
+        while (i < current.length || j < added.length) {
+            long next;
+            if (j == added.length || (i < current.length && current[i] <= added[j])) {
+                next = current[i++];
+            } else {
+                next = added[j++];
+            }
+            if (next != self && (size == 0 || merged[size - 1] != next)) {
+                merged[size++] = next;
+            }
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+}
@@ -0,0 +1,90 @@
+package com.linkedme.graph;
+
+import com.linkedme.graph.shard.ShardServer;
+import com.linkedme.graph.shard.ShardedGraph;
+import com.linkedme.persistence.event.ConnectionsImportedEvent;
+import com.linkedme.persistence.projection.ConnectionEdge;
+import com.linkedme.persistence.repository.UserConnectionRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@link ConnectionGraph} in sync with the "user_connection" table.
+ *
+ * <p>The graph is loaded on startup, before the warm-up and therefore before the application reports ready,
+ * by streaming the connection rows ordered by owning user. Afterwards it is updated from
+ * {@link ConnectionsImportedEvent}s once the importing transaction has committed.</p>
+ *
+ * <p>When the graph is partitioned, only the rows of the users owned by this node are kept, the shard server is
+ * started once they are loaded, and imported connections are sent to the shards owning each direction.</p>
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10) // After role seeding, before the warm-up
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ConnectionGraphLoader implements ApplicationRunner {
+
+    ConnectionGraph graph;
+    ShardedGraph shardedGraph;
+    ObjectProvider<ShardServer> shardServer;
+    UserConnectionRepository userConnectionRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try (Stream<ConnectionEdge> edges = userConnectionRepository.streamAllEdges()) {
+            Iterator<ConnectionEdge> iterator = edges.iterator();
+            long userId = -1;
+            long[] contacts = new long[16];
+            int size = 0;
+            while (iterator.hasNext()) {
+                ConnectionEdge edge = iterator.next();
+                if (!shardedGraph.partitioner().isLocal(edge.userId())) {
+                    continue;
+                }
+                if (edge.userId() != userId && size > 0) {
+                    graph.setNeighbours(userId, contacts, size);
+                    size = 0;
+                }
+                userId = edge.userId();
+                if (size == contacts.length) {
+                    contacts = Arrays.copyOf(contacts, size * 2);
+                }
+                // Rows come ordered by contact, and the unique constraint rules duplicates out
+                contacts[size++] = edge.contactId();
+            }
+            if (size > 0) {
+                graph.setNeighbours(userId, contacts, size);
+            }
+        }
+        log.info("stage=connection-graph, message=loaded, users={}, edges={}, adjacencyBytes={}, durationMs={}",
+                graph.userCount(), graph.edgeCount(), graph.adjacencyBytes(), (System.nanoTime() - start) / 1_000_000);
+        shardServer.ifAvailable(ShardServer::start);
+    }
+
+    /**
+     * Adds imported connections to the graph once they are committed.
+     *
+     * @param event the imported connections.
+     */
+    @TransactionalEventListener
+    public void onConnectionsImported(ConnectionsImportedEvent event) {
+        shardedGraph.connect(event.userId(), event.contactIds());
+    }
+}
@@ -0,0 +1,128 @@
+package com.linkedme.graph;
+
+import com.linkedme.graph.shard.ShardedGraph;
+
+import java.util.Arrays;
+
+/**
+ * The users within two hops of a given user, as sorted identifier arrays.
+ *
+ * <p>The second degree is capped: past {@code maxSecondDegree} users the remaining contacts of contacts are
+ * ignored, which bounds both the time to compute a neighbourhood and its memory for highly connected users.</p>
+ *
+ * @param userId       the user the neighbourhood is centred on.
+ * @param firstDegree  the sorted identifiers of the user's contacts.
+ * @param secondDegree the sorted identifiers of the contacts of contacts that are not contacts themselves.
+ * @param version      the {@link ConnectionGraph#version()} of the local graph the neighbourhood was computed from.
+ */
+public record Neighbourhood(long userId, long[] firstDegree, long[] secondDegree, long version) {
+
+    /**
+     * Computes the neighbourhood of a user.
+     *
+     * @param graph           the connection graph.
+     * @param userId          the user identifier.
+     * @param maxSecondDegree the maximum number of second degree users to collect.
+     * @return the neighbourhood of the user.
+     */
+    public static Neighbourhood of(ConnectionGraph graph, long userId, int maxSecondDegree) {
+        long version = graph.version();
+        long[] first = graph.neighbours(userId);
+        SecondDegree second = new SecondDegree(userId, first, maxSecondDegree);
+        CompressedNeighbours.Cursor cursor = new CompressedNeighbours.Cursor();
+        for (long contactId : first) {
+            if (!second.addAll(graph.neighbours(contactId, cursor))) {
+                break;
+            }
+        }
+        return new Neighbourhood(userId, first, second.toSortedArray(), version);
+    }
+
+    /**
+     * Computes the neighbourhood of a user in a possibly partitioned graph, reading the contacts of all the
+     * user's contacts with one request per shard.
+     *
+     * @param graph           the connection graph.
+     * @param userId          the user identifier.
+     * @param maxSecondDegree the maximum number of second degree users to collect.
+     * @return the neighbourhood of the user, whose version is the one of the local partition.
+     */
+    public static Neighbourhood of(ShardedGraph graph, long userId, int maxSecondDegree) {
+        if (graph.partitioner().shardCount() == 1) {
+            return of(graph.localGraph(), userId, maxSecondDegree);
+        }
+        long version = graph.localGraph().version();
+        long[] first = graph.neighbours(userId);
+        SecondDegree second = new SecondDegree(userId, first, maxSecondDegree);
+        graph.expand(first, first.length, (contactId, contacts) -> second.addAll(contacts));
+        return new Neighbourhood(userId, first, second.toSortedArray(), version);
+    }
+
+    /**
+     * Returns the distance between the user and another user.
+     *
+     * @param otherId the other user identifier.
+     * @return 0 for the user itself, 1 or 2 for its neighbourhood, {@link Integer#MAX_VALUE} otherwise.
+     */
+    public int degreeOf(long otherId) {
+        if (otherId == userId) {
+            return 0;
+        }
+        if (Arrays.binarySearch(firstDegree, otherId) >= 0) {
+            return 1;
+        }
+        return Arrays.binarySearch(secondDegree, otherId) >= 0 ? 2 : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Collects the contacts of contacts that are neither the user nor one of its contacts, up to a maximum.
+     */
+    private static final class SecondDegree {
+        private final long userId;
+        private final long[] first;
+        private final int max;
+        private long[] users;
+        private int size;
+
+        SecondDegree(long userId, long[] first, int max) {
+            this.userId = userId;
+            this.first = first;
+            this.max = max;
+            this.users = new long[Math.min(max, 1024)];
+        }
+
+        /**
+         * @return false once the maximum is reached.
+         */
+        boolean addAll(CompressedNeighbours.Cursor contacts) {
+            while (contacts.hasNext()) {
+                long candidate = contacts.next();
+                if (candidate == userId || Arrays.binarySearch(first, candidate) >= 0) {
+                    continue;
+                }
+                if (size == users.length) {
+                    if (size == max) {
+                        return false;
+                    }
+                    users = Arrays.copyOf(users, Math.min(max, size * 2));
+                }
+                users[size++] = candidate;
+            }
+            return true;
+        }
+
+        /**
+         * Contacts of contacts are collected with duplicates, sorts and compacts them.
+         */
+        long[] toSortedArray() {
+            Arrays.sort(users, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || users[distinct - 1] != users[i]) {
+                    users[distinct++] = users[i];
+                }
+            }
+            return Arrays.copyOf(users, distinct);
+        }
+    }
+}
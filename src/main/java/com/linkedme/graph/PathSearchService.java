@@ -0,0 +1,249 @@
+package com.linkedme.graph;
+
+import com.linkedme.graph.shard.ShardedGraph;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Finds the shortest chain of connections between two users.
+ *
+ * <p>The search is a breadth-first search run level by level: the contacts of the whole frontier are read with a
+ * single {@link ShardedGraph#expand} call, so a partitioned graph answers each level with one request per shard
+ * whatever the size of the frontier, and any node can coordinate a search. The number of users visited is capped
+ * to bound the memory of a search across a dense graph. Other searches hook into each level with
+ * {@link #traverse}.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PathSearchService {
+
+    /**
+     * Maximum number of hops searched.
+     */
+    public static final int MAX_DEPTH = 6;
+
+    /**
+     * Number of visited users past which a search gives up.
+     */
+    static final int MAX_VISITED = 1_000_000;
+
+    ShardedGraph graph;
+
+    /**
+     * Receives the users first reached at each level of a traversal.
+     */
+    @FunctionalInterface
+    public interface LevelListener {
+
+        /**
+         * @param traversal the traversal so far, e.g. to find how a user was reached.
+         * @param depth     the number of hops from the first user.
+         * @param users     the sorted identifiers of the users reached at this level.
+         * @param length    the number of users at the start of {@code users}.
+         * @return false to stop the traversal.
+         */
+        boolean onLevel(Traversal traversal, int depth, long[] users, int length);
+    }
+
+    /**
+     * Finds a shortest path between two users.
+     *
+     * @param from     the identifier of the first user.
+     * @param to       the identifier of the last user.
+     * @param maxDepth the maximum number of hops, at most {@value #MAX_DEPTH}.
+     * @return the identifiers of the users on the path, both ends included, or empty if there is none within
+     * {@code maxDepth} hops or the search visited too many users.
+     */
+    public Optional<long[]> shortestPath(long from, long to, int maxDepth) {
+        if (from == to) {
+            return Optional.of(new long[]{from});
+        }
+        Traversal traversal = traverse(from, maxDepth, (current, depth, users, length) -> !current.visited(to));
+        return traversal.visited(to) ? Optional.of(traversal.pathTo(to)) : Optional.empty();
+    }
+
+    /**
+     * Traverses the graph breadth-first from a user, one level at a time.
+     *
+     * @param from     the identifier of the first user.
+     * @param maxDepth the maximum number of hops, at most {@value #MAX_DEPTH}.
+     * @param listener called once per level, in the calling thread, and able to stop the traversal.
+     * @return the traversal, ended by the listener, the maximum depth, or the number of visited users.
+     */
+    public Traversal traverse(long from, int maxDepth, LevelListener listener) {
+        Traversal traversal = new Traversal(from);
+        long[] frontier = {from};
+        int frontierSize = 1;
+        for (int depth = 1; depth <= Math.min(maxDepth, MAX_DEPTH) && frontierSize > 0; depth++) {
+            Level level = new Level(traversal.parents);
+            graph.expand(frontier, frontierSize, level::visit);
+            // Users are reached in no particular order, the next frontier must be sorted
+            frontier = level.next;
+            frontierSize = level.size;
+            Arrays.sort(frontier, 0, frontierSize);
+            if (!listener.onLevel(traversal, depth, frontier, frontierSize)
+                    || traversal.parents.size() > MAX_VISITED) {
+                break;
+            }
+        }
+        return traversal;
+    }
+
+    /**
+     * The users visited by a traversal, each with the user it was first reached from.
+     */
+    public static final class Traversal {
+        private final long from;
+        private final Parents parents = new Parents();
+
+        private Traversal(long from) {
+            this.from = from;
+            parents.putIfAbsent(from, from);
+        }
+
+        /**
+         * @param userId the user identifier.
+         * @return true if the user was reached.
+         */
+        public boolean visited(long userId) {
+            return parents.get(userId) != Parents.MISSING;
+        }
+
+        /**
+         * @return the number of users reached, the first one included.
+         */
+        public int visitedCount() {
+            return parents.size();
+        }
+
+        /**
+         * Returns the contact of the first user a reached user was reached through.
+         *
+         * @param userId the identifier of a reached user other than the first one.
+         * @return the identifier of the second user on the path to {@code userId}.
+         */
+        public long firstHopTo(long userId) {
+            long hop = userId;
+            for (long parent = parents.get(hop); parent != from; parent = parents.get(hop)) {
+                hop = parent;
+            }
+            return hop;
+        }
+
+        /**
+         * @param userId the identifier of a reached user.
+         * @return the identifiers of the users on a shortest path to {@code userId}, both ends included.
+         */
+        public long[] pathTo(long userId) {
+            long[] path = new long[MAX_DEPTH + 1];
+            int hops = 0;
+            for (long hop = userId; hop != from; hop = parents.get(hop)) {
+                path[hops++] = hop;
+            }
+            path[hops++] = from;
+            long[] ordered = new long[hops];
+            for (int i = 0; i < hops; i++) {
+                ordered[i] = path[hops - 1 - i];
+            }
+            return ordered;
+        }
+    }
+
+    /**
+     * Collects the users first reached at one level of the search.
+     */
+    private static final class Level {
+        private final Parents parents;
+        private long[] next = new long[64];
+        private int size;
+
+        Level(Parents parents) {
+            this.parents = parents;
+        }
+
+        void visit(long userId, CompressedNeighbours.Cursor contacts) {
+            while (contacts.hasNext()) {
+                long contactId = contacts.next();
+                if (parents.putIfAbsent(contactId, userId)) {
+                    if (size == next.length) {
+                        next = Arrays.copyOf(next, size * 2);
+                    }
+                    next[size++] = contactId;
+                }
+            }
+        }
+    }
+
+    /**
+     * Open-addressing map from the users reached by a traversal to the user each was reached from, to avoid
+     * boxing up to {@value #MAX_VISITED} pairs. Keys and values are interleaved, so a lookup reads a single
+     * cache line; user identifiers are non-negative, so {@link #MISSING} marks an empty entry.
+     */
+    private static final class Parents {
+        static final long MISSING = -1;
+
+        private long[] table = new long[2 * 1024];
+        private int size;
+
+        Parents() {
+            Arrays.fill(table, MISSING);
+        }
+
+        /**
+         * @return the user {@code userId} was reached from, or {@link #MISSING}.
+         */
+        long get(long userId) {
+            int mask = table.length / 2 - 1;
+            for (int i = mix(userId) & mask; table[2 * i] != MISSING; i = (i + 1) & mask) {
+                if (table[2 * i] == userId) {
+                    return table[2 * i + 1];
+                }
+            }
+            return MISSING;
+        }
+
+        /**
+         * @return true if the user was not reached yet, and is now recorded as reached from {@code parentId}.
+         */
+        boolean putIfAbsent(long userId, long parentId) {
+            if (size * 4 >= table.length / 2 * 3) {
+                long[] previous = table;
+                table = new long[previous.length * 2];
+                Arrays.fill(table, MISSING);
+                size = 0;
+                for (int i = 0; i < previous.length; i += 2) {
+                    if (previous[i] != MISSING) {
+                        putIfAbsent(previous[i], previous[i + 1]);
+                    }
+                }
+            }
+            int mask = table.length / 2 - 1;
+            int i = mix(userId) & mask;
+            while (table[2 * i] != MISSING) {
+                if (table[2 * i] == userId) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            table[2 * i] = userId;
+            table[2 * i + 1] = parentId;
+            size++;
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private static int mix(long userId) {
+            long hash = userId * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
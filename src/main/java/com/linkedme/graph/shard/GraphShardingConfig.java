@@ -0,0 +1,76 @@
+package com.linkedme.graph.shard;
+
+import com.linkedme.graph.ConnectionGraph;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the partitioned connection graph, see {@link ShardingProperties}.
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@Configuration: Marks this class as a source of bean definitions.</li>
+ *     <li>@ConditionalOnProperty: The shard server only exists when the graph is partitioned.</li>
+ * </ul>
+ *
+ * <p>A partitioned node fails to start without a {@link ShardingProperties#getSecret() shared secret}, rather
+ * than serving its partition to anyone.</p>
+ */
+@Configuration
+public class GraphShardingConfig {
+
+    /**
+     * @param properties the sharding configuration.
+     * @return how this node partitions the graph.
+     */
+    @Bean
+    public ShardPartitioner shardPartitioner(ShardingProperties properties) {
+        return properties.partitioner();
+    }
+
+    /**
+     * @param graph       the partition held by this node.
+     * @param partitioner how this node partitions the graph.
+     * @param properties  the sharding configuration.
+     * @return the graph, with clients of the other shards if it is partitioned.
+     * @throws IllegalStateException if the graph is partitioned without a shared secret.
+     */
+    @Bean
+    public ShardedGraph shardedGraph(ConnectionGraph graph, ShardPartitioner partitioner,
+                                     ShardingProperties properties) {
+        List<ShardClient> clients = new ArrayList<>();
+        byte[] secret = partitioner.shardCount() == 1 ? null : properties.secretBytes();
+        for (int shard = 0; shard < partitioner.shardCount(); shard++) {
+            clients.add(shard == partitioner.localShard() ? null
+                    : new ShardClient(ShardClient.parse(properties.getNodes().get(shard)), secret,
+                    properties.getConnectionsPerNode(), properties.getTimeout()));
+        }
+        return new ShardedGraph(graph, partitioner, clients);
+    }
+
+    /**
+     * The server is started by {@link com.linkedme.graph.ConnectionGraphLoader} once the partition is loaded.
+     *
+     * @param graph          the partition held by this node.
+     * @param eventPublisher announces the connections added by other shards.
+     * @param properties     the sharding configuration.
+     * @return the shard server of this node, listening on the configured bind address.
+     * @throws IOException           if the address of this node cannot be bound.
+     * @throws IllegalStateException if there is no shared secret.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "linkedme.graph.sharding", name = "enabled", havingValue = "true")
+    public ShardServer shardServer(ConnectionGraph graph, ApplicationEventPublisher eventPublisher,
+                                   ShardingProperties properties) throws IOException {
+        int port = ShardClient.parse(properties.getNodes().get(properties.getShardId())).getPort();
+        return new ShardServer(graph, eventPublisher, new InetSocketAddress(properties.getBindAddress(), port),
+                properties.secretBytes(), (int) properties.getMaxRequestSize().toBytes(), properties.getTimeout());
+    }
+}
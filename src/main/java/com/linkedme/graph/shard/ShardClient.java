@@ -0,0 +1,214 @@
+package com.linkedme.graph.shard;
+
+import com.linkedme.graph.CompressedNeighbours;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Client of the {@link ShardServer} of another shard, see {@link ShardProtocol}.
+ *
+ * <p>Connections are opened on demand, authenticated with the shared secret, and kept for reuse, up to a number
+ * of idle ones; a connection that fails is discarded. The client is thread-safe: concurrent requests use different connections.</p>
+ */
+public class ShardClient implements AutoCloseable {
+
+    private final InetSocketAddress address;
+    private final byte[] secret;
+    private final int timeoutMillis;
+    private final BlockingQueue<Connection> idle;
+
+    /**
+     * @param address the address of the shard server.
+     * @param secret  the secret shared by the shards.
+     * @param maxIdle the maximum number of idle connections kept open.
+     * @param timeout the timeout to connect and to wait for each response.
+     */
+    public ShardClient(InetSocketAddress address, byte[] secret, int maxIdle, Duration timeout) {
+        this.address = address;
+        this.secret = secret.clone();
+        this.timeoutMillis = (int) timeout.toMillis();
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    /**
+     * Parses a {@code host:port} address.
+     *
+     * @param node the address.
+     * @return the unresolved socket address.
+     */
+    public static InetSocketAddress parse(String node) {
+        int colon = node.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Expected host:port, got " + node);
+        }
+        return InetSocketAddress.createUnresolved(node.substring(0, colon).trim(),
+                Integer.parseInt(node.substring(colon + 1).trim()));
+    }
+
+    /**
+     * Fetches the contacts of users owned by the shard.
+     *
+     * @param frontier the users, non-negative and strictly increasing.
+     * @param length   the number of users to read from the start of {@code frontier}.
+     * @return the encoded contacts of each user, in order.
+     */
+    public byte[][] expand(long[] frontier, int length) {
+        byte[] encoded = CompressedNeighbours.encode(frontier, length);
+        ByteBuffer response = ByteBuffer.wrap(call(ShardProtocol.EXPAND, encoded, encoded.length));
+        byte[][] contacts = new byte[length][];
+        for (int i = 0; i < length; i++) {
+            contacts[i] = new byte[response.getInt()];
+            response.get(contacts[i]);
+        }
+        return contacts;
+    }
+
+    /**
+     * Adds contacts to users owned by the shard, in that direction only.
+     *
+     * @param contacts the sorted, distinct new contacts per user.
+     */
+    public void addContacts(Map<Long, long[]> contacts) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeInt(contacts.size());
+            for (Map.Entry<Long, long[]> entry : contacts.entrySet()) {
+                byte[] encoded = CompressedNeighbours.encode(entry.getValue(), entry.getValue().length);
+                out.writeLong(entry.getKey());
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        call(ShardProtocol.ADD_CONTACTS, payload.toByteArray(), payload.size());
+    }
+
+    /**
+     * @return the size of the partition held by the shard.
+     */
+    public ShardStats stats() {
+        ByteBuffer response = ByteBuffer.wrap(call(ShardProtocol.STATS, new byte[0], 0));
+        return new ShardStats(response.getInt(), response.getLong(), response.getLong());
+    }
+
+    /**
+     * Closes the idle connections.
+     */
+    @Override
+    public void close() {
+        for (Connection connection; (connection = idle.poll()) != null; ) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Sends a request and waits for its response.
+     *
+     * @throws UncheckedIOException if the shard cannot be reached, or fails to answer.
+     */
+    private byte[] call(byte type, byte[] payload, int length) {
+        Connection connection = idle.poll();
+        ShardProtocol.Frame response;
+        try {
+            if (connection == null) {
+                connection = new Connection(address, secret, timeoutMillis);
+            }
+            ShardProtocol.writeFrame(connection.out, type, payload, length);
+            response = ShardProtocol.readFrame(connection.in);
+            if (response == null) {
+                throw new IOException("Connection closed by shard " + address);
+            }
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            throw new UncheckedIOException(e);
+        }
+        // The connection is still usable after an error response
+        release(connection);
+        if (response.header() != ShardProtocol.OK) {
+            throw new UncheckedIOException(new IOException("Shard " + address + " failed: "
+                    + new String(response.payload(), StandardCharsets.UTF_8)));
+        }
+        return response.payload();
+    }
+
+    private void release(Connection connection) {
+        if (!idle.offer(connection)) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Size of the partition held by a shard.
+     *
+     * @param users          the number of users having contacts.
+     * @param edges          the number of directed edges.
+     * @param adjacencyBytes the size of the encoded contact lists.
+     */
+    public record ShardStats(int users, long edges, long adjacencyBytes) {
+    }
+
+    /**
+     * An open, authenticated connection to a shard server.
+     */
+    private static final class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        Connection(InetSocketAddress address, byte[] secret, int timeoutMillis) throws IOException {
+            socket = new Socket();
+            try {
+                socket.setTcpNoDelay(true);
+                socket.connect(new InetSocketAddress(address.getHostString(), address.getPort()), timeoutMillis);
+                socket.setSoTimeout(timeoutMillis);
+                in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                authenticate(address, secret);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Answers the challenge of the server, see {@link ShardProtocol}.
+         */
+        private void authenticate(InetSocketAddress address, byte[] secret) throws IOException {
+            ShardProtocol.Frame challenge = ShardProtocol.readFrame(in, ShardProtocol.CHALLENGE_BYTES);
+            if (challenge == null || challenge.header() != ShardProtocol.OK) {
+                throw new IOException("No handshake from shard " + address);
+            }
+            byte[] proof = ShardProtocol.proof(secret, challenge.payload());
+            ShardProtocol.writeFrame(out, ShardProtocol.AUTHENTICATE, proof, proof.length);
+            ShardProtocol.Frame result = ShardProtocol.readFrame(in);
+            if (result == null || result.header() != ShardProtocol.OK) {
+                throw new IOException("Shard " + address + " refused the shared secret");
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+}
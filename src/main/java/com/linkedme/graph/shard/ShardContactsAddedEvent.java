@@ -0,0 +1,13 @@
+package com.linkedme.graph.shard;
+
+/**
+ * Published by the {@link ShardServer} once connections sent by another shard have been added to the partition
+ * held by this node.
+ *
+ * <p>Unlike a {@link com.linkedme.persistence.event.ConnectionsImportedEvent}, it is not published within a
+ * transaction: the connections were stored by the node that imported them, this node only learns about them.</p>
+ *
+ * @param userIds the identifiers of the users of this partition whose connections changed.
+ */
+public record ShardContactsAddedEvent(long[] userIds) {
+}
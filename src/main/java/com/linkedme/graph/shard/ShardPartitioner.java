@@ -0,0 +1,42 @@
+package com.linkedme.graph.shard;
+
+/**
+ * Assigns every user of the connection graph to one shard by hashing its identifier.
+ *
+ * <p>A shard owns the contacts of its users, i.e. the rows of the "user_connection" table whose owning user it
+ * is assigned. Hashing rather than ranges of identifiers spreads the users created together, which tend to be
+ * connected together, over every shard.</p>
+ *
+ * @param shardCount the number of shards.
+ * @param localShard the shard of this node, in {@code [0, shardCount)}.
+ */
+public record ShardPartitioner(int shardCount, int localShard) {
+
+    /**
+     * A single shard owning the whole graph.
+     */
+    public static final ShardPartitioner SINGLE = new ShardPartitioner(1, 0);
+
+    public ShardPartitioner {
+        if (shardCount < 1 || localShard < 0 || localShard >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard " + localShard + " of " + shardCount);
+        }
+    }
+
+    /**
+     * @param userId the user identifier.
+     * @return the shard owning the user.
+     */
+    public int shardOf(long userId) {
+        long hash = userId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(hash ^ (hash >>> 32), shardCount);
+    }
+
+    /**
+     * @param userId the user identifier.
+     * @return true if this node owns the user.
+     */
+    public boolean isLocal(long userId) {
+        return shardCount == 1 || shardOf(userId) == localShard;
+    }
+}
@@ -0,0 +1,164 @@
+package com.linkedme.graph.shard;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Binary protocol spoken between shards over plain TCP.
+ *
+ * <p>A connection starts with a handshake proving that the client knows the secret shared by the shards: the
+ * server sends an OK response holding a random {@value #CHALLENGE_BYTES} byte challenge, the client answers
+ * with an {@link #AUTHENTICATE} request holding the HMAC-SHA256 of the challenge keyed with the secret, and the
+ * server answers OK, or ERROR and closes the connection. The secret itself never goes over the wire, but the
+ * traffic is not encrypted: shards must talk over a private network.</p>
+ *
+ * <p>A connection then carries one request at a time, each followed by its response:</p>
+ * <pre>
+ * request    type (1 byte), payload length (4 bytes), payload
+ * response   status (1 byte), payload length (4 bytes), payload; an error payload is a UTF-8 message
+ * </pre>
+ *
+ * <p>Requests:</p>
+ * <ul>
+ *     <li>{@link #EXPAND}: the sorted users of a BFS frontier owned by the shard, encoded as a
+ *     {@link com.linkedme.graph.CompressedNeighbours} list. The response holds, for each of them in order, the
+ *     length then the bytes of its encoded contacts, exactly as the shard stores them.</li>
+ *     <li>{@link #ADD_CONTACTS}: a count, then for each user owned by the shard its identifier and the length
+ *     and bytes of its new encoded contacts. The response is empty.</li>
+ *     <li>{@link #STATS}: no payload. The response holds the number of users (4 bytes), directed edges (8 bytes)
+ *     and adjacency bytes (8 bytes) of the shard.</li>
+ * </ul>
+ */
+public final class ShardProtocol {
+
+    public static final byte EXPAND = 1;
+    public static final byte ADD_CONTACTS = 2;
+    public static final byte STATS = 3;
+    public static final byte AUTHENTICATE = 4;
+
+    public static final byte OK = 0;
+    public static final byte ERROR = 1;
+
+    /**
+     * Largest payload accepted by {@link #readFrame(DataInputStream)}, to fail fast on a corrupted stream.
+     * Servers read requests with their own, lower, limit.
+     */
+    static final int MAX_PAYLOAD_BYTES = 256 << 20;
+
+    /**
+     * Size of the handshake challenge, and of its HMAC-SHA256 proof.
+     */
+    static final int CHALLENGE_BYTES = 32;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private ShardProtocol() {
+    }
+
+    /**
+     * Writes a frame, a request or a response, and flushes it.
+     *
+     * @param out     the connection output.
+     * @param header  the request type or response status.
+     * @param payload the payload.
+     * @param length  the number of payload bytes to write.
+     * @throws IOException if the connection fails.
+     */
+    public static void writeFrame(DataOutputStream out, byte header, byte[] payload, int length) throws IOException {
+        out.writeByte(header);
+        out.writeInt(length);
+        out.write(payload, 0, length);
+        out.flush();
+    }
+
+    /**
+     * Reads a frame of at most {@link #MAX_PAYLOAD_BYTES}.
+     *
+     * @param in the connection input.
+     * @return the frame, or null if the peer closed the connection before a new frame.
+     * @throws IOException if the connection fails or the frame is malformed.
+     */
+    public static Frame readFrame(DataInputStream in) throws IOException {
+        return readFrame(in, MAX_PAYLOAD_BYTES);
+    }
+
+    /**
+     * Reads a frame, refusing it before reading its payload if it is too large.
+     *
+     * @param in              the connection input.
+     * @param maxPayloadBytes the largest accepted payload.
+     * @return the frame, or null if the peer closed the connection before a new frame.
+     * @throws IOException if the connection fails or the frame is malformed or too large.
+     */
+    public static Frame readFrame(DataInputStream in, int maxPayloadBytes) throws IOException {
+        int header = in.read();
+        if (header < 0) {
+            return null;
+        }
+        int length = in.readInt();
+        if (length < 0 || length > maxPayloadBytes) {
+            throw new IOException("Invalid payload length: " + length);
+        }
+        byte[] payload = in.readNBytes(length);
+        if (payload.length != length) {
+            throw new EOFException("Truncated frame");
+        }
+        return new Frame((byte) header, payload);
+    }
+
+    /**
+     * @return a new random handshake challenge.
+     */
+    static byte[] challenge() {
+        byte[] challenge = new byte[CHALLENGE_BYTES];
+        RANDOM.nextBytes(challenge);
+        return challenge;
+    }
+
+    /**
+     * Computes the answer to a handshake challenge.
+     *
+     * @param secret    the secret shared by the shards.
+     * @param challenge the challenge sent by the server.
+     * @return the HMAC-SHA256 of the challenge keyed with the secret.
+     */
+    static byte[] proof(byte[] secret, byte[] challenge) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+            return mac.doFinal(challenge);
+        } catch (GeneralSecurityException e) {
+            // HmacSHA256 is supported by every JDK
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Checks the answer to a handshake challenge, in constant time.
+     *
+     * @param secret    the secret shared by the shards.
+     * @param challenge the challenge sent to the client.
+     * @param proof     the answer of the client.
+     * @return whether the client knows the secret.
+     */
+    static boolean verify(byte[] secret, byte[] challenge, byte[] proof) {
+        return MessageDigest.isEqual(proof(secret, challenge), proof);
+    }
+
+    /**
+     * A request or a response.
+     *
+     * @param header  the request type or response status.
+     * @param payload the payload.
+     */
+    public record Frame(byte header, byte[] payload) {
+    }
+}
@@ -0,0 +1,200 @@
+package com.linkedme.graph.shard;
+
+import com.linkedme.graph.CompressedNeighbours;
+import com.linkedme.graph.ConnectionGraph;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the partition of the connection graph held by this node to the other shards, see {@link ShardProtocol}.
+ *
+ * <p>Each connection is handled by its own virtual thread, which reads requests and answers them from the local
+ * {@link ConnectionGraph} until the peer closes the connection. A connection is only served once the peer has
+ * proven that it knows the shared secret, and must do so within the timeout.</p>
+ *
+ * <p>The memory held by a connection is bounded: a request larger than {@code maxRequestBytes} closes the
+ * connection before its payload is read, and a response buffer that grew past
+ * {@value #RETAINED_RESPONSE_BYTES} bytes is dropped once sent rather than kept for the next request.</p>
+ *
+ * <p>Connections added by another shard are announced with a {@link ShardContactsAddedEvent}, so that what this
+ * node derived from its partition is dropped as it is when the connections are imported locally.</p>
+ */
+@Slf4j
+public class ShardServer implements AutoCloseable {
+
+    /**
+     * Largest response buffer kept by a connection between requests.
+     */
+    static final int RETAINED_RESPONSE_BYTES = 1 << 20;
+
+    private final ConnectionGraph graph;
+    private final ApplicationEventPublisher eventPublisher;
+    private final byte[] secret;
+    private final int maxRequestBytes;
+    private final int timeoutMillis;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Binds the server; connections are only accepted once {@link #start() started}.
+     *
+     * @param graph           the partition of the graph held by this node.
+     * @param eventPublisher  announces the connections added by other shards.
+     * @param address         the address to listen on, port 0 for any free port.
+     * @param secret          the secret shared by the shards.
+     * @param maxRequestBytes the largest accepted request payload.
+     * @param timeout         the time a peer has to complete the handshake.
+     * @throws IOException if the address cannot be bound.
+     */
+    public ShardServer(ConnectionGraph graph, ApplicationEventPublisher eventPublisher, InetSocketAddress address,
+                       byte[] secret, int maxRequestBytes, Duration timeout) throws IOException {
+        this.graph = graph;
+        this.eventPublisher = eventPublisher;
+        this.secret = secret.clone();
+        this.maxRequestBytes = maxRequestBytes;
+        this.timeoutMillis = (int) timeout.toMillis();
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(address);
+    }
+
+    /**
+     * @return the port the server listens on.
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        executor.submit(this::accept);
+        log.info("stage=shard-server, message=started, address={}", serverSocket.getLocalSocketAddress());
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                executor.submit(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("stage=shard-server, message=accept-failed", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            if (!authenticate(socket, in, out)) {
+                log.warn("stage=shard-server, message=authentication-failed, peer={}", socket.getRemoteSocketAddress());
+                return;
+            }
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            for (ShardProtocol.Frame request; (request = ShardProtocol.readFrame(in, maxRequestBytes)) != null; ) {
+                if (response.size() > RETAINED_RESPONSE_BYTES) {
+                    response = new ByteArrayOutputStream();
+                }
+                response.reset();
+                try {
+                    handle(request, new DataOutputStream(response));
+                } catch (RuntimeException | IOException e) {
+                    log.warn("stage=shard-server, message=request-failed, type={}", request.header(), e);
+                    byte[] message = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+                    ShardProtocol.writeFrame(out, ShardProtocol.ERROR, message, message.length);
+                    continue;
+                }
+                ShardProtocol.writeFrame(out, ShardProtocol.OK, response.toByteArray(), response.size());
+            }
+        } catch (SocketException e) {
+            // The peer went away or the server is closing
+        } catch (IOException e) {
+            log.warn("stage=shard-server, message=connection-failed, peer={}", socket.getRemoteSocketAddress(), e);
+        }
+    }
+
+    /**
+     * Runs the handshake of {@link ShardProtocol}, then lifts the timeout: an authenticated peer keeps idle
+     * connections open for reuse.
+     *
+     * @return whether the peer proved it knows the secret.
+     */
+    private boolean authenticate(Socket socket, DataInputStream in, DataOutputStream out) throws IOException {
+        socket.setSoTimeout(timeoutMillis);
+        byte[] challenge = ShardProtocol.challenge();
+        ShardProtocol.writeFrame(out, ShardProtocol.OK, challenge, challenge.length);
+        ShardProtocol.Frame answer = ShardProtocol.readFrame(in, ShardProtocol.CHALLENGE_BYTES);
+        if (answer == null || answer.header() != ShardProtocol.AUTHENTICATE
+                || !ShardProtocol.verify(secret, challenge, answer.payload())) {
+            byte[] message = "Authentication failed".getBytes(StandardCharsets.UTF_8);
+            ShardProtocol.writeFrame(out, ShardProtocol.ERROR, message, message.length);
+            return false;
+        }
+        ShardProtocol.writeFrame(out, ShardProtocol.OK, new byte[0], 0);
+        socket.setSoTimeout(0);
+        return true;
+    }
+
+    private void handle(ShardProtocol.Frame request, DataOutputStream response) throws IOException {
+        switch (request.header()) {
+            case ShardProtocol.EXPAND -> {
+                CompressedNeighbours.Cursor frontier = new CompressedNeighbours.Cursor().reset(request.payload());
+                while (frontier.hasNext()) {
+                    byte[] contacts = graph.encodedNeighbours(frontier.next());
+                    response.writeInt(contacts.length);
+                    response.write(contacts);
+                }
+            }
+            case ShardProtocol.ADD_CONTACTS -> {
+                DataInputStream payload = new DataInputStream(new ByteArrayInputStream(request.payload()));
+                int count = payload.readInt();
+                // Each user takes at least its identifier and the length of its contacts
+                if (count < 0 || count > request.payload().length / (Long.BYTES + Integer.BYTES)) {
+                    throw new IllegalArgumentException("Invalid number of users: " + count);
+                }
+                long[] userIds = new long[count];
+                for (int i = 0; i < userIds.length; i++) {
+                    userIds[i] = payload.readLong();
+                    graph.addContacts(userIds[i], CompressedNeighbours.decode(payload.readNBytes(payload.readInt())));
+                }
+                eventPublisher.publishEvent(new ShardContactsAddedEvent(userIds));
+            }
+            case ShardProtocol.STATS -> {
+                response.writeInt(graph.userCount());
+                response.writeLong(graph.edgeCount());
+                response.writeLong(graph.adjacencyBytes());
+            }
+            default -> throw new IllegalArgumentException("Unknown request type: " + request.header());
+        }
+    }
+}
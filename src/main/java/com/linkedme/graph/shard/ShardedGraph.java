@@ -0,0 +1,248 @@
+package com.linkedme.graph.shard;
+
+import com.linkedme.graph.CompressedNeighbours;
+import com.linkedme.graph.ConnectionGraph;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The connection graph as seen from this node, whether it holds all of it or one partition.
+ *
+ * <p>With a single shard every call is answered by the local {@link ConnectionGraph}. Otherwise the users are
+ * partitioned by {@link ShardPartitioner}, and a call involving many users sends one request per shard owning
+ * some of them, all shards in parallel, while this node serves its own users locally. A BFS therefore sends at
+ * most one request per shard and level, whatever the size of the frontier.</p>
+ */
+@Slf4j
+public class ShardedGraph implements AutoCloseable {
+
+    private final ConnectionGraph graph;
+    private final ShardPartitioner partitioner;
+    private final ShardClient[] clients;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param graph       the partition held by this node.
+     * @param partitioner how the graph is partitioned.
+     * @param clients     a client of every shard in shard order, null for the local shard.
+     */
+    public ShardedGraph(ConnectionGraph graph, ShardPartitioner partitioner, List<ShardClient> clients) {
+        if (clients.size() != partitioner.shardCount()) {
+            throw new IllegalArgumentException(clients.size() + " clients for " + partitioner.shardCount() + " shards");
+        }
+        this.graph = graph;
+        this.partitioner = partitioner;
+        this.clients = clients.toArray(ShardClient[]::new);
+    }
+
+    /**
+     * Receives the contacts of one user.
+     */
+    @FunctionalInterface
+    public interface ContactsConsumer {
+
+        /**
+         * @param userId   the user identifier.
+         * @param contacts a cursor over the contacts of the user, only valid during the call.
+         */
+        void accept(long userId, CompressedNeighbours.Cursor contacts);
+    }
+
+    /**
+     * @return how the graph is partitioned.
+     */
+    public ShardPartitioner partitioner() {
+        return partitioner;
+    }
+
+    /**
+     * @return the partition held by this node, the whole graph with a single shard.
+     */
+    public ConnectionGraph localGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the contacts of a user, wherever it is stored.
+     *
+     * @param userId the user identifier.
+     * @return the sorted identifiers of the user's contacts.
+     */
+    public long[] neighbours(long userId) {
+        long[][] contacts = new long[1][];
+        expand(new long[]{userId}, 1, (id, cursor) -> {
+            contacts[0] = new long[cursor.size()];
+            for (int i = 0; i < contacts[0].length; i++) {
+                contacts[0][i] = cursor.next();
+            }
+        });
+        return contacts[0];
+    }
+
+    /**
+     * Reads the contacts of many users, e.g. a BFS frontier, with one request per shard.
+     *
+     * <p>The consumer is called in the calling thread, once per user: first for the local users, then shard by
+     * shard as the responses are read.</p>
+     *
+     * @param userIds  the users, non-negative and strictly increasing.
+     * @param length   the number of users to read from the start of {@code userIds}.
+     * @param consumer receives the contacts of each user.
+     * @throws UncheckedIOException if a shard cannot be reached.
+     */
+    public void expand(long[] userIds, int length, ContactsConsumer consumer) {
+        CompressedNeighbours.Cursor cursor = new CompressedNeighbours.Cursor();
+        if (partitioner.shardCount() == 1) {
+            for (int i = 0; i < length; i++) {
+                consumer.accept(userIds[i], graph.neighbours(userIds[i], cursor));
+            }
+            return;
+        }
+
+        // Split the users by shard, keeping them sorted
+        int shards = partitioner.shardCount();
+        int[] sizes = new int[shards];
+        for (int i = 0; i < length; i++) {
+            sizes[partitioner.shardOf(userIds[i])]++;
+        }
+        long[][] byShard = new long[shards][];
+        for (int shard = 0; shard < shards; shard++) {
+            byShard[shard] = new long[sizes[shard]];
+            sizes[shard] = 0;
+        }
+        for (int i = 0; i < length; i++) {
+            int shard = partitioner.shardOf(userIds[i]);
+            byShard[shard][sizes[shard]++] = userIds[i];
+        }
+
+        List<Future<byte[][]>> responses = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            ShardClient client = clients[shard];
+            long[] users = byShard[shard];
+            responses.add(shard == partitioner.localShard() || users.length == 0 ? null
+                    : executor.submit(() -> client.expand(users, users.length)));
+        }
+        for (long userId : byShard[partitioner.localShard()]) {
+            consumer.accept(userId, graph.neighbours(userId, cursor));
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            if (responses.get(shard) != null) {
+                byte[][] contacts = await(responses.get(shard));
+                for (int i = 0; i < contacts.length; i++) {
+                    consumer.accept(byShard[shard][i], cursor.reset(contacts[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Connects a user to new contacts, in both directions, each direction on the shard owning its user.
+     *
+     * <p>This is not all-or-nothing: the local shard is updated first and the other shards independently, so if
+     * one of them fails, the directions already sent stay added and the graph holds one-directional edges until
+     * the failed shard reloads its partition from the database on restart. The shards that failed are logged.</p>
+     *
+     * @param userId     the user identifier.
+     * @param contactIds the identifiers of the new contacts, in any order.
+     * @throws UncheckedIOException if a shard cannot be reached.
+     */
+    public void connect(long userId, long[] contactIds) {
+        if (partitioner.shardCount() == 1) {
+            graph.connect(userId, contactIds);
+            return;
+        }
+        long[] contacts = Arrays.stream(contactIds).filter(id -> id != userId).sorted().distinct().toArray();
+        List<Map<Long, long[]>> additions = new ArrayList<>();
+        for (int shard = 0; shard < partitioner.shardCount(); shard++) {
+            additions.add(new HashMap<>());
+        }
+        additions.get(partitioner.shardOf(userId)).put(userId, contacts);
+        for (long contactId : contacts) {
+            additions.get(partitioner.shardOf(contactId)).put(contactId, new long[]{userId});
+        }
+
+        Map<Integer, Future<?>> sent = new TreeMap<>();
+        for (int shard = 0; shard < partitioner.shardCount(); shard++) {
+            Map<Long, long[]> shardAdditions = additions.get(shard);
+            if (shard == partitioner.localShard()) {
+                shardAdditions.forEach(graph::addContacts);
+            } else if (!shardAdditions.isEmpty()) {
+                ShardClient client = clients[shard];
+                sent.put(shard, executor.submit(() -> client.addContacts(shardAdditions)));
+            }
+        }
+
+        // Wait for every shard, so that all the failures are known, before reporting the first one
+        RuntimeException failure = null;
+        List<Integer> failedShards = new ArrayList<>();
+        for (Map.Entry<Integer, Future<?>> entry : sent.entrySet()) {
+            try {
+                await(entry.getValue());
+            } catch (RuntimeException e) {
+                failedShards.add(entry.getKey());
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            log.warn("stage=shard-graph, message=partial-connect, userId={}, contacts={}, remoteShards={}, "
+                    + "failedShards={}", userId, contacts.length, sent.keySet(), failedShards);
+            throw failure;
+        }
+    }
+
+    /**
+     * @return the size of the partition of every shard, in shard order.
+     * @throws UncheckedIOException if a shard cannot be reached.
+     */
+    public List<ShardClient.ShardStats> stats() {
+        List<ShardClient.ShardStats> stats = new ArrayList<>();
+        for (int shard = 0; shard < partitioner.shardCount(); shard++) {
+            stats.add(shard == partitioner.localShard()
+                    ? new ShardClient.ShardStats(graph.userCount(), graph.edgeCount(), graph.adjacencyBytes())
+                    : clients[shard].stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Closes the connections to the other shards.
+     */
+    @Override
+    public void close() {
+        for (ShardClient client : clients) {
+            if (client != null) {
+                client.close();
+            }
+        }
+        executor.close();
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.linkedme.graph.shard;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the partitioned connection graph.
+ *
+ * <p>Bound from the {@code linkedme.graph.sharding} prefix. Every node lists the same {@code nodes}, the
+ * {@code host:port} of the shard server of each shard in shard order, and its own {@code shard-id}, e.g.
+ * {@code linkedme.graph.sharding.nodes=host-a:7700,host-b:7700 linkedme.graph.sharding.shard-id=1}.
+ * See scripts/shard-cluster.sh.</p>
+ *
+ * <p>The shard server only listens on the loopback interface unless a {@code bind-address} is set, e.g. the
+ * address of the node on the private network of the cluster. Every node must be given the same {@code secret},
+ * without which a partitioned node does not start.</p>
+ */
+@ConfigurationProperties(prefix = "linkedme.graph.sharding")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class ShardingProperties {
+
+    /**
+     * Minimum length of the {@link #secret}.
+     */
+    public static final int MIN_SECRET_LENGTH = 16;
+
+    /**
+     * Whether the graph is partitioned; when disabled this node holds the whole graph.
+     */
+    boolean enabled = false;
+
+    /**
+     * The shard of this node, an index in {@link #nodes}.
+     */
+    int shardId = 0;
+
+    /**
+     * The {@code host:port} shard server address of every shard, in shard order.
+     */
+    List<String> nodes = new ArrayList<>();
+
+    /**
+     * Address of the interface the shard server of this node listens on, its port being the one of this node
+     * in {@link #nodes}.
+     */
+    String bindAddress = "127.0.0.1";
+
+    /**
+     * Secret shared by all the shards, authenticating their connections; at least
+     * {@value #MIN_SECRET_LENGTH} characters.
+     */
+    String secret;
+
+    /**
+     * Largest request payload the shard server accepts, bounding the memory held by each connection.
+     */
+    DataSize maxRequestSize = DataSize.ofMegabytes(16);
+
+    /**
+     * Maximum number of idle connections kept open to each other shard.
+     */
+    int connectionsPerNode = 8;
+
+    /**
+     * Timeout to connect to another shard and to wait for each of its responses.
+     */
+    Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * @return the shared secret as bytes.
+     * @throws IllegalStateException if the secret is missing or too short.
+     */
+    public byte[] secretBytes() {
+        if (secret == null || secret.strip().length() < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("linkedme.graph.sharding.secret must be set to at least "
+                    + MIN_SECRET_LENGTH + " characters when the graph is partitioned");
+        }
+        return secret.strip().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return how this node partitions the graph.
+     */
+    public ShardPartitioner partitioner() {
+        return enabled ? new ShardPartitioner(nodes.size(), shardId) : ShardPartitioner.SINGLE;
+    }
+}
@@ -0,0 +1,474 @@
+package com.linkedme.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of {@link LoginRecord}s, made of memory-mapped segment files.
+ *
+ * <p>Appending is lock-free for any number of producers: a producer reserves the bytes of its record by
+ * advancing the tail of the current segment with a single atomic add, writes the record into the mapped memory,
+ * then publishes it by writing its length last, with release semantics. Readers stop at the first record whose
+ * length is still zero, so records are read in reservation order, and a record torn by a crash is never read
+ * (nor the records reserved after it in its segment). Only the producer whose reservation crosses the end of a
+ * segment takes a lock, to seal it and switch to the next one, which {@link #prepare} maps and touches in
+ * advance.</p>
+ *
+ * <p>Nothing is written to disk by the producers: {@link #force} flushes the segments periodically, so a crash
+ * of the machine loses at most one flush interval, and a crash of the process nothing at all since the pages
+ * belong to the operating system. Segments are named after their sequence number; a restarted journal reads
+ * the segments left over and appends to a new one. A journal holds an exclusive lock on the {@value #LOCK_FILE}
+ * file of its directory until closed, so that two processes never share the segments.</p>
+ *
+ * <p>Record layout, 8-byte aligned: length (int, 0 while being written, {@value #END} after the last record of
+ * a segment), failure reason length (short), outcome (byte), padding, time (long), user (long), the four stage
+ * durations (int) and the failure reason in UTF-8, truncated to {@value #MAX_REASON_BYTES} bytes so that its
+ * length fits the short and a record always fits a segment.</p>
+ */
+public class LoginJournal implements AutoCloseable {
+
+    /**
+     * Length marking the end of the records of a segment.
+     */
+    static final int END = -1;
+
+    /**
+     * Maximum length of the UTF-8 failure reason of a record; longer ones are truncated.
+     */
+    static final int MAX_REASON_BYTES = 1024;
+
+    /**
+     * Name of the file locked by the journal using the directory.
+     */
+    static final String LOCK_FILE = "journal.lock";
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("logins-(\\d{16})\\.journal");
+    private static final VarHandle LENGTH = ValueLayout.JAVA_INT.varHandle();
+    private static final long PAGE_BYTES = 4096;
+
+    // Record layout
+    private static final long RECORD_LENGTH = 0;
+    private static final long RECORD_REASON_LENGTH = 4;
+    private static final long RECORD_OUTCOME = 6;
+    private static final long RECORD_TIME = 8;
+    private static final long RECORD_USER = 16;
+    private static final long RECORD_TOKEN = 24;
+    private static final long RECORD_USER_INFO = 28;
+    private static final long RECORD_RESOLVE = 32;
+    private static final long RECORD_TOTAL = 36;
+    private static final long RECORD_HEADER_BYTES = 40;
+
+    private static final LoginOutcome[] OUTCOMES = LoginOutcome.values();
+
+    private final Path directory;
+    private final FileChannel lockChannel;
+    private final long segmentBytes;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private volatile Segment current;
+    private Segment spare;
+    private boolean closed;
+
+    /**
+     * Opens the journal, keeping the segments left over by a previous process for {@link #read}.
+     *
+     * @param directory    the directory of the segment files, created if needed.
+     * @param segmentBytes the size of a segment, rounded up to a page.
+     * @throws IOException if the directory or the first segment cannot be created, or if another journal uses
+     *                     the directory.
+     */
+    public LoginJournal(Path directory, long segmentBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = Math.max(PAGE_BYTES, (segmentBytes + PAGE_BYTES - 1) / PAGE_BYTES * PAGE_BYTES);
+        this.lockChannel = lock(directory);
+        try {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        Segment segment = Segment.map(file, Long.parseLong(matcher.group(1)), Files.size(file));
+                        segment.sealed = true;
+                        segments.put(segment.number, segment);
+                    }
+                }
+            }
+            long next = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+            current = create(next);
+        } catch (IOException | RuntimeException e) {
+            segments.values().forEach(Segment::close);
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes the exclusive lock of a journal directory, released when the returned channel is closed.
+     *
+     * @throws IOException if another journal, in this process or another one, holds the lock.
+     */
+    private static FileChannel lock(Path directory) throws IOException {
+        Path file = directory.resolve(LOCK_FILE);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("Login journal directory " + directory.toAbsolutePath()
+                    + " is in use by another journal");
+        }
+        return channel;
+    }
+
+    /**
+     * Position of the journal, between two records.
+     *
+     * @param segment the sequence number of the segment.
+     * @param offset  the offset of the next record in the segment.
+     */
+    public record Position(long segment, long offset) {
+
+        /**
+         * The position before the first record of the journal.
+         */
+        public static final Position START = new Position(0, 0);
+    }
+
+    /**
+     * A record read from the journal.
+     *
+     * @param next   the position after the record, where reading resumes.
+     * @param record the record.
+     */
+    public record Entry(Position next, LoginRecord record) {
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param record the record.
+     * @return false if the record could not be appended because no new segment could be created, or the journal
+     * is closed.
+     */
+    public boolean append(LoginRecord record) {
+        byte[] reason = record.failureReason() == null ? null : truncatedUtf8(record.failureReason());
+        int length = (int) ((RECORD_HEADER_BYTES + (reason == null ? 0 : reason.length) + 7) & ~7L);
+        while (true) {
+            Segment segment = current;
+            segment.writers.incrementAndGet();
+            if (segment.sealed) {
+                segment.writers.decrementAndGet();
+                if (!rotate(segment)) {
+                    return false;
+                }
+                continue;
+            }
+            long offset = segment.tail.getAndAdd(length);
+            if (offset + length <= segment.capacity) {
+                segment.write(offset, length, record, reason);
+                segment.writers.decrementAndGet();
+                return true;
+            }
+            // Exactly one producer crosses the end, it marks it for the readers and seals the segment
+            boolean crossing = offset <= segment.capacity;
+            if (crossing && offset < segment.capacity) {
+                LENGTH.setRelease(segment.memory, offset, END);
+            }
+            if (crossing) {
+                segment.sealed = true;
+            }
+            segment.writers.decrementAndGet();
+            if (!rotate(segment)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Encodes a failure reason in UTF-8, cut to at most {@value #MAX_REASON_BYTES} bytes on a character boundary.
+     */
+    static byte[] truncatedUtf8(String reason) {
+        byte[] bytes = reason.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_REASON_BYTES) {
+            return bytes;
+        }
+        int length = MAX_REASON_BYTES;
+        // Back to the first byte of the character cut in half, if any
+        while ((bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Reads the records published after a position, in the order they were appended.
+     *
+     * @param from the position to read from, e.g. the {@link Entry#next} of the last record read.
+     * @param max  the maximum number of records to read.
+     * @param into the list the entries are added to.
+     * @return the position after the last record read.
+     */
+    public Position read(Position from, int max, List<Entry> into) {
+        long number = from.segment();
+        long offset = from.offset();
+        int read = 0;
+        while (read < max) {
+            Segment segment = segments.get(number);
+            if (segment == null) {
+                Long next = segments.higherKey(number);
+                if (next == null) {
+                    break;
+                }
+                number = next;
+                offset = 0;
+                continue;
+            }
+            int length = offset + RECORD_HEADER_BYTES <= segment.capacity
+                    ? (int) LENGTH.getAcquire(segment.memory, offset) : END;
+            if (length > 0) {
+                offset += length;
+                into.add(new Entry(new Position(number, offset), segment.decode(offset - length)));
+                read++;
+                continue;
+            }
+            // A zero length is a record still being written, unless nobody can write to the segment any more
+            if (length == 0 && !segment.drained()) {
+                break;
+            }
+            Long next = segments.higherKey(number);
+            if (next == null) {
+                break;
+            }
+            number = next;
+            offset = 0;
+        }
+        return new Position(number, offset);
+    }
+
+    /**
+     * Flushes the segments written since the previous call to the storage device.
+     */
+    public void force() {
+        for (Segment segment : segments.values()) {
+            if (segment.dirty) {
+                // Cleared first: a record published during the flush marks the segment again
+                segment.dirty = false;
+                segment.memory.force();
+            }
+        }
+    }
+
+    /**
+     * Maps and touches the next segment ahead of time, so that switching to it does not stall a producer.
+     *
+     * @throws IOException if the segment file cannot be created.
+     */
+    public synchronized void prepare() throws IOException {
+        if (spare == null) {
+            spare = create(current.number + 1);
+        }
+    }
+
+    /**
+     * Deletes the segments that were entirely read and were last written before the retention period.
+     *
+     * @param position  the position up to which records are no longer needed.
+     * @param retention how long read segments are kept.
+     * @return the number of segments deleted.
+     * @throws IOException if a segment file cannot be deleted.
+     */
+    public int release(Position position, Duration retention) throws IOException {
+        Instant expiry = Instant.now().minus(retention);
+        int deleted = 0;
+        for (Map.Entry<Long, Segment> entry : segments.headMap(position.segment()).entrySet()) {
+            Segment segment = entry.getValue();
+            if (segment.drained() && Files.getLastModifiedTime(segment.file).toInstant().isBefore(expiry)) {
+                segments.remove(entry.getKey());
+                segment.close();
+                Files.delete(segment.file);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * @return the number of segment files.
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Flushes and unmaps the segments, once the records being appended are published; later appends fail.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        current.sealed = true;
+        while (current.writers.get() > 0) {
+            Thread.onSpinWait();
+        }
+        for (Segment segment : segments.values()) {
+            segment.memory.force();
+            segment.close();
+        }
+        segments.clear();
+        spare = null;
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Switches from a full segment to the next one, unless another producer already did.
+     *
+     * @return false if the next segment cannot be created, or the journal is closed.
+     */
+    private synchronized boolean rotate(Segment full) {
+        if (closed) {
+            return false;
+        }
+        if (current != full) {
+            return true;
+        }
+        full.sealed = true;
+        try {
+            Segment next = spare != null ? spare : create(full.number + 1);
+            spare = null;
+            current = next;
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Segment create(long number) throws IOException {
+        Segment segment = Segment.map(directory.resolve("logins-%016d.journal".formatted(number)), number,
+                segmentBytes);
+        // Fault the pages in now rather than on the first record written to each of them
+        for (long page = 0; page < segment.capacity; page += PAGE_BYTES) {
+            segment.memory.set(ValueLayout.JAVA_BYTE, page, (byte) 0);
+        }
+        segments.put(number, segment);
+        return segment;
+    }
+
+    /**
+     * A mapped segment file.
+     */
+    private static final class Segment {
+        final Path file;
+        final long number;
+        final long capacity;
+        final Arena arena;
+        final MemorySegment memory;
+        final AtomicLong tail = new AtomicLong();
+        // Producers between checking that the segment is open and publishing their record
+        final AtomicInteger writers = new AtomicInteger();
+        volatile boolean sealed;
+        volatile boolean dirty;
+
+        private Segment(Path file, long number, Arena arena, MemorySegment memory) {
+            this.file = file;
+            this.number = number;
+            this.arena = arena;
+            this.memory = memory;
+            this.capacity = memory.byteSize();
+        }
+
+        static Segment map(Path file, long number, long bytes) throws IOException {
+            Arena arena = Arena.ofShared();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                return new Segment(file, number, arena, channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes, arena));
+            } catch (IOException | RuntimeException e) {
+                arena.close();
+                throw e;
+            }
+        }
+
+        void write(long offset, int length, LoginRecord record, byte[] reason) {
+            memory.set(ValueLayout.JAVA_SHORT, offset + RECORD_REASON_LENGTH,
+                    (short) (reason == null ? -1 : reason.length));
+            memory.set(ValueLayout.JAVA_BYTE, offset + RECORD_OUTCOME, (byte) record.outcome().ordinal());
+            memory.set(ValueLayout.JAVA_LONG, offset + RECORD_TIME, record.epochMillis());
+            memory.set(ValueLayout.JAVA_LONG, offset + RECORD_USER, record.userId());
+            memory.set(ValueLayout.JAVA_INT, offset + RECORD_TOKEN, record.tokenMicros());
+            memory.set(ValueLayout.JAVA_INT, offset + RECORD_USER_INFO, record.userInfoMicros());
+            memory.set(ValueLayout.JAVA_INT, offset + RECORD_RESOLVE, record.resolveMicros());
+            memory.set(ValueLayout.JAVA_INT, offset + RECORD_TOTAL, record.totalMicros());
+            if (reason != null) {
+                MemorySegment.copy(reason, 0, memory, ValueLayout.JAVA_BYTE, offset + RECORD_HEADER_BYTES,
+                        reason.length);
+            }
+            LENGTH.setRelease(memory, offset + RECORD_LENGTH, length);
+            // Read first, so that producers do not all write the same cache line
+            if (!dirty) {
+                dirty = true;
+            }
+        }
+
+        LoginRecord decode(long offset) {
+            short reasonLength = memory.get(ValueLayout.JAVA_SHORT, offset + RECORD_REASON_LENGTH);
+            String reason = null;
+            if (reasonLength >= 0) {
+                byte[] bytes = new byte[reasonLength];
+                MemorySegment.copy(memory, ValueLayout.JAVA_BYTE, offset + RECORD_HEADER_BYTES, bytes, 0,
+                        reasonLength);
+                reason = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new LoginRecord(memory.get(ValueLayout.JAVA_LONG, offset + RECORD_USER),
+                    memory.get(ValueLayout.JAVA_LONG, offset + RECORD_TIME),
+                    OUTCOMES[memory.get(ValueLayout.JAVA_BYTE, offset + RECORD_OUTCOME)],
+                    memory.get(ValueLayout.JAVA_INT, offset + RECORD_TOKEN),
+                    memory.get(ValueLayout.JAVA_INT, offset + RECORD_USER_INFO),
+                    memory.get(ValueLayout.JAVA_INT, offset + RECORD_RESOLVE),
+                    memory.get(ValueLayout.JAVA_INT, offset + RECORD_TOTAL), reason);
+        }
+
+        /**
+         * @return true once no record can be published in the segment any more.
+         */
+        boolean drained() {
+            return sealed && writers.get() == 0;
+        }
+
+        void close() {
+            try {
+                arena.close();
+            } catch (IllegalStateException e) {
+                throw new UncheckedIOException(new IOException("Segment " + file + " still in use", e));
+            }
+        }
+    }
+}
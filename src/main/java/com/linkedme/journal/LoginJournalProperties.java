@@ -0,0 +1,58 @@
+package com.linkedme.journal;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the login activity journal.
+ *
+ * <p>Bound from the {@code linkedme.login-journal} prefix, e.g. {@code linkedme.login-journal.segment-size=64MB}.</p>
+ */
+@ConfigurationProperties(prefix = "linkedme.login-journal")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class LoginJournalProperties {
+
+    /**
+     * Whether to record login activity at all.
+     */
+    boolean enabled = true;
+
+    /**
+     * Directory of the segment files.
+     */
+    Path directory = Path.of("journal", "logins");
+
+    /**
+     * Size of a segment file.
+     */
+    DataSize segmentSize = DataSize.ofMegabytes(16);
+
+    /**
+     * Interval between two flushes of the segments to disk, the most a machine crash can lose.
+     */
+    Duration fsyncInterval = Duration.ofSeconds(1);
+
+    /**
+     * Interval between two loads when the journal has no new record.
+     */
+    Duration loadInterval = Duration.ofMillis(500);
+
+    /**
+     * Maximum number of records inserted in one transaction.
+     */
+    int batchSize = 500;
+
+    /**
+     * How long segments are kept once loaded.
+     */
+    Duration retention = Duration.ofDays(7);
+}
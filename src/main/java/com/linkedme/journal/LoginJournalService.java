@@ -0,0 +1,235 @@
+package com.linkedme.journal;
+
+import com.linkedme.persistence.entity.LoginActivity;
+import com.linkedme.persistence.repository.LoginActivityRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Records login activity without slowing logins down.
+ *
+ * <p>{@link #record} appends to the memory-mapped {@link LoginJournal}, which costs a few hundred nanoseconds
+ * and never touches the database. Two background threads do the rest:</p>
+ * <ul>
+ *     <li>the <b>flusher</b> forces the segments to disk every {@code fsync-interval}, maps the next segment
+ *     ahead of time and deletes the segments loaded more than {@code retention} ago;</li>
+ *     <li>the <b>loader</b> reads the journal from where the {@code login_activity} table ends and inserts the
+ *     records in batches of up to {@code batch-size}, each batch in one transaction with JDBC batching.</li>
+ * </ul>
+ *
+ * <p>Metrics: {@code linkedme.login-journal.records} (records appended, dropped and loaded),
+ * {@code linkedme.login-journal.backlog} (records appended but not loaded yet) and
+ * {@code linkedme.login-journal.load} (time to insert a batch).</p>
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LoginJournalService implements ApplicationRunner, AutoCloseable {
+
+    LoginJournalProperties properties;
+    LoginActivityRepository loginActivityRepository;
+    EntityManager entityManager;
+    TransactionTemplate writeTransaction;
+    LoginJournal journal;
+    Thread flusher = Thread.ofVirtual().name("login-journal-flusher").unstarted(this::flush);
+    Thread loader = Thread.ofVirtual().name("login-journal-loader").unstarted(this::load);
+    Counter appended;
+    Counter dropped;
+    Counter loaded;
+    Timer loadTimer;
+
+    // Position up to which the records are in the database, segments before it may be deleted
+    AtomicReference<LoginJournal.Position> loadedPosition = new AtomicReference<>(LoginJournal.Position.START);
+
+    public LoginJournalService(LoginJournalProperties properties, LoginActivityRepository loginActivityRepository,
+                               EntityManager entityManager, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.loginActivityRepository = loginActivityRepository;
+        this.entityManager = entityManager;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        try {
+            this.journal = properties.isEnabled()
+                    ? new LoginJournal(properties.getDirectory(), properties.getSegmentSize().toBytes()) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the login journal in " + properties.getDirectory(), e);
+        }
+        this.appended = records(meterRegistry, "appended");
+        this.dropped = records(meterRegistry, "dropped");
+        this.loaded = records(meterRegistry, "loaded");
+        Gauge.builder("linkedme.login-journal.backlog", this, LoginJournalService::backlog)
+                .description("Login records appended but not loaded yet")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("linkedme.login-journal.load")
+                .description("Time to insert a batch of login records")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a login attempt; never blocks and never fails.
+     *
+     * @param record the login attempt.
+     */
+    public void record(LoginRecord record) {
+        if (journal == null) {
+            return;
+        }
+        if (journal.append(record)) {
+            appended.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Finds the latest logins of a user loaded so far.
+     *
+     * @param userId the user identifier.
+     * @param limit  the maximum number of logins.
+     * @return the logins, latest first.
+     */
+    public List<LoginActivity> recentLogins(long userId, int limit) {
+        return loginActivityRepository.findByUserIdOrderByLoggedAtDesc(userId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Starts the flusher and the loader.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (journal != null) {
+            flusher.start();
+            loader.start();
+            log.info("stage=login-journal, message=started, directory={}, segments={}",
+                    properties.getDirectory().toAbsolutePath(), journal.segmentCount());
+        }
+    }
+
+    /**
+     * Stops the background threads and flushes the journal; records not loaded yet are loaded on the next start.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        if (journal == null) {
+            return;
+        }
+        flusher.interrupt();
+        loader.interrupt();
+        for (Thread thread : List.of(flusher, loader)) {
+            if (thread.isAlive()) {
+                thread.join();
+            }
+        }
+        journal.close();
+    }
+
+    private void flush() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(properties.getFsyncInterval().toNanos());
+                journal.force();
+                journal.prepare();
+                int deleted = journal.release(loadedPosition.get(), properties.getRetention());
+                if (deleted > 0) {
+                    log.info("stage=login-journal, message=segments-deleted, count={}", deleted);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                log.warn("stage=login-journal, message=flush-failed", e);
+            }
+        }
+    }
+
+    private void load() {
+        LoginJournal.Position position = loginActivityRepository
+                .findTopByOrderByJournalSegmentDescJournalNextOffsetDesc()
+                .map(last -> new LoginJournal.Position(last.getJournalSegment(), last.getJournalNextOffset()))
+                .orElse(LoginJournal.Position.START);
+        List<LoginJournal.Entry> batch = new ArrayList<>(properties.getBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                LoginJournal.Position next = journal.read(position, properties.getBatchSize(), batch);
+                if (!batch.isEmpty()) {
+                    long start = System.nanoTime();
+                    writeTransaction.executeWithoutResult(status -> batch.forEach(
+                            entry -> entityManager.persist(toActivity(entry))));
+                    loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    loaded.increment(batch.size());
+                }
+                position = next;
+                loadedPosition.set(position);
+                if (batch.size() < properties.getBatchSize()) {
+                    TimeUnit.NANOSECONDS.sleep(properties.getLoadInterval().toNanos());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // The batch is read again from the same position
+                log.warn("stage=login-journal, message=load-failed, size={}", batch.size(), e);
+                sleepQuietly();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private double backlog() {
+        return Math.max(0, appended.count() - loaded.count());
+    }
+
+    private static LoginActivity toActivity(LoginJournal.Entry entry) {
+        LoginRecord record = entry.record();
+        return LoginActivity.builder()
+                .userId(record.userId() == LoginRecord.UNKNOWN ? null : record.userId())
+                .loggedAt(Instant.ofEpochMilli(record.epochMillis()))
+                .outcome(record.outcome())
+                .tokenMicros(stage(record.tokenMicros()))
+                .userInfoMicros(stage(record.userInfoMicros()))
+                .resolveMicros(stage(record.resolveMicros()))
+                .totalMicros(record.totalMicros())
+                .failureReason(record.failureReason())
+                .journalSegment(entry.next().segment())
+                .journalNextOffset(entry.next().offset())
+                .build();
+    }
+
+    private static Integer stage(int micros) {
+        return micros == LoginRecord.UNKNOWN ? null : micros;
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.NANOSECONDS.sleep(properties.getLoadInterval().toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Counter records(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("linkedme.login-journal.records")
+                .description("Login records per outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
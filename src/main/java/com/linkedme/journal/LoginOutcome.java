@@ -0,0 +1,8 @@
+package com.linkedme.journal;
+
+/**
+ * Outcome of a login attempt.
+ */
+public enum LoginOutcome {
+    SUCCESS, FAILURE
+}
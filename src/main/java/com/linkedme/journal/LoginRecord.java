@@ -0,0 +1,37 @@
+package com.linkedme.journal;
+
+/**
+ * A login attempt, as appended to the {@link LoginJournal}.
+ *
+ * @param userId         the local user identifier, or {@link #UNKNOWN} if the login failed before the user was
+ *                       resolved.
+ * @param epochMillis    when the login ended.
+ * @param outcome        the outcome of the login.
+ * @param tokenMicros    time spent exchanging the authorization code, or {@link #UNKNOWN} if not reached.
+ * @param userInfoMicros time spent loading the userinfo, or {@link #UNKNOWN} if not reached.
+ * @param resolveMicros  time spent finding or creating the local user, or {@link #UNKNOWN} if not reached.
+ * @param totalMicros    time from the code exchange to the end of the login.
+ * @param failureReason  why the login failed, at most {@value #MAX_REASON_LENGTH} characters, or null.
+ */
+public record LoginRecord(long userId, long epochMillis, LoginOutcome outcome, int tokenMicros, int userInfoMicros,
+                          int resolveMicros, int totalMicros, String failureReason) {
+
+    /**
+     * Value of the user and of the stages a login did not get to.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Maximum length of the failure reason, longer ones are truncated.
+     */
+    public static final int MAX_REASON_LENGTH = 255;
+
+    public LoginRecord {
+        if (failureReason != null && failureReason.length() > MAX_REASON_LENGTH) {
+            // Never split a surrogate pair
+            int end = Character.isHighSurrogate(failureReason.charAt(MAX_REASON_LENGTH - 1))
+                    ? MAX_REASON_LENGTH - 1 : MAX_REASON_LENGTH;
+            failureReason = failureReason.substring(0, end);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.linkedme.journal;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Durations of the stages of a login, collected along the OAuth2 callback and turned into a {@link LoginRecord}
+ * by the success or failure handler.
+ *
+ * <p>The trace is kept in a request attribute, so that it ends with the callback request whatever happens.
+ * Stages not reached stay {@link LoginRecord#UNKNOWN}.</p>
+ */
+public final class LoginTrace {
+
+    private static final String ATTRIBUTE = LoginTrace.class.getName();
+
+    private final long startNanos = System.nanoTime();
+    private int tokenMicros = LoginRecord.UNKNOWN;
+    private int userInfoMicros = LoginRecord.UNKNOWN;
+    private int resolveMicros = LoginRecord.UNKNOWN;
+
+    private LoginTrace() {
+    }
+
+    /**
+     * @return the trace of the login handled by the current request, started by the first call.
+     */
+    public static LoginTrace current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new LoginTrace();
+        }
+        LoginTrace trace = (LoginTrace) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (trace == null) {
+            trace = new LoginTrace();
+            attributes.setAttribute(ATTRIBUTE, trace, RequestAttributes.SCOPE_REQUEST);
+        }
+        return trace;
+    }
+
+    /**
+     * Ends the trace of a login.
+     *
+     * @param request       the OAuth2 callback request.
+     * @param userId        the local user identifier, or {@link LoginRecord#UNKNOWN}.
+     * @param outcome       the outcome of the login.
+     * @param failureReason why the login failed, or null.
+     * @return the record of the login, timed from the first stage, or from now if no stage was traced.
+     */
+    public static LoginRecord finish(HttpServletRequest request, long userId, LoginOutcome outcome,
+                                     String failureReason) {
+        LoginTrace trace = (LoginTrace) request.getAttribute(ATTRIBUTE);
+        request.removeAttribute(ATTRIBUTE);
+        if (trace == null) {
+            trace = new LoginTrace();
+        }
+        return new LoginRecord(userId, System.currentTimeMillis(), outcome, trace.tokenMicros, trace.userInfoMicros,
+                trace.resolveMicros, micros(System.nanoTime() - trace.startNanos), failureReason);
+    }
+
+    /**
+     * @param nanos time spent exchanging the authorization code.
+     */
+    public void token(long nanos) {
+        tokenMicros = micros(nanos);
+    }
+
+    /**
+     * @param nanos time spent loading the userinfo.
+     */
+    public void userInfo(long nanos) {
+        userInfoMicros = micros(nanos);
+    }
+
+    /**
+     * @param nanos time spent finding or creating the local user.
+     */
+    public void resolve(long nanos) {
+        resolveMicros = micros(nanos);
+    }
+
+    private static int micros(long nanos) {
+        return (int) Math.min(Integer.MAX_VALUE, nanos / 1_000);
+    }
+}
@@ -0,0 +1,62 @@
+package com.linkedme.linkedin;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.security.oauth2.client.endpoint.DefaultRefreshTokenTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2RefreshTokenGrantRequest;
+import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.core.http.converter.OAuth2AccessTokenResponseHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+/**
+ * Clients of the LinkedIn endpoints called by Spring Security, going through the {@link LinkedinApiInterceptor}.
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@Configuration: Marks this class as a source of bean definitions.</li>
+ * </ul>
+ */
+@Configuration
+public class LinkedinApiConfig {
+
+    /**
+     * The userinfo client of {@link com.linkedme.security.service.LinkedinOidUserService}, configured like the
+     * default one of Spring Security apart from the interceptor.
+     *
+     * @param linkedinApiInterceptor the rate limiting interceptor.
+     * @return the userinfo client.
+     */
+    @Bean
+    public DefaultOAuth2UserService linkedinUserInfoService(LinkedinApiInterceptor linkedinApiInterceptor) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setErrorHandler(new OAuth2ErrorResponseErrorHandler());
+        restTemplate.getInterceptors().add(linkedinApiInterceptor);
+        DefaultOAuth2UserService userInfoService = new DefaultOAuth2UserService();
+        userInfoService.setRestOperations(restTemplate);
+        return userInfoService;
+    }
+
+    /**
+     * The refresh token client of {@link com.linkedme.security.service.MemberTokenService}, configured like the
+     * code exchange client of {@link com.linkedme.security.config.SecurityConfig}.
+     *
+     * @param linkedinApiInterceptor the rate limiting interceptor.
+     * @return the refresh token client.
+     */
+    @Bean
+    public OAuth2AccessTokenResponseClient<OAuth2RefreshTokenGrantRequest> linkedinRefreshTokenClient(
+            LinkedinApiInterceptor linkedinApiInterceptor) {
+        RestTemplate restTemplate = new RestTemplate(List.of(new FormHttpMessageConverter(),
+                new OAuth2AccessTokenResponseHttpMessageConverter()));
+        restTemplate.setErrorHandler(new OAuth2ErrorResponseErrorHandler());
+        restTemplate.getInterceptors().add(linkedinApiInterceptor);
+        DefaultRefreshTokenTokenResponseClient refreshTokenClient = new DefaultRefreshTokenTokenResponseClient();
+        refreshTokenClient.setRestOperations(restTemplate);
+        return refreshTokenClient;
+    }
+}
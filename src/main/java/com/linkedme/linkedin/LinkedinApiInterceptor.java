@@ -0,0 +1,338 @@
+package com.linkedme.linkedin;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the outbound LinkedIn calls within their quotas, for every {@code RestTemplate} talking to LinkedIn.
+ *
+ * <p>Each request goes through three steps:</p>
+ * <ul>
+ *     <li><b>Coalescing</b>: a GET identical to one in flight (same URI and headers, so same member token and
+ *     validators) waits for the response of the first one instead of being sent.</li>
+ *     <li><b>Limiting</b>: the request takes a token from the {@link TokenBucket} of its endpoint, waiting for
+ *     at most {@code max-wait} before failing with a {@link RateLimitedException}.</li>
+ *     <li><b>Retrying</b>: a "429 Too Many Requests" or "503 Service Unavailable" pauses the bucket of the
+ *     endpoint for its "Retry-After", so that the other requests stop too, and is retried after that delay,
+ *     or after an exponential backoff with jitter when LinkedIn did not give one. I/O errors are only retried
+ *     for GET requests, the token endpoint does not accept an authorization code twice.</li>
+ * </ul>
+ *
+ * <p>The interceptor has to be the last one of the {@code RestTemplate}, retries execute the rest of the
+ * chain again.</p>
+ *
+ * <p>Metrics, tagged with the endpoint: {@code linkedme.linkedin.limiter.saturation} (share of the burst in
+ * use, above 1 when requests queue for tokens), {@code linkedme.linkedin.limiter.wait} (time waited for a token)
+ * and {@code linkedme.linkedin.requests} (requests per outcome: throttled by LinkedIn, retried, rejected by the
+ * limiter or coalesced).</p>
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LinkedinApiInterceptor implements ClientHttpRequestInterceptor {
+
+    /**
+     * Name of the requests matching no configured endpoint in the metrics.
+     */
+    static final String OTHER_ENDPOINT = "other";
+
+    LinkedinApiProperties properties;
+    AntPathMatcher pathMatcher = new AntPathMatcher();
+    List<Limiter> limiters = new ArrayList<>();
+    Limiter unlimited;
+    Map<InFlightKey, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public LinkedinApiInterceptor(LinkedinApiProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        properties.getEndpoints().forEach((name, endpoint) -> limiters.add(new Limiter(name, endpoint.getPath(),
+                new TokenBucket(endpoint.getCapacity(), endpoint.getRefillPerSecond(), System.nanoTime()),
+                meterRegistry)));
+        this.unlimited = new Limiter(OTHER_ENDPOINT, null, null, meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!properties.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        Limiter limiter = limiterFor(request.getURI().getPath());
+        if (!properties.isCoalesce() || request.getMethod() != HttpMethod.GET) {
+            return send(limiter, request, body, execution);
+        }
+
+        InFlightKey key = new InFlightKey(request.getURI(), new LinkedMultiValueMap<>(request.getHeaders()));
+        CompletableFuture<BufferedResponse> call = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> leader = inFlight.putIfAbsent(key, call);
+        if (leader != null) {
+            limiter.coalesced.increment();
+            return await(leader);
+        }
+        try {
+            BufferedResponse response = BufferedResponse.of(send(limiter, request, body, execution));
+            call.complete(response);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private ClientHttpResponse send(Limiter limiter, HttpRequest request, byte[] body,
+                                    ClientHttpRequestExecution execution) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            limiter.acquire(properties.getMaxWait());
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException e) {
+                if (request.getMethod() != HttpMethod.GET || attempt >= properties.getMaxAttempts()) {
+                    throw e;
+                }
+                limiter.retried.increment();
+                sleep(backoff(attempt));
+                continue;
+            }
+
+            HttpStatusCode status = response.getStatusCode();
+            if (!status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)
+                    && !status.isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE)) {
+                return response;
+            }
+            limiter.throttled.increment();
+            Duration retryAfter = retryAfter(response.getHeaders());
+            if (retryAfter != null) {
+                limiter.pause(retryAfter);
+            }
+            Duration delay = retryAfter != null ? retryAfter : backoff(attempt);
+            if (attempt >= properties.getMaxAttempts() || delay.compareTo(properties.getMaxRetryAfter()) > 0) {
+                log.warn("stage=linkedin-api, message=throttled, endpoint={}, status={}, attempts={}",
+                        limiter.name, status.value(), attempt);
+                return response;
+            }
+            response.close();
+            limiter.retried.increment();
+            sleep(delay);
+        }
+    }
+
+    private Limiter limiterFor(String path) {
+        for (Limiter limiter : limiters) {
+            if (limiter.pattern != null && pathMatcher.match(limiter.pattern, path)) {
+                return limiter;
+            }
+        }
+        return unlimited;
+    }
+
+    /**
+     * Exponential backoff with "equal jitter": between half and all of the doubled delay, so that callers
+     * throttled together do not come back together.
+     */
+    private Duration backoff(int attempt) {
+        long capNanos = Math.min(properties.getMaxBackoff().toNanos(),
+                properties.getInitialBackoff().toNanos() << Math.min(attempt - 1, 20));
+        return Duration.ofNanos(capNanos / 2 + ThreadLocalRandom.current().nextLong(capNanos / 2 + 1));
+    }
+
+    /**
+     * @return the delay of a "Retry-After" header, given in seconds or as an HTTP date, or null.
+     */
+    static Duration retryAfter(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            // An HTTP date, handled below
+        }
+        try {
+            Duration delay = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static BufferedResponse await(CompletableFuture<BufferedResponse> call) throws IOException {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an identical request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static void sleep(Duration delay) throws InterruptedIOException {
+        sleepNanos(delay.toNanos());
+    }
+
+    private static void sleepNanos(long nanos) throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the LinkedIn quota");
+        }
+    }
+
+    /**
+     * The bucket and the meters of an endpoint.
+     */
+    private static final class Limiter {
+        final String name;
+        final String pattern;
+        final TokenBucket bucket;
+        final Timer wait;
+        final Counter throttled;
+        final Counter retried;
+        final Counter rejected;
+        final Counter coalesced;
+
+        Limiter(String name, String pattern, TokenBucket bucket, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.pattern = pattern;
+            this.bucket = bucket;
+            if (bucket != null) {
+                Gauge.builder("linkedme.linkedin.limiter.saturation", bucket, b -> b.saturation(System.nanoTime()))
+                        .description("Share of the burst of a LinkedIn endpoint in use")
+                        .tag("endpoint", name)
+                        .register(meterRegistry);
+            }
+            this.wait = Timer.builder("linkedme.linkedin.limiter.wait")
+                    .description("Time waited for the quota of a LinkedIn endpoint")
+                    .tag("endpoint", name)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            this.throttled = requests(meterRegistry, name, "throttled");
+            this.retried = requests(meterRegistry, name, "retried");
+            this.rejected = requests(meterRegistry, name, "rejected");
+            this.coalesced = requests(meterRegistry, name, "coalesced");
+        }
+
+        void acquire(Duration maxWait) throws IOException {
+            if (bucket == null) {
+                return;
+            }
+            long waitNanos = bucket.reserve(System.nanoTime(), maxWait.toNanos());
+            if (waitNanos < 0) {
+                rejected.increment();
+                throw new RateLimitedException(name);
+            }
+            wait.record(waitNanos, TimeUnit.NANOSECONDS);
+            if (waitNanos > 0) {
+                sleepNanos(waitNanos);
+            }
+        }
+
+        void pause(Duration retryAfter) {
+            if (bucket != null) {
+                long now = System.nanoTime();
+                bucket.pauseUntil(now + retryAfter.toNanos(), now);
+            }
+        }
+
+        private static Counter requests(MeterRegistry meterRegistry, String endpoint, String outcome) {
+            return Counter.builder("linkedme.linkedin.requests")
+                    .description("LinkedIn requests per endpoint and outcome")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Identity of a GET request, the headers carry the token and the validators.
+     */
+    private record InFlightKey(URI uri, MultiValueMap<String, String> headers) {
+    }
+
+    /**
+     * A response read into memory, so that the callers of coalesced requests each read it.
+     */
+    private record BufferedResponse(HttpStatusCode statusCode, String statusText, HttpHeaders headers, byte[] body)
+            implements ClientHttpResponse {
+
+        static BufferedResponse of(ClientHttpResponse response) throws IOException {
+            try (response) {
+                return new BufferedResponse(response.getStatusCode(), response.getStatusText(),
+                        HttpHeaders.readOnlyHttpHeaders(response.getHeaders()),
+                        StreamUtils.copyToByteArray(response.getBody()));
+            }
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String getStatusText() {
+            return statusText;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release, the connection was closed once the body was read
+        }
+    }
+}
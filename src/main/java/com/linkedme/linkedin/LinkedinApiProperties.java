@@ -0,0 +1,90 @@
+package com.linkedme.linkedin;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the outbound LinkedIn API calls, see {@link LinkedinApiInterceptor}.
+ *
+ * <p>Bound from the {@code linkedme.linkedin-api} prefix, e.g.
+ * {@code linkedme.linkedin-api.endpoints.profiles.refill-per-second=20}.</p>
+ */
+@ConfigurationProperties(prefix = "linkedme.linkedin-api")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class LinkedinApiProperties {
+
+    /**
+     * Whether to limit, retry and coalesce the calls at all.
+     */
+    boolean enabled = true;
+
+    /**
+     * Quota of each endpoint, keyed by a name used in the metrics; requests matching no endpoint are not
+     * limited, but are still retried and coalesced.
+     */
+    Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    /**
+     * Longest a request waits for a token before failing with a {@link RateLimitedException}.
+     */
+    Duration maxWait = Duration.ofSeconds(2);
+
+    /**
+     * Number of times a request is sent before its "429 Too Many Requests" or "503 Service Unavailable" is
+     * returned to the caller.
+     */
+    int maxAttempts = 3;
+
+    /**
+     * Backoff before the second attempt when the response has no "Retry-After", doubled at each attempt.
+     */
+    Duration initialBackoff = Duration.ofMillis(200);
+
+    /**
+     * Maximum backoff between two attempts.
+     */
+    Duration maxBackoff = Duration.ofSeconds(5);
+
+    /**
+     * Longest "Retry-After" waited for; longer ones are returned to the caller at once.
+     */
+    Duration maxRetryAfter = Duration.ofSeconds(10);
+
+    /**
+     * Whether identical GET requests in flight at the same time share a single call.
+     */
+    boolean coalesce = true;
+
+    /**
+     * Quota of an endpoint.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @Getter
+    @Setter
+    public static class Endpoint {
+
+        /**
+         * Ant-style pattern matched against the path of the requests, e.g. {@code /v2/profiles/**}.
+         */
+        String path;
+
+        /**
+         * Maximum number of requests sent in a burst.
+         */
+        int capacity = 20;
+
+        /**
+         * Sustained number of requests per second.
+         */
+        double refillPerSecond = 10;
+    }
+}
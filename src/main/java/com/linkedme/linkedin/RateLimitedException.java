@@ -0,0 +1,18 @@
+package com.linkedme.linkedin;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request to LinkedIn would have to wait longer than {@code linkedme.linkedin-api.max-wait} for
+ * the quota of its endpoint.
+ *
+ * <p>It is an {@link IOException}, so that {@link org.springframework.web.client.RestTemplate} reports it as a
+ * {@link org.springframework.web.client.ResourceAccessException} like any other request that could not be
+ * sent.</p>
+ */
+public class RateLimitedException extends IOException {
+
+    public RateLimitedException(String endpoint) {
+        super("Quota of the LinkedIn endpoint '" + endpoint + "' exhausted");
+    }
+}
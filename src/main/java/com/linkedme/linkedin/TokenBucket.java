@@ -0,0 +1,88 @@
+package com.linkedme.linkedin;
+
+/**
+ * Token bucket shared by all the requests to a LinkedIn endpoint.
+ *
+ * <p>Requests {@link #reserve} a token and wait for it outside the bucket: when the bucket is empty, the token
+ * is taken ahead of its refill and the balance goes negative, so concurrent callers queue up in arrival order
+ * without holding the lock. A "429 Too Many Requests" {@link #pauseUntil pauses} the bucket for everyone: no
+ * token is refilled before the pause ends, so the requests queued during the pause resume at the sustained rate
+ * rather than all at once.</p>
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    // Time up to which tokens were refilled, in the future during a pause
+    private long refilledAt;
+
+    /**
+     * @param capacity        the maximum burst, the bucket starts full.
+     * @param refillPerSecond the sustained rate.
+     * @param now             the current {@link System#nanoTime()}.
+     */
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity=" + capacity + ", refillPerSecond=" + refillPerSecond);
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1e9;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Takes a token, possibly ahead of time.
+     *
+     * @param now      the current {@link System#nanoTime()}.
+     * @param maxNanos the longest the caller accepts to wait.
+     * @return how long to wait before sending the request, or -1 if that is longer than {@code maxNanos}, in
+     * which case no token was taken.
+     */
+    synchronized long reserve(long now, long maxNanos) {
+        refill(now);
+        // Until the end of a pause, then until the token is refilled
+        long waitNanos = Math.max(0, refilledAt - now);
+        if (tokens < 1) {
+            waitNanos += (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+        if (waitNanos > maxNanos) {
+            return -1;
+        }
+        tokens--;
+        return waitNanos;
+    }
+
+    /**
+     * Stops handing out tokens until the given time, and drops the burst the bucket had saved up, so that
+     * requests resume at the sustained rate. The pause does not count towards the refill.
+     *
+     * @param until the {@link System#nanoTime()} before which no request may be sent.
+     * @param now   the current {@link System#nanoTime()}.
+     */
+    synchronized void pauseUntil(long until, long now) {
+        refill(now);
+        if (until - refilledAt > 0) {
+            refilledAt = until;
+        }
+        tokens = Math.min(tokens, 0);
+    }
+
+    /**
+     * @param now the current {@link System#nanoTime()}.
+     * @return the share of the burst in use: 0 when the bucket is full, 1 when it is empty, and above 1 when
+     * requests are waiting for tokens.
+     */
+    synchronized double saturation(long now) {
+        refill(now);
+        return 1 - tokens / capacity;
+    }
+
+    private void refill(long now) {
+        if (now - refilledAt > 0) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
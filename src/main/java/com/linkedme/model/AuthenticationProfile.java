@@ -0,0 +1,49 @@
+package com.linkedme.model;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+
+import java.util.List;
+
+/**
+ * Compact view of the authenticated user returned by {@code /api/authentication}.
+ *
+ * <p>Only the fields the client needs are exposed: the raw ID token, the full claim set, the userinfo
+ * response and the provider scopes of the {@link OidcUser} are left out.</p>
+ *
+ * @param id      the LinkedIn member identifier (the {@code sub} claim).
+ * @param name    the full name of the user.
+ * @param email   the email address of the user.
+ * @param picture the profile picture URL, if any.
+ * @param roles   the application roles of the user, e.g. {@code ROLE_USER}, sorted by name.
+ */
+public record AuthenticationProfile(String id, String name, String email, String picture, List<String> roles) {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    /**
+     * Builds the profile of the given authenticated user.
+     *
+     * @param oidcUser the authenticated user.
+     * @return the compact profile.
+     */
+    public static AuthenticationProfile from(OidcUser oidcUser) {
+        return from(oidcUser, oidcUser.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .toList());
+    }
+
+    /**
+     * Builds the profile of the given authenticated user with roles read elsewhere than from its authorities,
+     * e.g. the current roles of the user rather than those granted at login.
+     *
+     * @param oidcUser the authenticated user.
+     * @param roles    the application roles of the user, in any order.
+     * @return the compact profile.
+     */
+    public static AuthenticationProfile from(OidcUser oidcUser, List<String> roles) {
+        return new AuthenticationProfile(oidcUser.getSubject(), oidcUser.getFullName(), oidcUser.getEmail(),
+                oidcUser.getPicture(), roles.stream().sorted().toList());
+    }
+}
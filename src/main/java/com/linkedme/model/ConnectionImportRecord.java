@@ -0,0 +1,13 @@
+package com.linkedme.model;
+
+/**
+ * One connection of the caller, as exported from LinkedIn.
+ *
+ * <p>Example: {@code {"name":"Jane Roe","email":"roe@email.com","company":"Acme"}}</p>
+ *
+ * @param name    the name of the contact.
+ * @param email   the email of the contact, used to match existing users.
+ * @param company the name of the company the contact works at, if any.
+ */
+public record ConnectionImportRecord(String name, String email, String company) {
+}
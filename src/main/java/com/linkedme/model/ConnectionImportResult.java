@@ -0,0 +1,13 @@
+package com.linkedme.model;
+
+/**
+ * Outcome of a connection import.
+ *
+ * @param read      number of records read.
+ * @param connected number of new connections.
+ * @param existing  number of records matching an existing connection.
+ * @param created   number of contacts unknown so far, created as users without roles until they log in.
+ * @param skipped   number of records without a name or an email, or with the caller's own email.
+ */
+public record ConnectionImportResult(long read, long connected, long existing, long created, long skipped) {
+}
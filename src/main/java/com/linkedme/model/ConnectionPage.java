@@ -0,0 +1,15 @@
+package com.linkedme.model;
+
+import com.linkedme.persistence.projection.ConnectionSummary;
+
+import java.util.List;
+
+/**
+ * A page of the connections of a user.
+ *
+ * @param sort        the order of the connections.
+ * @param connections the connections of the page.
+ * @param next        the cursor of the next page, null on the last page.
+ */
+public record ConnectionPage(ConnectionSort sort, List<ConnectionSummary> connections, String next) {
+}
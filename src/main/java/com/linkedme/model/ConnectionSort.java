@@ -0,0 +1,17 @@
+package com.linkedme.model;
+
+/**
+ * Order of the connections listed on the friends page.
+ */
+public enum ConnectionSort {
+
+    /**
+     * By contact name, then contact identifier.
+     */
+    NAME,
+
+    /**
+     * By company name, contacts without a company first, then by contact name and identifier.
+     */
+    COMPANY
+}
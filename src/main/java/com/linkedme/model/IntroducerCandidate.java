@@ -0,0 +1,11 @@
+package com.linkedme.model;
+
+/**
+ * A contact who can introduce a user to someone working at a company.
+ *
+ * @param introducer the contact of the user the path goes through.
+ * @param member     the user working at the company, the introducer themself if they work there.
+ * @param hops       the number of hops from the user to the member.
+ */
+public record IntroducerCandidate(PathMember introducer, PathMember member, int hops) {
+}
@@ -0,0 +1,15 @@
+package com.linkedme.model;
+
+/**
+ * Outcome of an introducer search, sent once every candidate has been.
+ *
+ * @param companyId  the identifier of the company searched.
+ * @param depth      the number of hops searched.
+ * @param visited    the number of users reached.
+ * @param candidates the number of candidates sent.
+ * @param truncated  true if the search stopped at the maximum number of candidates.
+ * @param durationMs the duration of the search.
+ */
+public record IntroducerSearchSummary(long companyId, int depth, int visited, int candidates, boolean truncated,
+                                      long durationMs) {
+}
@@ -0,0 +1,12 @@
+package com.linkedme.model;
+
+/**
+ * A user on a chain of connections.
+ *
+ * @param id        the user identifier.
+ * @param name      the user's name, null if unknown on this node.
+ * @param companyId the identifier of the user's company, null if none.
+ * @param company   the name of the user's company, as shown for every spelling of it, null if none.
+ */
+public record PathMember(long id, String name, Long companyId, String company) {
+}
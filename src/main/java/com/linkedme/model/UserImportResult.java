@@ -0,0 +1,13 @@
+package com.linkedme.model;
+
+/**
+ * Outcome of an NDJSON user import.
+ *
+ * @param read         number of records read.
+ * @param created      number of users created.
+ * @param updated      number of existing users (matched by email) updated.
+ * @param skipped      number of records without a name or an email.
+ * @param unknownRoles number of role names that did not match any role and were ignored.
+ */
+public record UserImportResult(long read, long created, long updated, long skipped, long unknownRoles) {
+}
@@ -0,0 +1,16 @@
+package com.linkedme.model;
+
+import java.util.List;
+
+/**
+ * One line of the NDJSON user export/import format.
+ *
+ * <p>Example: {@code {"id":42,"name":"John Doe","email":"doe@email.com","roles":["ROLE_USER"]}}</p>
+ *
+ * @param id    the identifier of the user in the exporting system; ignored on import, users are matched by email.
+ * @param name  the name of the user.
+ * @param email the email of the user.
+ * @param roles the role names of the user.
+ */
+public record UserTransferRecord(Long id, String name, String email, List<String> roles) {
+}
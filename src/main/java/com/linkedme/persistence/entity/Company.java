@@ -0,0 +1,58 @@
+package com.linkedme.persistence.entity;
+
+import com.linkedme.persistence.event.SearchableEntityListener;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Entity representing a company users work at.
+ *
+ * <p>Companies are created from the company names found in imported connections and are shared by all the
+ * users working there, so that people can be grouped and searched by company.</p>
+ *
+ * <p>The annotations used in this class provide various functionalities like
+ * defining it as a database entity, setting access levels, and generating boilerplate code.</p>
+ */
+@Table(name = "company") // Maps this class to the "company" table in the database
+@Entity(name = "Company") // Marks this class as a JPA entity with the name "Company"
+@EntityListeners(SearchableEntityListener.class) // Keeps the typeahead search index up to date
+@FieldDefaults(level = AccessLevel.PRIVATE) // Sets all fields to private by default
+@AllArgsConstructor // Generates a constructor with all fields as parameters
+@NoArgsConstructor // Generates a no-argument constructor
+@Builder // Enables the builder pattern for creating instances
+@Getter // Generates getter methods for all fields
+@Setter // Generates setter methods for all fields
+public class Company {
+
+    /**
+     * Unique identifier for the company.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Id: Marks this field as the primary key of the entity.</li>
+     *     <li>@GeneratedValue: Specifies that the value will be generated automatically.</li>
+     *     <li>@SequenceGenerator: Takes identifiers from the "company_seq" sequence, 50 at a time, so that
+     *     inserts can be batched.</li>
+     *     <li>@Column: Maps this field to the "id_company" column in the database.</li>
+     * </ul>
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_seq")
+    @SequenceGenerator(name = "company_seq", sequenceName = "company_seq", allocationSize = 50)
+    @Column(name = "id_company")
+    Long id;
+
+    /**
+     * Name of the company.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Column: Maps this field to the "des_name" column in the database.</li>
+     *     <li>nullable = false: Ensures this column cannot be null.</li>
+     *     <li>unique = true: Ensures this column has unique values.</li>
+     * </ul>
+     */
+    @Column(name = "des_name", nullable = false, unique = true)
+    String name;
+}
@@ -0,0 +1,113 @@
+package com.linkedme.persistence.entity;
+
+import com.linkedme.journal.LoginOutcome;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+/**
+ * Entity representing a login attempt, for auditing and analytics.
+ *
+ * <p>This class maps to the "login_activity" table in the database. Rows are never written on the login path:
+ * logins are appended to the {@link com.linkedme.journal.LoginJournal} and loaded in batches by the
+ * {@link com.linkedme.journal.LoginJournalService}. Each row keeps the journal position after its record,
+ * which is where loading resumes after a restart.</p>
+ */
+@Table(name = "login_activity") // Maps this class to the "login_activity" table in the database
+@Entity(name = "LoginActivity") // Marks this class as a JPA entity with the name "LoginActivity"
+@FieldDefaults(level = AccessLevel.PRIVATE) // Sets all fields to private by default
+@AllArgsConstructor // Generates a constructor with all fields as parameters
+@NoArgsConstructor // Generates a no-argument constructor
+@Builder // Enables the builder pattern for creating instances
+@Getter // Generates getter methods for all fields
+@Setter // Generates setter methods for all fields
+public class LoginActivity {
+
+    /**
+     * Unique identifier for the login attempt.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Id: Marks this field as the primary key of the entity.</li>
+     *     <li>@GeneratedValue: Specifies that the value will be generated automatically.</li>
+     *     <li>@SequenceGenerator: Takes identifiers from the "login_activity_seq" sequence, 50 at a time, so
+     *     that inserts can be batched.</li>
+     *     <li>@Column: Maps this field to the "id_login_activity" column in the database.</li>
+     * </ul>
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "login_activity_seq")
+    @SequenceGenerator(name = "login_activity_seq", sequenceName = "login_activity_seq", allocationSize = 50)
+    @Column(name = "id_login_activity")
+    Long id;
+
+    /**
+     * Identifier of the user, null if the login failed before the user was known. Not a foreign key, the
+     * journal may outlive the users of an in-memory database.
+     */
+    @Column(name = "id_user")
+    Long userId;
+
+    /**
+     * When the login ended.
+     */
+    @Column(name = "dat_login", nullable = false)
+    Instant loggedAt;
+
+    /**
+     * Outcome of the login.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Enumerated: Stores the name of the outcome rather than its ordinal.</li>
+     *     <li>@Column: Maps this field to the "des_outcome" column in the database.</li>
+     * </ul>
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "des_outcome", nullable = false, length = 16)
+    LoginOutcome outcome;
+
+    /**
+     * Time spent exchanging the authorization code, in microseconds, null if not reached.
+     */
+    @Column(name = "num_token_micros")
+    Integer tokenMicros;
+
+    /**
+     * Time spent loading the userinfo, in microseconds, null if not reached.
+     */
+    @Column(name = "num_user_info_micros")
+    Integer userInfoMicros;
+
+    /**
+     * Time spent finding or creating the local user, in microseconds, null if not reached.
+     */
+    @Column(name = "num_resolve_micros")
+    Integer resolveMicros;
+
+    /**
+     * Time from the code exchange to the end of the login, in microseconds.
+     */
+    @Column(name = "num_total_micros", nullable = false)
+    Integer totalMicros;
+
+    /**
+     * Why the login failed, null if it succeeded.
+     */
+    @Column(name = "des_failure_reason")
+    String failureReason;
+
+    /**
+     * Sequence number of the journal segment holding the record.
+     */
+    @Column(name = "num_journal_segment", nullable = false)
+    Long journalSegment;
+
+    /**
+     * Offset of the next record in the journal segment.
+     */
+    @Column(name = "num_journal_next_offset", nullable = false)
+    Long journalNextOffset;
+}
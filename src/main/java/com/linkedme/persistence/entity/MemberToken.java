@@ -0,0 +1,92 @@
+package com.linkedme.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+/**
+ * Entity representing the LinkedIn tokens of a member, so that calls on their behalf survive a restart.
+ *
+ * <p>This class maps to the "member_token" table in the database, one row per user. The tokens are stored
+ * encrypted by {@link com.linkedme.security.service.PersistentAuthorizedClientService}, which keeps them
+ * decrypted in memory only.</p>
+ */
+@Table(name = "member_token") // Maps this class to the "member_token" table in the database
+@Entity(name = "MemberToken") // Marks this class as a JPA entity with the name "MemberToken"
+@FieldDefaults(level = AccessLevel.PRIVATE) // Sets all fields to private by default
+@AllArgsConstructor // Generates a constructor with all fields as parameters
+@NoArgsConstructor // Generates a no-argument constructor
+@Builder // Enables the builder pattern for creating instances
+@Getter // Generates getter methods for all fields
+@Setter // Generates setter methods for all fields
+public class MemberToken {
+
+    /**
+     * Identifier of the user the tokens were issued to.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Id: Marks this field as the primary key of the entity, assigned from the user.</li>
+     *     <li>@Column: Maps this field to the "id_user" column in the database.</li>
+     * </ul>
+     */
+    @Id
+    @Column(name = "id_user")
+    Long userId;
+
+    /**
+     * Client registration the tokens were issued to, e.g. "linkedin".
+     */
+    @Column(name = "des_registration_id", nullable = false, length = 64)
+    String registrationId;
+
+    /**
+     * Name of the principal at the provider, the "sub" claim of LinkedIn.
+     */
+    @Column(name = "des_principal_name", nullable = false)
+    String principalName;
+
+    /**
+     * Encrypted access token.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Column: Maps this field to the "des_access_token" column in the database.</li>
+     *     <li>length = 4096: Leaves room for the hex-encoded ciphertext of long tokens.</li>
+     * </ul>
+     */
+    @Column(name = "des_access_token", nullable = false, length = 4096)
+    String accessToken;
+
+    /**
+     * Scopes granted to the access token, separated by commas.
+     */
+    @Column(name = "des_scopes", length = 1024)
+    String scopes;
+
+    /**
+     * When the access token was issued.
+     */
+    @Column(name = "dat_issued")
+    Instant issuedAt;
+
+    /**
+     * When the access token expires.
+     */
+    @Column(name = "dat_expires")
+    Instant expiresAt;
+
+    /**
+     * Encrypted refresh token, null if LinkedIn did not issue one.
+     */
+    @Column(name = "des_refresh_token", length = 4096)
+    String refreshToken;
+
+    /**
+     * When the tokens were last saved, on login or refresh.
+     */
+    @Column(name = "dat_updated", nullable = false)
+    Instant updatedAt;
+}
@@ -4,11 +4,15 @@ import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Entity representing a role in the system.
  *
  * <p>This class is used to define the roles that can be assigned to users in the system,
- * such as "ROLE_USER" and "ROLE_ADMIN". Each role has a unique name and an identifier.</p>
+ * such as "ROLE_USER" and "ROLE_ADMIN". Each role has a unique name, an identifier and a stable bit index
+ * used to store the roles of a user as a single {@code long} mask.</p>
  *
  * <p>The annotations used in this class provide various functionalities like
  * defining it as a database entity, setting access levels, and generating boilerplate code.</p>
@@ -33,6 +37,22 @@ public class Role {
      */
     public static final String ROLE_ADMIN = "ROLE_ADMIN";
 
+    /**
+     * Bit index of the "USER" role in role masks.
+     */
+    public static final int ROLE_USER_BIT = 0;
+
+    /**
+     * Bit index of the "ADMIN" role in role masks.
+     */
+    public static final int ROLE_ADMIN_BIT = 1;
+
+    /**
+     * Stable bit index of every known role, by name. Bits must never be reused or renumbered since they are
+     * persisted in {@link User#getRoleMask()}.
+     */
+    public static final Map<String, Integer> BITS = Map.of(ROLE_USER, ROLE_USER_BIT, ROLE_ADMIN, ROLE_ADMIN_BIT);
+
     /**
      * Unique identifier for the role.
      *
@@ -60,4 +80,59 @@ public class Role {
      */
     @Column(name = "des_name", nullable = false, unique = true)
     String name;
+
+    /**
+     * Bit index of the role in role masks, between 0 and 63.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Column: Maps this field to the "num_bit" column in the database.</li>
+     *     <li>nullable = false: Ensures this column cannot be null.</li>
+     *     <li>unique = true: Ensures no two roles share a bit.</li>
+     * </ul>
+     */
+    @Column(name = "num_bit", nullable = false, unique = true)
+    Integer bit;
+
+    /**
+     * Returns the mask with only this role's bit set.
+     *
+     * @return the role mask of this role.
+     */
+    public long mask() {
+        return 1L << bit;
+    }
+
+    /**
+     * Returns the mask of the given role names.
+     *
+     * @param names the role names, all of which must be in {@link #BITS}.
+     * @return the mask with the bit of every given role set.
+     * @throws IllegalArgumentException if a role name is unknown.
+     */
+    public static long maskOf(String... names) {
+        long mask = 0;
+        for (String name : names) {
+            Integer bit = BITS.get(name);
+            if (bit == null) {
+                throw new IllegalArgumentException("Unknown role: " + name);
+            }
+            mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the names of the roles in a mask, the inverse of {@link #maskOf(String...)}.
+     *
+     * @param mask the role mask.
+     * @return the names of the roles of {@link #BITS} whose bit is set, by increasing bit.
+     */
+    public static List<String> namesOf(long mask) {
+        return BITS.entrySet().stream()
+                .filter(entry -> (mask & (1L << entry.getValue())) != 0)
+                .sorted(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .toList();
+    }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.linkedme.persistence.entity;
 
+import com.linkedme.persistence.event.SearchableEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static lombok.AccessLevel.PRIVATE;
@@ -12,13 +14,14 @@ import static lombok.AccessLevel.PRIVATE;
  * Entity representing a user in the system.
  *
  * <p>This class maps to the "user" table in the database and defines the structure of user data.
- * Each user has an ID, name, email, and a list of roles.</p>
+ * Each user has an ID, name, email, an optional company, a list of roles and the same roles as a bitmask.</p>
  *
  * <p>The annotations used in this class simplify the integration with the database
  * and automatically generate boilerplate code like getters, setters, and constructors.</p>
  */
 @Table(name = "user") // Maps this class to the "user" table in the database
 @Entity(name = "User") // Marks this class as a JPA entity with the name "User"
+@EntityListeners(SearchableEntityListener.class) // Keeps the typeahead search index up to date
 @Builder // Enables the builder pattern for creating instances
 @AllArgsConstructor // Generates a constructor with all fields as parameters
 @NoArgsConstructor // Generates a no-argument constructor
@@ -34,11 +37,14 @@ public class User {
      * <ul>
      *     <li>@Id: Marks this field as the primary key of the entity.</li>
      *     <li>@GeneratedValue: Specifies that the value will be generated automatically.</li>
+     *     <li>@SequenceGenerator: Takes identifiers from the "user_seq" sequence, 50 at a time, so that inserts
+     *     can be batched (identity columns force one round trip per insert).</li>
      *     <li>@Column: Maps this field to the "id_user" column in the database.</li>
      * </ul>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     @Column(name = "id_user")
     Long id;
 
@@ -66,16 +72,64 @@ public class User {
     @Column(name = "des_email", nullable = false)
     String email;
 
+    /**
+     * Company the user currently works at, if known.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@ManyToOne: Defines a many-to-one relationship with the {@link Company} entity.</li>
+     *     <li>fetch = FetchType.LAZY: The company is not needed to authenticate the user.</li>
+     *     <li>@JoinColumn: Specifies the nullable foreign key column referencing the "company" table.</li>
+     * </ul>
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_company", referencedColumnName = "id_company")
+    Company company;
+
     /**
      * List of roles assigned to the user.
      *
      * <p>Annotations:</p>
      * <ul>
      *     <li>@OneToMany: Defines a one-to-many relationship between users and roles.</li>
+     *     <li>mappedBy = "user": The relationship is owned by {@link UserRole#getUser()}, so it is stored in the
+     *     "id_user" column of the "user_role" table rather than in a separate join table.</li>
      *     <li>fetch = FetchType.EAGER: Indicates that roles will be loaded immediately with the user (not recommended for large data sets; use LAZY instead).</li>
      *     <li>cascade = CascadeType.ALL: Any operation on the user (e.g., save, delete) will also be applied to their roles.</li>
      * </ul>
      */
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "user", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
     List<UserRole> roles;
+
+    /**
+     * Roles of the user as a bitmask of {@link Role#getBit()}, kept in sync with {@link #roles}.
+     *
+     * <p>Authorization checks test this mask instead of scanning the role rows or authorities.</p>
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Column: Maps this field to the "num_role_mask" column in the database.</li>
+     *     <li>nullable = false: Ensures this column cannot be null.</li>
+     *     <li>@Builder.Default: Users start without any role.</li>
+     * </ul>
+     */
+    @Column(name = "num_role_mask", nullable = false)
+    @Builder.Default
+    long roleMask = 0L;
+
+    /**
+     * Assigns a role to the user, updating both the role rows and the role mask.
+     *
+     * @param role the role to assign.
+     */
+    public void addRole(Role role) {
+        if ((roleMask & role.mask()) != 0) {
+            return;
+        }
+        if (roles == null) {
+            roles = new ArrayList<>();
+        }
+        roles.add(UserRole.builder().user(this).role(role).build());
+        roleMask |= role.mask();
+    }
 }
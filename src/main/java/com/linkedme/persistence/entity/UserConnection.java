@@ -0,0 +1,73 @@
+package com.linkedme.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Entity representing a connection between two users.
+ *
+ * <p>This class maps to the "user_connection" table in the database. Connections are mutual, and each one is
+ * stored in both directions (one row owned by each user) so that the connections of a user are always found
+ * through the "id_user" column alone.</p>
+ *
+ * <p>The annotations in this class manage the database mapping, relationship handling,
+ * and boilerplate code generation.</p>
+ */
+@Table(name = "user_connection", // Maps this class to the "user_connection" table in the database
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_connection", columnNames = {"id_user", "id_contact"}))
+@Entity(name = "UserConnection") // Marks this class as a JPA entity with the name "UserConnection"
+@FieldDefaults(level = AccessLevel.PRIVATE) // Sets all fields to private by default
+@AllArgsConstructor // Generates a constructor with all fields as parameters
+@NoArgsConstructor // Generates a no-argument constructor
+@Builder // Enables the builder pattern for creating instances
+@Getter // Generates getter methods for all fields
+@Setter // Generates setter methods for all fields
+public class UserConnection {
+
+    /**
+     * Unique identifier for the connection.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Id: Marks this field as the primary key of the entity.</li>
+     *     <li>@GeneratedValue: Specifies that the value will be generated automatically.</li>
+     *     <li>@SequenceGenerator: Takes identifiers from the "user_connection_seq" sequence, 50 at a time, so
+     *     that inserts can be batched.</li>
+     *     <li>@Column: Maps this field to the "id_user_connection" column in the database.</li>
+     * </ul>
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_connection_seq")
+    @SequenceGenerator(name = "user_connection_seq", sequenceName = "user_connection_seq", allocationSize = 50)
+    @Column(name = "id_user_connection")
+    Long id;
+
+    /**
+     * The user owning this side of the connection.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@ManyToOne: Defines a many-to-one relationship with the {@link User} entity.</li>
+     *     <li>fetch = FetchType.LAZY: Users can have thousands of connections, the owner is rarely needed.</li>
+     *     <li>@JoinColumn: Specifies the foreign key column referencing the "user" table.</li>
+     * </ul>
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_user", nullable = false, referencedColumnName = "id_user")
+    User user;
+
+    /**
+     * The user the owner is connected to.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@ManyToOne: Defines a many-to-one relationship with the {@link User} entity.</li>
+     *     <li>fetch = FetchType.LAZY: Contacts are only loaded when actually rendered.</li>
+     *     <li>@JoinColumn: Specifies the foreign key column referencing the "user" table.</li>
+     * </ul>
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_contact", nullable = false, referencedColumnName = "id_user")
+    User contact;
+}
@@ -0,0 +1,81 @@
+package com.linkedme.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+/**
+ * Entity representing the LinkedIn profile details of a user, beyond the name and email captured on login.
+ *
+ * <p>This class maps to the "user_profile" table in the database. Profiles are filled in the background by
+ * {@link com.linkedme.enrichment.ProfileEnrichmentService}, and keep the validators of the last response so that
+ * refreshing an unchanged profile is answered with a "304 Not Modified". Keeping them out of the "user" table
+ * leaves the login path, which loads {@link User} entities, unaffected.</p>
+ */
+@Table(name = "user_profile") // Maps this class to the "user_profile" table in the database
+@Entity(name = "UserProfile") // Marks this class as a JPA entity with the name "UserProfile"
+@FieldDefaults(level = AccessLevel.PRIVATE) // Sets all fields to private by default
+@AllArgsConstructor // Generates a constructor with all fields as parameters
+@NoArgsConstructor // Generates a no-argument constructor
+@Builder // Enables the builder pattern for creating instances
+@Getter // Generates getter methods for all fields
+@Setter // Generates setter methods for all fields
+public class UserProfile {
+
+    /**
+     * Identifier of the user the profile belongs to.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Id: Marks this field as the primary key of the entity, assigned from the user.</li>
+     *     <li>@Column: Maps this field to the "id_user" column in the database.</li>
+     * </ul>
+     */
+    @Id
+    @Column(name = "id_user")
+    Long userId;
+
+    /**
+     * Headline of the user, e.g. their current position.
+     */
+    @Column(name = "des_headline", length = 1024)
+    String headline;
+
+    /**
+     * Name of the company the user works at, as returned by LinkedIn.
+     */
+    @Column(name = "des_company")
+    String company;
+
+    /**
+     * URL of the user's profile picture.
+     */
+    @Column(name = "des_picture_url", length = 2048)
+    String pictureUrl;
+
+    /**
+     * ETag of the last profile response, sent back in "If-None-Match".
+     */
+    @Column(name = "des_etag")
+    String etag;
+
+    /**
+     * Last-Modified date of the last profile response, sent back in "If-Modified-Since".
+     */
+    @Column(name = "dat_last_modified")
+    Instant lastModified;
+
+    /**
+     * When the profile was last fetched, whether it had changed or not.
+     *
+     * <p>Annotations:</p>
+     * <ul>
+     *     <li>@Column: Maps this field to the "dat_fetched" column in the database.</li>
+     *     <li>nullable = false: Ensures this column cannot be null.</li>
+     * </ul>
+     */
+    @Column(name = "dat_fetched", nullable = false)
+    Instant fetchedAt;
+}
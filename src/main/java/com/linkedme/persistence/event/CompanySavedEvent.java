@@ -0,0 +1,10 @@
+package com.linkedme.persistence.event;
+
+/**
+ * Published whenever a {@link com.linkedme.persistence.entity.Company} is inserted or updated.
+ *
+ * @param id   the company identifier.
+ * @param name the name of the company.
+ */
+public record CompanySavedEvent(long id, String name) {
+}
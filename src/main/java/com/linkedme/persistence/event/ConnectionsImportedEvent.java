@@ -0,0 +1,13 @@
+package com.linkedme.persistence.event;
+
+/**
+ * Published when new connections of a user have been stored.
+ *
+ * <p>Connections are mutual: every contact in {@link #contactIds()} is now connected to the user and the
+ * user to every contact.</p>
+ *
+ * @param userId     the identifier of the user who imported the connections.
+ * @param contactIds the identifiers of the newly connected users.
+ */
+public record ConnectionsImportedEvent(long userId, long[] contactIds) {
+}
@@ -0,0 +1,44 @@
+package com.linkedme.persistence.event;
+
+import com.linkedme.persistence.entity.Company;
+import com.linkedme.persistence.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener turning {@link User} and {@link Company} saves into application events.
+ *
+ * <p>Registered on the entities with {@code @EntityListeners} and instantiated by Spring (through Hibernate's
+ * Spring bean container), so whatever code path saves a user or a company, listeners such as the typeahead
+ * search index and the user directory hear about it without the persistence layer depending on them.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SearchableEntityListener {
+
+    ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Publishes the saved state of a user or a company.
+     *
+     * @param entity the entity that was inserted or updated.
+     */
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        if (entity instanceof User user) {
+            // Reading the id of a lazy proxy does not initialize it
+            Long companyId = user.getCompany() == null ? null : user.getCompany().getId();
+            eventPublisher.publishEvent(new UserSavedEvent(user.getId(), user.getName(), user.getEmail(), companyId,
+                    user.getRoleMask()));
+        } else if (entity instanceof Company company) {
+            eventPublisher.publishEvent(new CompanySavedEvent(company.getId(), company.getName()));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.linkedme.persistence.event;
+
+/**
+ * Published whenever a {@link com.linkedme.persistence.entity.User} is inserted or updated.
+ *
+ * <p>Listeners interested in committed data only should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener}.</p>
+ *
+ * @param id        the user identifier.
+ * @param name      the name of the user.
+ * @param email     the email of the user.
+ * @param companyId the identifier of the user's company, or null.
+ * @param roleMask  the roles of the user as a bitmask.
+ */
+public record UserSavedEvent(long id, String name, String email, Long companyId, long roleMask) {
+}
@@ -0,0 +1,61 @@
+package com.linkedme.persistence.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Creates the sequences the entities take their identifiers from, {@value #ALLOCATION_SIZE} at a time.
+ *
+ * <p>The first versions generated user and role assignment identifiers with identity columns, so a database
+ * created by them may already hold rows: each sequence starts one allocation past the largest identifier of its
+ * table, the first block handed out by Hibernate's pooled optimizer then starting right after it. Sequences that
+ * exist already, e.g. created by Hibernate schema updates, are left alone.</p>
+ *
+ * <p>Registered as a bean rather than found by classpath scanning, which the AOT and native builds do not
+ * support.</p>
+ */
+@Component
+public class V7__Create_id_sequences extends BaseJavaMigration {
+
+    /**
+     * Allocation size of the {@code @SequenceGenerator}s of the entities.
+     */
+    static final int ALLOCATION_SIZE = 50;
+
+    private static final List<IdSequence> SEQUENCES = List.of(
+            new IdSequence("user_seq", "user", "id_user"),
+            new IdSequence("user_role_seq", "user_role", "id_user_role"),
+            new IdSequence("company_seq", "company", "id_company"),
+            new IdSequence("user_connection_seq", "user_connection", "id_user_connection"),
+            new IdSequence("login_activity_seq", "login_activity", "id_login_activity"));
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (IdSequence sequence : SEQUENCES) {
+                long maxId;
+                try (ResultSet result = statement.executeQuery(
+                        "SELECT COALESCE(MAX(" + sequence.column() + "), 0) FROM " + sequence.table())) {
+                    result.next();
+                    maxId = result.getLong(1);
+                }
+                statement.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence.name() + " START WITH "
+                        + (maxId + ALLOCATION_SIZE) + " INCREMENT BY " + ALLOCATION_SIZE);
+            }
+        }
+    }
+
+    /**
+     * @param name   the sequence name.
+     * @param table  the table whose identifiers the sequence generates.
+     * @param column the identifier column of the table.
+     */
+    private record IdSequence(String name, String table, String column) {
+    }
+}
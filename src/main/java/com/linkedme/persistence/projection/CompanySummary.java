@@ -0,0 +1,10 @@
+package com.linkedme.persistence.projection;
+
+/**
+ * Flat, read-only view of a {@link com.linkedme.persistence.entity.Company}.
+ *
+ * @param id   the company identifier.
+ * @param name the name of the company.
+ */
+public record CompanySummary(Long id, String name) {
+}
@@ -0,0 +1,10 @@
+package com.linkedme.persistence.projection;
+
+/**
+ * One directed row of the "user_connection" table, without loading either user.
+ *
+ * @param userId    the identifier of the user owning the row.
+ * @param contactId the identifier of the connected user.
+ */
+public record ConnectionEdge(long userId, long contactId) {
+}
@@ -0,0 +1,12 @@
+package com.linkedme.persistence.projection;
+
+/**
+ * A contact of a user as listed on the friends page, without loading the contact entity.
+ *
+ * @param contactId   the identifier of the contact.
+ * @param name        the name of the contact.
+ * @param companyId   the identifier of the contact's company, or null.
+ * @param companyName the name of the contact's company, or null.
+ */
+public record ConnectionSummary(long contactId, String name, Long companyId, String companyName) {
+}
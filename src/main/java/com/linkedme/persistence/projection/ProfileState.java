@@ -0,0 +1,18 @@
+package com.linkedme.persistence.projection;
+
+import java.time.Instant;
+
+/**
+ * What profile enrichment needs to know about a user: where to fetch the profile and how fresh it is.
+ *
+ * <p>Selected through a JPQL constructor expression, so it is not a managed entity and does not load the role
+ * rows of the user.</p>
+ *
+ * @param userId       the user identifier.
+ * @param email        the email of the user.
+ * @param etag         the ETag of the last profile response, or null.
+ * @param lastModified the Last-Modified date of the last profile response, or null.
+ * @param fetchedAt    when the profile was last fetched, or null if never.
+ */
+public record ProfileState(Long userId, String email, String etag, Instant lastModified, Instant fetchedAt) {
+}
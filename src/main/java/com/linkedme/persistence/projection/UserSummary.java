@@ -0,0 +1,16 @@
+package com.linkedme.persistence.projection;
+
+/**
+ * Flat, read-only view of a {@link com.linkedme.persistence.entity.User}.
+ *
+ * <p>Selected through a JPQL constructor expression, so it is not a managed entity: streaming summaries does
+ * not grow the persistence context and does not load the role rows of each user.</p>
+ *
+ * @param id        the user identifier.
+ * @param name      the name of the user.
+ * @param email     the email of the user.
+ * @param roleMask  the roles of the user as a bitmask.
+ * @param companyId the identifier of the user's company, or null.
+ */
+public record UserSummary(Long id, String name, String email, long roleMask, Long companyId) {
+}
@@ -0,0 +1,54 @@
+package com.linkedme.persistence.repository;
+
+import com.linkedme.persistence.entity.Company;
+import com.linkedme.persistence.projection.CompanySummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for managing {@link Company} entities.
+ *
+ * <p>This interface extends {@link JpaRepository}, which provides basic CRUD (Create, Read, Update, Delete)
+ * operations and query execution for the {@link Company} entity.</p>
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@Repository: Marks this interface as a Spring Data Repository, enabling exception translation
+ *     and automatic implementation by Spring Data JPA.</li>
+ * </ul>
+ */
+@Repository
+public interface CompanyRepository extends JpaRepository<Company, Long> {
+
+    /**
+     * Finds the companies with any of the given names.
+     *
+     * @param names the exact company names to look up.
+     * @return the matching companies, in no particular order.
+     */
+    List<Company> findByNameIn(Collection<String> names);
+
+    /**
+     * Streams a {@link CompanySummary} of every company, ordered by identifier.
+     *
+     * <p>Like {@link UserRepository#streamAllSummaries()}, it must be consumed inside a transaction and the
+     * returned stream must be closed.</p>
+     *
+     * @return a stream of all company summaries.
+     */
+    @Query("SELECT new com.linkedme.persistence.projection.CompanySummary(c.id, c.name) FROM Company c ORDER BY c.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + UserRepository.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<CompanySummary> streamAllSummaries();
+}
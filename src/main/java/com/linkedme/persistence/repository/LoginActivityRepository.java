@@ -0,0 +1,38 @@
+package com.linkedme.persistence.repository;
+
+import com.linkedme.persistence.entity.LoginActivity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing {@link LoginActivity} entities.
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@Repository: Marks this interface as a Spring Data Repository, enabling exception translation
+ *     and automatic implementation by Spring Data JPA.</li>
+ * </ul>
+ */
+@Repository
+public interface LoginActivityRepository extends JpaRepository<LoginActivity, Long> {
+
+    /**
+     * Finds the latest logins of a user.
+     *
+     * @param userId   the user identifier.
+     * @param pageable the number of logins to return.
+     * @return the logins, latest first.
+     */
+    List<LoginActivity> findByUserIdOrderByLoggedAtDesc(Long userId, Pageable pageable);
+
+    /**
+     * Finds the last login loaded from the journal, whose position is where loading resumes.
+     *
+     * @return the last loaded login, if any.
+     */
+    Optional<LoginActivity> findTopByOrderByJournalSegmentDescJournalNextOffsetDesc();
+}
@@ -0,0 +1,58 @@
+package com.linkedme.persistence.repository;
+
+import com.linkedme.persistence.entity.MemberToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing {@link MemberToken} entities.
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@Repository: Marks this interface as a Spring Data Repository, enabling exception translation
+ *     and automatic implementation by Spring Data JPA.</li>
+ * </ul>
+ */
+@Repository
+public interface MemberTokenRepository extends JpaRepository<MemberToken, Long> {
+
+    /**
+     * Finds the tokens of a principal.
+     *
+     * @param registrationId the client registration identifier.
+     * @param principalName  the name of the principal at the provider.
+     * @return the tokens, if the principal ever logged in.
+     */
+    Optional<MemberToken> findByRegistrationIdAndPrincipalName(String registrationId, String principalName);
+
+    /**
+     * Finds the users whose access token expires before a given time and can be refreshed, by increasing
+     * identifier so that the rows can be read in pages whatever is refreshed meanwhile.
+     *
+     * @param afterUserId   the identifier the users follow, the last of the previous page.
+     * @param expiresBefore the time the access tokens expire before.
+     * @param pageable      the size of the page.
+     * @return the user identifiers.
+     */
+    @Query("SELECT t.userId FROM MemberToken t WHERE t.userId > :afterUserId AND t.expiresAt < :expiresBefore "
+            + "AND t.refreshToken IS NOT NULL ORDER BY t.userId")
+    List<Long> findRefreshableUserIds(@Param("afterUserId") long afterUserId,
+                                      @Param("expiresBefore") Instant expiresBefore, Pageable pageable);
+
+    /**
+     * Deletes the tokens of a principal.
+     *
+     * @param registrationId the client registration identifier.
+     * @param principalName  the name of the principal at the provider.
+     */
+    @Transactional
+    void deleteByRegistrationIdAndPrincipalName(String registrationId, String principalName);
+}
@@ -1,6 +1,7 @@
 package com.linkedme.persistence.repository;
 
 import com.linkedme.persistence.entity.Role;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -24,15 +25,24 @@ import java.util.Optional;
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
 
+    /**
+     * Name of the cache holding roles by name.
+     */
+    String ROLES_CACHE = "roles";
+
     /**
      * Finds a role by its name.
      *
      * <p>This method leverages Spring Data JPA's derived query capabilities to find a role
      * with the specified name.</p>
      *
+     * <p>Roles are looked up on every first login and practically never change, so found roles are kept in
+     * the {@value #ROLES_CACHE} cache. Missing roles are not cached.</p>
+     *
      * @param name the name of the role to find.
      * @return an {@link Optional} containing the role if found, or empty if no role with the specified name exists.
      */
+    @Cacheable(cacheNames = ROLES_CACHE, unless = "#result == null")
     Optional<Role> findByName(String name);
 
     /**
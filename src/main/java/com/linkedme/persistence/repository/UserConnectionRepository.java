@@ -0,0 +1,107 @@
+package com.linkedme.persistence.repository;
+
+import com.linkedme.persistence.entity.UserConnection;
+import com.linkedme.persistence.projection.ConnectionEdge;
+import com.linkedme.persistence.projection.ConnectionSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for managing {@link UserConnection} entities.
+ *
+ * <p>This interface extends {@link JpaRepository}, which provides basic CRUD (Create, Read, Update, Delete)
+ * operations and query execution for the {@link UserConnection} entity. Connections are stored in both
+ * directions, so the connections of a user are the rows it owns.</p>
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@Repository: Marks this interface as a Spring Data Repository, enabling exception translation
+ *     and automatic implementation by Spring Data JPA.</li>
+ * </ul>
+ */
+@Repository
+public interface UserConnectionRepository extends JpaRepository<UserConnection, Long> {
+
+    /**
+     * Finds which of the given users the user is already connected to.
+     *
+     * @param userId     the identifier of the user.
+     * @param contactIds the identifiers of the candidate contacts.
+     * @return the identifiers of the candidates already connected to the user.
+     */
+    @Query("SELECT c.contact.id FROM UserConnection c WHERE c.user.id = :userId AND c.contact.id IN :contactIds")
+    List<Long> findContactIds(@Param("userId") Long userId, @Param("contactIds") Collection<Long> contactIds);
+
+    /**
+     * Streams every connection row as a {@link ConnectionEdge}, grouped by owning user.
+     *
+     * <p>Like {@link UserRepository#streamAllSummaries()}, it must be consumed inside a transaction and the
+     * returned stream must be closed.</p>
+     *
+     * @return a stream of all connection edges, ordered by owning user then contact.
+     */
+    @Query("SELECT new com.linkedme.persistence.projection.ConnectionEdge(c.user.id, c.contact.id) "
+            + "FROM UserConnection c ORDER BY c.user.id, c.contact.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + UserRepository.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ConnectionEdge> streamAllEdges();
+
+    /**
+     * Finds the contacts of a user following a given one by name, for keyset pagination.
+     *
+     * <p>The page starts strictly after the contact identified by {@code afterName} and {@code afterContactId},
+     * so pages stay stable while connections are added before or after them. Pass an empty name and
+     * {@link Long#MIN_VALUE} for the first page.</p>
+     *
+     * @param userId         the identifier of the user.
+     * @param afterName      the name of the last contact of the previous page.
+     * @param afterContactId the identifier of the last contact of the previous page.
+     * @param limit          the maximum number of contacts.
+     * @return the contacts, ordered by name then identifier.
+     */
+    @Query("SELECT new com.linkedme.persistence.projection.ConnectionSummary(u.id, u.name, co.id, co.name) "
+            + "FROM UserConnection c JOIN c.contact u LEFT JOIN u.company co "
+            + "WHERE c.user.id = :userId AND (u.name > :afterName OR (u.name = :afterName AND u.id > :afterContactId)) "
+            + "ORDER BY u.name, u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<ConnectionSummary> findPageByName(@Param("userId") long userId, @Param("afterName") String afterName,
+                                           @Param("afterContactId") long afterContactId, Limit limit);
+
+    /**
+     * Finds the contacts of a user following a given one by company, for keyset pagination.
+     *
+     * <p>Same as {@link #findPageByName} with the company name, empty for contacts without a company, as the
+     * first sort key. Pass empty names and {@link Long#MIN_VALUE} for the first page.</p>
+     *
+     * @param userId         the identifier of the user.
+     * @param afterCompany   the company name of the last contact of the previous page, empty if none.
+     * @param afterName      the name of the last contact of the previous page.
+     * @param afterContactId the identifier of the last contact of the previous page.
+     * @param limit          the maximum number of contacts.
+     * @return the contacts, ordered by company name, name then identifier.
+     */
+    @Query("SELECT new com.linkedme.persistence.projection.ConnectionSummary(u.id, u.name, co.id, co.name) "
+            + "FROM UserConnection c JOIN c.contact u LEFT JOIN u.company co "
+            + "WHERE c.user.id = :userId AND (COALESCE(co.name, '') > :afterCompany "
+            + "OR (COALESCE(co.name, '') = :afterCompany "
+            + "AND (u.name > :afterName OR (u.name = :afterName AND u.id > :afterContactId)))) "
+            + "ORDER BY COALESCE(co.name, ''), u.name, u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<ConnectionSummary> findPageByCompany(@Param("userId") long userId,
+                                              @Param("afterCompany") String afterCompany,
+                                              @Param("afterName") String afterName,
+                                              @Param("afterContactId") long afterContactId, Limit limit);
+}
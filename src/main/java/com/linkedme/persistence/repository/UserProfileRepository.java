@@ -0,0 +1,34 @@
+package com.linkedme.persistence.repository;
+
+import com.linkedme.persistence.entity.UserProfile;
+import com.linkedme.persistence.projection.ProfileState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link UserProfile} entities.
+ *
+ * <p>Annotations:</p>
+ * <ul>
+ *     <li>@Repository: Marks this interface as a Spring Data Repository, enabling exception translation
+ *     and automatic implementation by Spring Data JPA.</li>
+ * </ul>
+ */
+@Repository
+public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
+
+    /**
+     * Reads the email and profile validators of many users with a single query.
+     *
+     * @param userIds the user identifiers.
+     * @return the state of every existing user, with or without a profile, in no particular order.
+     */
+    @Query("SELECT new com.linkedme.persistence.projection.ProfileState(u.id, u.email, p.etag, p.lastModified, "
+            + "p.fetchedAt) FROM User u LEFT JOIN UserProfile p ON p.userId = u.id WHERE u.id IN :userIds")
+    List<ProfileState> findStates(@Param("userIds") Collection<Long> userIds);
+}
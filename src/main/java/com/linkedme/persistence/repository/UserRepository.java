@@ -1,10 +1,19 @@
 package com.linkedme.persistence.repository;
 
 import com.linkedme.persistence.entity.User;
+import com.linkedme.persistence.projection.UserSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link User} entities.
@@ -22,6 +31,11 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Number of rows fetched per round trip when streaming users.
+     */
+    int STREAM_FETCH_SIZE = 1_000;
+
     /**
      * Finds a user by their email address.
      *
@@ -32,4 +46,42 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return an {@link Optional} containing the user if found, or empty if no user with the specified email exists.
      */
     Optional<User> findByEmail(String email);
+
+    /**
+     * Finds the users with any of the given email addresses.
+     *
+     * @param emails the email addresses to look up.
+     * @return the matching users, in no particular order.
+     */
+    List<User> findByEmailIn(Collection<String> emails);
+
+    /**
+     * Finds the users with any of the given email addresses, together with their roles.
+     *
+     * <p>The roles are fetched by the same query, instead of one secondary select per user for the eagerly
+     * loaded {@link User#getRoles()}.</p>
+     *
+     * @param emails the email addresses to look up.
+     * @return the matching users, in no particular order.
+     */
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles ur LEFT JOIN FETCH ur.role WHERE u.email IN :emails")
+    List<User> findWithRolesByEmailIn(@Param("emails") Collection<String> emails);
+
+    /**
+     * Streams a {@link UserSummary} of every user, ordered by identifier.
+     *
+     * <p>The query is read-only and fetched {@value #STREAM_FETCH_SIZE} rows at a time through a forward-only
+     * cursor, so it can walk millions of users with constant memory. It must be consumed inside a transaction
+     * and the returned stream must be closed.</p>
+     *
+     * @return a stream of all user summaries.
+     */
+    @Query("SELECT new com.linkedme.persistence.projection.UserSummary(u.id, u.name, u.email, u.roleMask, c.id) "
+            + "FROM User u LEFT JOIN u.company c ORDER BY u.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<UserSummary> streamAllSummaries();
 }
\ No newline at end of file
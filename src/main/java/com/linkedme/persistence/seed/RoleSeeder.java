@@ -0,0 +1,68 @@
+package com.linkedme.persistence.seed;
+
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.persistence.repository.RoleRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Seeds the roles the application relies on.
+ *
+ * <p>Seeding is idempotent so it can run on every startup against a persistent database: the existing roles
+ * are read with a single {@link RoleRepository#findByNames(List)} query and only the missing ones are
+ * inserted, in a single {@code saveAll} call, with their stable bit index from {@link Role#BITS}.</p>
+ *
+ * <p>If several instances start at the same time, one of them may lose the race on the unique
+ * {@code des_name} column. That is not an error: the roles exist, which is all seeding has to guarantee.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class RoleSeeder {
+
+    /**
+     * Roles that must exist for the application to work.
+     */
+    public static final List<String> DEFAULT_ROLES = List.of(Role.ROLE_USER, Role.ROLE_ADMIN);
+
+    // Repository for managing role data
+    RoleRepository roleRepository;
+
+    /**
+     * Inserts the {@link #DEFAULT_ROLES} that are not in the database yet.
+     */
+    public void seed() {
+        // Look up all default roles in one round trip
+        Set<String> existing = roleRepository.findByNames(DEFAULT_ROLES).stream()
+                .map(Role::getName)
+                .collect(Collectors.toSet());
+
+        List<Role> missing = DEFAULT_ROLES.stream()
+                .filter(name -> !existing.contains(name))
+                .map(name -> Role.builder().name(name).bit(Role.BITS.get(name)).build())
+                .toList();
+
+        if (missing.isEmpty()) {
+            log.debug("stage=role-seeding, message=roles-present, roles={}", existing);
+            return;
+        }
+
+        try {
+            // Insert all missing roles in one transaction
+            roleRepository.saveAll(missing);
+            log.info("stage=role-seeding, message=roles-created, roles={}", missing.stream().map(Role::getName).toList());
+        } catch (DataIntegrityViolationException e) {
+            // Another instance seeded the same roles concurrently
+            log.info("stage=role-seeding, message=roles-created-concurrently");
+        }
+    }
+}
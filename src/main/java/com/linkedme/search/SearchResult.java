@@ -0,0 +1,22 @@
+package com.linkedme.search;
+
+/**
+ * One typeahead suggestion.
+ *
+ * @param type   whether the suggestion is a user or a company.
+ * @param id     the identifier of the user or company.
+ * @param name   the name to display.
+ * @param detail secondary text to display: the company of a user, null for a company.
+ * @param degree the network distance to the caller (1 or 2), or 0 if unknown or farther.
+ * @param score  the ranking score, higher first.
+ */
+public record SearchResult(Type type, long id, String name, String detail, int degree, double score) {
+
+    /**
+     * Kind of searchable entity.
+     */
+    public enum Type {
+        USER,
+        COMPANY
+    }
+}
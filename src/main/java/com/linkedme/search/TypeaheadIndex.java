@@ -0,0 +1,757 @@
+package com.linkedme.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory typeahead index over user names and emails and company names.
+ *
+ * <p>Every entry is stored in a slot and indexed twice:</p>
+ * <ul>
+ *     <li>by <b>term</b>, in a sorted map from normalized words (lower case, accents removed) to the slots
+ *     containing them, so the entries matching a prefix are a sub-map range. Emails are indexed both as a
+ *     whole and by the words of their local part;</li>
+ *     <li>by <b>trigram</b> of each term, to find entries whose terms share most trigrams with a misspelt
+ *     query word.</li>
+ * </ul>
+ *
+ * <p>A search collects candidates in order of decreasing relevance and stops early to bound its latency: the
+ * caller's network ({@link Proximity#nearbyUsers()} and {@link Proximity#nearbyCompanies()}) is checked
+ * first, then at most {@value #MAX_PREFIX_CANDIDATES} postings of the prefix range of the most selective query
+ * word, then, if there are still fewer results than requested, misspellings: the prefix ranges of the word
+ * with two letters swapped or one letter dropped, and the trigram postings. Each candidate is scored
+ * by how well it matches the query, plus a boost for its network distance to the caller, and the top-k are
+ * kept in a bounded heap.</p>
+ *
+ * <p>The index is safe for concurrent use: searches share a read lock and updates take the write lock. An
+ * update replaces the entry in place and moves its slot between posting lists, so no tombstone accumulates.
+ * Posting lists are kept sorted, so moving a slot out of one is a binary search and not a scan under the write
+ * lock.</p>
+ */
+public class TypeaheadIndex {
+
+    /**
+     * Maximum number of prefix postings visited by a search.
+     */
+    static final int MAX_PREFIX_CANDIDATES = 500;
+
+    /**
+     * Maximum number of distinct terms of a prefix range visited by a search.
+     */
+    static final int MAX_PREFIX_TERMS = 1_000;
+
+    /**
+     * Maximum number of prefix postings visited for each corrected variant of a misspelt query word.
+     */
+    static final int MAX_VARIANT_CANDIDATES = 100;
+
+    /**
+     * Trigrams with more postings than this are too common to help a fuzzy search and are ignored.
+     */
+    static final int MAX_TRIGRAM_POSTINGS = 20_000;
+
+    /**
+     * Minimum share of the query word trigrams an entry must contain to match fuzzily.
+     */
+    static final double FUZZY_THRESHOLD = 0.5;
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final long NO_COMPANY = -1;
+
+    /**
+     * Network information about the caller, used to find and rank results.
+     */
+    public interface Proximity {
+
+        /**
+         * Proximity of a caller without connections.
+         */
+        Proximity NONE = new Proximity() {
+        };
+
+        /**
+         * Every user with a non-zero {@link #degreeOf degree} must be returned here: later phases of a search
+         * assume the entries they find have none.
+         *
+         * @return the users close to the caller, checked before any other candidate, closest first.
+         */
+        default long[] nearbyUsers() {
+            return new long[0];
+        }
+
+        /**
+         * Every company with a non-zero {@link #degreeOf degree} must be returned here.
+         *
+         * @return the companies close to the caller, checked before any other candidate.
+         */
+        default long[] nearbyCompanies() {
+            return new long[0];
+        }
+
+        /**
+         * @param type the type of the entry.
+         * @param id   the identifier of the entry.
+         * @return the network distance of the entry to the caller (1 or 2), or 0 if unknown or farther.
+         */
+        default int degreeOf(SearchResult.Type type, long id) {
+            return 0;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<Long, Integer> userSlots = new HashMap<>();
+    private final Map<Long, Integer> companySlots = new HashMap<>();
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Postings> trigrams = new HashMap<>();
+
+    /**
+     * Adds or replaces a user.
+     *
+     * @param id        the user identifier.
+     * @param name      the name of the user.
+     * @param email     the email of the user.
+     * @param companyId the identifier of the user's company, or null.
+     */
+    public void putUser(long id, String name, String email, Long companyId) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            put(userSlots, new Entry(SearchResult.Type.USER, id, name, companyId == null ? NO_COMPANY : companyId,
+                    textOf(termsOf(name, email))));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a company.
+     *
+     * @param id   the company identifier.
+     * @param name the name of the company.
+     */
+    public void putCompany(long id, String name) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            put(companySlots, new Entry(SearchResult.Type.COMPANY, id, name, NO_COMPANY,
+                    textOf(termsOf(name, null))));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Applies many updates under a single acquisition of the write lock, e.g. while loading the index.
+     *
+     * @param updates calls to {@link #putUser} and {@link #putCompany}.
+     */
+    public void batch(Runnable updates) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            updates.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the companies of the given users.
+     *
+     * @param userIds the user identifiers.
+     * @return the distinct identifiers of the companies of the users that have one.
+     */
+    public long[] companiesOf(long[] userIds) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            Set<Long> companies = new LinkedHashSet<>();
+            for (long userId : userIds) {
+                Integer slot = userSlots.get(userId);
+                if (slot != null && entries.get(slot).companyId != NO_COMPANY) {
+                    companies.add(entries.get(slot).companyId);
+                }
+            }
+            return companies.stream().mapToLong(Long::longValue).toArray();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed users and companies.
+     */
+    public int size() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return entries.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the best matches of a query.
+     *
+     * @param query     the text typed so far; an email (containing '@') is matched as a whole.
+     * @param limit     the maximum number of results.
+     * @param proximity the network of the caller.
+     * @return the results, best first.
+     */
+    public List<SearchResult> search(String query, int limit, Proximity proximity) {
+        String[] words = queryWords(query);
+        if (words.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        // Terms are matched by their start, which is always preceded by a space in the entry text
+        String[] needles = Arrays.stream(words).map(word -> " " + word).toArray(String[]::new);
+        // The longest word is the most selective one to scan
+        String scanned = Arrays.stream(words).max(Comparator.comparingInt(String::length)).orElseThrow();
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            TopResults top = new TopResults(limit);
+            SlotSet seen = new SlotSet();
+
+            // 1. The caller's network, whatever the number of matches elsewhere
+            for (long userId : proximity.nearbyUsers()) {
+                Integer slot = userSlots.get(userId);
+                if (slot != null) {
+                    consider(slot, needles, 1, 0, proximity, top, seen);
+                }
+            }
+            for (long companyId : proximity.nearbyCompanies()) {
+                Integer slot = companySlots.get(companyId);
+                if (slot != null) {
+                    consider(slot, needles, 1, 0, proximity, top, seen);
+                }
+            }
+
+            // 2. A bounded scan of the entries having a term starting with the scanned word
+            scanPrefix(scanned, MAX_PREFIX_CANDIDATES, needles, 1, proximity, top, seen);
+
+            // 3. Misspellings, only to fill the remaining places
+            if (!top.isFull() && scanned.length() >= 3 && scanned.indexOf('@') < 0) {
+                // Swapped or extra letters, by scanning the prefixes of the corrected word
+                for (String variant : editVariants(scanned)) {
+                    String[] variantNeedles = needles.clone();
+                    variantNeedles[Arrays.asList(words).indexOf(scanned)] = " " + variant;
+                    scanPrefix(variant, MAX_VARIANT_CANDIDATES, variantNeedles, 0.5, proximity, top, seen);
+                }
+                // Wrong letters, by shared trigrams
+                fuzzyCandidates(scanned, (slot, similarity) ->
+                        consider(slot, needles, 1, similarity / 2, proximity, top, seen));
+            }
+            return top.sorted();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Considers at most {@code maxCandidates} entries having a term starting with a word.
+     *
+     * <p>Entries found here are not in the caller's network, so once enough results are found a term whose best
+     * possible score cannot beat them is skipped without reading its postings.</p>
+     */
+    private void scanPrefix(String word, int maxCandidates, String[] needles, double weight, Proximity proximity,
+                            TopResults top, SlotSet seen) {
+        int visitedPostings = 0;
+        int visitedTerms = 0;
+        for (Map.Entry<String, Postings> term : terms.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            if (++visitedTerms > MAX_PREFIX_TERMS) {
+                return;
+            }
+            double bound = weight * (needles.length - 1 + termScore(word.length(), term.getKey().length())) / needles.length;
+            if (top.isFull() && !top.accepts(bound)) {
+                continue;
+            }
+            Postings postings = term.getValue();
+            for (int i = 0; i < postings.size; i++) {
+                consider(postings.slots[i], needles, weight, 0, proximity, top, seen);
+                if (++visitedPostings == maxCandidates) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Scores a candidate and offers it to the top results.
+     *
+     * @param weight        the factor applied to the text score, lower for corrected queries.
+     * @param fallbackScore the text score of an entry that does not match the words, 0 to ignore it.
+     */
+    private void consider(int slot, String[] needles, double weight, double fallbackScore, Proximity proximity,
+                          TopResults top, SlotSet seen) {
+        if (seen.contains(slot)) {
+            return;
+        }
+        Entry entry = entries.get(slot);
+        double textScore = weight * textScore(entry.text, needles);
+        if (textScore == 0) {
+            // Not a match, but a later phase may still find it with other words
+            if (fallbackScore == 0) {
+                return;
+            }
+            textScore = fallbackScore;
+        }
+        seen.add(slot);
+        int degree = proximity.degreeOf(entry.type, entry.id);
+        double score = textScore + switch (degree) {
+            case 1 -> 1.0;
+            case 2 -> 0.5;
+            default -> 0;
+        };
+        if (top.accepts(score)) {
+            String detail = null;
+            if (entry.companyId != NO_COMPANY) {
+                Integer companySlot = companySlots.get(entry.companyId);
+                detail = companySlot == null ? null : entries.get(companySlot).name;
+            }
+            top.add(new SearchResult(entry.type, entry.id, entry.name, detail, degree, score));
+        }
+    }
+
+    /**
+     * Scores how well the text of an entry matches the query words: every word must start one of its terms,
+     * whole-term matches and longer matched fractions scoring higher.
+     *
+     * @param text    the terms of the entry, each preceded by a space.
+     * @param needles the query words, each preceded by a space.
+     * @return a score in ]0, 1], or 0 if a word matches no term.
+     */
+    private static double textScore(String text, String[] needles) {
+        double total = 0;
+        for (String needle : needles) {
+            double best = 0;
+            for (int at = text.indexOf(needle); at >= 0; at = text.indexOf(needle, at + 1)) {
+                int end = text.indexOf(' ', at + 1);
+                int termLength = (end < 0 ? text.length() : end) - at - 1;
+                best = Math.max(best, termScore(needle.length() - 1, termLength));
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total / needles.length;
+    }
+
+    /**
+     * Scores a word matching the start of a term.
+     */
+    private static double termScore(int wordLength, int termLength) {
+        return termLength == wordLength ? 1 : 0.5 + 0.4 * wordLength / termLength;
+    }
+
+    /**
+     * Returns the words one edit away from a word by swapping two adjacent letters or dropping one letter.
+     */
+    static Set<String> editVariants(String word) {
+        Set<String> variants = new LinkedHashSet<>();
+        char[] letters = word.toCharArray();
+        for (int i = 0; i + 1 < letters.length; i++) {
+            if (letters[i] != letters[i + 1]) {
+                char[] swapped = letters.clone();
+                swapped[i] = letters[i + 1];
+                swapped[i + 1] = letters[i];
+                variants.add(new String(swapped));
+            }
+        }
+        if (word.length() >= 4) {
+            for (int i = 0; i < letters.length; i++) {
+                variants.add(word.substring(0, i) + word.substring(i + 1));
+            }
+        }
+        variants.remove(word);
+        return variants;
+    }
+
+    /**
+     * Finds the entries sharing at least {@link #FUZZY_THRESHOLD} of the trigrams of a word.
+     *
+     * @param candidates receives each entry found with its similarity (share of the word trigrams found).
+     */
+    private void fuzzyCandidates(String word, FuzzyCandidates candidates) {
+        List<String> wordTrigrams = trigramsOf(word);
+        SlotCounts hits = new SlotCounts();
+        for (String trigram : wordTrigrams) {
+            Postings postings = trigrams.get(trigram);
+            if (postings != null && postings.size <= MAX_TRIGRAM_POSTINGS) {
+                for (int i = 0; i < postings.size; i++) {
+                    hits.increment(postings.slots[i]);
+                }
+            }
+        }
+        int[] slots = hits.slots;
+        int[] counts = hits.counts;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != -1) {
+                double similarity = (double) counts[i] / wordTrigrams.size();
+                if (similarity >= FUZZY_THRESHOLD) {
+                    candidates.accept(slots[i], similarity);
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives the entries found by {@link #fuzzyCandidates}, without boxing them.
+     */
+    @FunctionalInterface
+    private interface FuzzyCandidates {
+        void accept(int slot, double similarity);
+    }
+
+    /**
+     * Stores an entry, reusing the slot of the entry it replaces. Must hold the write lock.
+     */
+    private void put(Map<Long, Integer> slots, Entry entry) {
+        Integer slot = slots.get(entry.id);
+        if (slot == null) {
+            slot = entries.size();
+            entries.add(entry);
+            slots.put(entry.id, slot);
+            index(slot, entry.terms(), Set.of());
+            return;
+        }
+        Entry previous = entries.set(slot, entry);
+        String[] previousTerms = previous.terms();
+        String[] currentTerms = entry.terms();
+        unindex(slot, previousTerms, Set.copyOf(Arrays.asList(currentTerms)));
+        index(slot, currentTerms, Set.copyOf(Arrays.asList(previousTerms)));
+    }
+
+    private void index(int slot, String[] entryTerms, Set<String> alreadyIndexed) {
+        Set<String> indexedTrigrams = trigramsOf(alreadyIndexed);
+        Set<String> added = new HashSet<>();
+        for (String term : entryTerms) {
+            if (!alreadyIndexed.contains(term)) {
+                terms.computeIfAbsent(term, key -> new Postings()).add(slot);
+            }
+            for (String trigram : trigramsOf(term)) {
+                if (!indexedTrigrams.contains(trigram) && added.add(trigram)) {
+                    trigrams.computeIfAbsent(trigram, key -> new Postings()).add(slot);
+                }
+            }
+        }
+    }
+
+    private void unindex(int slot, String[] entryTerms, Set<String> kept) {
+        Set<String> keptTrigrams = trigramsOf(kept);
+        Set<String> removed = new HashSet<>();
+        for (String term : entryTerms) {
+            if (!kept.contains(term)) {
+                remove(terms, term, slot);
+            }
+            for (String trigram : trigramsOf(term)) {
+                if (!keptTrigrams.contains(trigram) && removed.add(trigram)) {
+                    remove(trigrams, trigram, slot);
+                }
+            }
+        }
+    }
+
+    private static void remove(Map<String, Postings> postingsByKey, String key, int slot) {
+        Postings postings = postingsByKey.get(key);
+        if (postings != null && postings.remove(slot) && postings.size == 0) {
+            postingsByKey.remove(key);
+        }
+    }
+
+    /**
+     * Returns the distinct normalized terms of a name and an optional email.
+     *
+     * <p>No term contains whitespace, so that the terms of an {@link Entry} can be joined with spaces.</p>
+     */
+    static String[] termsOf(String name, String email) {
+        Set<String> result = new LinkedHashSet<>();
+        addWords(result, name);
+        if (email != null && !email.isBlank()) {
+            String normalizedEmail = normalizeEmail(email);
+            result.add(normalizedEmail);
+            int at = normalizedEmail.indexOf('@');
+            addWords(result, at < 0 ? normalizedEmail : normalizedEmail.substring(0, at));
+        }
+        return result.toArray(String[]::new);
+    }
+
+    /**
+     * Splits a query into normalized words; a query containing '@' is a single email word.
+     */
+    static String[] queryWords(String query) {
+        if (query == null || query.isBlank()) {
+            return new String[0];
+        }
+        if (query.indexOf('@') >= 0) {
+            return new String[]{normalizeEmail(query)};
+        }
+        Set<String> words = new LinkedHashSet<>();
+        addWords(words, query);
+        return words.toArray(String[]::new);
+    }
+
+    private static void addWords(Set<String> target, String text) {
+        if (text == null) {
+            return;
+        }
+        for (String word : WORD_SEPARATOR.split(normalize(text))) {
+            if (!word.isEmpty()) {
+                target.add(word);
+            }
+        }
+    }
+
+    /**
+     * Lower-cases a text and strips its accents.
+     */
+    static String normalize(String text) {
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalizes an email into a single term, without whitespace.
+     */
+    private static String normalizeEmail(String email) {
+        return WHITESPACE.matcher(normalize(email)).replaceAll("");
+    }
+
+    /**
+     * Returns the trigrams of a word, the first one anchored at the start of the word.
+     */
+    static List<String> trigramsOf(String word) {
+        String padded = " " + word;
+        List<String> result = new ArrayList<>(Math.max(1, padded.length() - 2));
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static Set<String> trigramsOf(Set<String> words) {
+        if (words.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> result = new HashSet<>();
+        words.forEach(word -> result.addAll(trigramsOf(word)));
+        return result;
+    }
+
+    /**
+     * Joins terms into the text of an entry, each term preceded by a space.
+     */
+    private static String textOf(String[] entryTerms) {
+        StringBuilder text = new StringBuilder();
+        for (String term : entryTerms) {
+            text.append(' ').append(term);
+        }
+        return text.toString();
+    }
+
+    /**
+     * An indexed user or company.
+     *
+     * <p>Its terms are kept as a single string rather than an array, so that scoring a candidate reads one
+     * object instead of one per term.</p>
+     */
+    private record Entry(SearchResult.Type type, long id, String name, long companyId, String text) {
+
+        String[] terms() {
+            return text.isEmpty() ? new String[0] : text.substring(1).split(" ");
+        }
+    }
+
+    /**
+     * Open-addressing set of slots, to avoid boxing the candidates of a search.
+     */
+    private static final class SlotSet {
+        private int[] table = new int[256];
+        private int size;
+
+        SlotSet() {
+            Arrays.fill(table, -1);
+        }
+
+        boolean contains(int slot) {
+            int mask = table.length - 1;
+            for (int i = mix(slot) & mask; table[i] != -1; i = (i + 1) & mask) {
+                if (table[i] == slot) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(int slot) {
+            if (size * 2 >= table.length) {
+                int[] previous = table;
+                table = new int[previous.length * 2];
+                Arrays.fill(table, -1);
+                size = 0;
+                for (int value : previous) {
+                    if (value != -1) {
+                        insert(value);
+                    }
+                }
+            }
+            insert(slot);
+        }
+
+        private void insert(int slot) {
+            int mask = table.length - 1;
+            int i = mix(slot) & mask;
+            while (table[i] != -1) {
+                if (table[i] == slot) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = slot;
+            size++;
+        }
+
+        private static int mix(int slot) {
+            int hash = slot * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * Open-addressing counters by slot, to count the trigrams of the candidates of a fuzzy search without boxing
+     * them.
+     */
+    private static final class SlotCounts {
+        private int[] slots = new int[256];
+        private int[] counts = new int[256];
+        private int size;
+
+        SlotCounts() {
+            Arrays.fill(slots, -1);
+        }
+
+        void increment(int slot) {
+            if (size * 2 >= slots.length) {
+                int[] previousSlots = slots;
+                int[] previousCounts = counts;
+                slots = new int[previousSlots.length * 2];
+                counts = new int[previousSlots.length * 2];
+                Arrays.fill(slots, -1);
+                for (int i = 0; i < previousSlots.length; i++) {
+                    if (previousSlots[i] != -1) {
+                        counts[indexOf(previousSlots[i])] = previousCounts[i];
+                    }
+                }
+            }
+            counts[indexOf(slot)]++;
+        }
+
+        /**
+         * Returns the index of a slot in the table, inserting it with a zero count if missing.
+         */
+        private int indexOf(int slot) {
+            int mask = slots.length - 1;
+            int i = SlotSet.mix(slot) & mask;
+            while (slots[i] != -1) {
+                if (slots[i] == slot) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            slots[i] = slot;
+            size++;
+            return i;
+        }
+    }
+
+    /**
+     * Growable list of slots, sorted so that a slot is found by binary search.
+     *
+     * <p>New entries take the next slot, so most additions are appends; only an update adding a term to an
+     * existing entry inserts in the middle.</p>
+     */
+    private static final class Postings {
+        int[] slots = new int[2];
+        int size;
+
+        void add(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, at, slots, at + 1, size - at);
+            slots[at] = slot;
+            size++;
+        }
+
+        boolean remove(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Bounded min-heap keeping the best results.
+     */
+    private static final class TopResults {
+        private final int limit;
+        private final PriorityQueue<SearchResult> heap;
+
+        TopResults(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(SearchResult::score));
+        }
+
+        boolean isFull() {
+            return heap.size() == limit;
+        }
+
+        boolean accepts(double score) {
+            return !isFull() || score > heap.peek().score();
+        }
+
+        void add(SearchResult result) {
+            heap.add(result);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        List<SearchResult> sorted() {
+            List<SearchResult> results = new ArrayList<>(heap);
+            results.sort(Comparator.comparingDouble(SearchResult::score).reversed()
+                    .thenComparing(SearchResult::name));
+            return results;
+        }
+    }
+}
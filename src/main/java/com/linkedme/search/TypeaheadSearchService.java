@@ -0,0 +1,212 @@
+package com.linkedme.search;
+
+import com.linkedme.graph.ConnectionGraph;
+import com.linkedme.graph.Neighbourhood;
+import com.linkedme.graph.shard.ShardedGraph;
+import com.linkedme.persistence.event.CompanySavedEvent;
+import com.linkedme.persistence.event.UserSavedEvent;
+import com.linkedme.persistence.projection.CompanySummary;
+import com.linkedme.persistence.projection.UserSummary;
+import com.linkedme.persistence.repository.CompanyRepository;
+import com.linkedme.persistence.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead search over users and companies, ranked by network proximity to the caller.
+ *
+ * <p>The {@link TypeaheadIndex} is loaded on startup, before the warm-up and therefore before the application
+ * reports ready, and then kept up to date incrementally from {@link UserSavedEvent}s and
+ * {@link CompanySavedEvent}s once their transaction has committed. Connection imports reach the search through
+ * the {@link ConnectionGraph}: the network of a caller is computed from the graph and cached per user along with
+ * the graph version it was computed from, so any change of the graph makes it recomputed on next use. When the
+ * graph is partitioned only the version of the local partition is known, and connections imported elsewhere
+ * between users of other partitions do not change it: a network is then also recomputed once it is older than
+ * {@link #PARTITIONED_NETWORK_TTL}, which bounds how long such connections go unseen.</p>
+ *
+ * <p>Searches are recorded in the {@code linkedme.search} timer.</p>
+ */
+@Slf4j
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE + 20) // After the connection graph, before the warm-up
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TypeaheadSearchService implements ApplicationRunner {
+
+    /**
+     * Maximum number of contacts of contacts considered as the caller's network.
+     */
+    static final int MAX_SECOND_DEGREE = 10_000;
+
+    /**
+     * Number of cached networks past which the cache is emptied.
+     */
+    static final int MAX_CACHED_NETWORKS = 10_000;
+
+    /**
+     * Age past which a network is recomputed when the graph is partitioned.
+     */
+    static final Duration PARTITIONED_NETWORK_TTL = Duration.ofSeconds(30);
+
+    private static final int LOAD_BATCH_SIZE = 1_000;
+
+    TypeaheadIndex index = new TypeaheadIndex();
+    Map<Long, NetworkProximity> networks = new ConcurrentHashMap<>();
+    ShardedGraph graph;
+    UserRepository userRepository;
+    CompanyRepository companyRepository;
+    Timer searchTimer;
+
+    public TypeaheadSearchService(ShardedGraph graph, UserRepository userRepository,
+                                  CompanyRepository companyRepository, MeterRegistry meterRegistry) {
+        this.graph = graph;
+        this.userRepository = userRepository;
+        this.companyRepository = companyRepository;
+        this.searchTimer = Timer.builder("linkedme.search")
+                .description("Typeahead search latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Finds the users and companies best matching a query for a user.
+     *
+     * @param userId the identifier of the searching user.
+     * @param query  the text typed so far.
+     * @param limit  the maximum number of results.
+     * @return the results, best first.
+     */
+    public List<SearchResult> search(long userId, String query, int limit) {
+        return searchTimer.record(() -> index.search(query, limit, networkOf(userId)));
+    }
+
+    /**
+     * Loads every user and company into the index.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        // Companies first, so that users can be displayed with their company as soon as they are indexed
+        try (Stream<CompanySummary> companies = companyRepository.streamAllSummaries()) {
+            load(companies, company -> index.putCompany(company.id(), company.name()));
+        }
+        try (Stream<UserSummary> users = userRepository.streamAllSummaries()) {
+            load(users, user -> index.putUser(user.id(), user.name(), user.email(), user.companyId()));
+        }
+        log.info("stage=typeahead-index, message=loaded, entries={}, durationMs={}",
+                index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexes a saved user once its transaction has committed.
+     *
+     * @param event the saved user.
+     */
+    @TransactionalEventListener
+    public void onUserSaved(UserSavedEvent event) {
+        index.putUser(event.id(), event.name(), event.email(), event.companyId());
+    }
+
+    /**
+     * Indexes a saved company once its transaction has committed.
+     *
+     * @param event the saved company.
+     */
+    @TransactionalEventListener
+    public void onCompanySaved(CompanySavedEvent event) {
+        index.putCompany(event.id(), event.name());
+    }
+
+    /**
+     * Returns the cached network of a user, recomputing it if the graph changed since or, when partitioned, if it
+     * is too old.
+     */
+    private NetworkProximity networkOf(long userId) {
+        NetworkProximity network = networks.get(userId);
+        long now = System.nanoTime();
+        if (network == null || network.neighbourhood().version() != graph.localGraph().version()
+                || graph.partitioner().shardCount() > 1
+                && now - network.computedAt() > PARTITIONED_NETWORK_TTL.toNanos()) {
+            Neighbourhood neighbourhood = Neighbourhood.of(graph, userId, MAX_SECOND_DEGREE);
+            long[] users = new long[neighbourhood.firstDegree().length + neighbourhood.secondDegree().length];
+            System.arraycopy(neighbourhood.firstDegree(), 0, users, 0, neighbourhood.firstDegree().length);
+            System.arraycopy(neighbourhood.secondDegree(), 0, users, neighbourhood.firstDegree().length,
+                    neighbourhood.secondDegree().length);
+
+            // The caller's company and the companies of their contacts
+            long[] firstDegreeAndSelf = Arrays.copyOf(neighbourhood.firstDegree(), neighbourhood.firstDegree().length + 1);
+            firstDegreeAndSelf[firstDegreeAndSelf.length - 1] = userId;
+            long[] companies = index.companiesOf(firstDegreeAndSelf);
+            Arrays.sort(companies);
+
+            network = new NetworkProximity(neighbourhood, users, companies, now);
+            if (networks.size() >= MAX_CACHED_NETWORKS) {
+                networks.clear();
+            }
+            networks.put(userId, network);
+        }
+        return network;
+    }
+
+    /**
+     * Indexes rows in batches, each under a single acquisition of the index write lock so that searches can
+     * run between batches.
+     */
+    private <T> void load(Stream<T> rows, Consumer<T> put) {
+        List<T> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        for (Iterator<T> iterator = rows.iterator(); iterator.hasNext(); ) {
+            batch.add(iterator.next());
+            if (batch.size() == LOAD_BATCH_SIZE || !iterator.hasNext()) {
+                index.batch(() -> batch.forEach(put));
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * The network of a caller, as seen by the index.
+     *
+     * @param neighbourhood the users within two hops of the caller.
+     * @param nearbyUsers   the first then second degree users.
+     * @param companies     the sorted identifiers of the companies of the caller and their contacts.
+     * @param computedAt    the {@link System#nanoTime()} at which the network was computed.
+     */
+    private record NetworkProximity(Neighbourhood neighbourhood, long[] nearbyUsers, long[] companies,
+                                    long computedAt)
+            implements TypeaheadIndex.Proximity {
+
+        @Override
+        public long[] nearbyCompanies() {
+            return companies;
+        }
+
+        @Override
+        public int degreeOf(SearchResult.Type type, long id) {
+            if (type == SearchResult.Type.COMPANY) {
+                return Arrays.binarySearch(companies, id) >= 0 ? 1 : 0;
+            }
+            int degree = neighbourhood.degreeOf(id);
+            return degree == 1 || degree == 2 ? degree : 0;
+        }
+    }
+}
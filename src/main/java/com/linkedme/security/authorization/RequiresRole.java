@@ -0,0 +1,27 @@
+package com.linkedme.security.authorization;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts a method (or all methods of a class) to users having at least one of the given roles.
+ *
+ * <p>This is the role mask counterpart of {@code @PreAuthorize("hasAnyRole(...)")}: the role names are
+ * resolved to a mask once per method and every invocation is authorized with a single bitwise test against
+ * the user's current role mask, see {@link RoleMaskAuthorizationManager}.</p>
+ *
+ * <p>Example: {@code @RequiresRole(Role.ROLE_ADMIN)}.</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RequiresRole {
+
+    /**
+     * @return the role names (e.g. {@code ROLE_ADMIN}), any of which grants access.
+     */
+    String[] value();
+}
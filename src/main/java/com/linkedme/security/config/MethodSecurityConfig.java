@@ -0,0 +1,48 @@
+package com.linkedme.security.config;
+
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.security.authorization.RequiresRole;
+import com.linkedme.security.authorization.RoleMaskAuthorizationManager;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.Pointcuts;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.util.function.SingletonSupplier;
+
+/**
+ * Method security configuration for the role mask based {@link RequiresRole} annotation.
+ *
+ * <p>Registers an interceptor, ordered like {@code @PreAuthorize}, that authorizes every method annotated
+ * with {@link RequiresRole} (directly or through its class) with a {@link RoleMaskAuthorizationManager}.
+ * Denied invocations raise an {@code AccessDeniedException}, handled like any other by Spring Security.</p>
+ */
+@Configuration
+public class MethodSecurityConfig {
+
+    /**
+     * Creates the advisor enforcing {@link RequiresRole}.
+     *
+     * <p>The method is static and the bean an infrastructure bean so that it is available to the
+     * auto-proxy creator before the controllers it advises are created. For the same reason the user directory
+     * is only looked up on the first authorization.</p>
+     *
+     * @param userDirectoryService the directory of the current role masks.
+     * @return the {@link RequiresRole} authorization advisor.
+     */
+    @Bean
+    @org.springframework.context.annotation.Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresRoleAuthorizationAdvisor(ObjectProvider<UserDirectoryService> userDirectoryService) {
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                Pointcuts.union(
+                        new AnnotationMatchingPointcut(null, RequiresRole.class, true), // Annotated methods
+                        new AnnotationMatchingPointcut(RequiresRole.class, true)), // Methods of annotated classes
+                new RoleMaskAuthorizationManager(SingletonSupplier.of(userDirectoryService::getObject)));
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+}
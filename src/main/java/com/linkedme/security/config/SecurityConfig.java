@@ -1,5 +1,11 @@
 package com.linkedme.security.config;
 
+import com.linkedme.admission.AdmissionProperties;
+import com.linkedme.admission.LoginAdmissionFilter;
+import com.linkedme.admission.LoginConcurrencyLimiter;
+import com.linkedme.journal.LoginJournalService;
+import com.linkedme.journal.LoginTrace;
+import com.linkedme.linkedin.LinkedinApiInterceptor;
 import com.linkedme.security.handler.CustomOAuth2AuthenticationFailureHandler;
 import com.linkedme.security.handler.LinkedinOAuth2LoginSuccessHandler;
 import com.linkedme.security.service.LinkedinOidUserService;
@@ -19,10 +25,12 @@ import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCo
 import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.client.web.DefaultOAuth2AuthorizationRequestResolver;
+import org.springframework.security.oauth2.client.web.OAuth2LoginAuthenticationFilter;
 import org.springframework.security.oauth2.core.http.converter.OAuth2AccessTokenResponseHttpMessageConverter;
 import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.client.RestTemplate;
+import org.thymeleaf.ITemplateEngine;
 
 import java.util.Arrays;
 
@@ -35,6 +43,9 @@ import java.util.Arrays;
  * - Configures endpoints that are accessible without authentication.
  * - Implements OAuth2 login with LinkedIn, customizing the request resolver and success/failure handlers.
  * - Uses a custom OAuth2 token response client to handle LinkedIn's specific token requirements.
+ * - Keeps the token requests within the LinkedIn quota with the {@link LinkedinApiInterceptor}.
+ * - Times the code exchange and records failed logins in the {@link LoginJournalService}.
+ * - Rejects the login callbacks over the adaptive {@link LoginConcurrencyLimiter} before they reach LinkedIn.
  */
 @Configuration
 @EnableWebSecurity
@@ -51,11 +62,17 @@ public class SecurityConfig {
             "/swagger-ui/**", // Swagger UI for API testing
             "/resources/**", // Static resources like CSS and JS files
             "/favicon.ico", // Default browser favicon
+            "/actuator/health/**", // Liveness and readiness probes
     };
 
     ClientRegistrationRepository clientRegistrationRepository;
     LinkedinOAuth2LoginSuccessHandler linkedinOAuth2LoginSuccessHandler;
     LinkedinOidUserService oidcUserService;
+    LinkedinApiInterceptor linkedinApiInterceptor;
+    LoginJournalService loginJournalService;
+    LoginConcurrencyLimiter loginConcurrencyLimiter;
+    AdmissionProperties admissionProperties;
+    ITemplateEngine templateEngine;
 
     /**
      * Configures the SecurityFilterChain for the application.
@@ -85,8 +102,10 @@ public class SecurityConfig {
                         .tokenEndpoint(tokenEndpoint -> tokenEndpoint
                                 .accessTokenResponseClient(accessTokenResponseClient())) // Use custom token response client
                         .successHandler(linkedinOAuth2LoginSuccessHandler) // Handle successful login
-                        .failureHandler(new CustomOAuth2AuthenticationFailureHandler()) // Handle login failures
+                        .failureHandler(new CustomOAuth2AuthenticationFailureHandler(loginJournalService)) // Handle login failures
                 )
+                .addFilterBefore(new LoginAdmissionFilter(loginConcurrencyLimiter, admissionProperties, templateEngine),
+                        OAuth2LoginAuthenticationFilter.class) // Shed the login callbacks over the limit
                 .build(); // Build the SecurityFilterChain
     }
 
@@ -112,7 +131,8 @@ public class SecurityConfig {
     }
 
     /**
-     * Configures a custom OAuth2AccessTokenResponseClient to handle LinkedIn's token response.
+     * Configures a custom OAuth2AccessTokenResponseClient to handle LinkedIn's token response, and times it
+     * for the login journal.
      *
      * @return a configured OAuth2AccessTokenResponseClient.
      */
@@ -122,11 +142,17 @@ public class SecurityConfig {
                 new FormHttpMessageConverter(), // Handles form data
                 new OAuth2AccessTokenResponseHttpMessageConverter())); // Handles OAuth2 token responses
 
-        restTemplate.getInterceptors().add((request, body, execution) -> {
-            return execution.execute(request, body); // Pass the request through unchanged
-        });
+        restTemplate.getInterceptors().add(linkedinApiInterceptor); // Rate limits, retries on 429
         restTemplate.setErrorHandler(new OAuth2ErrorResponseErrorHandler()); // Handle OAuth2-specific errors
         client.setRestOperations(restTemplate); // Set custom RestTemplate for the client
-        return client;
+        return request -> {
+            LoginTrace trace = LoginTrace.current(); // The code exchange is the first stage of a login
+            long start = System.nanoTime();
+            try {
+                return client.getTokenResponse(request);
+            } finally {
+                trace.token(System.nanoTime() - start);
+            }
+        };
     }
 }
@@ -1,6 +1,12 @@
 package com.linkedme.security.handler;
 
+import com.linkedme.journal.LoginJournalService;
+import com.linkedme.journal.LoginOutcome;
+import com.linkedme.journal.LoginRecord;
+import com.linkedme.journal.LoginTrace;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import java.io.IOException;
 
@@ -13,12 +19,17 @@ import java.io.IOException;
  * <p>Key responsibilities:</p>
  * <ul>
  *     <li>Logs the details of the failure for debugging and monitoring.</li>
+ *     <li>Records the failure and its reason in the {@link LoginJournalService}.</li>
  *     <li>Redirects the user to a custom error page, allowing the application
  *         to provide feedback about the failure.</li>
  * </ul>
  */
+@RequiredArgsConstructor
 public class CustomOAuth2AuthenticationFailureHandler implements AuthenticationFailureHandler {
 
+    // Write-behind journal of the login activity
+    private final LoginJournalService loginJournalService;
+
     /**
      * Handles authentication failure events.
      *
@@ -36,6 +47,12 @@ public class CustomOAuth2AuthenticationFailureHandler implements AuthenticationF
         System.err.println("Authentication failed: " + exception.getMessage());
         exception.printStackTrace();
 
+        // Record the failure, with the OAuth2 error code when there is one
+        String reason = exception instanceof OAuth2AuthenticationException oauth2
+                ? oauth2.getError().getErrorCode() + ": " + exception.getMessage()
+                : exception.getClass().getSimpleName() + ": " + exception.getMessage();
+        loginJournalService.record(LoginTrace.finish(request, LoginRecord.UNKNOWN, LoginOutcome.FAILURE, reason));
+
         // Redirect the user to a custom error page with a message describing the failure
         response.sendRedirect("/error?message=" + exception.getMessage());
     }
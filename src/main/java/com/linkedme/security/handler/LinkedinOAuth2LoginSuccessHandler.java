@@ -1,6 +1,11 @@
 package com.linkedme.security.handler;
 
-import com.linkedme.persistence.repository.UserRepository;
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.journal.LoginJournalService;
+import com.linkedme.journal.LoginOutcome;
+import com.linkedme.journal.LoginRecord;
+import com.linkedme.journal.LoginTrace;
+import com.linkedme.security.model.LinkedmeOidcUser;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AccessLevel;
@@ -26,8 +31,9 @@ import static com.linkedme.controller.AuthenticationController.AUTHENTICATION_EN
  * <p>Key responsibilities:</p>
  * <ul>
  *     <li>Retrieve the authenticated user's email from the authentication token.</li>
- *     <li>Check if the user exists in the database using {@link UserRepository}.</li>
+ *     <li>Look the user up in the off-heap {@link UserDirectoryService}, without loading the entity.</li>
  *     <li>Store the user in the session for later use.</li>
+ *     <li>Record the login in the {@link LoginJournalService}, off the database.</li>
  *     <li>Redirect the user to the authentication endpoint.</li>
  * </ul>
  */
@@ -37,14 +43,17 @@ import static com.linkedme.controller.AuthenticationController.AUTHENTICATION_EN
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class LinkedinOAuth2LoginSuccessHandler implements AuthenticationSuccessHandler {
 
-    // Repository for accessing user data in the database
-    UserRepository userRepository;
+    // Off-heap directory of the users
+    UserDirectoryService userDirectoryService;
+
+    // Write-behind journal of the login activity
+    LoginJournalService loginJournalService;
 
     /**
      * Handles successful authentication events.
      *
      * <p>This method is automatically called when a user successfully authenticates
-     * using LinkedIn. It retrieves the user's email, checks if the user exists in the database,
+     * using LinkedIn. It retrieves the user's email, checks if the user exists in the directory,
      * and redirects them to the authentication endpoint.</p>
      *
      * @param request        The HTTP request during the successful authentication attempt.
@@ -61,8 +70,8 @@ public class LinkedinOAuth2LoginSuccessHandler implements AuthenticationSuccessH
         // Ensure that the email is not null (basic validation)
         Objects.requireNonNull(email);
 
-        // Look up the user in the database using their email
-        userRepository.findByEmail(email).ifPresent(
+        // Look up the user in the directory using their email
+        userDirectoryService.findByEmail(email).ifPresent(
                 user -> {
                     // Log the successful lookup for monitoring/debugging
                     log.info("stage=on-authentication-success, message=person-found, person={} ", user);
@@ -71,6 +80,11 @@ public class LinkedinOAuth2LoginSuccessHandler implements AuthenticationSuccessH
                     request.getSession().setAttribute("person", user);
                 });
 
+        // Record the login with the durations of its stages
+        long userId = authentication.getPrincipal() instanceof LinkedmeOidcUser principal
+                && principal.getUserId() != null ? principal.getUserId() : LoginRecord.UNKNOWN;
+        loginJournalService.record(LoginTrace.finish(request, userId, LoginOutcome.SUCCESS, null));
+
         // Redirect the user to the predefined authentication endpoint
         response.sendRedirect(AUTHENTICATION_ENDPOINT_PATH);
     }
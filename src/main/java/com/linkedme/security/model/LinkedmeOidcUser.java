@@ -0,0 +1,61 @@
+package com.linkedme.security.model;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * OIDC principal of a LinkedMe user.
+ *
+ * <p>On top of the standard {@link DefaultOidcUser} data, the principal carries the local user identifier
+ * and the user's roles as a bitmask (see {@link com.linkedme.persistence.entity.Role#getBit()}), so request
+ * handling can identify the user and authorize them without touching the database or scanning the
+ * authority collection.</p>
+ */
+@Getter
+public class LinkedmeOidcUser extends DefaultOidcUser {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Identifier of the local {@link com.linkedme.persistence.entity.User}.
+     */
+    private final Long userId;
+
+    /**
+     * Roles of the user as a bitmask of role bits.
+     */
+    private final long roleMask;
+
+    /**
+     * Creates the principal.
+     *
+     * @param authorities the authorities granted to the user.
+     * @param idToken     the ID token of the user.
+     * @param userInfo    the claims returned by the userinfo endpoint, may be null.
+     * @param userId      the identifier of the local user.
+     * @param roleMask    the roles of the user as a bitmask.
+     */
+    public LinkedmeOidcUser(Collection<? extends GrantedAuthority> authorities, OidcIdToken idToken,
+                            OidcUserInfo userInfo, Long userId, long roleMask) {
+        super(authorities, idToken, userInfo);
+        this.userId = userId;
+        this.roleMask = roleMask;
+    }
+
+    /**
+     * Tests whether the user has at least one of the roles of the given mask.
+     *
+     * @param mask the role mask to test.
+     * @return true if any of the roles in the mask is assigned to the user.
+     */
+    public boolean hasAnyRole(long mask) {
+        return (roleMask & mask) != 0;
+    }
+}
@@ -0,0 +1,181 @@
+package com.linkedme.security.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.model.AuthenticationProfile;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.security.model.LinkedmeOidcUser;
+import jakarta.servlet.http.HttpSession;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-session cache of the serialized {@link AuthenticationProfile}.
+ *
+ * <p>The profile of a session only changes with the principal (new login) or with the roles of its user, so
+ * the JSON bytes, their gzip encoding and the ETag are computed once and kept in the session. The roles of a
+ * {@link LinkedmeOidcUser} are read from the {@link UserDirectoryService}, which follows role changes (first
+ * login of an imported contact, admin import) once committed, rather than from the authorities granted at
+ * login. Each entry is stamped with the subject and role mask it was built from, and rebuilt as soon as they no
+ * longer match, so a role change shows on the next request without any session having to be found and
+ * invalidated.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuthenticationProfileCache {
+
+    /**
+     * Session attribute under which the serialized profile is stored.
+     */
+    static final String SESSION_ATTRIBUTE = AuthenticationProfileCache.class.getName() + ".PROFILE";
+
+    /**
+     * Role mask stamp of principals whose roles are read from their authorities.
+     */
+    private static final long AUTHORITY_ROLES = -1;
+
+    // Mapper used to serialize the profile, shared with the rest of the application
+    ObjectMapper objectMapper;
+
+    // Directory holding the current roles of the users
+    UserDirectoryService userDirectoryService;
+
+    /**
+     * Returns the serialized profile of the given principal, serializing it only if the session does not
+     * hold an up-to-date copy yet.
+     *
+     * @param session  the session of the current request.
+     * @param oidcUser the authenticated user.
+     * @return the serialized profile.
+     */
+    public SerializedProfile get(HttpSession session, OidcUser oidcUser) {
+        long roleMask = roleMaskOf(oidcUser);
+        if (session.getAttribute(SESSION_ATTRIBUTE) instanceof SerializedProfile cached
+                && cached.roleMask == roleMask && Objects.equals(cached.subject, oidcUser.getSubject())) {
+            return cached;
+        }
+
+        SerializedProfile profile = serialize(oidcUser, roleMask);
+        session.setAttribute(SESSION_ATTRIBUTE, profile);
+        return profile;
+    }
+
+    /**
+     * Serializes the current profile of a principal, without looking at or filling any session.
+     *
+     * @param oidcUser the authenticated user.
+     * @return the serialized profile.
+     */
+    public SerializedProfile serialize(OidcUser oidcUser) {
+        return serialize(oidcUser, roleMaskOf(oidcUser));
+    }
+
+    private SerializedProfile serialize(OidcUser oidcUser, long roleMask) {
+        AuthenticationProfile profile = roleMask == AUTHORITY_ROLES
+                ? AuthenticationProfile.from(oidcUser)
+                : AuthenticationProfile.from(oidcUser, Role.namesOf(roleMask));
+        try {
+            return new SerializedProfile(oidcUser.getSubject(), roleMask, objectMapper.writeValueAsBytes(profile));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the authentication profile", e);
+        }
+    }
+
+    /**
+     * Returns the current roles of a LinkedMe user, those of its login until the directory knows the user, or
+     * {@link #AUTHORITY_ROLES} for other principals.
+     */
+    private long roleMaskOf(OidcUser oidcUser) {
+        if (!(oidcUser instanceof LinkedmeOidcUser user) || user.getUserId() == null) {
+            return AUTHORITY_ROLES;
+        }
+        return userDirectoryService.roleMask(user.getUserId()).orElse(user.getRoleMask());
+    }
+
+    /**
+     * The serialized profile with its validators.
+     */
+    public static final class SerializedProfile implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 2L;
+
+        private final String subject;
+        private final long roleMask;
+        private final byte[] json;
+        private final String etag;
+        // Encoded lazily, only once a client accepting gzip asks for it
+        private volatile byte[] gzip;
+
+        SerializedProfile(String subject, long roleMask, byte[] json) {
+            this.subject = subject;
+            this.roleMask = roleMask;
+            this.json = json;
+            this.etag = "\"" + digest(json) + "\"";
+        }
+
+        /**
+         * @return the JSON representation.
+         */
+        public byte[] json() {
+            return json;
+        }
+
+        /**
+         * @return the gzip-encoded JSON representation.
+         */
+        public byte[] gzip() {
+            byte[] encoded = gzip;
+            if (encoded == null) {
+                encoded = gzip = compress(json);
+            }
+            return encoded;
+        }
+
+        /**
+         * Returns the strong ETag of one representation. The encodings get distinct tags, as required for
+         * representations that differ byte for byte.
+         *
+         * @param gzipped whether the tag is for the gzip-encoded representation.
+         * @return the quoted ETag.
+         */
+        public String etag(boolean gzipped) {
+            return gzipped ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+        }
+
+        private static String digest(byte[] bytes) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+                return HexFormat.of().formatHex(hash, 0, 16);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static byte[] compress(byte[] bytes) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer.toByteArray();
+        }
+    }
+}
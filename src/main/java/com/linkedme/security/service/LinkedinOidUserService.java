@@ -1,19 +1,23 @@
 package com.linkedme.security.service;
 
+import com.linkedme.directory.DirectoryUser;
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.enrichment.ProfileEnrichmentService;
+import com.linkedme.journal.LoginTrace;
 import com.linkedme.persistence.entity.Role;
 import com.linkedme.persistence.entity.User;
-import com.linkedme.persistence.entity.UserRole;
 import com.linkedme.persistence.repository.RoleRepository;
 import com.linkedme.persistence.repository.UserRepository;
+import com.linkedme.security.model.LinkedmeOidcUser;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
-import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
@@ -30,8 +34,15 @@ import java.util.*;
  * <p>Key responsibilities:</p>
  * <ul>
  *     <li>Loads user information from LinkedIn using the OIDC protocol.</li>
- *     <li>Retrieves or creates users in the local database based on the received email.</li>
+ *     <li>Resolves returning users from the off-heap {@link UserDirectoryService} without loading the
+ *     {@link User} entity, falling back to the database.</li>
+ *     <li>Retrieves or creates users in the local database based on the received email, activating users
+ *     created by a connection import on their first login.</li>
  *     <li>Maps LinkedIn roles to application-specific authorities.</li>
+ *     <li>Exposes the local user id and role mask on the returned {@link LinkedmeOidcUser}.</li>
+ *     <li>Queues the user for {@link ProfileEnrichmentService profile enrichment}, which never delays the
+ *     login.</li>
+ *     <li>Times the userinfo and user resolution stages of the login in the {@link LoginTrace}.</li>
  * </ul>
  */
 @Service
@@ -39,12 +50,23 @@ import java.util.*;
 @FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
 public class LinkedinOidUserService implements OAuth2UserService<OidcUserRequest, OidcUser> {
 
+    private static final long DEFAULT_ROLE_MASK = Role.maskOf(Role.ROLE_USER);
+
     // Repository for managing user data
     UserRepository userRepository;
 
     // Repository for managing role data
     RoleRepository roleRepository;
 
+    // Off-heap directory resolving returning users
+    UserDirectoryService userDirectoryService;
+
+    // Background pipeline fetching the rest of the profile
+    ProfileEnrichmentService profileEnrichmentService;
+
+    // Userinfo client kept within the LinkedIn quota
+    DefaultOAuth2UserService linkedinUserInfoService;
+
     /**
      * Loads user information from the OIDC request.
      *
@@ -56,23 +78,88 @@ public class LinkedinOidUserService implements OAuth2UserService<OidcUserRequest
     public OidcUser loadUser(OidcUserRequest userRequest) throws OAuth2AuthenticationException {
         // Use the default OIDC user service to load the user
         final OidcUserService delegate = new OidcUserService();
-        OidcUser oidcUser = delegate.loadUser(userRequest);
+        delegate.setOauth2UserService(linkedinUserInfoService);
 
-        // Initialize authorities with the ones provided by the OIDC user
-        List<GrantedAuthority> mappedAuthorities = new ArrayList<>(oidcUser.getAuthorities());
+        // Time the userinfo and resolution stages for the login journal
+        LoginTrace trace = LoginTrace.current();
+        long start = System.nanoTime();
+        OidcUser oidcUser = delegate.loadUser(userRequest);
+        long resolveStart = System.nanoTime();
+        trace.userInfo(resolveStart - start);
 
         // Extract the user's email from the OIDC user attributes
         String email = Objects.requireNonNull(oidcUser.getAttribute("email"));
 
+        // Returning users are found in the directory; users without the default role go through the database,
+        // which grants it to contacts created by an import
+        Optional<DirectoryUser> known = userDirectoryService.findByEmail(email)
+                .filter(entry -> (entry.roleMask() & DEFAULT_ROLE_MASK) != 0);
+        String accessToken = userRequest.getAccessToken().getTokenValue();
+        if (known.isPresent()) {
+            trace.resolve(System.nanoTime() - resolveStart);
+            profileEnrichmentService.submit(known.get().id(), accessToken);
+            return new LinkedmeOidcUser(mapAuthorities(oidcUser.getAuthorities(), known.get().roleMask()),
+                    oidcUser.getIdToken(), oidcUser.getUserInfo(), known.get().id(), known.get().roleMask());
+        }
+
         // Retrieve the user from the database or create a new one
         var user = userRepository.findByEmail(email)
+                .map(this::activateImportedUser)
                 .orElseGet(() -> createNewUser(oidcUser));
+        trace.resolve(System.nanoTime() - resolveStart);
+        profileEnrichmentService.submit(user.getId(), accessToken);
+
+        // Return a new OIDC user with the updated authorities, the local user id and the role mask
+        return new LinkedmeOidcUser(mapAuthorities(oidcUser.getAuthorities(), user), oidcUser.getIdToken(),
+                oidcUser.getUserInfo(), user.getId(), user.getRoleMask());
+    }
+
+    /**
+     * Combines the authorities granted by the provider with the roles stored for the user.
+     *
+     * @param providerAuthorities the authorities provided by the OIDC user (e.g. OIDC_USER and scopes).
+     * @param user                the local user whose roles are added.
+     * @return the authorities of the authenticated principal.
+     */
+    public List<GrantedAuthority> mapAuthorities(Collection<? extends GrantedAuthority> providerAuthorities, User user) {
+        // Initialize authorities with the ones provided by the OIDC user
+        List<GrantedAuthority> mappedAuthorities = new ArrayList<>(providerAuthorities);
 
         // Add roles to the authorities from the database
         user.getRoles().forEach(role -> mappedAuthorities.add(new SimpleGrantedAuthority(role.getRole().getName())));
+        return mappedAuthorities;
+    }
+
+    /**
+     * Combines the authorities granted by the provider with the roles of a role mask.
+     *
+     * @param providerAuthorities the authorities provided by the OIDC user (e.g. OIDC_USER and scopes).
+     * @param roleMask            the roles of the local user as a bitmask.
+     * @return the authorities of the authenticated principal.
+     */
+    public List<GrantedAuthority> mapAuthorities(Collection<? extends GrantedAuthority> providerAuthorities,
+                                                 long roleMask) {
+        List<GrantedAuthority> mappedAuthorities = new ArrayList<>(providerAuthorities);
+        Role.namesOf(roleMask).forEach(name -> mappedAuthorities.add(new SimpleGrantedAuthority(name)));
+        return mappedAuthorities;
+    }
 
-        // Return a new OIDC user with the updated authorities
-        return new DefaultOidcUser(mappedAuthorities, oidcUser.getIdToken(), oidcUser.getUserInfo());
+    /**
+     * Grants the default role to a user created by a connection import, on their first login.
+     *
+     * <p>Imported contacts are recognized by their lack of role rows, which are authoritative, rather than by
+     * their role mask.</p>
+     *
+     * @param user the user found by email.
+     * @return the user, saved with the default role if it had no role yet.
+     */
+    private User activateImportedUser(User user) {
+        if (user.getRoles() != null && !user.getRoles().isEmpty()) {
+            return user;
+        }
+        var role = roleRepository.findByName(Role.ROLE_USER).orElseThrow(() -> new RuntimeException("Role not found"));
+        user.addRole(role);
+        return userRepository.save(user);
     }
 
     /**
@@ -95,8 +182,8 @@ public class LinkedinOidUserService implements OAuth2UserService<OidcUserRequest
                 .email(email)
                 .build();
 
-        // Assign the default role to the user
-        user.setRoles(List.of(UserRole.builder().user(user).role(role).build()));
+        // Assign the default role to the user, both as a role row and in the role mask
+        user.addRole(role);
 
         // Save the new user to the database and return it
         return userRepository.save(user);
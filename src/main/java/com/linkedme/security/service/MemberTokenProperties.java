@@ -0,0 +1,46 @@
+package com.linkedme.security.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the member token store, see {@link PersistentAuthorizedClientService} and
+ * {@link MemberTokenService}.
+ *
+ * <p>Bound from the {@code linkedme.member-tokens} prefix, e.g. {@code linkedme.member-tokens.refresh-before=3d}.</p>
+ */
+@ConfigurationProperties(prefix = "linkedme.member-tokens")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class MemberTokenProperties {
+
+    /**
+     * Password the key encrypting the stored tokens is derived from; when empty, tokens are kept in memory
+     * only and are lost on restart.
+     */
+    String encryptionPassword;
+
+    /**
+     * Hex-encoded salt of the key derivation, at least 16 hex digits; required with a password, so that every
+     * deployment derives its own key.
+     */
+    String encryptionSalt;
+
+    /**
+     * How long before its expiry an access token is refreshed, when LinkedIn issued a refresh token; LinkedIn
+     * access tokens live 60 days.
+     */
+    Duration refreshBefore = Duration.ofDays(7);
+
+    /**
+     * How often the stored tokens expiring within {@code refresh-before} are refreshed, whether or not their
+     * member is looked up meanwhile.
+     */
+    Duration sweepInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,230 @@
+package com.linkedme.security.service;
+
+import com.linkedme.persistence.repository.MemberTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2RefreshTokenGrantRequest;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AccessTokenResponse;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access tokens of the members for the LinkedIn calls made on their behalf outside of a login, e.g. profile
+ * enrichment after a connection import.
+ *
+ * <p>Tokens come from the {@link PersistentAuthorizedClientService}, so a member who logged in once, even
+ * before a restart, does not have to log in again until the token expires. A token expiring within
+ * {@code refresh-before} is refreshed in the background while it is still served; concurrent lookups of the
+ * same member share a single refresh, and only lookups of an already expired token wait for it.</p>
+ *
+ * <p>The <b>sweeper</b> refreshes every {@code sweep-interval} the stored tokens expiring within
+ * {@code refresh-before}, one member at a time, so that the tokens of members nobody looks up do not expire
+ * unnoticed until their next lookup.</p>
+ *
+ * <p>Metrics: {@code linkedme.member-tokens.reauthentications-avoided} (calls served with a stored token) and
+ * {@code linkedme.member-tokens.refreshes} (refreshes per outcome).</p>
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MemberTokenService implements ApplicationRunner, AutoCloseable {
+
+    // Tokens expiring sooner than that are not handed out, the call would fail on its way
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(1);
+
+    // Number of members read at once by the sweeper
+    private static final int SWEEP_PAGE_SIZE = 100;
+
+    MemberTokenProperties properties;
+    PersistentAuthorizedClientService authorizedClientService;
+    MemberTokenRepository memberTokenRepository;
+    OAuth2AccessTokenResponseClient<OAuth2RefreshTokenGrantRequest> refreshTokenClient;
+    Map<Long, CompletableFuture<OAuth2AuthorizedClient>> refreshes = new ConcurrentHashMap<>();
+    ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+    Thread sweeper = Thread.ofVirtual().name("member-tokens-sweeper").unstarted(this::sweep);
+    Counter avoided;
+    Counter refreshed;
+    Counter refreshFailed;
+
+    public MemberTokenService(MemberTokenProperties properties,
+                              PersistentAuthorizedClientService authorizedClientService,
+                              MemberTokenRepository memberTokenRepository,
+                              OAuth2AccessTokenResponseClient<OAuth2RefreshTokenGrantRequest> refreshTokenClient,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.authorizedClientService = authorizedClientService;
+        this.memberTokenRepository = memberTokenRepository;
+        this.refreshTokenClient = refreshTokenClient;
+        this.avoided = Counter.builder("linkedme.member-tokens.reauthentications-avoided")
+                .description("LinkedIn calls made with a stored member token instead of a new login")
+                .register(meterRegistry);
+        this.refreshed = refreshes(meterRegistry, "refreshed");
+        this.refreshFailed = refreshes(meterRegistry, "failed");
+    }
+
+    /**
+     * Finds a usable access token of a user.
+     *
+     * @param userId the user identifier.
+     * @return the access token, or empty if the user has to log in again.
+     * @throws InterruptedException if interrupted while waiting for the refresh of an expired token.
+     */
+    public Optional<String> accessToken(long userId) throws InterruptedException {
+        Optional<OAuth2AuthorizedClient> found = authorizedClientService.findByUserId(userId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        OAuth2AuthorizedClient client = found.get();
+        OAuth2AccessToken token = client.getAccessToken();
+        Instant now = Instant.now();
+        boolean expired = token.getExpiresAt() != null && now.plus(CLOCK_SKEW).isAfter(token.getExpiresAt());
+        boolean expiring = token.getExpiresAt() != null
+                && now.plus(properties.getRefreshBefore()).isAfter(token.getExpiresAt());
+        if (expiring && client.getRefreshToken() != null) {
+            CompletableFuture<OAuth2AuthorizedClient> refresh = refresh(userId, client);
+            if (expired) {
+                token = await(refresh).map(OAuth2AuthorizedClient::getAccessToken).orElse(null);
+                expired = token == null;
+            }
+        }
+        if (expired) {
+            return Optional.empty();
+        }
+        avoided.increment();
+        return Optional.of(token.getTokenValue());
+    }
+
+    /**
+     * Refreshes the stored tokens expiring within {@code refresh-before}, one member at a time.
+     *
+     * @return the number of members whose tokens were refreshed.
+     * @throws InterruptedException if interrupted while waiting for a refresh.
+     */
+    public int refreshExpiring() throws InterruptedException {
+        Instant expiresBefore = Instant.now().plus(properties.getRefreshBefore());
+        int count = 0;
+        long afterUserId = Long.MIN_VALUE;
+        List<Long> userIds;
+        do {
+            userIds = memberTokenRepository.findRefreshableUserIds(afterUserId, expiresBefore,
+                    PageRequest.ofSize(SWEEP_PAGE_SIZE));
+            for (long userId : userIds) {
+                Optional<OAuth2AuthorizedClient> client = authorizedClientService.findByUserId(userId);
+                if (client.isPresent() && client.get().getRefreshToken() != null
+                        && await(refresh(userId, client.get())).isPresent()) {
+                    count++;
+                }
+                afterUserId = userId;
+            }
+        } while (userIds.size() == SWEEP_PAGE_SIZE);
+        return count;
+    }
+
+    /**
+     * Starts the sweeper.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        sweeper.start();
+    }
+
+    /**
+     * Stops the sweeper and the refreshes in flight on shutdown.
+     */
+    @Override
+    public void close() {
+        sweeper.interrupt();
+        refresher.shutdownNow();
+    }
+
+    private void sweep() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(properties.getSweepInterval().toNanos());
+                int count = refreshExpiring();
+                if (count > 0) {
+                    log.info("stage=member-tokens, message=swept, refreshed={}", count);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("stage=member-tokens, message=sweep-failed", e);
+            }
+        }
+    }
+
+    /**
+     * Starts the refresh of a user's tokens, unless one is already running.
+     */
+    private CompletableFuture<OAuth2AuthorizedClient> refresh(long userId, OAuth2AuthorizedClient client) {
+        CompletableFuture<OAuth2AuthorizedClient> refresh = new CompletableFuture<>();
+        CompletableFuture<OAuth2AuthorizedClient> running = refreshes.putIfAbsent(userId, refresh);
+        if (running != null) {
+            return running;
+        }
+        refresher.execute(() -> {
+            try {
+                // A refresh that ended since the caller read the token already did the job
+                OAuth2AuthorizedClient current = authorizedClientService.findByUserId(userId).orElse(client);
+                if (!current.getAccessToken().getTokenValue().equals(client.getAccessToken().getTokenValue())) {
+                    refresh.complete(current);
+                    return;
+                }
+                OAuth2AccessTokenResponse response = refreshTokenClient.getTokenResponse(
+                        new OAuth2RefreshTokenGrantRequest(client.getClientRegistration(), client.getAccessToken(),
+                                client.getRefreshToken()));
+                // LinkedIn only returns a new refresh token when the old one is about to expire
+                OAuth2AuthorizedClient updated = new OAuth2AuthorizedClient(client.getClientRegistration(),
+                        client.getPrincipalName(), response.getAccessToken(),
+                        response.getRefreshToken() != null ? response.getRefreshToken() : client.getRefreshToken());
+                authorizedClientService.save(userId, updated);
+                refreshed.increment();
+                refresh.complete(updated);
+            } catch (RuntimeException e) {
+                refreshFailed.increment();
+                log.warn("stage=member-tokens, message=refresh-failed, userId={}", userId, e);
+                refresh.completeExceptionally(e);
+            } finally {
+                refreshes.remove(userId, refresh);
+            }
+        });
+        return refresh;
+    }
+
+    private static Optional<OAuth2AuthorizedClient> await(CompletableFuture<OAuth2AuthorizedClient> refresh)
+            throws InterruptedException {
+        try {
+            return Optional.of(refresh.get());
+        } catch (ExecutionException e) {
+            // Already logged by the refresh
+            return Optional.empty();
+        }
+    }
+
+    private static Counter refreshes(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("linkedme.member-tokens.refreshes")
+                .description("Member token refreshes per outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
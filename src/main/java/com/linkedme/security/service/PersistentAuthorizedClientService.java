@@ -0,0 +1,267 @@
+package com.linkedme.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.linkedme.persistence.entity.MemberToken;
+import com.linkedme.persistence.repository.MemberTokenRepository;
+import com.linkedme.security.model.LinkedmeOidcUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store of the OAuth2 authorized clients, i.e. the LinkedIn tokens of the members, replacing the in-memory
+ * store of Spring Boot so that the tokens survive restarts.
+ *
+ * <p>The store has two tiers:</p>
+ * <ul>
+ *     <li><b>Memory</b>: a Caffeine cache keyed by principal and a concurrent map keyed by user, whose reads
+ *     take no lock and whose writes only lock the bin of their key, so lookups never contend with each other or
+ *     with logins. The cache holds at most {@value #MAX_CACHED_CLIENTS} clients and drops those not looked up
+ *     for {@link #IDLE_EXPIRY a day}, together with their key by user.</li>
+ *     <li><b>Database</b>: the {@code member_token} table, with the tokens encrypted with AES-GCM under a key
+ *     derived from {@code encryption-password} and {@code encryption-salt}. Saves write through; lookups
+ *     missing the memory tier load the row and keep it in memory.</li>
+ * </ul>
+ *
+ * <p>Without an encryption password the memory tier is the only one, so its evicted tokens are lost as on a
+ * restart. A password without a valid salt fails the startup.</p>
+ *
+ * <p>Metrics: {@code linkedme.member-tokens.lookup} (lookup time, tagged with the tier that answered:
+ * memory, database or missing).</p>
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PersistentAuthorizedClientService implements OAuth2AuthorizedClientService {
+
+    /**
+     * Number of authorized clients kept in memory past which the least recently used are evicted.
+     */
+    static final int MAX_CACHED_CLIENTS = 100_000;
+
+    /**
+     * How long an authorized client is kept in memory without being looked up.
+     */
+    static final Duration IDLE_EXPIRY = Duration.ofDays(1);
+
+    private static final int MIN_SALT_LENGTH = 16;
+
+    MemberTokenRepository memberTokenRepository;
+    ClientRegistrationRepository clientRegistrationRepository;
+    TextEncryptor encryptor;
+    Map<Long, Key> keysByUser = new ConcurrentHashMap<>();
+    Cache<Key, Cached> clients = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_CLIENTS)
+            .expireAfterAccess(IDLE_EXPIRY)
+            // Run atomically with the eviction, before the key can be cached again
+            .evictionListener((Key key, Cached cached, RemovalCause cause) -> {
+                if (cached != null && cached.userId() != null) {
+                    keysByUser.remove(cached.userId(), key);
+                }
+            })
+            .build();
+    Timer memoryLookups;
+    Timer databaseLookups;
+    Timer missingLookups;
+
+    public PersistentAuthorizedClientService(MemberTokenProperties properties,
+                                             MemberTokenRepository memberTokenRepository,
+                                             ClientRegistrationRepository clientRegistrationRepository,
+                                             MeterRegistry meterRegistry) {
+        this.memberTokenRepository = memberTokenRepository;
+        this.clientRegistrationRepository = clientRegistrationRepository;
+        if (StringUtils.hasText(properties.getEncryptionPassword())) {
+            this.encryptor = Encryptors.delux(properties.getEncryptionPassword(), salt(properties));
+        } else {
+            this.encryptor = null;
+            log.warn("stage=member-tokens, message=not-persisted, reason=no encryption password");
+        }
+        this.memoryLookups = lookups(meterRegistry, "memory");
+        this.databaseLookups = lookups(meterRegistry, "database");
+        this.missingLookups = lookups(meterRegistry, "missing");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(String clientRegistrationId,
+                                                                     String principalName) {
+        long start = System.nanoTime();
+        Key key = new Key(clientRegistrationId, principalName);
+        Cached cached = clients.getIfPresent(key);
+        if (cached != null) {
+            memoryLookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return (T) cached.client();
+        }
+        Optional<Cached> loaded = encryptor == null ? Optional.empty()
+                : memberTokenRepository.findByRegistrationIdAndPrincipalName(clientRegistrationId, principalName)
+                .flatMap(this::toCached);
+        return (T) recordLoad(loaded, start).map(Cached::client).orElse(null);
+    }
+
+    /**
+     * Finds the authorized client of a local user, whatever the principal it was issued to.
+     *
+     * @param userId the user identifier.
+     * @return the authorized client, if the user ever logged in and its tokens were kept.
+     */
+    public Optional<OAuth2AuthorizedClient> findByUserId(long userId) {
+        long start = System.nanoTime();
+        Key key = keysByUser.get(userId);
+        Cached cached = key == null ? null : clients.getIfPresent(key);
+        if (cached != null) {
+            memoryLookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(cached.client());
+        }
+        Optional<Cached> loaded = encryptor == null ? Optional.empty()
+                : memberTokenRepository.findById(userId).flatMap(this::toCached);
+        return recordLoad(loaded, start).map(Cached::client);
+    }
+
+    /**
+     * Saves the tokens obtained on login, the principal being the {@link LinkedmeOidcUser} of the user.
+     */
+    @Override
+    public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
+        if (principal.getPrincipal() instanceof LinkedmeOidcUser user && user.getUserId() != null) {
+            save(user.getUserId(), authorizedClient);
+        } else {
+            clients.put(Key.of(authorizedClient), new Cached(null, authorizedClient));
+        }
+    }
+
+    /**
+     * Saves the tokens of a user, e.g. once refreshed.
+     *
+     * @param userId           the user identifier.
+     * @param authorizedClient the authorized client of the user.
+     */
+    public void save(long userId, OAuth2AuthorizedClient authorizedClient) {
+        Key key = Key.of(authorizedClient);
+        clients.put(key, new Cached(userId, authorizedClient));
+        keysByUser.put(userId, key);
+        if (encryptor != null) {
+            memberTokenRepository.save(toEntity(userId, authorizedClient));
+        }
+    }
+
+    @Override
+    public void removeAuthorizedClient(String clientRegistrationId, String principalName) {
+        Key key = new Key(clientRegistrationId, principalName);
+        Cached removed = clients.asMap().remove(key);
+        if (removed != null && removed.userId() != null) {
+            keysByUser.remove(removed.userId(), key);
+        }
+        if (encryptor != null) {
+            memberTokenRepository.deleteByRegistrationIdAndPrincipalName(clientRegistrationId, principalName);
+        }
+    }
+
+    private Optional<Cached> recordLoad(Optional<Cached> loaded, long start) {
+        loaded.ifPresent(cached -> {
+            Key key = Key.of(cached.client());
+            // A concurrent save is newer than the row read before it
+            clients.asMap().putIfAbsent(key, cached);
+            keysByUser.putIfAbsent(cached.userId(), key);
+        });
+        (loaded.isPresent() ? databaseLookups : missingLookups).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return loaded;
+    }
+
+    /**
+     * @return the salt of the key derivation.
+     * @throws IllegalStateException if the salt is missing, too short or not hex-encoded.
+     */
+    private static String salt(MemberTokenProperties properties) {
+        String salt = properties.getEncryptionSalt() == null ? "" : properties.getEncryptionSalt().strip();
+        if (salt.length() < MIN_SALT_LENGTH || salt.length() % 2 != 0
+                || !salt.chars().allMatch(HexFormat::isHexDigit)) {
+            throw new IllegalStateException("linkedme.member-tokens.encryption-salt must be set to at least "
+                    + MIN_SALT_LENGTH + " hex digits when an encryption password is set");
+        }
+        return salt;
+    }
+
+    private Optional<Cached> toCached(MemberToken token) {
+        ClientRegistration registration = clientRegistrationRepository.findByRegistrationId(token.getRegistrationId());
+        if (registration == null) {
+            return Optional.empty();
+        }
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                encryptor.decrypt(token.getAccessToken()), token.getIssuedAt(), token.getExpiresAt(),
+                StringUtils.commaDelimitedListToSet(token.getScopes()));
+        OAuth2RefreshToken refreshToken = token.getRefreshToken() == null ? null
+                : new OAuth2RefreshToken(encryptor.decrypt(token.getRefreshToken()), token.getIssuedAt());
+        return Optional.of(new Cached(token.getUserId(), new OAuth2AuthorizedClient(registration,
+                token.getPrincipalName(), accessToken, refreshToken)));
+    }
+
+    private MemberToken toEntity(long userId, OAuth2AuthorizedClient authorizedClient) {
+        OAuth2AccessToken accessToken = authorizedClient.getAccessToken();
+        OAuth2RefreshToken refreshToken = authorizedClient.getRefreshToken();
+        return MemberToken.builder()
+                .userId(userId)
+                .registrationId(authorizedClient.getClientRegistration().getRegistrationId())
+                .principalName(authorizedClient.getPrincipalName())
+                .accessToken(encryptor.encrypt(accessToken.getTokenValue()))
+                .scopes(StringUtils.collectionToCommaDelimitedString(accessToken.getScopes()))
+                .issuedAt(accessToken.getIssuedAt())
+                .expiresAt(accessToken.getExpiresAt())
+                .refreshToken(refreshToken == null ? null : encryptor.encrypt(refreshToken.getTokenValue()))
+                .updatedAt(Instant.now())
+                .build();
+    }
+
+    private static Timer lookups(MeterRegistry meterRegistry, String tier) {
+        return Timer.builder("linkedme.member-tokens.lookup")
+                .description("Time to look up the tokens of a member")
+                .tag("tier", tier)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Identity of an authorized client.
+     *
+     * @param registrationId the client registration identifier.
+     * @param principalName  the name of the principal at the provider.
+     */
+    private record Key(String registrationId, String principalName) {
+
+        static Key of(OAuth2AuthorizedClient authorizedClient) {
+            return new Key(authorizedClient.getClientRegistration().getRegistrationId(),
+                    authorizedClient.getPrincipalName());
+        }
+    }
+
+    /**
+     * Authorized client kept in memory.
+     *
+     * @param userId the local user identifier, null if the principal was not a {@link LinkedmeOidcUser}.
+     * @param client the authorized client, with its tokens decrypted.
+     */
+    private record Cached(Long userId, OAuth2AuthorizedClient client) {
+    }
+}
@@ -0,0 +1,227 @@
+package com.linkedme.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linkedme.graph.shard.ShardContactsAddedEvent;
+import com.linkedme.graph.shard.ShardedGraph;
+import com.linkedme.model.ConnectionPage;
+import com.linkedme.model.ConnectionSort;
+import com.linkedme.persistence.event.ConnectionsImportedEvent;
+import com.linkedme.persistence.event.UserSavedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendered pages of the connections of the users, see {@link ConnectionPageService}.
+ *
+ * <p>Each page is rendered once with the {@code friends-connections} template and kept per user, order and
+ * cursor, so paging back and forth or reloading the friends page neither queries the database nor renders
+ * again. Only pages of the {@link ConnectionPageService#DEFAULT_PAGE_SIZE default size} are kept: other sizes are
+ * rendered on every request, so clients cannot fill the cache with sizes nobody else asks for. The pages of a
+ * user are held by a single entry of a Caffeine cache weighed by the size of the fragments, two bytes per
+ * character at most, which evicts the least recently used users past {@value #MAX_CACHED_BYTES} bytes and never
+ * holds more than {@value #MAX_CACHED_PAGES} pages per user.</p>
+ *
+ * <p>The pages of a user are dropped together once a change of their connections has committed: an import
+ * drops the pages of the importing user and of every contact it connected, and a saved user those of their
+ * contacts, whose pages show the user's name and company. When the graph is partitioned, the node owning a
+ * contact of an import drops the pages of that contact once the {@link com.linkedme.graph.shard.ShardServer} has
+ * added the connection, and a saved user only drops the pages of the contacts known to the local partition. As
+ * a backstop for the changes no node is told about, pages are dropped {@link #EXPIRY} after they were
+ * rendered.</p>
+ *
+ * <p>Metrics: {@code linkedme.friends.fragments} (page requests, tagged hit, miss or uncached) and
+ * {@code linkedme.friends.render} (time to read and render a missing page).</p>
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ConnectionFragmentCache {
+
+    /**
+     * Total size in bytes of the cached fragments past which the least recently used users are evicted.
+     */
+    static final long MAX_CACHED_BYTES = 64L << 20;
+
+    /**
+     * Number of cached pages of a user past which the pages of the user are dropped.
+     */
+    static final int MAX_CACHED_PAGES = 1_000;
+
+    /**
+     * Time after which the pages of a user are rendered again, even if no change was seen.
+     */
+    static final Duration EXPIRY = Duration.ofMinutes(10);
+
+    // Size of a user without pages, so that empty entries are bounded too
+    private static final int USER_BYTES = 64;
+
+    Cache<Long, UserPages> fragments;
+    ConnectionPageService connectionPageService;
+    ITemplateEngine templateEngine;
+    ShardedGraph graph;
+    Counter hits;
+    Counter misses;
+    Counter uncached;
+    Timer renderTimer;
+
+    public ConnectionFragmentCache(ConnectionPageService connectionPageService, ITemplateEngine templateEngine,
+                                   ShardedGraph graph, MeterRegistry meterRegistry) {
+        this.fragments = Caffeine.newBuilder()
+                .maximumWeight(MAX_CACHED_BYTES)
+                .weigher((Long userId, UserPages pages) -> pages.bytes())
+                .expireAfterWrite(EXPIRY)
+                .build();
+        this.connectionPageService = connectionPageService;
+        this.templateEngine = templateEngine;
+        this.graph = graph;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.uncached = requests(meterRegistry, "uncached");
+        this.renderTimer = Timer.builder("linkedme.friends.render")
+                .description("Time to read and render a page of connections")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns a rendered page of the connections of a user, rendering it unless cached.
+     *
+     * @param userId the identifier of the user.
+     * @param sort   the order of the connections.
+     * @param cursor the cursor of the page, null for the first page.
+     * @param size   the number of connections per page.
+     * @return the HTML fragment of the page.
+     * @throws IllegalArgumentException if the cursor is not one returned for this order.
+     */
+    public String render(long userId, ConnectionSort sort, String cursor, int size) {
+        if (size != ConnectionPageService.DEFAULT_PAGE_SIZE) {
+            uncached.increment();
+            return renderTimer.record(() -> read(userId, sort, cursor, size));
+        }
+        UserPages pages = fragments.get(userId, ignored -> UserPages.empty());
+        PageKey key = new PageKey(sort, cursor);
+        String fragment = pages.fragments().get(key);
+        if (fragment != null) {
+            hits.increment();
+            return fragment;
+        }
+        misses.increment();
+        String rendered = renderTimer.record(() -> read(userId, sort, cursor, size));
+        // Only added to the pages seen before reading: if they were dropped meanwhile, the page read before the
+        // change goes with them
+        fragments.asMap().computeIfPresent(userId, (id, current) ->
+                current.generation() == pages.generation() ? current.with(key, rendered) : current);
+        return rendered;
+    }
+
+    /**
+     * Drops the pages of an importing user and of their new contacts once the import has committed.
+     *
+     * @param event the imported connections.
+     */
+    @TransactionalEventListener
+    public void onConnectionsImported(ConnectionsImportedEvent event) {
+        fragments.invalidate(event.userId());
+        for (long contactId : event.contactIds()) {
+            fragments.invalidate(contactId);
+        }
+    }
+
+    /**
+     * Drops the pages of the users of this partition who were connected by an import on another node.
+     *
+     * @param event the users whose connections changed.
+     */
+    @EventListener
+    public void onShardContactsAdded(ShardContactsAddedEvent event) {
+        for (long userId : event.userIds()) {
+            fragments.invalidate(userId);
+        }
+    }
+
+    /**
+     * Drops the pages showing a saved user once its transaction has committed.
+     *
+     * @param event the saved user.
+     */
+    @TransactionalEventListener
+    public void onUserSaved(UserSavedEvent event) {
+        if (fragments.estimatedSize() == 0) {
+            return;
+        }
+        for (long contactId : graph.localGraph().neighbours(event.id())) {
+            fragments.invalidate(contactId);
+        }
+    }
+
+    private String read(long userId, ConnectionSort sort, String cursor, int size) {
+        ConnectionPage page = connectionPageService.page(userId, sort, cursor, size);
+        Context context = new Context(Locale.ROOT);
+        context.setVariable("page", page);
+        context.setVariable("size", size);
+        return templateEngine.process("friends-connections", context);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("linkedme.friends.fragments")
+                .description("Requests of a page of connections, per cache result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Identity of a page of a user, of the default size.
+     *
+     * @param sort   the order of the connections.
+     * @param cursor the cursor of the page, null for the first page.
+     */
+    private record PageKey(ConnectionSort sort, String cursor) {
+    }
+
+    /**
+     * The cached pages of a user, replaced as a whole when a page is added so that the cache weighs it again.
+     *
+     * @param generation tells apart the pages cached before and after the pages of the user were dropped.
+     * @param fragments  the rendered pages.
+     * @param bytes      the size of the fragments and cursors, plus a fixed cost per user.
+     */
+    private record UserPages(long generation, Map<PageKey, String> fragments, int bytes) {
+
+        private static final AtomicLong GENERATIONS = new AtomicLong();
+
+        /**
+         * @return no pages, of a new generation.
+         */
+        static UserPages empty() {
+            return new UserPages(GENERATIONS.incrementAndGet(), Map.of(), USER_BYTES);
+        }
+
+        UserPages with(PageKey key, String fragment) {
+            if (fragments.containsKey(key)) {
+                return this;
+            }
+            Map<PageKey, String> updated = new HashMap<>(fragments.size() >= MAX_CACHED_PAGES ? Map.of() : fragments);
+            updated.put(key, fragment);
+            int updatedBytes = USER_BYTES;
+            for (Map.Entry<PageKey, String> page : updated.entrySet()) {
+                String pageCursor = page.getKey().cursor();
+                updatedBytes += 2 * (page.getValue().length() + (pageCursor == null ? 0 : pageCursor.length()));
+            }
+            return new UserPages(generation, Map.copyOf(updated), updatedBytes);
+        }
+    }
+}
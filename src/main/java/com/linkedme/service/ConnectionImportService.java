@@ -0,0 +1,213 @@
+package com.linkedme.service;
+
+import com.linkedme.company.CompanyDictionary;
+import com.linkedme.company.CompanyDictionaryService;
+import com.linkedme.model.ConnectionImportRecord;
+import com.linkedme.model.ConnectionImportResult;
+import com.linkedme.persistence.entity.Company;
+import com.linkedme.persistence.entity.User;
+import com.linkedme.persistence.entity.UserConnection;
+import com.linkedme.persistence.event.ConnectionsImportedEvent;
+import com.linkedme.persistence.repository.CompanyRepository;
+import com.linkedme.persistence.repository.UserConnectionRepository;
+import com.linkedme.persistence.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports the connections of a user.
+ *
+ * <p>Contacts are matched to users by email; unknown contacts are created as users without any role, which
+ * {@link com.linkedme.security.service.LinkedinOidUserService} activates when they log in for the first time.
+ * Company names are matched by their canonical key, so "Acme Inc." joins "Acme", and unknown companies are
+ * created. Each connection is stored in both directions, see {@link UserConnection}.</p>
+ *
+ * <p>The company column of the import is encoded up front, in parallel, by the {@link CompanyDictionaryService}.
+ * Records are then processed in chunks of {@value #CHUNK_SIZE}: companies already committed come from the
+ * dictionary, the others from one query per chunk, one query resolves users and one the already existing
+ * connections, then inserts are sent in JDBC batches and the persistence context is cleared. A single
+ * {@link ConnectionsImportedEvent} is published for the import and delivered to transactional listeners once it
+ * has committed.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ConnectionImportService {
+
+    static final int CHUNK_SIZE = 1_000;
+
+    UserRepository userRepository;
+    CompanyRepository companyRepository;
+    CompanyDictionaryService companyDictionaryService;
+    UserConnectionRepository userConnectionRepository;
+    EntityManager entityManager;
+    ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Connects a user to the given contacts.
+     *
+     * @param userId  the identifier of the importing user.
+     * @param records the contacts of the user.
+     * @return the import counters.
+     */
+    @Transactional
+    public ConnectionImportResult importConnections(long userId, List<ConnectionImportRecord> records) {
+        String ownEmail = userRepository.findById(userId).map(User::getEmail).orElseThrow();
+        Counters counters = new Counters();
+        List<Long> connected = new ArrayList<>();
+
+        // Deduplicate by email, the last record of a contact wins
+        Map<String, ConnectionImportRecord> contacts = new LinkedHashMap<>();
+        for (ConnectionImportRecord record : records) {
+            counters.read++;
+            if (record.email() == null || record.email().isBlank() || record.name() == null
+                    || record.name().isBlank() || record.email().trim().equalsIgnoreCase(ownEmail)) {
+                counters.skipped++;
+            } else if (contacts.put(record.email().trim(), record) != null) {
+                counters.skipped++;
+            }
+        }
+
+        List<Map.Entry<String, ConnectionImportRecord>> entries = new ArrayList<>(contacts.entrySet());
+        int[] companyCodes = companyDictionaryService.encodeAll(entries.stream()
+                .map(entry -> entry.getValue().company())
+                .toList());
+        // Companies created by this import, not in the dictionary until it commits
+        Map<Integer, Long> createdCompanies = new HashMap<>();
+        for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+            int to = Math.min(entries.size(), from + CHUNK_SIZE);
+            importChunk(userId, entries.subList(from, to), Arrays.copyOfRange(companyCodes, from, to),
+                    createdCompanies, counters, connected);
+        }
+
+        if (!connected.isEmpty()) {
+            eventPublisher.publishEvent(new ConnectionsImportedEvent(userId,
+                    connected.stream().mapToLong(Long::longValue).toArray()));
+        }
+        ConnectionImportResult result = counters.toResult();
+        log.info("stage=connection-import, message=completed, userId={}, result={}", userId, result);
+        return result;
+    }
+
+    private void importChunk(long userId, List<Map.Entry<String, ConnectionImportRecord>> chunk, int[] companyCodes,
+                             Map<Integer, Long> createdCompanies, Counters counters, List<Long> connected) {
+        Map<Integer, Company> companies = resolveCompanies(chunk, companyCodes, createdCompanies);
+
+        // Resolve every known contact of the chunk with a single query, creating the others
+        Map<String, User> users = userRepository.findByEmailIn(chunk.stream().map(Map.Entry::getKey).toList())
+                .stream()
+                .collect(Collectors.toMap(User::getEmail, Function.identity(), (first, second) -> first));
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Map.Entry<String, ConnectionImportRecord> entry = chunk.get(i);
+            Company company = companies.get(companyCodes[i]);
+            User user = users.get(entry.getKey());
+            if (user == null) {
+                user = User.builder().name(entry.getValue().name().trim()).email(entry.getKey()).company(company)
+                        .roles(new ArrayList<>()).build();
+                users.put(entry.getKey(), user);
+                created.add(user);
+            } else if (user.getCompany() == null && company != null) {
+                user.setCompany(company);
+            }
+        }
+        userRepository.saveAll(created);
+        counters.created += created.size();
+        // Identifiers come from the sequence, the new users have one now
+        entityManager.flush();
+
+        Set<Long> contactIds = users.values().stream().map(User::getId).collect(Collectors.toSet());
+        Set<Long> existing = new HashSet<>(userConnectionRepository.findContactIds(userId, contactIds));
+        counters.existing += existing.size();
+
+        User owner = entityManager.getReference(User.class, userId);
+        List<UserConnection> connections = new ArrayList<>();
+        for (User contact : users.values()) {
+            if (!existing.contains(contact.getId()) && !Objects.equals(contact.getId(), userId)) {
+                connections.add(UserConnection.builder().user(owner).contact(contact).build());
+                connections.add(UserConnection.builder().user(contact).contact(owner).build());
+                connected.add(contact.getId());
+                counters.connected++;
+            }
+        }
+        userConnectionRepository.saveAll(connections);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Finds or creates the companies of a chunk, by code; a company is created with the first spelling of its
+     * name in the chunk.
+     */
+    private Map<Integer, Company> resolveCompanies(List<Map.Entry<String, ConnectionImportRecord>> chunk,
+                                                   int[] companyCodes, Map<Integer, Long> createdCompanies) {
+        Map<Integer, Company> companies = new HashMap<>();
+        Map<String, Integer> missing = new HashMap<>();
+        Set<Integer> missingCodes = new HashSet<>();
+        for (int i = 0; i < companyCodes.length; i++) {
+            int code = companyCodes[i];
+            if (code == CompanyDictionary.UNKNOWN || companies.containsKey(code) || missingCodes.contains(code)) {
+                continue;
+            }
+            OptionalLong companyId = companyDictionaryService.companyId(code);
+            Long created = createdCompanies.get(code);
+            if (companyId.isPresent() || created != null) {
+                companies.put(code, entityManager.getReference(Company.class,
+                        companyId.isPresent() ? companyId.getAsLong() : created));
+            } else {
+                missing.put(chunk.get(i).getValue().company().trim(), code);
+                missingCodes.add(code);
+            }
+        }
+        if (missing.isEmpty()) {
+            return companies;
+        }
+        // Committed but not bound yet, e.g. while the dictionary is loading
+        companyRepository.findByNameIn(missing.keySet())
+                .forEach(company -> companies.put(missing.remove(company.getName()), company));
+        List<Company> created = missing.keySet().stream()
+                .map(name -> Company.builder().name(name).build())
+                .toList();
+        companyRepository.saveAll(created).forEach(company -> {
+            int code = missing.get(company.getName());
+            companies.put(code, company);
+            createdCompanies.put(code, company.getId());
+        });
+        return companies;
+    }
+
+    /**
+     * Mutable import counters.
+     */
+    private static final class Counters {
+        long read;
+        long connected;
+        long existing;
+        long created;
+        long skipped;
+
+        ConnectionImportResult toResult() {
+            return new ConnectionImportResult(read, connected, existing, created, skipped);
+        }
+    }
+}
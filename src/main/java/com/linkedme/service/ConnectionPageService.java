@@ -0,0 +1,96 @@
+package com.linkedme.service;
+
+import com.linkedme.model.ConnectionPage;
+import com.linkedme.model.ConnectionSort;
+import com.linkedme.persistence.projection.ConnectionSummary;
+import com.linkedme.persistence.repository.UserConnectionRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Lists the connections of a user page by page, with keyset pagination.
+ *
+ * <p>A page is the contacts following the last one of the previous page in the requested order, so reading
+ * page n does not read the n - 1 pages before it, and a cursor keeps pointing at the same place while
+ * connections are imported. The cursor is opaque to clients: the order and the sort key of the last contact
+ * (company name, name and identifier), Base64-encoded. One more contact than asked for is read to tell whether
+ * there is a next page.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ConnectionPageService {
+
+    /**
+     * Number of connections per page unless asked otherwise.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Maximum number of connections per page.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final char SEPARATOR = '\0';
+
+    UserConnectionRepository userConnectionRepository;
+
+    /**
+     * Reads a page of the connections of a user.
+     *
+     * @param userId the identifier of the user.
+     * @param sort   the order of the connections.
+     * @param cursor the cursor of the page, null for the first page.
+     * @param size   the number of connections per page, at most {@value #MAX_PAGE_SIZE}.
+     * @return the page.
+     * @throws IllegalArgumentException if the cursor is not one returned for this order.
+     */
+    @Transactional(readOnly = true)
+    public ConnectionPage page(long userId, ConnectionSort sort, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String[] after = cursor == null ? new String[]{"", "", String.valueOf(Long.MIN_VALUE)} : decode(sort, cursor);
+        long afterContactId = Long.parseLong(after[2]);
+        List<ConnectionSummary> connections = switch (sort) {
+            case NAME -> userConnectionRepository.findPageByName(userId, after[1], afterContactId,
+                    Limit.of(limit + 1));
+            case COMPANY -> userConnectionRepository.findPageByCompany(userId, after[0], after[1], afterContactId,
+                    Limit.of(limit + 1));
+        };
+        if (connections.size() <= limit) {
+            return new ConnectionPage(sort, connections, null);
+        }
+        connections = connections.subList(0, limit);
+        return new ConnectionPage(sort, List.copyOf(connections), encode(sort, connections.get(limit - 1)));
+    }
+
+    private static String encode(ConnectionSort sort, ConnectionSummary last) {
+        String key = sort.name() + SEPARATOR + (last.companyName() == null ? "" : last.companyName()) + SEPARATOR
+                + last.name() + SEPARATOR + last.contactId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the company name, name and contact identifier of the cursor.
+     */
+    private static String[] decode(ConnectionSort sort, String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(String.valueOf(SEPARATOR), -1);
+            if (key.length == 4 && key[0].equals(sort.name())) {
+                Long.parseLong(key[3]);
+                return new String[]{key[1], key[2], key[3]};
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64, or not a number as NumberFormatException is one too
+        }
+        throw new IllegalArgumentException("Invalid cursor for the " + sort + " order");
+    }
+}
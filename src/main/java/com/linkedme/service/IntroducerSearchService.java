@@ -0,0 +1,264 @@
+package com.linkedme.service;
+
+import com.linkedme.company.CompanyDictionary;
+import com.linkedme.company.CompanyDictionaryService;
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.graph.PathSearchService;
+import com.linkedme.model.IntroducerCandidate;
+import com.linkedme.model.IntroducerSearchSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+/**
+ * Finds the contacts of a user who can introduce them to the people working at a company.
+ *
+ * <p>The search walks the connection graph breadth-first from the user with
+ * {@link PathSearchService#traverse}. As soon as a level is complete, the company members reached at that level
+ * are handed to the {@link Listener} in batches of {@value #BATCH_SIZE}, each with the contact of the user its
+ * path goes through, so the closest candidates are delivered while the further levels are still being searched.
+ * The listener is called in the search thread: a slow consumer holds the search back instead of letting
+ * candidates pile up, and a consumer that went away stops it, at the latest once the current level is read.</p>
+ *
+ * <p>Members are matched on the {@link CompanyDictionaryService dictionary code} of their company rather than
+ * its identifier, so that users of a company created under another spelling of its name are found too.</p>
+ *
+ * <p>Searches run on virtual threads and are recorded in the {@code linkedme.introducers} timer; the time until
+ * the first candidates are handed over, the latency users perceive, in {@code linkedme.introducers.first-result}.
+ * A search holds a thread and walks up to millions of users, so at most {@value #MAX_SEARCHES} run at once, and
+ * at most {@value #MAX_SEARCHES_PER_USER} per user; the searches over either limit are rejected at once and
+ * counted in {@code linkedme.introducers.rejected}.</p>
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class IntroducerSearchService implements AutoCloseable {
+
+    /**
+     * Maximum number of hops searched, introductions through longer chains are not worth asking for.
+     */
+    public static final int MAX_DEPTH = 3;
+
+    /**
+     * Number of candidates past which a search stops.
+     */
+    static final int MAX_CANDIDATES = 1_000;
+
+    /**
+     * Maximum number of candidates handed over at once.
+     */
+    static final int BATCH_SIZE = 50;
+
+    /**
+     * Maximum number of searches running at once.
+     */
+    static final int MAX_SEARCHES = 32;
+
+    /**
+     * Maximum number of searches of a single user running at once.
+     */
+    static final int MAX_SEARCHES_PER_USER = 2;
+
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    Semaphore searchPermits = new Semaphore(MAX_SEARCHES);
+    Map<Long, Integer> searchesByUser = new ConcurrentHashMap<>();
+    PathSearchService pathSearchService;
+    UserDirectoryService userDirectoryService;
+    CompanyDictionaryService companyDictionaryService;
+    Timer searchTimer;
+    Timer firstResultTimer;
+    Counter rejectedCounter;
+
+    public IntroducerSearchService(PathSearchService pathSearchService, UserDirectoryService userDirectoryService,
+                                   CompanyDictionaryService companyDictionaryService, MeterRegistry meterRegistry) {
+        this.pathSearchService = pathSearchService;
+        this.userDirectoryService = userDirectoryService;
+        this.companyDictionaryService = companyDictionaryService;
+        this.searchTimer = Timer.builder("linkedme.introducers")
+                .description("Introducer search duration")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.firstResultTimer = Timer.builder("linkedme.introducers.first-result")
+                .description("Time until the first introducer candidates of a search are sent")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("linkedme.introducers.rejected")
+                .description("Introducer searches rejected because too many were running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Receives the progress of a search, in the search thread.
+     */
+    public interface Listener {
+
+        /**
+         * @param depth      the number of hops from the user to the members.
+         * @param candidates the next candidates.
+         * @return false to stop the search.
+         */
+        boolean onCandidates(int depth, List<IntroducerCandidate> candidates);
+
+        /**
+         * Called once every candidate of a level was handed over.
+         *
+         * @param depth   the number of hops searched so far.
+         * @param visited the number of users reached so far.
+         * @return false to stop the search.
+         */
+        boolean onLevel(int depth, int visited);
+    }
+
+    /**
+     * Starts a search in the background, unless too many are running already.
+     *
+     * @param userId    the identifier of the searching user.
+     * @param companyId the identifier of the company.
+     * @param maxDepth  the maximum number of hops, at most {@value #MAX_DEPTH}.
+     * @param listener  receives the candidates level by level.
+     * @return the summary of the search, once it has ended, or empty if the search was rejected.
+     */
+    public Optional<CompletableFuture<IntroducerSearchSummary>> searchAsync(long userId, long companyId,
+                                                                            int maxDepth, Listener listener) {
+        if (!tryAcquire(userId)) {
+            rejectedCounter.increment();
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(CompletableFuture.supplyAsync(() -> search(userId, companyId, maxDepth, listener),
+                            executor)
+                    .whenComplete((summary, error) -> release(userId)));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            release(userId);
+            throw e;
+        }
+    }
+
+    /**
+     * Searches the introducers of a user to a company.
+     *
+     * @param userId    the identifier of the searching user.
+     * @param companyId the identifier of the company.
+     * @param maxDepth  the maximum number of hops, at most {@value #MAX_DEPTH}.
+     * @param listener  receives the candidates level by level.
+     * @return the summary of the search.
+     */
+    public IntroducerSearchSummary search(long userId, long companyId, int maxDepth, Listener listener) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        LongPredicate member = members(companyId);
+        PathSearchService.Traversal traversal = pathSearchService.traverse(userId, Math.min(maxDepth, MAX_DEPTH),
+                (current, depth, users, length) -> {
+                    progress.depth = depth;
+                    List<IntroducerCandidate> batch = new ArrayList<>(BATCH_SIZE);
+                    for (int i = 0; i < length && !progress.truncated; i++) {
+                        if (!member.test(users[i])) {
+                            continue;
+                        }
+                        long introducerId = current.firstHopTo(users[i]);
+                        batch.add(new IntroducerCandidate(userDirectoryService.pathMember(introducerId),
+                                userDirectoryService.pathMember(users[i]), depth));
+                        progress.truncated = ++progress.candidates == MAX_CANDIDATES;
+                        if (batch.size() == BATCH_SIZE && !send(listener, depth, batch, progress, start)) {
+                            return false;
+                        }
+                    }
+                    if (!batch.isEmpty() && !send(listener, depth, batch, progress, start)) {
+                        return false;
+                    }
+                    return listener.onLevel(depth, current.visitedCount()) && !progress.truncated;
+                });
+        long durationNanos = System.nanoTime() - start;
+        searchTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        return new IntroducerSearchSummary(companyId, progress.depth, traversal.visitedCount(), progress.candidates,
+                progress.truncated, durationNanos / 1_000_000);
+    }
+
+    /**
+     * Stops the running searches on shutdown.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Takes a slot of the global limit, then of the user's.
+     */
+    private boolean tryAcquire(long userId) {
+        if (!searchPermits.tryAcquire()) {
+            return false;
+        }
+        boolean[] admitted = new boolean[1];
+        searchesByUser.compute(userId, (id, running) -> {
+            int count = running == null ? 0 : running;
+            if (count == MAX_SEARCHES_PER_USER) {
+                return running;
+            }
+            admitted[0] = true;
+            return count + 1;
+        });
+        if (!admitted[0]) {
+            searchPermits.release();
+        }
+        return admitted[0];
+    }
+
+    private void release(long userId) {
+        searchesByUser.computeIfPresent(userId, (id, running) -> running == 1 ? null : running - 1);
+        searchPermits.release();
+    }
+
+    /**
+     * Tells whether a user works at a company or at another spelling of it.
+     */
+    private LongPredicate members(long companyId) {
+        int code = companyDictionaryService.codeOf(companyId);
+        if (code == CompanyDictionary.UNKNOWN) {
+            return user -> userDirectoryService.worksAt(user, companyId);
+        }
+        return user -> {
+            OptionalLong userCompanyId = userDirectoryService.companyId(user);
+            return userCompanyId.isPresent() && (userCompanyId.getAsLong() == companyId
+                    || companyDictionaryService.codeOf(userCompanyId.getAsLong()) == code);
+        };
+    }
+
+    private boolean send(Listener listener, int depth, List<IntroducerCandidate> batch, Progress progress,
+                         long start) {
+        if (!progress.sent) {
+            progress.sent = true;
+            firstResultTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        boolean open = listener.onCandidates(depth, List.copyOf(batch));
+        batch.clear();
+        return open;
+    }
+
+    /**
+     * The counters of a running search.
+     */
+    private static final class Progress {
+        int depth;
+        int candidates;
+        boolean truncated;
+        boolean sent;
+    }
+}
@@ -0,0 +1,260 @@
+package com.linkedme.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.linkedme.model.UserImportResult;
+import com.linkedme.model.UserTransferRecord;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.persistence.entity.User;
+import com.linkedme.persistence.projection.UserSummary;
+import com.linkedme.persistence.repository.RoleRepository;
+import com.linkedme.persistence.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bulk export and import of users and their roles as NDJSON (one {@link UserTransferRecord} per line).
+ *
+ * <p>Both directions are built to run with constant memory on millions of users:</p>
+ * <ul>
+ *     <li><b>Export</b> streams {@link UserSummary} projections through a forward-only, fetch-size-limited
+ *     cursor ({@link UserRepository#streamAllSummaries()}): no entity or role row is materialized, roles are
+ *     rendered from the role mask, and the persistence context is cleared periodically.</li>
+ *     <li><b>Import</b> reads the input record by record and processes it in batches: one
+ *     {@link RoleRepository#findByNames(List)} and one {@link UserRepository#findWithRolesByEmailIn(Collection)}
+ *     per batch, fetching the known users together with their roles, JDBC-batched inserts, then the persistence
+ *     context is flushed and cleared.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserTransferService {
+
+    /**
+     * Number of records handled per transaction on import, and between clears on export.
+     */
+    static final int BATCH_SIZE = 1_000;
+
+    UserRepository userRepository;
+    RoleRepository roleRepository;
+    EntityManager entityManager;
+    TransactionTemplate readOnlyTransaction;
+    TransactionTemplate writeTransaction;
+    ObjectWriter recordWriter;
+    ObjectReader recordReader;
+
+    public UserTransferService(UserRepository userRepository, RoleRepository roleRepository,
+                               EntityManager entityManager, PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        // Flushing the output after every line would defeat the generator's buffer
+        this.recordWriter = objectMapper.writerFor(UserTransferRecord.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.recordReader = objectMapper.readerFor(UserTransferRecord.class);
+    }
+
+    /**
+     * Writes every user as one NDJSON line to the given stream.
+     *
+     * @param output the stream to write to; it is flushed but not closed.
+     * @return the number of exported users.
+     * @throws IOException if writing fails, e.g. because the client went away.
+     */
+    public long exportUsers(OutputStream output) throws IOException {
+        // Role names by bit, to render the role masks
+        String[] roleNames = new String[Long.SIZE];
+        roleRepository.findAll().forEach(role -> roleNames[role.getBit()] = role.getName());
+
+        try (JsonGenerator generator = recordWriter.createGenerator(output)) {
+            // The generator must not close the response stream, the container owns it
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            return readOnlyTransaction.execute(status -> {
+                long exported = 0;
+                try (Stream<UserSummary> users = userRepository.streamAllSummaries()) {
+                    for (var iterator = users.iterator(); iterator.hasNext(); ) {
+                        UserSummary user = iterator.next();
+                        recordWriter.writeValue(generator, new UserTransferRecord(user.id(), user.name(),
+                                user.email(), roleNamesOf(user.roleMask(), roleNames)));
+                        generator.writeRaw('\n');
+
+                        if (++exported % BATCH_SIZE == 0) {
+                            // Release anything loaded while streaming and push the batch to the client
+                            entityManager.clear();
+                            generator.flush();
+                        }
+                    }
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new ExportAbortedException(e);
+                }
+                log.info("stage=user-export, message=completed, users={}", exported);
+                return exported;
+            });
+        } catch (ExportAbortedException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Imports users from NDJSON, creating unknown emails and adding missing roles to known ones.
+     *
+     * @param input the NDJSON stream to read; it is not closed.
+     * @return the import counters.
+     * @throws IOException if reading fails or a line is not a valid record.
+     */
+    public UserImportResult importUsers(InputStream input) throws IOException {
+        Counters counters = new Counters();
+        List<UserTransferRecord> batch = new ArrayList<>(BATCH_SIZE);
+
+        try (MappingIterator<UserTransferRecord> records = recordReader.readValues(input)) {
+            while (records.hasNextValue()) {
+                UserTransferRecord record = records.nextValue();
+                counters.read++;
+                if (record.email() == null || record.email().isBlank() || record.name() == null) {
+                    counters.skipped++;
+                    continue;
+                }
+                batch.add(record);
+                if (batch.size() == BATCH_SIZE) {
+                    importBatch(batch, counters);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, counters);
+        }
+
+        log.info("stage=user-import, message=completed, result={}", counters.toResult());
+        return counters.toResult();
+    }
+
+    /**
+     * Imports one batch of records in its own transaction.
+     */
+    private void importBatch(List<UserTransferRecord> batch, Counters counters) {
+        writeTransaction.executeWithoutResult(status -> {
+            // Resolve every role of the batch with a single query
+            List<String> roleNames = batch.stream()
+                    .map(UserTransferRecord::roles)
+                    .filter(Objects::nonNull)
+                    .flatMap(List::stream)
+                    .distinct()
+                    .toList();
+            Map<String, Role> roles = roleNames.isEmpty() ? Map.of() : roleRepository.findByNames(roleNames).stream()
+                    .collect(Collectors.toMap(Role::getName, Function.identity()));
+
+            // Resolve every existing user of the batch, with their roles, with a single query
+            Map<String, User> existing = userRepository.findWithRolesByEmailIn(batch.stream()
+                            .map(UserTransferRecord::email)
+                            .distinct()
+                            .toList())
+                    .stream()
+                    .collect(Collectors.toMap(User::getEmail, Function.identity(), (first, second) -> first));
+
+            // Records repeating an email are merged into the first one: the last name wins, roles add up
+            Map<String, User> resolved = new HashMap<>();
+            List<User> created = new ArrayList<>();
+            for (UserTransferRecord record : batch) {
+                User user = resolved.get(record.email());
+                if (user == null) {
+                    user = existing.get(record.email());
+                    if (user != null) {
+                        counters.updated++;
+                    } else {
+                        user = User.builder().name(record.name()).email(record.email()).roles(new ArrayList<>()).build();
+                        created.add(user);
+                        counters.created++;
+                    }
+                    resolved.put(record.email(), user);
+                }
+                user.setName(record.name());
+
+                if (record.roles() != null) {
+                    for (String roleName : record.roles()) {
+                        Role role = roles.get(roleName);
+                        if (role == null) {
+                            counters.unknownRoles++;
+                        } else {
+                            user.addRole(role);
+                        }
+                    }
+                }
+            }
+
+            // Inserts are sent in JDBC batches, see hibernate.jdbc.batch_size
+            userRepository.saveAll(created);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private static List<String> roleNamesOf(long roleMask, String[] roleNames) {
+        List<String> names = new ArrayList<>(Long.bitCount(roleMask));
+        for (long remaining = roleMask; remaining != 0; remaining &= remaining - 1) {
+            String name = roleNames[Long.numberOfTrailingZeros(remaining)];
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Carries an {@link IOException} out of the transaction callback.
+     */
+    private static final class ExportAbortedException extends RuntimeException {
+        ExportAbortedException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * Mutable import counters.
+     */
+    private static final class Counters {
+        long read;
+        long created;
+        long updated;
+        long skipped;
+        long unknownRoles;
+
+        UserImportResult toResult() {
+            return new UserImportResult(read, created, updated, skipped, unknownRoles);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.linkedme.warmup;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the warm-up phase run before the application reports ready.
+ *
+ * <p>Bound from the {@code linkedme.warmup} prefix, e.g. {@code linkedme.warmup.enabled=false}.</p>
+ */
+@ConfigurationProperties(prefix = "linkedme.warmup")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class WarmupProperties {
+
+    /**
+     * Whether to warm up at all.
+     */
+    boolean enabled = true;
+
+    /**
+     * Synthetic iterations of the token converter, user resolution, authority mapping and profile
+     * serialization, enough for the JIT to compile them.
+     */
+    int iterations = 5_000;
+
+    /**
+     * Number of concurrent repository queries, used to open the database connection pool.
+     */
+    int connections = 10;
+
+    /**
+     * Timeout of each outbound warm-up request to the provider.
+     */
+    Duration outboundTimeout = Duration.ofSeconds(2);
+}
@@ -0,0 +1,225 @@
+package com.linkedme.warmup;
+
+import com.linkedme.directory.DirectoryUser;
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.persistence.event.UserSavedEvent;
+import com.linkedme.persistence.repository.RoleRepository;
+import com.linkedme.persistence.seed.RoleSeeder;
+import com.linkedme.security.converter.OAuth2AccessTokenResponseHttpMessageConverter;
+import com.linkedme.security.model.LinkedmeOidcUser;
+import com.linkedme.security.service.AuthenticationProfileCache;
+import com.linkedme.security.service.LinkedinOidUserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AccessTokenResponse;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.OidcUserAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Warms the login path up before the application reports ready.
+ *
+ * <p>Spring Boot only publishes the {@code ACCEPTING_TRAFFIC} readiness state once all application runners
+ * have completed, so running the warm-up here keeps the instance out of the load balancer (via
+ * {@code /actuator/health/readiness}) until it is done. The phases are:</p>
+ * <ul>
+ *     <li><b>jit</b>: synthetic iterations of what a login and the following {@code /api/authentication}
+ *     polls run: the token response converter, the {@link UserDirectoryService} lookups resolving the user, the
+ *     authority mapping of {@link LinkedinOidUserService} and the serialization of the
+ *     {@link AuthenticationProfileCache profile}. The synthetic user is looked up in a scratch directory, so the
+ *     real one is only ever read.</li>
+ *     <li><b>repositories</b>: concurrent queries to open the connection pool and role lookups to fill the
+ *     roles cache, both used by the first login of a new user. Returning users are resolved from the
+ *     directory, loaded before the warm-up, so there is no user lookup to warm up.</li>
+ *     <li><b>outbound</b>: one request to each of the provider's token, userinfo and JWKS endpoints, which
+ *     loads the JDK HTTP and TLS stack and fills the JVM-wide DNS and TLS session caches. It does not open
+ *     connections for the login clients: those have their own {@code RestTemplate}s behind the
+ *     {@link com.linkedme.linkedin.LinkedinApiInterceptor}, which these requests bypass so that they spend none
+ *     of the LinkedIn quota, and the login still opens its own connections.</li>
+ * </ul>
+ *
+ * <p>The warm-up is best effort: a failing phase is logged and never prevents the application from starting.
+ * Each phase is recorded in the {@code linkedme.warmup} timer.</p>
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE) // After role seeding
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final String REGISTRATION_ID = "linkedin";
+
+    // Never the identifier of a stored user
+    private static final long WARMUP_USER_ID = -1;
+    private static final String WARMUP_EMAIL = "warmup@linkedme.local";
+
+    private static final byte[] SYNTHETIC_TOKEN_RESPONSE = """
+            {"access_token":"warmup","expires_in":5183999,"scope":"openid profile email",\
+            "token_type":"Bearer","id_token":"warmup"}""".getBytes(StandardCharsets.UTF_8);
+
+    WarmupProperties properties;
+    LinkedinOidUserService oidUserService;
+    UserDirectoryService userDirectoryService;
+    AuthenticationProfileCache authenticationProfileCache;
+    RoleRepository roleRepository;
+    ClientRegistrationRepository clientRegistrationRepository;
+    MeterRegistry meterRegistry;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            log.info("stage=warmup, message=disabled");
+            return;
+        }
+
+        long start = System.nanoTime();
+        phase("jit", this::warmLoginPath);
+        phase("repositories", this::warmRepositories);
+        phase("outbound", this::warmOutboundConnections);
+        log.info("stage=warmup, message=completed, durationMs={}", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Runs a single warm-up phase, recording its duration and swallowing any failure.
+     */
+    private void phase(String name, Runnable phase) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            phase.run();
+            log.info("stage=warmup, phase={}, message=done", name);
+        } catch (RuntimeException e) {
+            log.warn("stage=warmup, phase={}, message=failed, error={}", name, e.toString());
+        } finally {
+            sample.stop(meterRegistry.timer("linkedme.warmup", "phase", name));
+        }
+    }
+
+    /**
+     * Exercises the CPU-bound part of a login with synthetic data until the JIT has compiled it.
+     */
+    private void warmLoginPath() {
+        OAuth2AccessTokenResponseHttpMessageConverter converter = new OAuth2AccessTokenResponseHttpMessageConverter();
+        try (UserDirectoryService scratchDirectory = new UserDirectoryService(null, null, null)) {
+            scratchDirectory.onUserSaved(new UserSavedEvent(WARMUP_USER_ID, "Warm Up", WARMUP_EMAIL, null,
+                    Role.maskOf(Role.ROLE_USER)));
+            for (int i = 0; i < properties.getIterations(); i++) {
+                // Token endpoint response parsing
+                OAuth2AccessTokenResponse tokenResponse = converter.read(OAuth2AccessTokenResponse.class,
+                        syntheticMessage(SYNTHETIC_TOKEN_RESPONSE));
+
+                // User resolution: a returning user, and the miss of a new one in the real directory
+                DirectoryUser user = scratchDirectory.findByEmail(WARMUP_EMAIL).orElseThrow();
+                userDirectoryService.findByEmail("warmup-" + i + "@linkedme.local");
+
+                // Authority mapping, then the profile served by /api/authentication
+                Instant now = Instant.now();
+                OidcIdToken idToken = new OidcIdToken(tokenResponse.getAccessToken().getTokenValue(), now,
+                        now.plusSeconds(60), Map.of("sub", "warmup-" + i, "email", user.email(), "name", user.name()));
+                LinkedmeOidcUser principal = new LinkedmeOidcUser(oidUserService.mapAuthorities(
+                        List.of(new OidcUserAuthority(idToken)), user.roleMask()), idToken, null, user.id(),
+                        user.roleMask());
+                authenticationProfileCache.serialize(principal).gzip();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Login path warm-up failed", e);
+        }
+    }
+
+    /**
+     * Opens the connection pool and fills the roles cache.
+     */
+    private void warmRepositories() {
+        // Concurrent queries force the pool to hand out (and therefore open) several connections
+        try (ExecutorService executor = Executors.newFixedThreadPool(properties.getConnections())) {
+            for (int i = 0; i < properties.getConnections(); i++) {
+                executor.submit(() -> roleRepository.findByNames(RoleSeeder.DEFAULT_ROLES));
+            }
+        }
+
+        // Fill the roles cache
+        RoleSeeder.DEFAULT_ROLES.forEach(roleRepository::findByName);
+    }
+
+    /**
+     * Sends a request to each provider endpoint used during login, on a client of its own with short timeouts so
+     * that an unreachable provider cannot hold the readiness back. Any HTTP status counts as success.
+     */
+    private void warmOutboundConnections() {
+        ClientRegistration registration = clientRegistrationRepository.findByRegistrationId(REGISTRATION_ID);
+        if (registration == null) {
+            return;
+        }
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getOutboundTimeout());
+        requestFactory.setReadTimeout(properties.getOutboundTimeout());
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setErrorHandler(new ResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false; // 401/405 from the provider still mean the handshake went through
+            }
+
+            @Override
+            public void handleError(ClientHttpResponse response) {
+            }
+        });
+
+        ClientRegistration.ProviderDetails provider = registration.getProviderDetails();
+        Stream.of(provider.getTokenUri(), provider.getUserInfoEndpoint().getUri(), provider.getJwkSetUri())
+                .filter(uri -> uri != null && !uri.isBlank())
+                .forEach(uri -> {
+                    try {
+                        restTemplate.execute(uri, HttpMethod.GET, null, response -> response.getStatusCode());
+                    } catch (RuntimeException e) {
+                        log.debug("stage=warmup, phase=outbound, uri={}, error={}", uri, e.toString());
+                    }
+                });
+    }
+
+    private static HttpInputMessage syntheticMessage(byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+-- Schema of the first versions, whose tables were created with CREATE TABLE IF NOT EXISTS on every startup.
+-- Databases created by those versions have no Flyway history: they are baselined at this version and upgraded
+-- by the following migrations, which therefore only add what may be missing.
+
+CREATE TABLE IF NOT EXISTS role (
+    id_role  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    des_name VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_role_des_name UNIQUE (des_name)
+);
+
+CREATE TABLE IF NOT EXISTS user (
+    id_user   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    des_name  VARCHAR(255) NOT NULL,
+    des_email VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_role (
+    id_user_role BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id_user      BIGINT NOT NULL,
+    id_role      BIGINT NOT NULL,
+    CONSTRAINT fk_user_role_user FOREIGN KEY (id_user) REFERENCES user (id_user),
+    CONSTRAINT fk_user_role_role FOREIGN KEY (id_role) REFERENCES role (id_role)
+);
@@ -0,0 +1,6 @@
+-- Roles as bits of a mask stored on the user, see com.linkedme.persistence.entity.Role#BITS.
+
+ALTER TABLE role ADD COLUMN IF NOT EXISTS num_bit INTEGER;
+ALTER TABLE role ADD CONSTRAINT IF NOT EXISTS uk_role_num_bit UNIQUE (num_bit);
+
+ALTER TABLE user ADD COLUMN IF NOT EXISTS num_role_mask BIGINT NOT NULL DEFAULT 0;
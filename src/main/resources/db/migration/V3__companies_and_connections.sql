@@ -0,0 +1,20 @@
+-- Companies of the users and the imported connections between users.
+
+CREATE TABLE IF NOT EXISTS company (
+    id_company BIGINT PRIMARY KEY,
+    des_name   VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_company_des_name UNIQUE (des_name)
+);
+
+ALTER TABLE user ADD COLUMN IF NOT EXISTS id_company BIGINT;
+ALTER TABLE user ADD CONSTRAINT IF NOT EXISTS fk_user_company
+    FOREIGN KEY (id_company) REFERENCES company (id_company);
+
+CREATE TABLE IF NOT EXISTS user_connection (
+    id_user_connection BIGINT PRIMARY KEY,
+    id_user            BIGINT NOT NULL,
+    id_contact         BIGINT NOT NULL,
+    CONSTRAINT uk_user_connection UNIQUE (id_user, id_contact),
+    CONSTRAINT fk_user_connection_user FOREIGN KEY (id_user) REFERENCES user (id_user),
+    CONSTRAINT fk_user_connection_contact FOREIGN KEY (id_contact) REFERENCES user (id_user)
+);
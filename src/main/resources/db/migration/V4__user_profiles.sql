@@ -0,0 +1,12 @@
+-- LinkedIn profiles fetched in the background, see com.linkedme.enrichment.ProfileEnrichmentService.
+
+CREATE TABLE IF NOT EXISTS user_profile (
+    id_user           BIGINT PRIMARY KEY,
+    des_headline      VARCHAR(1024),
+    des_company       VARCHAR(255),
+    des_picture_url   VARCHAR(2048),
+    des_etag          VARCHAR(255),
+    dat_last_modified TIMESTAMP WITH TIME ZONE,
+    dat_fetched       TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT fk_user_profile_user FOREIGN KEY (id_user) REFERENCES user (id_user)
+);
@@ -0,0 +1,17 @@
+-- Login activity loaded from the login journal, see com.linkedme.journal.LoginJournalService.
+
+CREATE TABLE IF NOT EXISTS login_activity (
+    id_login_activity       BIGINT PRIMARY KEY,
+    id_user                 BIGINT,
+    dat_login               TIMESTAMP WITH TIME ZONE NOT NULL,
+    des_outcome             VARCHAR(16)  NOT NULL,
+    num_token_micros        INT,
+    num_user_info_micros    INT,
+    num_resolve_micros      INT,
+    num_total_micros        INT          NOT NULL,
+    des_failure_reason      VARCHAR(255),
+    num_journal_segment     BIGINT       NOT NULL,
+    num_journal_next_offset BIGINT       NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_login_activity_user ON login_activity (id_user, dat_login);
@@ -0,0 +1,15 @@
+-- Encrypted LinkedIn access tokens of the members, see com.linkedme.security.service.MemberTokenService.
+
+CREATE TABLE IF NOT EXISTS member_token (
+    id_user             BIGINT PRIMARY KEY,
+    des_registration_id VARCHAR(64)   NOT NULL,
+    des_principal_name  VARCHAR(255)  NOT NULL,
+    des_access_token    VARCHAR(4096) NOT NULL,
+    des_scopes          VARCHAR(1024),
+    dat_issued          TIMESTAMP WITH TIME ZONE,
+    dat_expires         TIMESTAMP WITH TIME ZONE,
+    des_refresh_token   VARCHAR(4096),
+    dat_updated         TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_member_token_principal UNIQUE (des_registration_id, des_principal_name),
+    CONSTRAINT fk_member_token_user FOREIGN KEY (id_user) REFERENCES user (id_user)
+);
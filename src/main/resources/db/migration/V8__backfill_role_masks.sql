@@ -0,0 +1,14 @@
+-- Role masks of the users created before V2, whose roles were only stored as user_role rows.
+-- The first versions only ever seeded ROLE_USER and ROLE_ADMIN, whose bits are those of Role#BITS.
+
+UPDATE role SET num_bit = 0 WHERE des_name = 'ROLE_USER' AND num_bit IS NULL;
+UPDATE role SET num_bit = 1 WHERE des_name = 'ROLE_ADMIN' AND num_bit IS NULL;
+ALTER TABLE role ALTER COLUMN num_bit SET NOT NULL;
+
+-- The role rows are authoritative: every mask is recomputed from them, DISTINCT ignoring duplicated rows
+UPDATE user u SET num_role_mask = (
+    SELECT COALESCE(SUM(DISTINCT LSHIFT(CAST(1 AS BIGINT), r.num_bit)), 0)
+    FROM user_role ur
+    JOIN role r ON r.id_role = ur.id_role
+    WHERE ur.id_user = u.id_user
+);
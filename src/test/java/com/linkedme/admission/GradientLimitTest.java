@@ -0,0 +1,105 @@
+package com.linkedme.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests of {@link GradientLimit}.
+ */
+class GradientLimitTest {
+
+    private static final long RTT = Duration.ofMillis(10).toNanos();
+
+    @Test
+    void growsWhileTheLatencyHolds() {
+        GradientLimit limit = limit(20);
+
+        for (int i = 0; i < 50; i++) {
+            limit.sample(RTT, limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isGreaterThan(20);
+    }
+
+    @Test
+    void neverGrowsAboveTheMaximum() {
+        GradientLimit limit = limit(20);
+
+        for (int i = 0; i < 10_000; i++) {
+            limit.sample(RTT, limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isEqualTo(100);
+    }
+
+    @Test
+    void doesNotGrowWhenTheLimitHoldsNothingBack() {
+        GradientLimit limit = limit(20);
+
+        for (int i = 0; i < 50; i++) {
+            limit.sample(RTT, 1, false);
+        }
+
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void shrinksByHalfAtMostWhenTheLatencyRises() {
+        GradientLimit limit = limit(50);
+        for (int i = 0; i < 50; i++) {
+            limit.sample(RTT, limit.limit(), false);
+        }
+        int before = limit.limit();
+
+        limit.sample(100 * RTT, before, false);
+
+        assertThat(limit.limit()).isLessThan(before).isGreaterThanOrEqualTo(before / 2);
+    }
+
+    @Test
+    void backsOffWhenARequestIsDropped() {
+        GradientLimit limit = limit(50);
+
+        limit.sample(RTT, 50, true);
+
+        assertThat(limit.limit()).isEqualTo(45);
+    }
+
+    @Test
+    void neverBacksOffBelowTheMinimum() {
+        GradientLimit limit = limit(50);
+
+        for (int i = 0; i < 100; i++) {
+            limit.sample(RTT, limit.limit(), true);
+        }
+
+        assertThat(limit.limit()).isEqualTo(1);
+    }
+
+    @Test
+    void clampsTheInitialLimit() {
+        assertThat(limit(500).limit()).isEqualTo(100);
+        assertThat(limit(0).limit()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsInconsistentSettings() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new GradientLimit(10, 0, 100, 2, 0.2, 100, 0.9));
+        assertThatIllegalArgumentException().isThrownBy(() -> new GradientLimit(10, 20, 10, 2, 0.2, 100, 0.9));
+        assertThatIllegalArgumentException().isThrownBy(() -> new GradientLimit(10, 1, 100, 0.5, 0.2, 100, 0.9));
+        assertThatIllegalArgumentException().isThrownBy(() -> new GradientLimit(10, 1, 100, 2, 0, 100, 0.9));
+        assertThatIllegalArgumentException().isThrownBy(() -> new GradientLimit(10, 1, 100, 2, 0.2, 0, 0.9));
+        assertThatIllegalArgumentException().isThrownBy(() -> new GradientLimit(10, 1, 100, 2, 0.2, 100, 1));
+    }
+
+    /**
+     * @return a limit between 1 and 100 tolerating twice the average latency.
+     */
+    private static GradientLimit limit(int initialLimit) {
+        return new GradientLimit(initialLimit, 1, 100, 2, 0.2, 100, 0.9);
+    }
+}
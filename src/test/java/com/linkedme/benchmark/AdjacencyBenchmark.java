@@ -0,0 +1,166 @@
+package com.linkedme.benchmark;
+
+import com.linkedme.graph.CompressedNeighbours;
+import com.linkedme.graph.ConnectionGraph;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Memory and breadth-first traversal throughput of the {@link ConnectionGraph} delta-varint adjacency lists
+ * versus the {@code long[]} neighbour arrays it used to keep.
+ *
+ * <p>The graph has {@code -Dbenchmark.adjacency.users} users (200,000 by default) with {@value #DEGREE} contacts
+ * each, half of them close identifiers (colleagues imported together) and half random ones. Sizes count a 16 byte
+ * header per array; the map holding the arrays costs the same in both layouts and is left out.</p>
+ */
+@Tag("perf")
+class AdjacencyBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.adjacency.users", 200_000);
+    private static final int DEGREE = 100;
+    private static final int LOCALITY = 2_000;
+    private static final int WARMUP_TRAVERSALS = 3;
+    private static final int TRAVERSALS = 10;
+
+    @Test
+    void compareLayouts() {
+        SplittableRandom random = new SplittableRandom(42);
+        Map<Long, long[]> arrays = new ConcurrentHashMap<>();
+        ConnectionGraph graph = new ConnectionGraph();
+        for (int user = 0; user < USERS; user++) {
+            long[] contacts = contacts(user, random);
+            arrays.put((long) user, contacts);
+            graph.setNeighbours(user, contacts, contacts.length);
+        }
+        verify(arrays, graph, random);
+
+        long arrayBytes = arrays.values().stream().mapToLong(contacts -> arrayBytes(8L * contacts.length)).sum();
+        long compressedBytes = graph.adjacencyBytes() + (long) graph.userCount() * arrayBytes(0);
+        double edges = graph.edgeCount();
+
+        long[] sources = random.longs(WARMUP_TRAVERSALS + TRAVERSALS, 0, USERS).toArray();
+        for (int i = 0; i < WARMUP_TRAVERSALS; i++) {
+            assertThat(bfsArrays(arrays, sources[i])).isEqualTo(bfsCompressed(graph, sources[i]));
+        }
+        long arrayNanos = 0;
+        long compressedNanos = 0;
+        long scanned = 0;
+        for (int i = WARMUP_TRAVERSALS; i < sources.length; i++) {
+            long start = System.nanoTime();
+            long arrayEdges = bfsArrays(arrays, sources[i]);
+            arrayNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long compressedEdges = bfsCompressed(graph, sources[i]);
+            compressedNanos += System.nanoTime() - start;
+
+            assertThat(compressedEdges).isEqualTo(arrayEdges);
+            scanned += arrayEdges;
+        }
+
+        System.out.printf("adjacency users=%d edges=%d bytes/edge: long[]=%.2f delta-varint=%.2f; "
+                        + "BFS Medges/s: long[]=%.1f delta-varint=%.1f%n", USERS, (long) edges,
+                arrayBytes / edges, compressedBytes / edges,
+                scanned * 1_000.0 / arrayNanos, scanned * 1_000.0 / compressedNanos);
+        assertThat(compressedBytes).isLessThan(arrayBytes / 2);
+    }
+
+    /**
+     * Checks the encoded lists against the arrays: decoding, membership tests and intersections.
+     */
+    private static void verify(Map<Long, long[]> arrays, ConnectionGraph graph, SplittableRandom random) {
+        for (int i = 0; i < 1_000; i++) {
+            long user = random.nextInt(USERS);
+            long other = random.nextInt(USERS);
+            long[] contacts = arrays.get(user);
+            long[] otherContacts = arrays.get(other);
+            assertThat(graph.neighbours(user)).isEqualTo(contacts);
+            for (long candidate : otherContacts) {
+                assertThat(graph.connected(user, candidate)).isEqualTo(Arrays.binarySearch(contacts, candidate) >= 0);
+            }
+            long common = Arrays.stream(otherContacts).filter(id -> Arrays.binarySearch(contacts, id) >= 0).count();
+            assertThat(graph.mutualConnections(user, other)).isEqualTo((int) common);
+        }
+    }
+
+    /**
+     * Traverses the graph reachable from a user, reading the neighbour arrays.
+     *
+     * @return the number of edges scanned.
+     */
+    private static long bfsArrays(Map<Long, long[]> arrays, long source) {
+        int[] queue = new int[USERS];
+        BitSet visited = new BitSet(USERS);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = (int) source;
+        visited.set((int) source);
+        long scanned = 0;
+        while (head < tail) {
+            for (long contact : arrays.get((long) queue[head++])) {
+                scanned++;
+                if (!visited.get((int) contact)) {
+                    visited.set((int) contact);
+                    queue[tail++] = (int) contact;
+                }
+            }
+        }
+        return scanned;
+    }
+
+    /**
+     * Traverses the graph reachable from a user, decoding the compressed lists with a single cursor.
+     *
+     * @return the number of edges scanned.
+     */
+    private static long bfsCompressed(ConnectionGraph graph, long source) {
+        int[] queue = new int[USERS];
+        BitSet visited = new BitSet(USERS);
+        CompressedNeighbours.Cursor cursor = new CompressedNeighbours.Cursor();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = (int) source;
+        visited.set((int) source);
+        long scanned = 0;
+        while (head < tail) {
+            for (graph.neighbours(queue[head++], cursor); cursor.hasNext(); ) {
+                int contact = (int) cursor.next();
+                scanned++;
+                if (!visited.get(contact)) {
+                    visited.set(contact);
+                    queue[tail++] = contact;
+                }
+            }
+        }
+        return scanned;
+    }
+
+    private static long[] contacts(int user, SplittableRandom random) {
+        long[] contacts = new long[DEGREE];
+        for (int i = 0; i < DEGREE; i++) {
+            contacts[i] = i % 2 == 0
+                    ? Math.floorMod(user + random.nextInt(-LOCALITY, LOCALITY), USERS)
+                    : random.nextInt(USERS);
+        }
+        Arrays.sort(contacts);
+        int distinct = 0;
+        for (int i = 0; i < contacts.length; i++) {
+            if (contacts[i] != user && (distinct == 0 || contacts[distinct - 1] != contacts[i])) {
+                contacts[distinct++] = contacts[i];
+            }
+        }
+        return Arrays.copyOf(contacts, distinct);
+    }
+
+    private static long arrayBytes(long payload) {
+        return (16 + payload + 7) & ~7L;
+    }
+}
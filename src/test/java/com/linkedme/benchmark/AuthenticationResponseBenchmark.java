@@ -0,0 +1,113 @@
+package com.linkedme.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.persistence.event.UserSavedEvent;
+import com.linkedme.security.model.LinkedmeOidcUser;
+import com.linkedme.security.service.AuthenticationProfileCache;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUserAuthority;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bytes on the wire and CPU per request of {@code /api/authentication}, before (Jackson serialization of the
+ * whole {@link OidcUser} on every call) and after (compact profile serialized once per session, ETag/304).
+ */
+@Tag("perf")
+class AuthenticationResponseBenchmark {
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+    private static final long USER_ID = 1;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    void compareBeforeAndAfter() throws Exception {
+        OidcUser user = linkedinUser();
+        UserDirectoryService directory = new UserDirectoryService(null, null, null);
+        directory.onUserSaved(new UserSavedEvent(USER_ID, "John Doe", "doe@email.com", null,
+                Role.maskOf(Role.ROLE_USER)));
+        AuthenticationProfileCache cache = new AuthenticationProfileCache(objectMapper, directory);
+        MockHttpSession session = new MockHttpSession();
+
+        int fullBytes = objectMapper.writeValueAsBytes(user).length;
+        AuthenticationProfileCache.SerializedProfile profile = cache.get(session, user);
+
+        long fullCpu = cpuNanosPerOp(() -> objectMapper.writeValueAsBytes(user));
+        long compactCpu = cpuNanosPerOp(() -> cache.get(session, user).json());
+
+        System.out.printf("""
+                        /api/authentication        bytes   cpu ns/op
+                          before (full OidcUser) %7d %11d
+                          after  (compact json)  %7d %11d
+                          after  (compact gzip)  %7d %11s
+                          after  (304)           %7d %11s
+                        %n""",
+                fullBytes, fullCpu,
+                profile.json().length, compactCpu,
+                profile.gzip().length, "-",
+                0, "-");
+        directory.close();
+    }
+
+    private long cpuNanosPerOp(ThrowingRunnable operation) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / ITERATIONS;
+    }
+
+    /**
+     * A principal shaped like the ones produced by a LinkedIn login.
+     */
+    private static OidcUser linkedinUser() {
+        Instant now = Instant.now();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("iss", "https://www.linkedin.com/oauth");
+        claims.put("aud", List.of("86abcdefghijkl"));
+        claims.put("iat", now);
+        claims.put("exp", now.plusSeconds(3600));
+        claims.put("sub", "782bbtaQ");
+        claims.put("name", "John Doe");
+        claims.put("given_name", "John");
+        claims.put("family_name", "Doe");
+        claims.put("picture", "https://media.licdn.com/dms/image/C5603AQHx/profile-displayphoto-shrink_100_100/0/1");
+        claims.put("email", "doe@email.com");
+        claims.put("email_verified", true);
+        claims.put("locale", "en_US");
+        OidcIdToken idToken = new OidcIdToken("eyJ".repeat(250), now, now.plusSeconds(3600), claims);
+
+        Map<String, Object> userInfo = new LinkedHashMap<>(claims);
+        userInfo.keySet().removeAll(List.of("iss", "aud", "iat", "exp"));
+
+        return new LinkedmeOidcUser(List.of(new OidcUserAuthority(idToken, new OidcUserInfo(userInfo)),
+                new SimpleGrantedAuthority("SCOPE_openid"), new SimpleGrantedAuthority("SCOPE_profile"),
+                new SimpleGrantedAuthority("SCOPE_email"), new SimpleGrantedAuthority(Role.ROLE_USER)),
+                idToken, new OidcUserInfo(userInfo), USER_ID, Role.maskOf(Role.ROLE_USER));
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
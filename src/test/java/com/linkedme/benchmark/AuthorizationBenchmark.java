@@ -0,0 +1,104 @@
+package com.linkedme.benchmark;
+
+import com.linkedme.controller.AdminController;
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.persistence.event.UserSavedEvent;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.security.authorization.RoleMaskAuthorizationManager;
+import com.linkedme.security.model.LinkedmeOidcUser;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.OidcUserAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-request authorization cost of {@code @PreAuthorize("hasRole('ROLE_ADMIN')")} (SpEL evaluated against
+ * the authority collection) versus {@code @RequiresRole(Role.ROLE_ADMIN)} (cached mask, lookup of the current
+ * role mask in the user directory, one bitwise test).
+ */
+@Tag("perf")
+class AuthorizationBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 2_000_000;
+
+    @Test
+    void compareSpelAndRoleMask() throws Exception {
+        Method method = AdminController.class.getMethod("getUserS");
+        MethodInvocation invocation = new SimpleMethodInvocation(new AdminController(null), method);
+        Supplier<Authentication> authentication = adminAuthentication();
+
+        // The before case evaluates the expression the controller used to carry
+        MethodInvocation spelInvocation = new SimpleMethodInvocation(new SpelAnnotated(),
+                SpelAnnotated.class.getMethod("getUserS"));
+
+        long spel = nanosPerCheck(new PreAuthorizeAuthorizationManager(), authentication, spelInvocation);
+        long mask;
+        try (UserDirectoryService directory = new UserDirectoryService(null, null, null)) {
+            directory.onUserSaved(new UserSavedEvent(1L, "Admin", "admin@linkedme.local", null,
+                    Role.maskOf(Role.ROLE_USER, Role.ROLE_ADMIN)));
+            mask = nanosPerCheck(new RoleMaskAuthorizationManager(() -> directory), authentication, invocation);
+        }
+
+        System.out.printf("authorization ns/check: @PreAuthorize(SpEL)=%d @RequiresRole(mask)=%d%n", spel, mask);
+    }
+
+    private static long nanosPerCheck(AuthorizationManager<MethodInvocation> manager,
+                                      Supplier<Authentication> authentication, MethodInvocation invocation) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertThat(manager.check(authentication, invocation).isGranted()).isTrue();
+        }
+        long start = System.nanoTime();
+        int granted = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            granted += manager.check(authentication, invocation).isGranted() ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(granted).isEqualTo(ITERATIONS);
+        return elapsed / ITERATIONS;
+    }
+
+    /**
+     * An authenticated admin, with the authorities a LinkedIn login produces.
+     */
+    private static Supplier<Authentication> adminAuthentication() {
+        Instant now = Instant.now();
+        OidcIdToken idToken = new OidcIdToken("token", now, now.plusSeconds(3600),
+                Map.of("sub", "admin", "email", "admin@linkedme.local"));
+        List<GrantedAuthority> authorities = new ArrayList<>(List.of(new OidcUserAuthority(idToken),
+                new SimpleGrantedAuthority("SCOPE_openid"), new SimpleGrantedAuthority("SCOPE_profile"),
+                new SimpleGrantedAuthority("SCOPE_email"), new SimpleGrantedAuthority(Role.ROLE_USER),
+                new SimpleGrantedAuthority(Role.ROLE_ADMIN)));
+        LinkedmeOidcUser principal = new LinkedmeOidcUser(authorities, idToken, null, 1L,
+                Role.maskOf(Role.ROLE_USER, Role.ROLE_ADMIN));
+        Authentication authentication = new OAuth2AuthenticationToken(principal, authorities, "linkedin");
+        return () -> authentication;
+    }
+
+    /**
+     * Stand-in for the controller as it was annotated before the role mask model.
+     */
+    static class SpelAnnotated {
+        @org.springframework.security.access.prepost.PreAuthorize("hasRole('ROLE_ADMIN')")
+        public String getUserS() {
+            return "Hello Admin";
+        }
+    }
+}
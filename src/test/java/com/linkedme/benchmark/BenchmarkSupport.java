@@ -0,0 +1,45 @@
+package com.linkedme.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Helpers shared by the benchmarks: made-up words for names and the measure of the live heap.
+ */
+final class BenchmarkSupport {
+
+    private static final String[] SYLLABLES = {"ba", "ro", "mi", "ka", "le", "zu", "an", "el", "to", "ri", "sa",
+            "no", "de", "va", "lu", "ch", "ph", "st", "th", "ou"};
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * @param random the random generator.
+     * @return a lower-case word of two to four syllables.
+     */
+    static String word(SplittableRandom random) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 2 + random.nextInt(3); i > 0; i--) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    /**
+     * @param word a non-empty word.
+     * @return the word with its first letter in upper case.
+     */
+    static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Runs a full collection and returns the heap still in use.
+     */
+    static long liveHeap() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,104 @@
+package com.linkedme.benchmark;
+
+import com.linkedme.company.CompanyDictionary;
+import com.linkedme.company.CompanyNameNormalizer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.UnaryOperator;
+
+import static com.linkedme.benchmark.BenchmarkSupport.capitalize;
+import static com.linkedme.benchmark.BenchmarkSupport.liveHeap;
+import static com.linkedme.benchmark.BenchmarkSupport.word;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encoding throughput of {@link CompanyDictionary} and the heap of a company column kept as raw strings versus
+ * dictionary codes.
+ *
+ * <p>The column has {@code -Dbenchmark.companies.rows} rows (two million by default), each a freshly built
+ * string, as parsed from an export, spelling one of {@value #COMPANIES} companies in one of the ways LinkedIn
+ * exports do ("Acme Widgets", "ACME WIDGETS LLC", "The Acme Widgets Company"...). The column is encoded once
+ * row by row and once with {@link CompanyDictionary#encodeAll}; the heap of each layout is the live heap after
+ * a full collection.</p>
+ */
+@Tag("perf")
+class CompanyDictionaryBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.companies.rows", 2_000_000);
+    private static final int COMPANIES = 20_000;
+
+    private static final List<UnaryOperator<String>> SPELLINGS = List.of(
+            name -> name,
+            name -> name + " Inc.",
+            name -> name.toUpperCase() + " LLC",
+            name -> name.toLowerCase() + ", ltd",
+            name -> name + " Corp",
+            name -> "The " + name + " Company",
+            name -> name.replace('e', '\u00e9') + " GmbH",
+            name -> name + " & Co.");
+
+    @Test
+    void encodeColumn() {
+        SplittableRandom random = new SplittableRandom(42);
+        String[] companies = new String[COMPANIES];
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < COMPANIES; i++) {
+            companies[i] = capitalize(word(random)) + " " + capitalize(word(random));
+            keys.add(CompanyNameNormalizer.canonicalize(companies[i]));
+        }
+
+        long baselineHeap = liveHeap();
+        List<String> column = column(companies, random);
+        long rawBytes = liveHeap() - baselineHeap;
+
+        long start = System.nanoTime();
+        CompanyDictionary sequential = new CompanyDictionary();
+        int[] sequentialCodes = new int[column.size()];
+        for (int row = 0; row < column.size(); row++) {
+            sequentialCodes[row] = sequential.encode(column.get(row));
+        }
+        double sequentialSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        CompanyDictionary parallel = new CompanyDictionary();
+        int[] codes = parallel.encodeAll(column);
+        double parallelSeconds = (System.nanoTime() - start) / 1e9;
+
+        // Same grouping whatever the encoding order
+        int[] sequentialOf = new int[parallel.size()];
+        Arrays.fill(sequentialOf, CompanyDictionary.UNKNOWN);
+        for (int row = 0; row < column.size(); row++) {
+            if (sequentialOf[codes[row]] == CompanyDictionary.UNKNOWN) {
+                sequentialOf[codes[row]] = sequentialCodes[row];
+            }
+            assertThat(sequentialOf[codes[row]]).isEqualTo(sequentialCodes[row]);
+        }
+        sequential = null;
+        sequentialCodes = null;
+        column = null;
+        long encodedBytes = liveHeap() - baselineHeap;
+
+        System.out.printf("companies rows=%d names=%d sequential=%.0f rows/s parallel=%.0f rows/s (%d threads)%n"
+                        + "  raw strings: %d MB%n  dictionary codes: %d MB (%.1fx smaller)%n", ROWS, parallel.size(),
+                ROWS / sequentialSeconds, ROWS / parallelSeconds, Runtime.getRuntime().availableProcessors(),
+                rawBytes >> 20, encodedBytes >> 20, (double) rawBytes / encodedBytes);
+        assertThat(parallel.size()).isEqualTo(keys.size());
+        assertThat(Arrays.stream(codes).distinct().count()).isEqualTo(keys.size());
+        assertThat(encodedBytes).isLessThan(rawBytes / 4);
+    }
+
+    private static List<String> column(String[] companies, SplittableRandom random) {
+        List<String> column = new ArrayList<>(ROWS);
+        for (int row = 0; row < ROWS; row++) {
+            column.add(SPELLINGS.get(random.nextInt(SPELLINGS.size())).apply(companies[random.nextInt(COMPANIES)]));
+        }
+        return column;
+    }
+}
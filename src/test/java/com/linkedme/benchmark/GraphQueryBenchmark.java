@@ -0,0 +1,365 @@
+package com.linkedme.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linkedme.company.CompanyDictionaryService;
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.graph.ConnectionGraph;
+import com.linkedme.graph.Neighbourhood;
+import com.linkedme.graph.PathSearchService;
+import com.linkedme.graph.shard.ShardPartitioner;
+import com.linkedme.graph.shard.ShardedGraph;
+import com.linkedme.loadtest.LatencyHistogram;
+import com.linkedme.model.IntroducerCandidate;
+import com.linkedme.persistence.event.CompanySavedEvent;
+import com.linkedme.persistence.event.UserSavedEvent;
+import com.linkedme.service.IntroducerSearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.linkedme.benchmark.BenchmarkSupport.liveHeap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency, throughput and memory of the graph queries on a synthetic social graph of
+ * {@code -Dbenchmark.graph.edges} connections (one million by default, from 10,000 to 50,000,000), see
+ * {@link SocialGraphGenerator}.
+ *
+ * <p>Three queries run between random users having contacts:</p>
+ * <ul>
+ *     <li>path: the shortest path to another user, {@value PathSearchService#MAX_DEPTH} hops deep at most;</li>
+ *     <li>company reachability: the introducers to a random company, as the friends page searches them;</li>
+ *     <li>recommendation: the second degree users sharing the most contacts with the user, as "people you may
+ *     know" would rank them.</li>
+ * </ul>
+ *
+ * <p>Each query runs {@code -Dbenchmark.graph.queries} times (1,000 by default) on one thread for the latency
+ * percentiles, then as many times on {@code -Dbenchmark.graph.threads} threads (the processors by default) for
+ * the throughput. Memory is the heap the graph and the directory keep after a full collection, and the native
+ * memory of the directory.</p>
+ *
+ * <p>Every run appends its results as a JSON line to {@code -Dbenchmark.results}
+ * ({@code benchmark-results/graph-queries.jsonl} by default) and prints the change since the previous run with
+ * the same size and seed. Run with
+ * {@code mvn -Pperf test -Dtest=GraphQueryBenchmark -Dbenchmark.graph.edges=10000000}.</p>
+ */
+@Tag("perf")
+class GraphQueryBenchmark {
+
+    private static final long EDGES = Long.getLong("benchmark.graph.edges", 1_000_000);
+    private static final long SEED = Long.getLong("benchmark.graph.seed", 42);
+    private static final int QUERIES = Integer.getInteger("benchmark.graph.queries", 1_000);
+    private static final int THREADS = Integer.getInteger("benchmark.graph.threads",
+            Runtime.getRuntime().availableProcessors());
+    private static final Path RESULTS = Path.of(System.getProperty("benchmark.results",
+            "benchmark-results/graph-queries.jsonl"));
+    private static final int WARMUP = 200;
+    private static final int MAX_SECOND_DEGREE = 1_000;
+    private static final int RECOMMENDATIONS = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void queries() throws Exception {
+        long baselineHeap = liveHeap();
+        long baselineNative = nativeMemory();
+        SocialGraphGenerator generator = new SocialGraphGenerator(EDGES, SEED);
+        CompanyDictionaryService companies = new CompanyDictionaryService(null, new SimpleMeterRegistry());
+        UserDirectoryService directory = new UserDirectoryService(null, null, companies);
+        ConnectionGraph graph = new ConnectionGraph();
+        GraphSink sink = new GraphSink(directory, companies, graph, generator.users());
+        long start = System.nanoTime();
+        long edges = generator.generate(sink);
+        double generationSeconds = (System.nanoTime() - start) / 1e9;
+        long heapBytes = liveHeap() - baselineHeap;
+        long nativeBytes = nativeMemory() - baselineNative;
+        int[] users = Arrays.copyOf(sink.connected, sink.connectedCount);
+
+        PathSearchService pathSearch = new PathSearchService(
+                new ShardedGraph(graph, ShardPartitioner.SINGLE, Collections.singletonList(null)));
+        IntroducerSearchService introducers = new IntroducerSearchService(pathSearch, directory, companies,
+                new SimpleMeterRegistry());
+        Map<String, Query> queries = new LinkedHashMap<>();
+        queries.put("path", random -> pathSearch.shortestPath(pick(users, random), pick(users, random),
+                PathSearchService.MAX_DEPTH).isPresent());
+        queries.put("companyReachability", random -> introducers.search(pick(users, random),
+                random.nextInt(generator.companies()), IntroducerSearchService.MAX_DEPTH, Drain.INSTANCE)
+                .candidates() > 0);
+        queries.put("recommendation", random -> recommendations(graph, pick(users, random)).length > 0);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timestamp", Instant.now().toString());
+        result.put("commit", commit());
+        result.put("java", Runtime.version().toString());
+        result.put("processors", Runtime.getRuntime().availableProcessors());
+        result.put("threads", THREADS);
+        result.put("seed", SEED);
+        result.put("edges", EDGES);
+        result.put("distinctEdges", edges);
+        result.put("users", generator.users());
+        result.put("connectedUsers", users.length);
+        result.put("companies", generator.companies());
+        result.put("generationEdgesPerSecond", Math.round(edges / generationSeconds));
+        result.put("adjacencyBytes", graph.adjacencyBytes());
+        result.put("heapBytes", heapBytes);
+        result.put("nativeBytes", nativeBytes);
+        Map<String, Object> measured = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Query> query : queries.entrySet()) {
+                measured.put(query.getKey(), measure(query.getValue()));
+            }
+        } finally {
+            introducers.close();
+            directory.close();
+        }
+        result.put("queries", measured);
+
+        JsonNode previous = previousRun();
+        String line = objectMapper.writeValueAsString(result);
+        Files.createDirectories(RESULTS.toAbsolutePath().getParent());
+        Files.writeString(RESULTS, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        System.out.printf("graph edges=%d users=%d (with contacts=%d) companies=%d generated at %d edges/s%n"
+                        + "  adjacency: %d MB, heap: %d MB, native: %d MB%n", edges, generator.users(),
+                users.length, generator.companies(), result.get("generationEdgesPerSecond"),
+                graph.adjacencyBytes() >> 20, heapBytes >> 20, nativeBytes >> 20);
+        System.out.printf("  %-20s %9s %9s %9s %9s %11s %8s%n", "query", "p50 us", "p90 us", "p99 us",
+                "p999 us", "queries/s", "found");
+        JsonNode current = objectMapper.readTree(line);
+        current.get("queries").fields().forEachRemaining(query -> {
+            JsonNode stats = query.getValue();
+            System.out.printf("  %-20s %9d %9d %9d %9d %11d %7d%%%n", query.getKey(), stats.get("p50Micros").asLong(),
+                    stats.get("p90Micros").asLong(), stats.get("p99Micros").asLong(),
+                    stats.get("p999Micros").asLong(), stats.get("queriesPerSecond").asLong(),
+                    stats.get("foundPercent").asLong());
+            JsonNode before = previous == null ? null : previous.path("queries").get(query.getKey());
+            if (before != null) {
+                System.out.printf("  %-20s %9s %9s %9s %9s %11s   (since %s, %s)%n", "", change(before, stats,
+                                "p50Micros"), change(before, stats, "p90Micros"), change(before, stats, "p99Micros"),
+                        change(before, stats, "p999Micros"), change(before, stats, "queriesPerSecond"),
+                        previous.path("timestamp").asText(), previous.path("commit").asText());
+            }
+        });
+        System.out.printf("  results appended to %s%n", RESULTS.toAbsolutePath());
+
+        assertThat(edges).isGreaterThan(EDGES * 8 / 10);
+        assertThat(current.get("queries").get("path").get("foundPercent").asInt()).isPositive();
+        assertThat(current.get("queries").get("recommendation").get("foundPercent").asInt()).isPositive();
+    }
+
+    /**
+     * Runs a query {@value #WARMUP} times, then {@link #QUERIES} times on one thread and as many times on
+     * {@link #THREADS} threads.
+     */
+    private Map<String, Object> measure(Query query) throws Exception {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < WARMUP; i++) {
+            query.run(random);
+        }
+        LatencyHistogram latency = new LatencyHistogram();
+        int found = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            boolean result = query.run(random);
+            latency.recordNanos(System.nanoTime() - start);
+            found += result ? 1 : 0;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            Future<?>[] workers = new Future<?>[THREADS];
+            for (int thread = 0; thread < THREADS; thread++) {
+                SplittableRandom threadRandom = random.split();
+                int count = QUERIES / THREADS + (thread < QUERIES % THREADS ? 1 : 0);
+                workers[thread] = executor.submit(() -> {
+                    for (int i = 0; i < count; i++) {
+                        query.run(threadRandom);
+                    }
+                });
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("p50Micros", latency.percentileMicros(50));
+            stats.put("p90Micros", latency.percentileMicros(90));
+            stats.put("p99Micros", latency.percentileMicros(99));
+            stats.put("p999Micros", latency.percentileMicros(99.9));
+            stats.put("queriesPerSecond", Math.round(QUERIES / seconds));
+            stats.put("foundPercent", found * 100 / QUERIES);
+            return stats;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Ranks the second degree users of a user by the number of contacts they share with the user.
+     *
+     * @return the identifiers of the best {@value #RECOMMENDATIONS} users, the best first.
+     */
+    static long[] recommendations(ConnectionGraph graph, long userId) {
+        long[] best = new long[RECOMMENDATIONS];
+        int[] mutual = new int[RECOMMENDATIONS];
+        int size = 0;
+        for (long candidate : Neighbourhood.of(graph, userId, MAX_SECOND_DEGREE).secondDegree()) {
+            int shared = graph.mutualConnections(userId, candidate);
+            if (size == RECOMMENDATIONS && shared <= mutual[size - 1]) {
+                continue;
+            }
+            int i = size == RECOMMENDATIONS ? size - 1 : size++;
+            for (; i > 0 && mutual[i - 1] < shared; i--) {
+                best[i] = best[i - 1];
+                mutual[i] = mutual[i - 1];
+            }
+            best[i] = candidate;
+            mutual[i] = shared;
+        }
+        return Arrays.copyOf(best, size);
+    }
+
+    /**
+     * @return the last run with the same size and seed, or null.
+     */
+    private JsonNode previousRun() throws IOException {
+        if (!Files.exists(RESULTS)) {
+            return null;
+        }
+        JsonNode previous = null;
+        for (String line : Files.readAllLines(RESULTS, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode run = objectMapper.readTree(line);
+            if (run.path("edges").asLong() == EDGES && run.path("seed").asLong() == SEED) {
+                previous = run;
+            }
+        }
+        return previous;
+    }
+
+    private static String change(JsonNode before, JsonNode after, String field) {
+        long from = before.path(field).asLong();
+        if (from == 0) {
+            return "";
+        }
+        return String.format("%+.0f%%", (after.path(field).asLong() - from) * 100.0 / from);
+    }
+
+    /**
+     * @return the abbreviated commit the benchmark runs on, or "unknown" outside of a git work tree.
+     */
+    private static String commit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String commit = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return git.waitFor() == 0 ? commit : "unknown";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    private static long pick(int[] users, SplittableRandom random) {
+        return users[random.nextInt(users.length)];
+    }
+
+    /**
+     * @return the native memory in use, which includes the memory segments of the directory.
+     */
+    private static long nativeMemory() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    @FunctionalInterface
+    private interface Query {
+
+        /**
+         * @return whether the query found something.
+         */
+        boolean run(SplittableRandom random);
+    }
+
+    /**
+     * Loads the generated graph the way the application does at startup: companies and users through their
+     * saved events, contacts straight into the connection graph.
+     */
+    private static final class GraphSink implements SocialGraphGenerator.Sink {
+        final UserDirectoryService directory;
+        final CompanyDictionaryService companies;
+        final ConnectionGraph graph;
+        final int[] connected;
+        int connectedCount;
+
+        GraphSink(UserDirectoryService directory, CompanyDictionaryService companies, ConnectionGraph graph,
+                  int users) {
+            this.directory = directory;
+            this.companies = companies;
+            this.graph = graph;
+            this.connected = new int[users];
+        }
+
+        @Override
+        public void company(int id, String name) {
+            CompanySavedEvent event = new CompanySavedEvent(id, name);
+            directory.onCompanySaved(event);
+            companies.onCompanySaved(event);
+        }
+
+        @Override
+        public void user(int id, String name, String email, int companyId) {
+            directory.onUserSaved(new UserSavedEvent(id, name, email, (long) companyId, 1L));
+        }
+
+        @Override
+        public void contacts(int userId, long[] contacts, int length) {
+            graph.setNeighbours(userId, contacts, length);
+            connected[connectedCount++] = userId;
+        }
+    }
+
+    /**
+     * Takes every candidate, as the friends page does.
+     */
+    private enum Drain implements IntroducerSearchService.Listener {
+        INSTANCE;
+
+        @Override
+        public boolean onCandidates(int depth, List<IntroducerCandidate> candidates) {
+            return true;
+        }
+
+        @Override
+        public boolean onLevel(int depth, int visited) {
+            return true;
+        }
+    }
+}
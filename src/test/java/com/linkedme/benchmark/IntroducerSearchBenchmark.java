@@ -0,0 +1,122 @@
+package com.linkedme.benchmark;
+
+import com.linkedme.company.CompanyDictionaryService;
+import com.linkedme.directory.UserDirectoryService;
+import com.linkedme.graph.ConnectionGraph;
+import com.linkedme.graph.PathSearchService;
+import com.linkedme.graph.shard.ShardPartitioner;
+import com.linkedme.graph.shard.ShardedGraph;
+import com.linkedme.loadtest.LatencyHistogram;
+import com.linkedme.model.IntroducerCandidate;
+import com.linkedme.model.IntroducerSearchSummary;
+import com.linkedme.persistence.event.CompanySavedEvent;
+import com.linkedme.persistence.event.UserSavedEvent;
+import com.linkedme.service.IntroducerSearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time to the first introducer candidates of {@link IntroducerSearchService} versus the time to the complete
+ * list, which is what the friends page used to wait for.
+ *
+ * <p>The graph has {@code -Dbenchmark.introducers.users} users (200,000 by default) with about
+ * {@value #DEGREE} contacts each, spread over {@value #COMPANIES} companies, and every search goes
+ * {@value IntroducerSearchService#MAX_DEPTH} hops deep. Searches finding no candidate at all only count towards
+ * the complete list.</p>
+ */
+@Tag("perf")
+class IntroducerSearchBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.introducers.users", 200_000);
+    private static final int COMPANIES = 1_000;
+    private static final int DEGREE = 40;
+    private static final int WARMUP = 50;
+    private static final int SEARCHES = 300;
+
+    @Test
+    void timeToFirstResult() {
+        SplittableRandom random = new SplittableRandom(42);
+        CompanyDictionaryService companies = new CompanyDictionaryService(null, new SimpleMeterRegistry());
+        UserDirectoryService directory = new UserDirectoryService(null, null, companies);
+        for (int company = 0; company < COMPANIES; company++) {
+            directory.onCompanySaved(new CompanySavedEvent(company, "Company " + company));
+            companies.onCompanySaved(new CompanySavedEvent(company, "Company " + company));
+        }
+        for (int user = 0; user < USERS; user++) {
+            directory.onUserSaved(new UserSavedEvent(user, "User " + user, "user" + user + "@example.com",
+                    (long) random.nextInt(COMPANIES), 1L));
+        }
+        ConnectionGraph graph = new ConnectionGraph();
+        for (int user = 0; user < USERS; user++) {
+            graph.connect(user, random.longs(DEGREE / 2, 0, USERS).toArray());
+        }
+        IntroducerSearchService service = new IntroducerSearchService(new PathSearchService(
+                new ShardedGraph(graph, ShardPartitioner.SINGLE, Collections.singletonList(null))),
+                directory, companies, new SimpleMeterRegistry());
+
+        LatencyHistogram firstResult = new LatencyHistogram();
+        LatencyHistogram complete = new LatencyHistogram();
+        long candidates = 0;
+        for (int i = 0; i < WARMUP + SEARCHES; i++) {
+            FirstResult listener = new FirstResult(System.nanoTime());
+            IntroducerSearchSummary summary = service.search(random.nextInt(USERS), random.nextInt(COMPANIES),
+                    IntroducerSearchService.MAX_DEPTH, listener);
+            long completeNanos = System.nanoTime() - listener.start;
+            assertThat(summary.candidates()).isEqualTo(listener.candidates);
+            if (i >= WARMUP) {
+                complete.recordNanos(completeNanos);
+                if (listener.firstNanos >= 0) {
+                    firstResult.recordNanos(listener.firstNanos);
+                }
+                candidates += summary.candidates();
+            }
+        }
+        service.close();
+        directory.close();
+
+        System.out.printf("introducers users=%d searches=%d (with candidates=%d, candidates/search=%.1f) "
+                        + "first result p50=%dus p99=%dus, complete list p50=%dus p99=%dus%n", USERS, SEARCHES,
+                firstResult.count(), candidates / (double) SEARCHES, firstResult.percentileMicros(50),
+                firstResult.percentileMicros(99), complete.percentileMicros(50), complete.percentileMicros(99));
+        assertThat(firstResult.count()).isPositive();
+        assertThat(firstResult.percentileMicros(50)).isLessThan(complete.percentileMicros(50));
+    }
+
+    /**
+     * Records when the first candidates arrive, and checks they come closest first.
+     */
+    private static final class FirstResult implements IntroducerSearchService.Listener {
+        final long start;
+        long firstNanos = -1;
+        int candidates;
+        int lastDepth;
+
+        FirstResult(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public boolean onCandidates(int depth, List<IntroducerCandidate> batch) {
+            if (firstNanos < 0) {
+                firstNanos = System.nanoTime() - start;
+            }
+            assertThat(depth).isGreaterThanOrEqualTo(lastDepth);
+            assertThat(batch).allMatch(candidate -> candidate.hops() == depth);
+            lastDepth = depth;
+            candidates += batch.size();
+            return true;
+        }
+
+        @Override
+        public boolean onLevel(int depth, int visited) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.linkedme.benchmark;
+
+import com.linkedme.linkedin.LinkedinApiInterceptor;
+import com.linkedme.linkedin.LinkedinApiProperties;
+import com.linkedme.loadtest.LatencyHistogram;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link LinkedinApiInterceptor} against a stub of the profile API enforcing a quota of {@value #QUOTA} requests
+ * per second, which answers the requests over the quota with "429 Too Many Requests" and "Retry-After: 1".
+ *
+ * <p>{@value #CLIENTS} concurrent clients send {@value #REQUESTS} distinct requests each, through a
+ * {@code RestTemplate} whose interceptor has no bucket and does not retry, with a bucket above the quota (so
+ * that the stub throttles and "Retry-After" paces the retries), and with a bucket below the quota. The coalescing
+ * test sends the same request from {@value #CLIENTS} clients at once.</p>
+ */
+@Tag("perf")
+class LinkedinApiThrottlingBenchmark {
+
+    private static final int QUOTA = 100;
+    private static final int CLIENTS = 20;
+    private static final int REQUESTS = 20;
+    private static final Duration LATENCY = Duration.ofMillis(10);
+
+    private HttpServer server;
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicLong windowRequests = new AtomicLong();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v2/profiles/", this::profile);
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void throttling() throws Exception {
+        Run unlimited = run("no-limiter", null, 1);
+        Run aboveQuota = run("bucket-above-quota", endpoint(QUOTA, QUOTA * 3), 5);
+        Run belowQuota = run("bucket-below-quota", endpoint(10, QUOTA * 0.9), 3);
+
+        assertThat(unlimited.throttled()).isPositive();
+        assertThat(aboveQuota.failures()).isLessThan(unlimited.failures());
+        assertThat(belowQuota.failures()).isZero();
+        assertThat(belowQuota.throttled()).isLessThan(aboveQuota.throttled());
+    }
+
+    @Test
+    void coalescing() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RestTemplate restTemplate = restTemplate(properties(null, 1), meterRegistry);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> responses = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < CLIENTS; client++) {
+                responses.add(clients.submit(() -> {
+                    start.await();
+                    return restTemplate.getForObject(baseUrl() + "/v2/profiles/same@example.com", String.class);
+                }));
+            }
+            start.countDown();
+            for (Future<String> response : responses) {
+                assertThat(response.get()).contains("same@example.com");
+            }
+        }
+
+        double coalesced = meterRegistry.get("linkedme.linkedin.requests").tag("outcome", "coalesced").counter()
+                .count();
+        System.out.printf("linkedin-api coalescing clients=%d sent=%d coalesced=%.0f%n", CLIENTS, served.get(),
+                coalesced);
+        assertThat(served.get()).isLessThan(CLIENTS);
+        assertThat(served.get() + (long) coalesced).isEqualTo(CLIENTS);
+    }
+
+    private Run run(String name, LinkedinApiProperties.Endpoint endpoint, int maxAttempts) throws Exception {
+        served.set(0);
+        throttled.set(0);
+        // Start in a fresh quota window, with a full bucket
+        Thread.sleep(1_100);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RestTemplate restTemplate = restTemplate(properties(endpoint, maxAttempts), meterRegistry);
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong failures = new AtomicLong();
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < CLIENTS; client++) {
+                int clientId = client;
+                clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS; i++) {
+                        long sent = System.nanoTime();
+                        try {
+                            restTemplate.getForObject(baseUrl() + "/v2/profiles/{email}", String.class,
+                                    "member-" + clientId + "-" + i + "@example.com");
+                            latency.recordNanos(System.nanoTime() - sent);
+                        } catch (RestClientException e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Run run = new Run(failures.get(), throttled.get());
+        System.out.printf("linkedin-api run=%s requests=%d duration=%.1fs served=%d throttled=%d failures=%d "
+                        + "latency p50=%dus p99=%dus retried=%.0f%n", name, CLIENTS * REQUESTS, seconds, served.get(),
+                run.throttled(), run.failures(), latency.percentileMicros(50), latency.percentileMicros(99),
+                meterRegistry.find("linkedme.linkedin.requests").tag("outcome", "retried").counters().stream()
+                        .mapToDouble(Counter::count).sum());
+        return run;
+    }
+
+    /**
+     * Serves the quota in fixed one-second windows, like the per-app quotas of LinkedIn.
+     */
+    private void profile(HttpExchange exchange) throws IOException {
+        long now = System.nanoTime();
+        long window = windowStart.get();
+        if (now - window >= 1_000_000_000L && windowStart.compareAndSet(window, now)) {
+            windowRequests.set(0);
+        }
+        if (windowRequests.incrementAndGet() > QUOTA) {
+            throttled.incrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+            return;
+        }
+        try {
+            Thread.sleep(LATENCY.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        served.incrementAndGet();
+        String email = exchange.getRequestURI().getPath().substring("/v2/profiles/".length());
+        byte[] body = ("{\"email\":\"" + email + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private RestTemplate restTemplate(LinkedinApiProperties properties, MeterRegistry meterRegistry) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new LinkedinApiInterceptor(properties, meterRegistry));
+        return restTemplate;
+    }
+
+    private static LinkedinApiProperties properties(LinkedinApiProperties.Endpoint endpoint, int maxAttempts) {
+        LinkedinApiProperties properties = new LinkedinApiProperties();
+        properties.setMaxAttempts(maxAttempts);
+        properties.setMaxWait(Duration.ofSeconds(30));
+        if (endpoint != null) {
+            properties.setEndpoints(Map.of("profiles", endpoint));
+        }
+        return properties;
+    }
+
+    private static LinkedinApiProperties.Endpoint endpoint(int capacity, double refillPerSecond) {
+        LinkedinApiProperties.Endpoint endpoint = new LinkedinApiProperties.Endpoint();
+        endpoint.setPath("/v2/profiles/**");
+        endpoint.setCapacity(capacity);
+        endpoint.setRefillPerSecond(refillPerSecond);
+        return endpoint;
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private record Run(long failures, long throttled) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.linkedme.benchmark;
+
+import com.linkedme.journal.LoginJournal;
+import com.linkedme.journal.LoginOutcome;
+import com.linkedme.journal.LoginRecord;
+import com.linkedme.loadtest.LatencyHistogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Append latency of the {@link LoginJournal} with {@value #PRODUCERS} concurrent producers, which is what the
+ * login path pays to record a login.
+ *
+ * <p>Segments are small ({@value #SEGMENT_BYTES} bytes) so that the run goes through many rotations; every
+ * {@value #FAILURE_EVERY}th record carries a failure reason. Once the producers are done, the journal is read
+ * back and each producer's records must come out complete and in order.</p>
+ */
+@Tag("perf")
+class LoginJournalBenchmark {
+
+    private static final int PRODUCERS = 8;
+    private static final int RECORDS = Integer.getInteger("benchmark.journal.records", 500_000);
+    private static final long SEGMENT_BYTES = 1L << 20;
+    private static final int FAILURE_EVERY = 10;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append() throws Exception {
+        LatencyHistogram latency = new LatencyHistogram();
+        long start;
+        long elapsed;
+        try (LoginJournal journal = new LoginJournal(directory, SEGMENT_BYTES)) {
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            try (ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS)) {
+                for (int producer = 0; producer < PRODUCERS; producer++) {
+                    int producerId = producer;
+                    results.add(producers.submit(() -> {
+                        ready.await();
+                        for (int i = 0; i < RECORDS / PRODUCERS; i++) {
+                            LoginRecord record = record(producerId, i);
+                            long sent = System.nanoTime();
+                            boolean appended = journal.append(record);
+                            latency.recordNanos(System.nanoTime() - sent);
+                            assertThat(appended).isTrue();
+                        }
+                        return null;
+                    }));
+                }
+                start = System.nanoTime();
+                ready.countDown();
+            }
+            elapsed = System.nanoTime() - start;
+            for (Future<?> result : results) {
+                result.get();
+            }
+            journal.force();
+
+            int[] next = new int[PRODUCERS];
+            List<LoginJournal.Entry> batch = new ArrayList<>();
+            LoginJournal.Position position = LoginJournal.Position.START;
+            long read = 0;
+            do {
+                batch.clear();
+                position = journal.read(position, 10_000, batch);
+                for (LoginJournal.Entry entry : batch) {
+                    LoginRecord record = entry.record();
+                    int producer = (int) record.userId();
+                    assertThat(record).isEqualTo(record(producer, next[producer]++));
+                }
+                read += batch.size();
+            } while (!batch.isEmpty());
+
+            System.out.printf("login-journal producers=%d records=%d segments=%d append p50=%dus p99=%dus "
+                            + "throughput=%.0f/s%n", PRODUCERS, read, journal.segmentCount(),
+                    latency.percentileMicros(50), latency.percentileMicros(99),
+                    read / (elapsed / 1e9));
+            assertThat(read).isEqualTo((long) RECORDS / PRODUCERS * PRODUCERS);
+            assertThat(journal.release(position, Duration.ZERO)).isPositive();
+        }
+        assertThat(latency.percentileMicros(50)).isLessThan(1);
+    }
+
+    /**
+     * The i-th record of a producer; the user is the producer, so that the order can be checked per producer.
+     */
+    private static LoginRecord record(int producer, int i) {
+        if (i % FAILURE_EVERY == 0) {
+            return new LoginRecord(producer, 1_700_000_000_000L + i, LoginOutcome.FAILURE, i % 1_000,
+                    LoginRecord.UNKNOWN, LoginRecord.UNKNOWN, i % 5_000, "invalid_token: Token #" + i + " expired");
+        }
+        return new LoginRecord(producer, 1_700_000_000_000L + i, LoginOutcome.SUCCESS, i % 1_000, i % 2_000, i % 500,
+                i % 5_000, null);
+    }
+}
@@ -0,0 +1,181 @@
+package com.linkedme.benchmark;
+
+import com.linkedme.graph.ConnectionGraph;
+import com.linkedme.graph.PathSearchService;
+import com.linkedme.graph.shard.ShardClient;
+import com.linkedme.graph.shard.ShardPartitioner;
+import com.linkedme.graph.shard.ShardServer;
+import com.linkedme.graph.shard.ShardedGraph;
+import com.linkedme.loadtest.LatencyHistogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Shortest path latency of {@link PathSearchService} over a graph partitioned across 1 to 4 local processes.
+ *
+ * <p>The test JVM owns shard 0 and coordinates every search; each other shard is a child JVM started on the test
+ * classpath, which builds its partition of the same synthetic graph and serves it from a {@link ShardServer} on
+ * the loopback interface. The graph has {@code -Dbenchmark.shards.users} users (100,000 by default) with about
+ * {@value #DEGREE} random contacts each. Every configuration must find paths of the same lengths as the single
+ * shard one; the report shows the latency percentiles and the share of the edges held by each shard.</p>
+ */
+@Tag("perf")
+class ShardedPathSearchBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.shards.users", 100_000);
+    private static final int DEGREE = 20;
+    private static final long SEED = 42;
+    private static final int MAX_SHARDS = 4;
+    private static final int WARMUP = 200;
+    private static final int QUERIES = 1_000;
+    private static final byte[] SECRET = "benchmark-shared-secret".getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_REQUEST_BYTES = 16 << 20;
+
+    @Test
+    void scaleOut() throws Exception {
+        long[][] pairs = new long[WARMUP + QUERIES][];
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new long[]{random.nextInt(USERS), random.nextInt(USERS)};
+        }
+
+        int[] expectedLengths = null;
+        for (int shards = 1; shards <= MAX_SHARDS; shards++) {
+            List<Process> children = new ArrayList<>();
+            List<ShardClient> clients = new ArrayList<>();
+            clients.add(null);
+            try {
+                for (int shard = 1; shard < shards; shard++) {
+                    Process child = startShard(shards, shard);
+                    children.add(child);
+                    clients.add(new ShardClient(new InetSocketAddress("localhost", awaitPort(child)), SECRET, 4,
+                            Duration.ofSeconds(30)));
+                }
+                ShardPartitioner partitioner = new ShardPartitioner(shards, 0);
+                try (ShardedGraph graph = new ShardedGraph(partition(partitioner), partitioner, clients)) {
+                    PathSearchService search = new PathSearchService(graph);
+                    int[] lengths = new int[QUERIES];
+                    LatencyHistogram histogram = new LatencyHistogram();
+                    for (int i = 0; i < pairs.length; i++) {
+                        long start = System.nanoTime();
+                        Optional<long[]> path = search.shortestPath(pairs[i][0], pairs[i][1],
+                                PathSearchService.MAX_DEPTH);
+                        if (i >= WARMUP) {
+                            histogram.recordNanos(System.nanoTime() - start);
+                            lengths[i - WARMUP] = path.map(users -> users.length).orElse(0);
+                        }
+                    }
+                    if (expectedLengths == null) {
+                        expectedLengths = lengths;
+                    }
+                    assertThat(lengths).isEqualTo(expectedLengths);
+
+                    long[] edges = graph.stats().stream().mapToLong(ShardClient.ShardStats::edges).toArray();
+                    System.out.printf("path search shards=%d users=%d p50=%dus p99=%dus edges per shard=%s%n",
+                            shards, USERS, histogram.percentileMicros(50), histogram.percentileMicros(99),
+                            Arrays.toString(edges));
+                }
+            } finally {
+                children.forEach(Process::destroy);
+            }
+        }
+    }
+
+    /**
+     * Builds the partition of the synthetic graph owned by a shard.
+     *
+     * <p>Every process draws the same edges from the same seed and keeps the directions it owns.</p>
+     */
+    static ConnectionGraph partition(ShardPartitioner partitioner) {
+        long[][] contacts = new long[USERS][];
+        int[] sizes = new int[USERS];
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int user = 0; user < USERS; user++) {
+            for (int i = 0; i < DEGREE / 2; i++) {
+                int contact = random.nextInt(USERS);
+                if (contact != user) {
+                    add(contacts, sizes, partitioner, user, contact);
+                    add(contacts, sizes, partitioner, contact, user);
+                }
+            }
+        }
+        ConnectionGraph graph = new ConnectionGraph();
+        for (int user = 0; user < USERS; user++) {
+            if (sizes[user] > 0) {
+                long[] sorted = Arrays.stream(contacts[user], 0, sizes[user]).sorted().distinct().toArray();
+                graph.setNeighbours(user, sorted, sorted.length);
+            }
+        }
+        return graph;
+    }
+
+    private static void add(long[][] contacts, int[] sizes, ShardPartitioner partitioner, int user, int contact) {
+        if (!partitioner.isLocal(user)) {
+            return;
+        }
+        if (contacts[user] == null) {
+            contacts[user] = new long[DEGREE];
+        } else if (sizes[user] == contacts[user].length) {
+            contacts[user] = Arrays.copyOf(contacts[user], sizes[user] * 2);
+        }
+        contacts[user][sizes[user]++] = contact;
+    }
+
+    private static Process startShard(int shards, int shard) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "-Dbenchmark.shards.users=" + USERS, ShardMain.class.getName(),
+                String.valueOf(shards), String.valueOf(shard))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * Waits for a child to print the port of its shard server.
+     */
+    private static int awaitPort(Process child) throws IOException {
+        BufferedReader out = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8));
+        for (String line; (line = out.readLine()) != null; ) {
+            if (line.startsWith("port=")) {
+                return Integer.parseInt(line.substring("port=".length()));
+            }
+        }
+        throw new IOException("Shard exited with status " + child.exitValue());
+    }
+
+    /**
+     * Entry point of a child shard: serves its partition until the test closes its standard input.
+     */
+    public static final class ShardMain {
+
+        public static void main(String[] args) throws IOException {
+            ShardPartitioner partitioner = new ShardPartitioner(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+            try (ShardServer server = new ShardServer(partition(partitioner), event -> { },
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), SECRET, MAX_REQUEST_BYTES,
+                    Duration.ofSeconds(30))) {
+                server.start();
+                System.out.println("port=" + server.port());
+                System.out.flush();
+                while (System.in.read() >= 0) {
+                    // Wait for the parent to go away
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.linkedme.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of synthetic social graphs: users, the companies they work at and their connections.
+ *
+ * <p>Degrees follow a power law, as in measured social networks: each user gets a weight
+ * {@code 1 / rank^(1 / (exponent - 1))} for a random rank, and every edge joins two users drawn in proportion to
+ * their weights (the Chung-Lu model), which gives a degree distribution {@code P(k) ~ k^-exponent} with a few
+ * hubs and a long tail of users with a handful of contacts. Company sizes follow a Zipf law the same way.
+ * Users are sampled from an alias table in constant time, so a million edges take well under a second.</p>
+ *
+ * <p>Edges are sampled twice from the same seed, once to count the degrees and once to fill the adjacency
+ * lists, so the only large arrays are the adjacency lists themselves ({@code 8 * edges} bytes). Self-loops are
+ * dropped and duplicate edges merged, so the graph has fewer edges than asked for, about 10% fewer for the
+ * smallest graphs where the hubs meet most often. The same size and seed always generate the same graph.</p>
+ */
+public final class SocialGraphGenerator {
+
+    /**
+     * Average number of contacts per user.
+     */
+    public static final int AVERAGE_DEGREE = 20;
+
+    /**
+     * Exponent of the degree distribution.
+     */
+    public static final double EXPONENT = 2.5;
+
+    /**
+     * Average number of users per company.
+     */
+    public static final int USERS_PER_COMPANY = 100;
+
+    private static final long EDGE_SEED_SALT = 0x9E3779B97F4A7C15L;
+
+    private final long edges;
+    private final long seed;
+    private final int users;
+    private final int companies;
+
+    /**
+     * @param edges the number of connections to generate, from 10,000 to 50,000,000.
+     * @param seed  the seed of the random generator.
+     */
+    public SocialGraphGenerator(long edges, long seed) {
+        if (edges < 1 || edges > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("edges=" + edges);
+        }
+        this.edges = edges;
+        this.seed = seed;
+        this.users = (int) Math.max(2, edges * 2 / AVERAGE_DEGREE);
+        this.companies = Math.max(1, users / USERS_PER_COMPANY);
+    }
+
+    /**
+     * Receives the generated graph, in order: every company, every user, then the contacts of each user.
+     */
+    public interface Sink {
+
+        void company(int id, String name);
+
+        void user(int id, String name, String email, int companyId);
+
+        /**
+         * @param userId   the user identifier.
+         * @param contacts the sorted, distinct identifiers of the user's contacts, reused between calls.
+         * @param length   the number of contacts at the start of {@code contacts}.
+         */
+        void contacts(int userId, long[] contacts, int length);
+    }
+
+    /**
+     * @return the number of users, identified from 0.
+     */
+    public int users() {
+        return users;
+    }
+
+    /**
+     * @return the number of companies, identified from 0.
+     */
+    public int companies() {
+        return companies;
+    }
+
+    /**
+     * Generates the graph.
+     *
+     * @param sink receives the companies, users and connections.
+     * @return the number of distinct connections generated.
+     */
+    public long generate(Sink sink) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int company = 0; company < companies; company++) {
+            sink.company(company, "Company " + company);
+        }
+        AliasTable companySizes = AliasTable.zipf(companies, 1.0, random);
+        for (int user = 0; user < users; user++) {
+            sink.user(user, "User " + user, "user" + user + "@example.com", companySizes.sample(random));
+        }
+
+        AliasTable degrees = AliasTable.zipf(users, 1 / (EXPONENT - 1), random);
+        int[] offsets = new int[users + 1];
+        SplittableRandom edgeRandom = new SplittableRandom(seed ^ EDGE_SEED_SALT);
+        for (long edge = 0; edge < edges; edge++) {
+            int user = degrees.sample(edgeRandom);
+            int contact = degrees.sample(edgeRandom);
+            if (user != contact) {
+                offsets[user + 1]++;
+                offsets[contact + 1]++;
+            }
+        }
+        for (int user = 0; user < users; user++) {
+            offsets[user + 1] += offsets[user];
+        }
+
+        // Same seed, same edges
+        int[] adjacency = new int[offsets[users]];
+        int[] filled = Arrays.copyOf(offsets, users);
+        edgeRandom = new SplittableRandom(seed ^ EDGE_SEED_SALT);
+        for (long edge = 0; edge < edges; edge++) {
+            int user = degrees.sample(edgeRandom);
+            int contact = degrees.sample(edgeRandom);
+            if (user != contact) {
+                adjacency[filled[user]++] = contact;
+                adjacency[filled[contact]++] = user;
+            }
+        }
+
+        long directed = 0;
+        long[] contacts = new long[16];
+        for (int user = 0; user < users; user++) {
+            int from = offsets[user];
+            int to = offsets[user + 1];
+            Arrays.sort(adjacency, from, to);
+            if (to - from > contacts.length) {
+                contacts = new long[Integer.highestOneBit(to - from) << 1];
+            }
+            int length = 0;
+            for (int i = from; i < to; i++) {
+                if (length == 0 || contacts[length - 1] != adjacency[i]) {
+                    contacts[length++] = adjacency[i];
+                }
+            }
+            if (length > 0) {
+                sink.contacts(user, contacts, length);
+                directed += length;
+            }
+        }
+        return directed / 2;
+    }
+
+    /**
+     * Walker's alias table, drawing an index in proportion to its weight in constant time.
+     */
+    private static final class AliasTable {
+        final double[] probabilities;
+        final int[] aliases;
+
+        private AliasTable(double[] weights) {
+            int n = weights.length;
+            double total = Arrays.stream(weights).sum();
+            probabilities = new double[n];
+            aliases = new int[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallSize = 0;
+            int largeSize = 0;
+            for (int i = 0; i < n; i++) {
+                probabilities[i] = weights[i] * n / total;
+                if (probabilities[i] < 1) {
+                    small[smallSize++] = i;
+                } else {
+                    large[largeSize++] = i;
+                }
+            }
+            while (smallSize > 0 && largeSize > 0) {
+                int less = small[--smallSize];
+                int more = large[--largeSize];
+                aliases[less] = more;
+                probabilities[more] -= 1 - probabilities[less];
+                if (probabilities[more] < 1) {
+                    small[smallSize++] = more;
+                } else {
+                    large[largeSize++] = more;
+                }
+            }
+            // Left over by rounding errors, their probability is 1
+            while (largeSize > 0) {
+                probabilities[large[--largeSize]] = 1;
+            }
+            while (smallSize > 0) {
+                probabilities[small[--smallSize]] = 1;
+            }
+        }
+
+        /**
+         * A table over {@code n} indexes weighted {@code 1 / rank^exponent}, ranks being a random permutation so
+         * that the heaviest indexes are spread over the whole range.
+         */
+        static AliasTable zipf(int n, double exponent, SplittableRandom random) {
+            int[] ranks = new int[n];
+            for (int i = 0; i < n; i++) {
+                ranks[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int rank = ranks[i];
+                ranks[i] = ranks[j];
+                ranks[j] = rank;
+            }
+            double[] weights = new double[n];
+            for (int i = 0; i < n; i++) {
+                weights[i] = 1 / Math.pow(ranks[i] + 1, exponent);
+            }
+            return new AliasTable(weights);
+        }
+
+        int sample(SplittableRandom random) {
+            int i = random.nextInt(probabilities.length);
+            return random.nextDouble() < probabilities[i] ? i : aliases[i];
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.linkedme.benchmark;
+
+import com.linkedme.graph.ConnectionGraph;
+import com.linkedme.graph.Neighbourhood;
+import com.linkedme.loadtest.LatencyHistogram;
+import com.linkedme.search.SearchResult;
+import com.linkedme.search.TypeaheadIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static com.linkedme.benchmark.BenchmarkSupport.capitalize;
+import static com.linkedme.benchmark.BenchmarkSupport.word;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search latency of {@link TypeaheadIndex} on synthetic users and companies.
+ *
+ * <p>The size defaults to one million entries; {@code -Dbenchmark.typeahead.entries=10000000} (with a heap of
+ * a few GB) checks the 10M entry target. Queries are random prefixes of 1 to 8 letters of existing names, a
+ * tenth of them with two letters swapped, searched by users having 200 random contacts.</p>
+ */
+@Tag("perf")
+class TypeaheadIndexBenchmark {
+
+    private static final int ENTRIES = Integer.getInteger("benchmark.typeahead.entries", 1_000_000);
+    private static final int COMPANIES = Math.max(1, ENTRIES / 100);
+    private static final int CONTACTS = 200;
+    private static final int WARMUP = 20_000;
+    private static final int QUERIES = 100_000;
+    private static final long P99_TARGET_MICROS = 5_000;
+
+    @Test
+    void searchLatency() {
+        SplittableRandom random = new SplittableRandom(42);
+        TypeaheadIndex index = new TypeaheadIndex();
+        String[] names = new String[ENTRIES];
+
+        long start = System.nanoTime();
+        index.batch(() -> {
+            for (int i = 0; i < COMPANIES; i++) {
+                index.putCompany(i, capitalize(word(random)) + " " + capitalize(word(random)));
+            }
+            for (int i = 0; i < ENTRIES - COMPANIES; i++) {
+                names[i] = capitalize(word(random)) + " " + capitalize(word(random));
+                index.putUser(i, names[i], "user" + i + "@example.com", (long) random.nextInt(COMPANIES));
+            }
+        });
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        ConnectionGraph graph = new ConnectionGraph();
+        int users = ENTRIES - COMPANIES;
+        for (int i = 0; i < 1_000; i++) {
+            graph.connect(i, random.longs(CONTACTS, 0, users).toArray());
+        }
+
+        run(index, graph, names, random, WARMUP, new LatencyHistogram());
+        LatencyHistogram histogram = new LatencyHistogram();
+        run(index, graph, names, random, QUERIES, histogram);
+
+        System.out.printf("typeahead entries=%d build=%dms p50=%dus p99=%dus p999=%dus%n", index.size(), buildMillis,
+                histogram.percentileMicros(50), histogram.percentileMicros(99), histogram.percentileMicros(99.9));
+        assertThat(histogram.percentileMicros(99)).isLessThan(P99_TARGET_MICROS);
+    }
+
+    private static void run(TypeaheadIndex index, ConnectionGraph graph, String[] names, SplittableRandom random,
+                            int queries, LatencyHistogram histogram) {
+        int users = names.length - COMPANIES;
+        long results = 0;
+        for (int i = 0; i < queries; i++) {
+            Neighbourhood neighbourhood = Neighbourhood.of(graph, random.nextInt(1_000), 10_000);
+            TypeaheadIndex.Proximity proximity = new TypeaheadIndex.Proximity() {
+                @Override
+                public long[] nearbyUsers() {
+                    return neighbourhood.firstDegree();
+                }
+
+                @Override
+                public int degreeOf(SearchResult.Type type, long id) {
+                    // Only the first degree is returned by nearbyUsers()
+                    return type == SearchResult.Type.USER && neighbourhood.degreeOf(id) == 1 ? 1 : 0;
+                }
+            };
+            String query = query(names[random.nextInt(users)], random);
+
+            long start = System.nanoTime();
+            List<SearchResult> found = index.search(query, 10, proximity);
+            histogram.recordNanos(System.nanoTime() - start);
+            results += found.size();
+        }
+        assertThat(results).isPositive();
+    }
+
+    private static String query(String name, SplittableRandom random) {
+        String prefix = name.substring(0, Math.min(name.length(), 1 + random.nextInt(8))).toLowerCase();
+        if (prefix.length() >= 4 && random.nextInt(10) == 0) {
+            char[] letters = prefix.toCharArray();
+            char swapped = letters[1];
+            letters[1] = letters[2];
+            letters[2] = swapped;
+            return new String(letters);
+        }
+        return prefix;
+    }
+}
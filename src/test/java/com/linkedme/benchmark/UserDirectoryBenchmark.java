@@ -0,0 +1,143 @@
+package com.linkedme.benchmark;
+
+import com.linkedme.directory.DirectoryUser;
+import com.linkedme.directory.OffHeapDirectory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.linkedme.benchmark.BenchmarkSupport.liveHeap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap size and garbage collection cost of the {@link OffHeapDirectory} versus the same data in
+ * {@code HashMap}s of strings.
+ *
+ * <p>The size defaults to two million users; {@code -Dbenchmark.directory.users=20000000} (with a heap of
+ * about 8 GB for the on-heap layout) checks the 20M user target. For each layout the benchmark reports the
+ * live heap after a full collection, the duration of that full collection (a stop-the-world pause with the
+ * directory live) and the collection time spent while loading.</p>
+ */
+@Tag("perf")
+class UserDirectoryBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.directory.users", 2_000_000);
+    private static final int COMPANIES = Math.max(1, USERS / 100);
+    private static final int LOOKUPS = 1_000_000;
+
+    @Test
+    void compareLayouts() {
+        long baselineHeap = liveHeap();
+        // Each layout is built in its own method so that nothing of the first one is reachable while measuring
+        Measurement onHeap = measureHashMaps(baselineHeap);
+        Measurement offHeap = measureOffHeap(baselineHeap);
+
+        System.out.printf("directory users=%d%n  HashMap: %s%n  off-heap: %s%n", USERS, onHeap, offHeap);
+        assertThat(offHeap.heapBytes()).isLessThan(onHeap.heapBytes() / 10);
+    }
+
+    private static Measurement measureHashMaps(long baselineHeap) {
+        Map<Long, OnHeapUser> users = new HashMap<>();
+        Map<String, Long> emails = new HashMap<>();
+        Map<Long, String> companies = new HashMap<>();
+        long gcBefore = gcMillis();
+        load((id, name, email, companyId) -> {
+            users.put(id, new OnHeapUser(name, email, companyId, 1L));
+            emails.put(email, id);
+        }, companies::put);
+        long loadGc = gcMillis() - gcBefore;
+        return measure(baselineHeap, loadGc, 0, () -> {
+            long id = emails.get(email(ThreadLocalRandom.current().nextInt(USERS)));
+            return companies.get(users.get(id).companyId()) != null;
+        });
+    }
+
+    private static Measurement measureOffHeap(long baselineHeap) {
+        try (OffHeapDirectory directory = new OffHeapDirectory()) {
+            long gcBefore = gcMillis();
+            directory.batch(() -> load((id, name, email, companyId) ->
+                    directory.putUser(id, name, email, companyId, 1L), directory::putCompany));
+            long loadGc = gcMillis() - gcBefore;
+            assertThat(directory.userCount()).isEqualTo(USERS);
+            return measure(baselineHeap, loadGc, directory.offHeapBytes(), () -> {
+                int user = ThreadLocalRandom.current().nextInt(USERS);
+                DirectoryUser found = directory.findByEmail(email(user)).orElseThrow();
+                return found.id() == user && found.companyName() != null;
+            });
+        }
+    }
+
+    /**
+     * Measures the live heap and a full collection, then the lookup latency.
+     */
+    private static Measurement measure(long baselineHeap, long loadGcMillis, long offHeapBytes, Lookup lookup) {
+        long start = System.nanoTime();
+        long heap = liveHeap() - baselineHeap;
+        long fullGcMillis = (System.nanoTime() - start) / 1_000_000;
+
+        for (int i = 0; i < LOOKUPS / 10; i++) {
+            assertThat(lookup.found()).isTrue();
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookup.found();
+        }
+        long lookupNanos = (System.nanoTime() - start) / LOOKUPS;
+        return new Measurement(heap, offHeapBytes, fullGcMillis, loadGcMillis, lookupNanos);
+    }
+
+    private static void load(UserSink users, CompanySink companies) {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < COMPANIES; i++) {
+            companies.put(i, "Company " + i);
+        }
+        for (int i = 0; i < USERS; i++) {
+            users.put(i, "User " + Long.toString(random.nextLong(1L << 40), 36), email(i),
+                    (long) random.nextInt(COMPANIES));
+        }
+    }
+
+    private static String email(int user) {
+        return "user" + user + "@example.com";
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+
+    private record OnHeapUser(String name, String email, Long companyId, long roleMask) {
+    }
+
+    private record Measurement(long heapBytes, long offHeapBytes, long fullGcMillis, long loadGcMillis,
+                               long lookupNanos) {
+
+        @Override
+        public String toString() {
+            return String.format("heap=%dMB offHeap=%dMB fullGc=%dms loadGc=%dms lookup=%dns", heapBytes >> 20,
+                    offHeapBytes >> 20, fullGcMillis, loadGcMillis, lookupNanos);
+        }
+    }
+
+    @FunctionalInterface
+    private interface UserSink {
+        void put(long id, String name, String email, Long companyId);
+    }
+
+    @FunctionalInterface
+    private interface CompanySink {
+        void put(long id, String name);
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        boolean found();
+    }
+}
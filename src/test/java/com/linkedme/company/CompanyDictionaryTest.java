@@ -0,0 +1,96 @@
+package com.linkedme.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests of {@link CompanyDictionary}.
+ */
+class CompanyDictionaryTest {
+
+    @Test
+    void encodesTheSpellingsOfANameToOneCode() {
+        CompanyDictionary dictionary = new CompanyDictionary();
+
+        int code = dictionary.encode(" Acme Inc. ");
+
+        assertThat(code).isZero();
+        assertThat(dictionary.encode("ACME")).isEqualTo(code);
+        assertThat(dictionary.encode("Acme, LLC")).isEqualTo(code);
+        assertThat(dictionary.encode("Globex")).isEqualTo(1);
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    @Test
+    void findDoesNotAssignCodes() {
+        CompanyDictionary dictionary = new CompanyDictionary();
+        int code = dictionary.encode("Acme");
+
+        assertThat(dictionary.find("acme corp")).isEqualTo(code);
+        assertThat(dictionary.find("Globex")).isEqualTo(CompanyDictionary.UNKNOWN);
+        assertThat(dictionary.size()).isEqualTo(1);
+    }
+
+    @Test
+    void namesWithoutLetterOrDigitAreUnknown() {
+        CompanyDictionary dictionary = new CompanyDictionary();
+
+        assertThat(dictionary.encode("---")).isEqualTo(CompanyDictionary.UNKNOWN);
+        assertThat(dictionary.encode(null)).isEqualTo(CompanyDictionary.UNKNOWN);
+        assertThat(dictionary.bind(1, "...")).isEqualTo(CompanyDictionary.UNKNOWN);
+        assertThat(dictionary.size()).isZero();
+    }
+
+    @Test
+    void aCodeResolvesToTheFirstCompanyBound() {
+        CompanyDictionary dictionary = new CompanyDictionary();
+        int code = dictionary.encode("Acme");
+
+        assertThat(dictionary.companyId(code)).isEqualTo(CompanyDictionary.NO_COMPANY);
+        assertThat(dictionary.bind(7, "Acme Inc")).isEqualTo(code);
+        assertThat(dictionary.bind(9, "ACME")).isEqualTo(code);
+
+        assertThat(dictionary.companyId(code)).isEqualTo(7);
+        assertThat(dictionary.codeOf(7)).isEqualTo(code);
+        assertThat(dictionary.codeOf(9)).isEqualTo(code);
+        assertThat(dictionary.codeOf(8)).isEqualTo(CompanyDictionary.UNKNOWN);
+    }
+
+    @Test
+    void growsPastAChunk() {
+        CompanyDictionary dictionary = new CompanyDictionary();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(dictionary.encode("Company " + i)).isEqualTo(i);
+        }
+
+        assertThat(dictionary.size()).isEqualTo(10_000);
+        assertThat(dictionary.find("company 9999")).isEqualTo(9_999);
+        assertThat(dictionary.companyId(9_999)).isEqualTo(CompanyDictionary.NO_COMPANY);
+    }
+
+    @Test
+    void encodeAllGivesEverySpellingTheSameCode() {
+        CompanyDictionary dictionary = new CompanyDictionary();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int company = i % 1_000;
+            names.add(i % 2 == 0 ? "Company " + company : "company " + company + " Inc.");
+        }
+        names.add(null);
+
+        int[] codes = dictionary.encodeAll(names);
+
+        assertThat(dictionary.size()).isEqualTo(1_000);
+        assertThat(codes[codes.length - 1]).isEqualTo(CompanyDictionary.UNKNOWN);
+        assertThat(IntStream.range(0, names.size() - 1))
+                .allSatisfy(row -> assertThat(codes[row]).isEqualTo(codes[row % 1_000]));
+        assertThat(Arrays.stream(codes, 0, 1_000).distinct().count()).isEqualTo(1_000);
+    }
+}
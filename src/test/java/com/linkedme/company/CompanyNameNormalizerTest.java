@@ -0,0 +1,59 @@
+package com.linkedme.company;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests of {@link CompanyNameNormalizer}.
+ */
+class CompanyNameNormalizerTest {
+
+    @Test
+    void groupsTheSpellingsOfAName() {
+        assertThat(CompanyNameNormalizer.canonicalize("Google")).isEqualTo("google");
+        assertThat(CompanyNameNormalizer.canonicalize("Google LLC")).isEqualTo("google");
+        assertThat(CompanyNameNormalizer.canonicalize("google inc.")).isEqualTo("google");
+        assertThat(CompanyNameNormalizer.canonicalize("GOOGLE, Inc")).isEqualTo("google");
+        assertThat(CompanyNameNormalizer.canonicalize("  Google   Ltd  ")).isEqualTo("google");
+    }
+
+    @Test
+    void removesAccents() {
+        assertThat(CompanyNameNormalizer.canonicalize("Société Générale SA")).isEqualTo("societe generale");
+        assertThat(CompanyNameNormalizer.canonicalize("Nestlé")).isEqualTo("nestle");
+    }
+
+    @Test
+    void keepsAbbreviationsAndPossessivesInOneWord() {
+        assertThat(CompanyNameNormalizer.canonicalize("McDonald's")).isEqualTo("mcdonalds");
+        assertThat(CompanyNameNormalizer.canonicalize("McDonald’s Corporation")).isEqualTo("mcdonalds");
+        assertThat(CompanyNameNormalizer.canonicalize("S.C. Johnson")).isEqualTo("sc johnson");
+    }
+
+    @Test
+    void readsTheAmpersandAsAnd() {
+        assertThat(CompanyNameNormalizer.canonicalize("Procter & Gamble")).isEqualTo("procter and gamble");
+        assertThat(CompanyNameNormalizer.canonicalize("Procter&Gamble Co.")).isEqualTo("procter and gamble");
+        assertThat(CompanyNameNormalizer.canonicalize("Johnson & Johnson & Co")).isEqualTo("johnson and johnson");
+    }
+
+    @Test
+    void dropsALeadingThe() {
+        assertThat(CompanyNameNormalizer.canonicalize("The Home Depot")).isEqualTo("home depot");
+        assertThat(CompanyNameNormalizer.canonicalize("The")).isEqualTo("the");
+    }
+
+    @Test
+    void keepsALegalFormThatIsTheWholeName() {
+        assertThat(CompanyNameNormalizer.canonicalize("Inc.")).isEqualTo("inc");
+        assertThat(CompanyNameNormalizer.canonicalize("Company Ltd")).isEqualTo("company");
+    }
+
+    @Test
+    void hasNoKeyWithoutLetterOrDigit() {
+        assertThat(CompanyNameNormalizer.canonicalize(null)).isNull();
+        assertThat(CompanyNameNormalizer.canonicalize("")).isNull();
+        assertThat(CompanyNameNormalizer.canonicalize("--- ...")).isNull();
+    }
+}
@@ -0,0 +1,138 @@
+package com.linkedme.directory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests of {@link OffHeapDirectory}.
+ */
+class OffHeapDirectoryTest {
+
+    private final OffHeapDirectory directory = new OffHeapDirectory();
+
+    @AfterEach
+    void close() {
+        directory.close();
+    }
+
+    @Test
+    void findsUsersByIdentifierAndEmail() {
+        directory.putCompany(10, "Acme");
+        directory.putUser(1, "Ada Lovelace", "ada@example.com", 10L, 0b11);
+        directory.putUser(2, "Alan Turing", "alan@example.com", null, 0b01);
+
+        DirectoryUser expected = new DirectoryUser(1, "Ada Lovelace", "ada@example.com", 10L, "Acme", 0b11);
+        assertThat(directory.findById(1)).contains(expected);
+        assertThat(directory.findByEmail("ada@example.com")).contains(expected);
+        assertThat(directory.findById(2))
+                .contains(new DirectoryUser(2, "Alan Turing", "alan@example.com", null, null, 0b01));
+        assertThat(directory.userCount()).isEqualTo(2);
+        assertThat(directory.companyCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownUsersAndCompaniesAreEmpty() {
+        directory.putUser(1, "Ada Lovelace", "ada@example.com", 10L, 0);
+
+        assertThat(directory.findById(2)).isEmpty();
+        assertThat(directory.findByEmail("ADA@example.com")).isEmpty();
+        assertThat(directory.roleMask(2)).isEmpty();
+        assertThat(directory.companyName(10)).isEmpty();
+        // The company of the user is not in the directory yet
+        assertThat(directory.findById(1)).hasValueSatisfying(user -> {
+            assertThat(user.companyId()).isEqualTo(10L);
+            assertThat(user.companyName()).isNull();
+        });
+    }
+
+    @Test
+    void answersWithoutReadingTheStrings() {
+        directory.putUser(1, "Ada Lovelace", "ada@example.com", 10L, 0b10);
+        directory.putUser(2, "Alan Turing", "alan@example.com", null, 0b01);
+
+        assertThat(directory.worksAt(1, 10)).isTrue();
+        assertThat(directory.worksAt(1, 11)).isFalse();
+        assertThat(directory.worksAt(3, 10)).isFalse();
+        assertThat(directory.companyId(1)).isEqualTo(OptionalLong.of(10));
+        assertThat(directory.companyId(2)).isEmpty();
+        assertThat(directory.roleMask(1)).isEqualTo(OptionalLong.of(0b10));
+    }
+
+    @Test
+    void replacesAUser() {
+        directory.putCompany(10, "Acme");
+        directory.putCompany(11, "Globex");
+        directory.putUser(1, "Ada Lovelace", "ada@example.com", 10L, 0b01);
+
+        directory.putUser(1, "Ada King", "ada.king@example.com", 11L, 0b11);
+
+        DirectoryUser expected = new DirectoryUser(1, "Ada King", "ada.king@example.com", 11L, "Globex", 0b11);
+        assertThat(directory.findById(1)).contains(expected);
+        assertThat(directory.findByEmail("ada.king@example.com")).contains(expected);
+        assertThat(directory.findByEmail("ada@example.com")).isEmpty();
+        assertThat(directory.userCount()).isEqualTo(1);
+    }
+
+    @Test
+    void anEmailGivenUpCanBeTakenByAnotherUser() {
+        directory.putUser(1, "Ada Lovelace", "ada@example.com", null, 0);
+        directory.putUser(1, "Ada Lovelace", "ada.king@example.com", null, 0);
+
+        directory.putUser(2, "Ada Byron", "ada@example.com", null, 0);
+
+        assertThat(directory.findByEmail("ada@example.com")).hasValueSatisfying(user -> assertThat(user.id())
+                .isEqualTo(2));
+        assertThat(directory.findByEmail("ada.king@example.com")).hasValueSatisfying(user -> assertThat(user.id())
+                .isEqualTo(1));
+    }
+
+    @Test
+    void renamesACompany() {
+        directory.putCompany(10, "Acme");
+        directory.putUser(1, "Ada Lovelace", "ada@example.com", 10L, 0);
+
+        directory.putCompany(10, "Acme Corporation");
+
+        assertThat(directory.companyName(10)).contains("Acme Corporation");
+        assertThat(directory.findById(1)).hasValueSatisfying(user -> assertThat(user.companyName())
+                .isEqualTo("Acme Corporation"));
+    }
+
+    @Test
+    void keepsNonAsciiStrings() {
+        directory.putCompany(10, "Société Générale");
+        directory.putUser(1, "Zoë Ødegaard 😀", "zoë@exämple.com", 10L, 0);
+
+        assertThat(directory.findByEmail("zoë@exämple.com")).hasValueSatisfying(user -> {
+            assertThat(user.name()).isEqualTo("Zoë Ødegaard 😀");
+            assertThat(user.companyName()).isEqualTo("Société Générale");
+        });
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        int users = 20_000;
+        directory.batch(() -> {
+            for (int company = 0; company < users / 10; company++) {
+                directory.putCompany(company, "Company " + company);
+            }
+            for (int user = 0; user < users; user++) {
+                directory.putUser(user, "User " + user, "user" + user + "@example.com", (long) user / 10, user);
+            }
+        });
+
+        assertThat(directory.userCount()).isEqualTo(users);
+        assertThat(directory.companyCount()).isEqualTo(users / 10);
+        for (int user = 0; user < users; user += 97) {
+            DirectoryUser expected = new DirectoryUser(user, "User " + user, "user" + user + "@example.com",
+                    (long) user / 10, "Company " + user / 10, user);
+            assertThat(directory.findById(user)).contains(expected);
+            assertThat(directory.findByEmail(expected.email())).contains(expected);
+        }
+        assertThat(directory.offHeapBytes()).isGreaterThanOrEqualTo(OffHeapDirectory.MIN_STRING_CHUNK_BYTES);
+    }
+}
@@ -0,0 +1,131 @@
+package com.linkedme.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests of {@link CompressedNeighbours}, over lists spanning several blocks.
+ */
+class CompressedNeighboursTest {
+
+    @Test
+    void encodeRoundTrips() {
+        for (int length : new int[]{0, 1, CompressedNeighbours.BLOCK_SIZE - 1, CompressedNeighbours.BLOCK_SIZE,
+                CompressedNeighbours.BLOCK_SIZE + 1, 1_000}) {
+            long[] ids = sortedIds(length, 7);
+            byte[] data = CompressedNeighbours.encode(ids, length);
+
+            assertThat(CompressedNeighbours.size(data)).isEqualTo(length);
+            assertThat(CompressedNeighbours.decode(data)).containsExactly(ids);
+        }
+    }
+
+    @Test
+    void encodeKeepsLargeIdentifiersAndOnlyTheGivenLength() {
+        long[] ids = {0, 1, 1L << 40, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+
+        assertThat(CompressedNeighbours.decode(CompressedNeighbours.encode(ids, ids.length))).containsExactly(ids);
+        assertThat(CompressedNeighbours.decode(CompressedNeighbours.encode(ids, 3))).containsExactly(0, 1, 1L << 40);
+        assertThat(CompressedNeighbours.encode(ids, 0)).isSameAs(CompressedNeighbours.EMPTY);
+    }
+
+    @Test
+    void encodeRejectsUnsortedDuplicateOrNegativeIdentifiers() {
+        assertThatIllegalArgumentException().isThrownBy(() -> CompressedNeighbours.encode(new long[]{2, 1}, 2));
+        assertThatIllegalArgumentException().isThrownBy(() -> CompressedNeighbours.encode(new long[]{1, 1}, 2));
+        assertThatIllegalArgumentException().isThrownBy(() -> CompressedNeighbours.encode(new long[]{-1, 1}, 2));
+    }
+
+    @Test
+    void containsFindsEveryIdentifierAndNothingElse() {
+        long[] ids = sortedIds(500, 11);
+        byte[] data = CompressedNeighbours.encode(ids, ids.length);
+
+        for (long id : ids) {
+            assertThat(CompressedNeighbours.contains(data, id)).as("id %d", id).isTrue();
+        }
+        for (long id = 0; id <= ids[ids.length - 1] + 1; id++) {
+            assertThat(CompressedNeighbours.contains(data, id)).as("id %d", id)
+                    .isEqualTo(Arrays.binarySearch(ids, id) >= 0);
+        }
+        assertThat(CompressedNeighbours.contains(data, -1)).isFalse();
+        assertThat(CompressedNeighbours.contains(CompressedNeighbours.EMPTY, 0)).isFalse();
+    }
+
+    @Test
+    void nextAtLeastJumpsToTheFirstIdentifierNotBelowTheTarget() {
+        long[] ids = LongStream.range(0, 1_000).map(i -> i * 3).toArray();
+        CompressedNeighbours.Cursor cursor = new CompressedNeighbours.Cursor()
+                .reset(CompressedNeighbours.encode(ids, ids.length));
+
+        assertThat(cursor.nextAtLeast(0)).isZero();
+        assertThat(cursor.nextAtLeast(3)).isEqualTo(3);
+        // In a later block, between two identifiers
+        assertThat(cursor.nextAtLeast(700)).isEqualTo(702);
+        assertThat(cursor.next()).isEqualTo(705);
+        // Behind the cursor: the next identifier
+        assertThat(cursor.nextAtLeast(10)).isEqualTo(708);
+        // First identifier of a block, read from its skip entry
+        long blockStart = ids[CompressedNeighbours.BLOCK_SIZE * 10];
+        assertThat(cursor.nextAtLeast(blockStart)).isEqualTo(blockStart);
+        assertThat(cursor.nextAtLeast(ids[ids.length - 1])).isEqualTo(ids[ids.length - 1]);
+        assertThat(cursor.hasNext()).isFalse();
+        assertThat(cursor.nextAtLeast(0)).isEqualTo(CompressedNeighbours.END);
+    }
+
+    @Test
+    void nextAtLeastReturnsEndPastTheLastIdentifier() {
+        long[] ids = sortedIds(200, 3);
+        CompressedNeighbours.Cursor cursor = new CompressedNeighbours.Cursor()
+                .reset(CompressedNeighbours.encode(ids, ids.length));
+
+        assertThat(cursor.nextAtLeast(ids[ids.length - 1] + 1)).isEqualTo(CompressedNeighbours.END);
+        assertThat(new CompressedNeighbours.Cursor().reset(CompressedNeighbours.EMPTY).nextAtLeast(0))
+                .isEqualTo(CompressedNeighbours.END);
+    }
+
+    @Test
+    void intersectionSizeCountsTheCommonIdentifiers() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int round = 0; round < 50; round++) {
+            long[] first = sortedIds(random.nextInt(400), random.nextInt(1, 20));
+            long[] second = sortedIds(random.nextInt(400), random.nextInt(1, 20));
+            long expected = Arrays.stream(first).filter(id -> Arrays.binarySearch(second, id) >= 0).count();
+
+            int actual = CompressedNeighbours.intersectionSize(
+                    new CompressedNeighbours.Cursor().reset(CompressedNeighbours.encode(first, first.length)),
+                    new CompressedNeighbours.Cursor().reset(CompressedNeighbours.encode(second, second.length)));
+
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void intersectionSizeOfAnEmptyListIsZero() {
+        long[] ids = sortedIds(100, 2);
+
+        assertThat(CompressedNeighbours.intersectionSize(
+                new CompressedNeighbours.Cursor().reset(CompressedNeighbours.encode(ids, ids.length)),
+                new CompressedNeighbours.Cursor().reset(CompressedNeighbours.EMPTY))).isZero();
+    }
+
+    /**
+     * @return {@code length} strictly increasing identifiers, gaps drawn up to {@code maxGap}.
+     */
+    private static long[] sortedIds(int length, int maxGap) {
+        SplittableRandom random = new SplittableRandom(length * 31L + maxGap);
+        long[] ids = new long[length];
+        long id = random.nextInt(maxGap);
+        for (int i = 0; i < length; i++) {
+            ids[i] = id;
+            id += 1 + random.nextInt(maxGap);
+        }
+        return ids;
+    }
+}
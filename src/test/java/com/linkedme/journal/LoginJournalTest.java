@@ -0,0 +1,181 @@
+package com.linkedme.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Unit tests of {@link LoginJournal} and of the truncation of the {@link LoginRecord} failure reasons.
+ */
+class LoginJournalTest {
+
+    private static final long SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsTheRecordsInTheOrderTheyWereAppended() throws IOException {
+        try (LoginJournal journal = new LoginJournal(directory, SEGMENT_BYTES)) {
+            LoginRecord success = new LoginRecord(1, 1_000, LoginOutcome.SUCCESS, 10, 20, 30, 60, null);
+            LoginRecord failure = new LoginRecord(LoginRecord.UNKNOWN, 2_000, LoginOutcome.FAILURE, 10,
+                    LoginRecord.UNKNOWN, LoginRecord.UNKNOWN, 15, "invalid_token: Connexion refusée");
+            assertThat(journal.append(success)).isTrue();
+            assertThat(journal.append(failure)).isTrue();
+
+            List<LoginJournal.Entry> entries = new ArrayList<>();
+            LoginJournal.Position end = journal.read(LoginJournal.Position.START, 10, entries);
+
+            assertThat(entries).extracting(LoginJournal.Entry::record).containsExactly(success, failure);
+            assertThat(entries.get(1).next()).isEqualTo(end);
+            // Nothing new past the end
+            entries.clear();
+            assertThat(journal.read(end, 10, entries)).isEqualTo(end);
+            assertThat(entries).isEmpty();
+        }
+    }
+
+    @Test
+    void readsInBatchesAcrossSegments() throws IOException {
+        try (LoginJournal journal = new LoginJournal(directory, SEGMENT_BYTES)) {
+            for (int i = 0; i < 500; i++) {
+                assertThat(journal.append(record(i))).isTrue();
+            }
+            assertThat(journal.segmentCount()).isGreaterThan(1);
+
+            assertThat(readAll(journal, 64)).extracting(LoginRecord::userId)
+                    .containsExactlyElementsOf(range(500));
+        }
+    }
+
+    @Test
+    void readsTheSegmentsLeftOverByAPreviousJournal() throws IOException {
+        try (LoginJournal journal = new LoginJournal(directory, SEGMENT_BYTES)) {
+            for (int i = 0; i < 200; i++) {
+                journal.append(record(i));
+            }
+        }
+
+        try (LoginJournal journal = new LoginJournal(directory, SEGMENT_BYTES)) {
+            for (int i = 200; i < 300; i++) {
+                journal.append(record(i));
+            }
+
+            assertThat(readAll(journal, 1_000)).extracting(LoginRecord::userId)
+                    .containsExactlyElementsOf(range(300));
+        }
+    }
+
+    @Test
+    void keepsEveryRecordOfConcurrentProducers() throws Exception {
+        int producers = 8;
+        int perProducer = 1_000;
+        try (LoginJournal journal = new LoginJournal(directory, SEGMENT_BYTES)) {
+            ExecutorService executor = Executors.newFixedThreadPool(producers);
+            for (int producer = 0; producer < producers; producer++) {
+                int first = producer * perProducer;
+                executor.execute(() -> {
+                    for (int i = first; i < first + perProducer; i++) {
+                        journal.append(record(i));
+                    }
+                });
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+            assertThat(readAll(journal, 100)).extracting(LoginRecord::userId)
+                    .containsExactlyInAnyOrderElementsOf(range(producers * perProducer));
+        }
+    }
+
+    @Test
+    void refusesADirectoryInUse() throws IOException {
+        try (LoginJournal journal = new LoginJournal(directory, SEGMENT_BYTES)) {
+            journal.append(record(1));
+
+            assertThatIOException().isThrownBy(() -> new LoginJournal(directory, SEGMENT_BYTES))
+                    .withMessageContaining("in use");
+        }
+
+        // Released on close
+        try (LoginJournal journal = new LoginJournal(directory, SEGMENT_BYTES)) {
+            assertThat(readAll(journal, 10)).extracting(LoginRecord::userId).containsExactly(1L);
+        }
+    }
+
+    @Test
+    void failsToAppendOnceClosed() throws IOException {
+        LoginJournal journal = new LoginJournal(directory, SEGMENT_BYTES);
+        journal.close();
+
+        assertThat(journal.append(record(1))).isFalse();
+    }
+
+    @Test
+    void truncatesTheReasonToMaxBytesOnACharacterBoundary() {
+        assertThat(LoginJournal.truncatedUtf8("short")).isEqualTo("short".getBytes(StandardCharsets.UTF_8));
+
+        String twoByteChars = "é".repeat(LoginJournal.MAX_REASON_BYTES);
+        assertThat(new String(LoginJournal.truncatedUtf8(twoByteChars), StandardCharsets.UTF_8))
+                .isEqualTo("é".repeat(LoginJournal.MAX_REASON_BYTES / 2));
+
+        // Shifted by one byte, the last character is cut in half and dropped
+        String shifted = "a" + twoByteChars;
+        byte[] truncated = LoginJournal.truncatedUtf8(shifted);
+        assertThat(truncated).hasSize(LoginJournal.MAX_REASON_BYTES - 1);
+        assertThat(new String(truncated, StandardCharsets.UTF_8))
+                .isEqualTo("a" + "é".repeat(LoginJournal.MAX_REASON_BYTES / 2 - 1));
+
+        String fourByteChars = "ab" + "😀".repeat(LoginJournal.MAX_REASON_BYTES);
+        assertThat(new String(LoginJournal.truncatedUtf8(fourByteChars), StandardCharsets.UTF_8))
+                .isEqualTo("ab" + "😀".repeat(LoginJournal.MAX_REASON_BYTES / 4 - 1));
+    }
+
+    @Test
+    void recordTruncatesTheReasonWithoutSplittingASurrogatePair() {
+        String reason = "a".repeat(LoginRecord.MAX_REASON_LENGTH - 1) + "😀";
+
+        assertThat(record(reason).failureReason()).isEqualTo("a".repeat(LoginRecord.MAX_REASON_LENGTH - 1));
+        assertThat(record("a".repeat(1_000)).failureReason()).hasSize(LoginRecord.MAX_REASON_LENGTH);
+        assertThat(record("short").failureReason()).isEqualTo("short");
+    }
+
+    private static LoginRecord record(long userId) {
+        return new LoginRecord(userId, userId, LoginOutcome.SUCCESS, 1, 2, 3, 6, null);
+    }
+
+    private static LoginRecord record(String failureReason) {
+        return new LoginRecord(LoginRecord.UNKNOWN, 0, LoginOutcome.FAILURE, 1, 2, 3, 6, failureReason);
+    }
+
+    private static List<LoginRecord> readAll(LoginJournal journal, int batchSize) {
+        List<LoginRecord> records = new ArrayList<>();
+        List<LoginJournal.Entry> batch = new ArrayList<>();
+        LoginJournal.Position position = LoginJournal.Position.START;
+        do {
+            batch.clear();
+            position = journal.read(position, batchSize, batch);
+            batch.forEach(entry -> records.add(entry.record()));
+        } while (!batch.isEmpty());
+        return records;
+    }
+
+    private static List<Long> range(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (long id = 0; id < count; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,91 @@
+package com.linkedme.linkedin;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests of {@link TokenBucket}, on a made-up clock starting at 0.
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+    private static final long FOREVER = Long.MAX_VALUE;
+
+    // 10 tokens per second: a token every 100 ms
+    private static final long REFILL = SECOND / 10;
+
+    @Test
+    void burstsUpToTheCapacityThenQueuesAtTheRefillRate() {
+        TokenBucket bucket = new TokenBucket(3, 10, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.reserve(0, FOREVER)).isZero();
+        }
+        assertThat(bucket.reserve(0, FOREVER)).isCloseTo(REFILL, within(2L));
+        assertThat(bucket.reserve(0, FOREVER)).isCloseTo(2 * REFILL, within(2L));
+        assertThat(bucket.saturation(0)).isCloseTo(1 + 2 / 3.0, within(1e-9));
+    }
+
+    @Test
+    void refillsUpToTheCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 10, 0);
+        for (int i = 0; i < 3; i++) {
+            bucket.reserve(0, FOREVER);
+        }
+
+        assertThat(bucket.saturation(REFILL)).isCloseTo(2 / 3.0, within(1e-6));
+        assertThat(bucket.saturation(10 * SECOND)).isZero();
+    }
+
+    @Test
+    void reserveTakesNoTokenWhenTheWaitIsTooLong() {
+        TokenBucket bucket = new TokenBucket(1, 10, 0);
+        bucket.reserve(0, FOREVER);
+
+        assertThat(bucket.reserve(0, REFILL / 2)).isEqualTo(-1);
+        assertThat(bucket.reserve(0, FOREVER)).isCloseTo(REFILL, within(2L));
+    }
+
+    @Test
+    void pauseDropsTheBurstAndDefersTheTokens() {
+        TokenBucket bucket = new TokenBucket(10, 10, 0);
+
+        bucket.pauseUntil(SECOND, 0);
+
+        // Until the end of the pause, then until the first token is refilled
+        assertThat(bucket.reserve(0, FOREVER)).isCloseTo(SECOND + REFILL, within(2L));
+        assertThat(bucket.reserve(0, FOREVER)).isCloseTo(SECOND + 2 * REFILL, within(2L));
+    }
+
+    @Test
+    void pauseDoesNotCountTowardsTheRefill() {
+        TokenBucket bucket = new TokenBucket(10, 10, 0);
+        bucket.pauseUntil(SECOND, 0);
+        bucket.reserve(0, FOREVER);
+
+        // The second of pause refilled nothing: the token reserved during the pause is still owed
+        assertThat(bucket.reserve(SECOND, FOREVER)).isCloseTo(2 * REFILL, within(2L));
+        assertThat(bucket.saturation(SECOND)).isCloseTo(1.2, within(1e-9));
+    }
+
+    @Test
+    void shorterPauseDoesNotShortenTheCurrentOne() {
+        TokenBucket bucket = new TokenBucket(10, 10, 0);
+        bucket.pauseUntil(2 * SECOND, 0);
+
+        bucket.pauseUntil(SECOND, 0);
+
+        assertThat(bucket.reserve(0, FOREVER)).isCloseTo(2 * SECOND + REFILL, within(2L));
+    }
+
+    @Test
+    void rejectsAnEmptyBucketOrNoRefill() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(0, 10, 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(1, 0, 0));
+    }
+}
@@ -0,0 +1,192 @@
+package com.linkedme.loadtest;
+
+import com.linkedme.model.ConnectionImportRecord;
+import com.linkedme.model.ConnectionPage;
+import com.linkedme.model.ConnectionSort;
+import com.linkedme.persistence.entity.User;
+import com.linkedme.persistence.event.ConnectionsImportedEvent;
+import com.linkedme.persistence.projection.ConnectionSummary;
+import com.linkedme.persistence.repository.UserRepository;
+import com.linkedme.service.ConnectionFragmentCache;
+import com.linkedme.service.ConnectionImportService;
+import com.linkedme.service.ConnectionPageService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency and allocation of the friends page of a user with {@code loadtest.friends.connections} connections
+ * (30,000 by default).
+ *
+ * <p>Three ways of rendering the connections are compared: the whole list in one pass, as the page used to,
+ * each page of {@value ConnectionPageService#DEFAULT_PAGE_SIZE} read and rendered (cache misses), and each page
+ * served by the {@link ConnectionFragmentCache} (cache hits). Paged runs walk every page in both orders,
+ * following the cursors. Allocation is measured on the calling thread.</p>
+ *
+ * <p>Run with {@code mvn -Pperf test -Dtest=FriendsPageLoadTest}.</p>
+ */
+@Tag("perf")
+@SpringBootTest
+class FriendsPageLoadTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("loadtest.friends.connections", 30_000);
+    private static final int COMPANIES = 500;
+    private static final int ONE_PASS_RUNS = 5;
+    private static final Pattern NEXT_CURSOR = Pattern.compile("cursor=([A-Za-z0-9_-]+)");
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ConnectionImportService connectionImportService;
+
+    @Autowired
+    ConnectionPageService connectionPageService;
+
+    @Autowired
+    ConnectionFragmentCache connectionFragmentCache;
+
+    @Autowired
+    ITemplateEngine templateEngine;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        // The contacts would be queued for enrichment against the real profile API
+        registry.add("linkedme.enrichment.enabled", () -> "false");
+        registry.add("logging.level.root", () -> "INFO");
+    }
+
+    @Test
+    void pageLatencyAndAllocation() {
+        long userId = importConnections();
+
+        // Every connection, in the order of the first page, read beforehand
+        List<ConnectionSummary> all = new ArrayList<>(CONNECTIONS);
+        String cursor = null;
+        do {
+            ConnectionPage page = connectionPageService.page(userId, ConnectionSort.NAME, cursor,
+                    ConnectionPageService.MAX_PAGE_SIZE);
+            all.addAll(page.connections());
+            cursor = page.next();
+        } while (cursor != null);
+        assertThat(all).hasSize(CONNECTIONS);
+
+        Run onePass = new Run();
+        // The first rendering warms the code up
+        for (int i = 0; i <= ONE_PASS_RUNS; i++) {
+            (i == 0 ? new Run() : onePass).measure(() -> {
+                Context context = new Context(Locale.ROOT);
+                context.setVariable("page", new ConnectionPage(ConnectionSort.NAME, all, null));
+                context.setVariable("size", CONNECTIONS);
+                return templateEngine.process("friends-connections", context);
+            });
+        }
+
+        Run misses = new Run();
+        Run hits = new Run();
+        // A first walk warms the code up, then one walk fills the cache and the next one hits it
+        walk(userId, new Run(), true);
+        walk(userId, misses, true);
+        walk(userId, hits, false);
+
+        System.out.printf("""
+                        friends page, %d connections     p50 us    p99 us   KB allocated/page   KB/page
+                          one pass (whole list)    %9d %9d %19d %9d
+                          page read and rendered   %9d %9d %19d %9d
+                          page from the cache      %9d %9d %19d %9d
+                        %n""", CONNECTIONS,
+                onePass.latency.percentileMicros(50), onePass.latency.percentileMicros(99),
+                onePass.allocatedKb(), onePass.htmlKb(),
+                misses.latency.percentileMicros(50), misses.latency.percentileMicros(99),
+                misses.allocatedKb(), misses.htmlKb(),
+                hits.latency.percentileMicros(50), hits.latency.percentileMicros(99),
+                hits.allocatedKb(), hits.htmlKb());
+        assertThat(misses.latency.count()).isEqualTo(hits.latency.count());
+        assertThat(misses.allocatedBytes / misses.latency.count())
+                .isLessThan(onePass.allocatedBytes / onePass.latency.count());
+        assertThat(hits.latency.percentileMicros(99)).isLessThan(misses.latency.percentileMicros(50));
+    }
+
+    /**
+     * Imports the connections of a new user, working at {@value #COMPANIES} companies.
+     */
+    private long importConnections() {
+        long userId = userRepository.save(User.builder().name("Friends Owner").email("owner@loadtest.local")
+                .roles(new ArrayList<>()).build()).getId();
+        List<ConnectionImportRecord> records = new ArrayList<>(CONNECTIONS);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            records.add(new ConnectionImportRecord("Contact " + Integer.toString(i * 7919 % CONNECTIONS, 36),
+                    "contact-" + i + "@loadtest.local", i % 7 == 0 ? null : "Company " + i % COMPANIES));
+        }
+        connectionImportService.importConnections(userId, records);
+        return userId;
+    }
+
+    /**
+     * Walks every page of the connections of a user in both orders.
+     */
+    private void walk(long userId, Run run, boolean dropCached) {
+        if (dropCached) {
+            connectionFragmentCache.onConnectionsImported(new ConnectionsImportedEvent(userId, new long[0]));
+        }
+        for (ConnectionSort sort : ConnectionSort.values()) {
+            String cursor = null;
+            do {
+                String from = cursor;
+                // Follows the "Next" link of the page, as a browser would
+                Matcher next = NEXT_CURSOR.matcher(run.measure(() -> connectionFragmentCache.render(userId, sort,
+                        from, ConnectionPageService.DEFAULT_PAGE_SIZE)));
+                cursor = next.find() ? next.group(1) : null;
+            } while (cursor != null);
+        }
+    }
+
+    /**
+     * Latency, allocation and output size of renderings.
+     */
+    private final class Run {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long allocatedBytes;
+        long htmlChars;
+
+        String measure(Rendering rendering) {
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            String html = rendering.render();
+            latency.recordNanos(System.nanoTime() - start);
+            allocatedBytes += threads.getCurrentThreadAllocatedBytes() - allocated;
+            htmlChars += html.length();
+            return html;
+        }
+
+        long allocatedKb() {
+            return allocatedBytes / latency.count() / 1024;
+        }
+
+        long htmlKb() {
+            return htmlChars / latency.count() / 1024;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Rendering {
+        String render();
+    }
+}
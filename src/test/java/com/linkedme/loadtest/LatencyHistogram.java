@@ -0,0 +1,75 @@
+package com.linkedme.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear latency histogram.
+ *
+ * <p>Values are recorded in microseconds into buckets that are exact below 128&micro;s and keep 64
+ * sub-buckets per power of two above it, which bounds the relative error of any reported percentile
+ * to about 1.5% while using a fixed 32&nbsp;KB of memory regardless of the number of samples.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 64;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Records a single latency sample.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    public void recordNanos(long nanos) {
+        counts.incrementAndGet(indexOf(Math.max(0, nanos / 1_000)));
+        total.increment();
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the latency at the given percentile.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the latency in microseconds, or 0 when nothing has been recorded.
+     */
+    public long percentileMicros(double percentile) {
+        long samples = count();
+        if (samples == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(samples * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(BUCKETS - 1);
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            return (int) micros;
+        }
+        // Shift so that the mantissa lands in [64, 128), then lay the powers of two out one after the other
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - 6;
+        return Math.min(BUCKETS - 1, shift * SUB_BUCKETS + (int) (micros >>> shift));
+    }
+
+    private static long valueOf(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index - (long) shift * SUB_BUCKETS;
+        // Report the middle of the bucket
+        return (mantissa << shift) + ((1L << shift) >>> 1);
+    }
+}
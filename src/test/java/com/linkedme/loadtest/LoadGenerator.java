@@ -0,0 +1,138 @@
+package com.linkedme.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Drives a scenario (a {@link Supplier} returning {@code null} on success or a failure reason) under either
+ * a closed or an open workload model and collects the results into a {@link LoadReport}.
+ *
+ * <ul>
+ *     <li><b>Closed model</b>: a fixed number of virtual users run the scenario back to back, so the offered
+ *     load drops as the system slows down. Useful to find the saturation throughput.</li>
+ *     <li><b>Open model</b>: scenarios start at a fixed arrival rate regardless of how many are still in flight,
+ *     which is how real login traffic behaves. Latency is measured from the <em>intended</em> start time so
+ *     that queueing inside the generator is not hidden (coordinated omission).</li>
+ * </ul>
+ */
+public final class LoadGenerator {
+
+    private final Supplier<String> scenario;
+
+    public LoadGenerator(Supplier<String> scenario) {
+        this.scenario = scenario;
+    }
+
+    /**
+     * Runs the scenario with a fixed number of concurrent virtual users.
+     *
+     * @param name        label used in the report.
+     * @param concurrency number of virtual users.
+     * @param warmup      time to run before measurements start.
+     * @param duration    measured run time.
+     * @return the measurements.
+     */
+    public LoadReport closedModel(String name, int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        Recorder recorder = new Recorder();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                users.submit(() -> {
+                    long start;
+                    while ((start = System.nanoTime()) < stopAt) {
+                        String failure = scenario.get();
+                        if (start >= measureFrom) {
+                            recorder.record(System.nanoTime() - start, failure);
+                        }
+                    }
+                });
+            }
+        }
+        return recorder.report(name, "closed, concurrency=" + concurrency, duration);
+    }
+
+    /**
+     * Runs the scenario at a fixed arrival rate.
+     *
+     * @param name           label used in the report.
+     * @param ratePerSecond  scenario starts per second.
+     * @param maxOutstanding cap on in-flight scenarios, arrivals above it are counted as errors.
+     * @param warmup         time to run before measurements start.
+     * @param duration       measured run time.
+     * @return the measurements.
+     */
+    public LoadReport openModel(String name, double ratePerSecond, int maxOutstanding, Duration warmup, Duration duration)
+            throws InterruptedException {
+        Recorder recorder = new Recorder();
+        Semaphore outstanding = new Semaphore(maxOutstanding);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long begin = System.nanoTime();
+        long measureFrom = begin + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+
+        try (ExecutorService arrivals = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long n = 0; ; n++) {
+                long intended = begin + n * intervalNanos;
+                if (intended >= stopAt) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                boolean measured = intended >= measureFrom;
+                if (!outstanding.tryAcquire()) {
+                    if (measured) {
+                        recorder.record(System.nanoTime() - intended, "generator:max-outstanding");
+                    }
+                    continue;
+                }
+                arrivals.submit(() -> {
+                    try {
+                        String failure = scenario.get();
+                        if (measured) {
+                            recorder.record(System.nanoTime() - intended, failure);
+                        }
+                    } finally {
+                        outstanding.release();
+                    }
+                });
+            }
+        }
+        return recorder.report(name, "open, rate=" + ratePerSecond + "/s", duration);
+    }
+
+    /**
+     * Thread-safe sink for scenario outcomes.
+     */
+    private static final class Recorder {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> errorsByReason = new ConcurrentHashMap<>();
+
+        void record(long nanos, String failure) {
+            latencies.recordNanos(nanos);
+            if (failure != null) {
+                errors.increment();
+                errorsByReason.computeIfAbsent(failure, k -> new LongAdder()).increment();
+            }
+        }
+
+        LoadReport report(String name, String model, Duration duration) {
+            Map<String, Long> reasons = new ConcurrentHashMap<>();
+            errorsByReason.forEach((reason, count) -> reasons.put(reason, count.sum()));
+            return new LoadReport(name, model, duration, latencies.count(), errors.sum(),
+                    latencies.percentileMicros(50), latencies.percentileMicros(99), latencies.percentileMicros(99.9),
+                    reasons);
+        }
+    }
+}
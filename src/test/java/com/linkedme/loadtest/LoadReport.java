@@ -0,0 +1,43 @@
+package com.linkedme.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summary of one load test run.
+ *
+ * @param name           scenario label.
+ * @param model          workload model description, e.g. {@code closed, concurrency=32}.
+ * @param duration       measured run time.
+ * @param requests       number of completed (successful or failed) scenarios.
+ * @param errors         number of failed scenarios.
+ * @param p50Micros      median latency in microseconds.
+ * @param p99Micros      99th percentile latency in microseconds.
+ * @param p999Micros     99.9th percentile latency in microseconds.
+ * @param errorsByReason failure counts grouped by reason.
+ */
+public record LoadReport(String name, String model, Duration duration, long requests, long errors,
+                         long p50Micros, long p99Micros, long p999Micros, Map<String, Long> errorsByReason) {
+
+    public double throughputPerSecond() {
+        return requests / (duration.toMillis() / 1000.0);
+    }
+
+    public double errorRate() {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("""
+                        [%s] %s, %ds
+                          requests   : %d (%.1f/s)
+                          errors     : %d (%.2f%%) %s
+                          latency ms : p50=%.2f p99=%.2f p999=%.2f""",
+                name, model, duration.toSeconds(),
+                requests, throughputPerSecond(),
+                errors, errorRate() * 100, errorsByReason.isEmpty() ? "" : new TreeMap<>(errorsByReason),
+                p50Micros / 1000.0, p99Micros / 1000.0, p999Micros / 1000.0);
+    }
+}
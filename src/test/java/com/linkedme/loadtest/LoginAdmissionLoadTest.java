@@ -0,0 +1,110 @@
+package com.linkedme.loadtest;
+
+import com.linkedme.admission.AdmissionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Authenticated traffic while {@link MockLinkedinProvider} slows down under a burst of logins.
+ *
+ * <p>{@value #SESSIONS} users log in while the provider is fast, then the provider takes
+ * {@code loadtest.delay} per token and userinfo response while logins arrive at {@code loadtest.rate} per second
+ * and the logged-in users keep calling {@code /api/authentication}. Without admission, the slow callbacks take
+ * every server thread and the authenticated requests queue behind them; with it, the callbacks over the limit
+ * are answered "503" at once and the authenticated requests keep their latency.</p>
+ *
+ * <p>Run with {@code mvn -Pperf test -Dtest=LoginAdmissionLoadTest}, and with
+ * {@code -Dlinkedme.admission.enabled=false} for the unprotected baseline. Tunables (system properties):
+ * {@code loadtest.delay} (default 500ms), {@code loadtest.rate} (default 300), {@code loadtest.concurrency}
+ * (default 32 authenticated users), {@code loadtest.duration} (default 30s).</p>
+ */
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoginAdmissionLoadTest {
+
+    private static final int SESSIONS = 100;
+    private static final MockLinkedinProvider PROVIDER = new MockLinkedinProvider(10_000);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    AdmissionProperties admissionProperties;
+
+    @DynamicPropertySource
+    static void linkedinProvider(DynamicPropertyRegistry registry) {
+        registry.add("linkedin-client-id", () -> MockLinkedinProvider.CLIENT_ID);
+        registry.add("linkedin-client-secret", () -> MockLinkedinProvider.CLIENT_SECRET);
+        registry.add("spring.security.oauth2.client.provider.linkedin.authorization-uri", PROVIDER::authorizationUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.token-uri", PROVIDER::tokenUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.user-info-uri", PROVIDER::userInfoUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.jwk-set-uri", PROVIDER::jwkSetUri);
+        // The mock has no quota, the LinkedIn limits would slow the logins down on their own
+        registry.add("linkedme.linkedin-api.enabled", () -> "false");
+        registry.add("logging.level.root", () -> "INFO");
+        registry.add("logging.level.com.linkedme.security.config", () -> "INFO");
+    }
+
+    @AfterAll
+    static void stopProvider() {
+        PROVIDER.close();
+    }
+
+    @Test
+    void providerSlowdown() throws Exception {
+        LoginFlow flow = new LoginFlow("http://localhost:" + port);
+        List<String> sessions = new ArrayList<>(SESSIONS);
+        while (sessions.size() < SESSIONS) {
+            LoginFlow.Login login = flow.login();
+            assertThat(login.failure()).isNull();
+            sessions.add(login.session());
+        }
+
+        PROVIDER.setResponseDelay(Duration.ofMillis(Long.getLong("loadtest.delay", 500)));
+        Duration warmup = Duration.ofSeconds(5);
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+        CompletableFuture<LoadReport> logins = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new LoadGenerator(flow::run).openModel("login",
+                        Double.parseDouble(System.getProperty("loadtest.rate", "300")), 10_000, warmup, duration);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+        LoadReport authenticated = new LoadGenerator(() -> flow.authentication(
+                sessions.get(ThreadLocalRandom.current().nextInt(SESSIONS))))
+                .closedModel("authenticated", Integer.getInteger("loadtest.concurrency", 32), warmup, duration);
+
+        System.out.println(logins.get());
+        System.out.println(authenticated);
+        double rejected = meterRegistry.get("linkedme.admission.requests").tag("outcome", "rejected").counter()
+                .count();
+        System.out.printf("admission limit=%.0f rejected=%.0f%n",
+                meterRegistry.get("linkedme.admission.limit").gauge().value(), rejected);
+
+        if (admissionProperties.isEnabled()) {
+            assertThat(rejected).isPositive();
+            assertThat(authenticated.errorRate()).isLessThanOrEqualTo(0.01);
+            assertThat(authenticated.p99Micros()).isLessThan(200_000);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.linkedme.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One complete browser-style LinkedIn login against the application.
+ *
+ * <p>The flow follows the redirects by hand so that every hop is checked and the session cookie can be
+ * carried across the application and the mock provider without a shared cookie store:</p>
+ * <ol>
+ *     <li>{@code GET /oauth2/authorization/linkedin} &rarr; 302 to the provider, sets the session cookie.</li>
+ *     <li>{@code GET <provider>/oauth/v2/authorization} &rarr; 302 back to the callback with a code.</li>
+ *     <li>{@code GET /login/oauth2/code/linkedin} &rarr; token exchange, userinfo, user lookup, 302 to the API.</li>
+ *     <li>{@code GET /api/authentication} &rarr; 200 with the authenticated principal.</li>
+ * </ol>
+ */
+public final class LoginFlow {
+
+    private static final String SESSION_COOKIE = "JSESSIONID";
+
+    private final HttpClient httpClient;
+    private final String appBaseUrl;
+
+    public LoginFlow(String appBaseUrl) {
+        this.appBaseUrl = appBaseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Runs the flow once.
+     *
+     * @return {@code null} on success, otherwise a short failure reason used to group errors in the report.
+     */
+    public String run() {
+        return login().failure();
+    }
+
+    /**
+     * Runs the flow once, keeping the authenticated session.
+     *
+     * @return the session on success, otherwise a short failure reason used to group errors in the report.
+     */
+    public Login login() {
+        try {
+            HttpResponse<Void> start = get(appBaseUrl + "/oauth2/authorization/linkedin", null);
+            if (start.statusCode() != 302) {
+                return Login.failed("authorization-request:" + start.statusCode());
+            }
+            String session = sessionCookie(start).orElse(null);
+
+            HttpResponse<Void> consent = get(location(start), null);
+            if (consent.statusCode() != 302) {
+                return Login.failed("provider-authorize:" + consent.statusCode());
+            }
+
+            HttpResponse<Void> callback = get(location(consent), session);
+            if (callback.statusCode() != 302 || !location(callback).endsWith("/api/authentication")) {
+                return Login.failed("callback:" + callback.statusCode());
+            }
+            // Spring Security migrates the session on login, so pick up the new identifier
+            session = sessionCookie(callback).orElse(session);
+
+            String failure = authentication(session);
+            return failure == null ? new Login(session, null) : Login.failed(failure);
+        } catch (IOException e) {
+            return Login.failed("io:" + e.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Login.failed("interrupted");
+        }
+    }
+
+    /**
+     * Fetches the principal of an authenticated session, the cheapest authenticated request.
+     *
+     * @param session the session of a completed login.
+     * @return {@code null} on success, otherwise a short failure reason.
+     */
+    public String authentication(String session) {
+        try {
+            HttpResponse<Void> profile = get(appBaseUrl + "/api/authentication", session);
+            return profile.statusCode() == 200 ? null : "authentication-endpoint:" + profile.statusCode();
+        } catch (IOException e) {
+            return "io:" + e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        }
+    }
+
+    private HttpResponse<Void> get(String url, String session) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (session != null) {
+            request.header("Cookie", SESSION_COOKIE + "=" + session);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private String location(HttpResponse<?> response) {
+        String location = response.headers().firstValue("Location").orElse("");
+        return location.startsWith("/") ? appBaseUrl + location : location;
+    }
+
+    private static Optional<String> sessionCookie(HttpResponse<?> response) {
+        List<String> cookies = response.headers().allValues("Set-Cookie");
+        for (String cookie : cookies) {
+            if (cookie.startsWith(SESSION_COOKIE + "=")) {
+                int end = cookie.indexOf(';');
+                return Optional.of(cookie.substring(SESSION_COOKIE.length() + 1, end < 0 ? cookie.length() : end));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Outcome of a login.
+     *
+     * @param session the session cookie of the authenticated user, or {@code null} if the login failed.
+     * @param failure the failure reason, or {@code null} on success.
+     */
+    public record Login(String session, String failure) {
+
+        static Login failed(String failure) {
+            return new Login(null, failure);
+        }
+    }
+}
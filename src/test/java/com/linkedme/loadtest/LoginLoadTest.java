@@ -0,0 +1,101 @@
+package com.linkedme.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end login load test against {@link MockLinkedinProvider}.
+ *
+ * <p>The {@code linkedin} registration from {@code application.yaml} is kept as is, only its credentials and
+ * provider URIs are pointed at the in-process mock, so the full production security chain is exercised.</p>
+ *
+ * <p>Run with {@code mvn -Pperf test -Dtest=LoginLoadTest}. Tunables (system properties):</p>
+ * <ul>
+ *     <li>{@code loadtest.concurrency} (default 32): virtual users in the closed model.</li>
+ *     <li>{@code loadtest.rate} (default 200): logins per second in the open model.</li>
+ *     <li>{@code loadtest.maxOutstanding} (default 2000): in-flight cap in the open model.</li>
+ *     <li>{@code loadtest.warmup} / {@code loadtest.duration} (defaults 10s / 30s, ISO-8601 or seconds).</li>
+ *     <li>{@code loadtest.members} (default 10000): distinct members served by the mock provider.</li>
+ *     <li>{@code loadtest.maxErrorRate} (default 0.01): error rate above which the run fails.</li>
+ * </ul>
+ */
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoginLoadTest {
+
+    private static final MockLinkedinProvider PROVIDER =
+            new MockLinkedinProvider(Integer.getInteger("loadtest.members", 10_000));
+
+    @LocalServerPort
+    int port;
+
+    @DynamicPropertySource
+    static void linkedinProvider(DynamicPropertyRegistry registry) {
+        registry.add("linkedin-client-id", () -> MockLinkedinProvider.CLIENT_ID);
+        registry.add("linkedin-client-secret", () -> MockLinkedinProvider.CLIENT_SECRET);
+        registry.add("spring.security.oauth2.client.provider.linkedin.authorization-uri", PROVIDER::authorizationUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.token-uri", PROVIDER::tokenUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.user-info-uri", PROVIDER::userInfoUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.jwk-set-uri", PROVIDER::jwkSetUri);
+        // The mock has no quota, the LinkedIn limits would cap the measured throughput
+        registry.add("linkedme.linkedin-api.enabled", () -> "false");
+        // Shed logins would hide the saturation throughput, see LoginAdmissionLoadTest
+        registry.add("linkedme.admission.enabled", () -> "false");
+        // DEBUG logging of every request would dominate the measurements
+        registry.add("logging.level.root", () -> "INFO");
+        registry.add("logging.level.com.linkedme.security.config", () -> "INFO");
+    }
+
+    @AfterAll
+    static void stopProvider() {
+        PROVIDER.close();
+    }
+
+    @Test
+    void closedModel() throws InterruptedException {
+        LoadReport report = generator().closedModel("login", Integer.getInteger("loadtest.concurrency", 32),
+                duration("loadtest.warmup", 10), duration("loadtest.duration", 30));
+
+        System.out.println(report);
+        assertThat(report.requests()).isPositive();
+        assertThat(report.errorRate()).isLessThanOrEqualTo(maxErrorRate());
+    }
+
+    @Test
+    void openModel() throws InterruptedException {
+        LoadReport report = generator().openModel("login",
+                Double.parseDouble(System.getProperty("loadtest.rate", "200")),
+                Integer.getInteger("loadtest.maxOutstanding", 2_000),
+                duration("loadtest.warmup", 10), duration("loadtest.duration", 30));
+
+        System.out.println(report);
+        assertThat(report.requests()).isPositive();
+        assertThat(report.errorRate()).isLessThanOrEqualTo(maxErrorRate());
+    }
+
+    private LoadGenerator generator() {
+        LoginFlow flow = new LoginFlow("http://localhost:" + port);
+        return new LoadGenerator(flow::run);
+    }
+
+    private static Duration duration(String property, long defaultSeconds) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            return Duration.ofSeconds(defaultSeconds);
+        }
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static double maxErrorRate() {
+        return Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.01"));
+    }
+}
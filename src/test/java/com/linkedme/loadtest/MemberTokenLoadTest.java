@@ -0,0 +1,162 @@
+package com.linkedme.loadtest;
+
+import com.linkedme.persistence.entity.User;
+import com.linkedme.persistence.repository.MemberTokenRepository;
+import com.linkedme.persistence.repository.UserRepository;
+import com.linkedme.security.service.MemberTokenProperties;
+import com.linkedme.security.service.MemberTokenService;
+import com.linkedme.security.service.PersistentAuthorizedClientService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2RefreshTokenGrantRequest;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Member token lookups after a restart, with every token due for a refresh.
+ *
+ * <p>{@value #MEMBERS} members log in against {@link MockLinkedinProvider}, which issues access tokens valid for
+ * an hour while {@code refresh-before} is two hours, and valid for 60 days once refreshed. The token store is
+ * then created anew, as after a restart, and {@value #CLIENTS} concurrent clients look up the token of every
+ * member {@value #ROUNDS} times: the first lookups load the tokens from the database, the others hit memory,
+ * every lookup is served without a new login, and each member is refreshed exactly once.</p>
+ *
+ * <p>Run with {@code mvn -Pperf test -Dtest=MemberTokenLoadTest}.</p>
+ */
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MemberTokenLoadTest {
+
+    private static final int MEMBERS = 200;
+    private static final int CLIENTS = 32;
+    private static final int ROUNDS = 20;
+    private static final MockLinkedinProvider PROVIDER = new MockLinkedinProvider(MEMBERS);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MemberTokenProperties memberTokenProperties;
+
+    @Autowired
+    MemberTokenRepository memberTokenRepository;
+
+    @Autowired
+    ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    OAuth2AccessTokenResponseClient<OAuth2RefreshTokenGrantRequest> refreshTokenClient;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void linkedinProvider(DynamicPropertyRegistry registry) {
+        registry.add("linkedin-client-id", () -> MockLinkedinProvider.CLIENT_ID);
+        registry.add("linkedin-client-secret", () -> MockLinkedinProvider.CLIENT_SECRET);
+        registry.add("spring.security.oauth2.client.provider.linkedin.authorization-uri", PROVIDER::authorizationUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.token-uri", PROVIDER::tokenUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.user-info-uri", PROVIDER::userInfoUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.jwk-set-uri", PROVIDER::jwkSetUri);
+        registry.add("linkedme.member-tokens.encryption-password", () -> "loadtest-password");
+        registry.add("linkedme.member-tokens.encryption-salt", () -> "5a1c3e9b7d2f4a60");
+        registry.add("linkedme.member-tokens.refresh-before", () -> "PT2H");
+        // The mock has no quota, the LinkedIn limits would cap the measured throughput
+        registry.add("linkedme.linkedin-api.enabled", () -> "false");
+        registry.add("linkedme.enrichment.enabled", () -> "false");
+        registry.add("logging.level.root", () -> "INFO");
+        registry.add("logging.level.com.linkedme.security.config", () -> "INFO");
+    }
+
+    @AfterAll
+    static void stopProvider() {
+        PROVIDER.close();
+    }
+
+    @Test
+    void lookupsAfterRestart() throws Exception {
+        PROVIDER.setTokenLifetime(Duration.ofHours(1));
+        LoginFlow flow = new LoginFlow("http://localhost:" + port);
+        List<Long> userIds = new ArrayList<>(MEMBERS);
+        for (int member = 0; member < MEMBERS; member++) {
+            assertThat(flow.run()).isNull();
+            userIds.add(userRepository.findByEmail("member-" + member + "@loadtest.local").map(User::getId)
+                    .orElseThrow());
+        }
+
+        // Refreshed tokens are not due for a refresh again
+        PROVIDER.setTokenLifetime(Duration.ofDays(60));
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PersistentAuthorizedClientService store = new PersistentAuthorizedClientService(memberTokenProperties,
+                memberTokenRepository, clientRegistrationRepository, meterRegistry);
+        AtomicLong missing = new AtomicLong();
+        long start = System.nanoTime();
+        try (MemberTokenService tokens = new MemberTokenService(memberTokenProperties, store, memberTokenRepository,
+                refreshTokenClient, meterRegistry);
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < CLIENTS; client++) {
+                clients.submit(() -> {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (long userId : userIds) {
+                            if (tokens.accessToken(userId).isEmpty()) {
+                                missing.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+            clients.shutdown();
+            assertThat(clients.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+            while (counter(meterRegistry, "linkedme.member-tokens.refreshes") < MEMBERS) {
+                Thread.sleep(10);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long lookups = (long) CLIENTS * ROUNDS * MEMBERS;
+        System.out.printf("member-tokens lookups=%d throughput=%.0f/s memory %s database %s "
+                        + "reauthenticationsAvoided=%.0f refreshes=%d%n", lookups, lookups / seconds,
+                percentiles(meterRegistry, "memory"), percentiles(meterRegistry, "database"),
+                counter(meterRegistry, "linkedme.member-tokens.reauthentications-avoided"),
+                PROVIDER.refreshResponses());
+        assertThat(missing.get()).isZero();
+        assertThat(counter(meterRegistry, "linkedme.member-tokens.reauthentications-avoided")).isEqualTo(lookups);
+        assertThat(PROVIDER.refreshResponses()).isEqualTo(MEMBERS);
+    }
+
+    private static double counter(MeterRegistry meterRegistry, String name) {
+        return meterRegistry.find(name).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private static String percentiles(MeterRegistry meterRegistry, String tier) {
+        Timer timer = meterRegistry.get("linkedme.member-tokens.lookup").tag("tier", tier).timer();
+        StringBuilder result = new StringBuilder("count=" + timer.count());
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            result.append(String.format(" p%.0f=%.1fus", value.percentile() * 100,
+                    value.value(TimeUnit.MICROSECONDS)));
+        }
+        return result.toString();
+    }
+}
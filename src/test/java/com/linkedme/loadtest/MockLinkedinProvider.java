@@ -0,0 +1,380 @@
+package com.linkedme.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process mock of the LinkedIn OpenID Connect provider.
+ *
+ * <p>The mock exposes the endpoints the {@code linkedin} client registration and profile enrichment talk to,
+ * with the same paths as the real provider so only the host part of the URIs has to be overridden:</p>
+ * <ul>
+ *     <li>{@code /oauth/v2/authorization}: immediately "consents" and redirects back with a one-time code.</li>
+ *     <li>{@code /oauth/v2/accessToken}: exchanges the code for an access token, a refresh token and an
+ *     RS256-signed ID token, or a refresh token for a new access token.</li>
+ *     <li>{@code /v2/userinfo}: returns the claims of the member the access token was issued to.</li>
+ *     <li>{@code /oauth/openid/jwks}: publishes the public signing key.</li>
+ *     <li>{@code /v2/profiles/{email}}: returns the profile of a member, honouring "If-None-Match" with a
+ *     "304 Not Modified" until the profiles are {@link #setProfileVersion changed}.</li>
+ * </ul>
+ *
+ * <p>Members are synthetic ({@code member-N@loadtest.local}) and are picked round-robin from a pool of
+ * configurable size, so a run exercises both the first-login (user creation) and returning-user paths.</p>
+ */
+public class MockLinkedinProvider implements AutoCloseable {
+
+    public static final String CLIENT_ID = "loadtest-client";
+    public static final String CLIENT_SECRET = "loadtest-secret";
+    public static final String APP_TOKEN = "loadtest-app-token";
+
+    private static final String AUTHORIZATION_PATH = "/oauth/v2/authorization";
+    private static final String TOKEN_PATH = "/oauth/v2/accessToken";
+    private static final String USER_INFO_PATH = "/v2/userinfo";
+    private static final String JWKS_PATH = "/oauth/openid/jwks";
+    private static final String PROFILE_PATH = "/v2/profiles/";
+    private static final Instant PROFILES_CREATED = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final RSAKey signingKey;
+    private final RSASSASigner signer;
+    private final int memberPoolSize;
+    private final AtomicLong memberSequence = new AtomicLong();
+
+    // Issued authorization codes, access tokens and refresh tokens, all resolving to a member index
+    private final Map<String, Long> codes = new ConcurrentHashMap<>();
+    private final Map<String, Long> accessTokens = new ConcurrentHashMap<>();
+    private final Map<String, Long> refreshTokens = new ConcurrentHashMap<>();
+    private final AtomicLong refreshResponses = new AtomicLong();
+    private volatile Duration tokenLifetime = Duration.ofSeconds(5183999);
+
+    // Artificial latency added to the token, userinfo and profile endpoints to simulate a slow provider
+    private volatile Duration responseDelay = Duration.ZERO;
+
+    // Profiles change whenever the version does; responses served per status
+    private volatile int profileVersion;
+    private final AtomicLong profileResponses = new AtomicLong();
+    private final AtomicLong notModifiedResponses = new AtomicLong();
+
+    /**
+     * Starts the mock provider on an ephemeral port of the loopback interface.
+     *
+     * @param memberPoolSize number of distinct synthetic members handed out round-robin.
+     */
+    public MockLinkedinProvider(int memberPoolSize) {
+        try {
+            this.memberPoolSize = memberPoolSize;
+            this.signingKey = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+            this.signer = new RSASSASigner(signingKey);
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not create the signing key", e);
+        }
+        server.createContext(AUTHORIZATION_PATH, this::authorize);
+        server.createContext(TOKEN_PATH, this::token);
+        server.createContext(USER_INFO_PATH, this::userInfo);
+        server.createContext(JWKS_PATH, this::jwks);
+        server.createContext(PROFILE_PATH, this::profile);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String issuer() {
+        return baseUrl();
+    }
+
+    public String authorizationUri() {
+        return baseUrl() + AUTHORIZATION_PATH;
+    }
+
+    public String tokenUri() {
+        return baseUrl() + TOKEN_PATH;
+    }
+
+    public String userInfoUri() {
+        return baseUrl() + USER_INFO_PATH;
+    }
+
+    public String jwkSetUri() {
+        return baseUrl() + JWKS_PATH;
+    }
+
+    /**
+     * @return the URI template of the profile API, as expected by {@code linkedme.enrichment.profile-uri}.
+     */
+    public String profileUri() {
+        return baseUrl() + PROFILE_PATH + "{email}";
+    }
+
+    /**
+     * Changes every profile, so that conditional requests are answered with the full profile again.
+     *
+     * @param profileVersion the new version of the profiles.
+     */
+    public void setProfileVersion(int profileVersion) {
+        this.profileVersion = profileVersion;
+    }
+
+    /**
+     * @return the number of profiles returned in full.
+     */
+    public long profileResponses() {
+        return profileResponses.get();
+    }
+
+    /**
+     * @return the number of profile requests answered with "304 Not Modified".
+     */
+    public long notModifiedResponses() {
+        return notModifiedResponses.get();
+    }
+
+    /**
+     * @return the number of access tokens issued for a refresh token.
+     */
+    public long refreshResponses() {
+        return refreshResponses.get();
+    }
+
+    /**
+     * Sets the lifetime of the access tokens issued from now on, sent as "expires_in".
+     *
+     * @param tokenLifetime the lifetime, 60 days by default like LinkedIn.
+     */
+    public void setTokenLifetime(Duration tokenLifetime) {
+        this.tokenLifetime = tokenLifetime;
+    }
+
+    /**
+     * Sets a delay applied to every token and userinfo response, e.g. to simulate a provider slowdown.
+     *
+     * @param responseDelay the delay, {@link Duration#ZERO} to disable.
+     */
+    public void setResponseDelay(Duration responseDelay) {
+        this.responseDelay = responseDelay;
+    }
+
+    /**
+     * Authorization endpoint: skips the consent screen and redirects straight back to the client.
+     */
+    private void authorize(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String redirectUri = params.get("redirect_uri");
+        if (redirectUri == null || !CLIENT_ID.equals(params.get("client_id"))) {
+            send(exchange, 400, Map.of("error", "invalid_request"));
+            return;
+        }
+
+        String code = UUID.randomUUID().toString();
+        codes.put(code, memberSequence.getAndIncrement() % memberPoolSize);
+
+        String location = redirectUri
+                + (redirectUri.contains("?") ? "&" : "?") + "code=" + code
+                + "&state=" + URLEncoder.encode(params.getOrDefault("state", ""), StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+        exchange.close();
+    }
+
+    /**
+     * Token endpoint: accepts {@code client_secret_post} (and basic) authentication, and exchanges a code for
+     * tokens with a signed ID token, or a refresh token for a new access token.
+     */
+    private void token(HttpExchange exchange) throws IOException {
+        delay();
+        Map<String, String> form = parseQuery(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        boolean postAuthenticated = CLIENT_ID.equals(form.get("client_id")) && CLIENT_SECRET.equals(form.get("client_secret"));
+        boolean basicAuthenticated = exchange.getRequestHeaders().getFirst("Authorization") != null;
+        if (!postAuthenticated && !basicAuthenticated) {
+            send(exchange, 401, Map.of("error", "invalid_client"));
+            return;
+        }
+
+        boolean refresh = "refresh_token".equals(form.get("grant_type"));
+        Long member = refresh ? refreshTokens.get(String.valueOf(form.get("refresh_token")))
+                : codes.remove(String.valueOf(form.get("code")));
+        if (member == null) {
+            send(exchange, 400, Map.of("error", "invalid_grant"));
+            return;
+        }
+
+        String accessToken = UUID.randomUUID().toString();
+        accessTokens.put(accessToken, member);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("access_token", accessToken);
+        body.put("expires_in", tokenLifetime.toSeconds());
+        body.put("scope", "openid profile email");
+        body.put("token_type", "Bearer");
+        if (refresh) {
+            refreshResponses.incrementAndGet();
+        } else {
+            String refreshToken = UUID.randomUUID().toString();
+            refreshTokens.put(refreshToken, member);
+            body.put("refresh_token", refreshToken);
+            body.put("refresh_token_expires_in", 31535999);
+            body.put("id_token", idToken(member));
+        }
+        send(exchange, 200, body);
+    }
+
+    /**
+     * Userinfo endpoint: resolves the bearer token to the member it was issued to.
+     */
+    private void userInfo(HttpExchange exchange) throws IOException {
+        delay();
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        Long member = authorization == null ? null : accessTokens.get(authorization.replaceFirst("(?i)^Bearer ", ""));
+        if (member == null) {
+            send(exchange, 401, Map.of("error", "invalid_token"));
+            return;
+        }
+        send(exchange, 200, memberClaims(member));
+    }
+
+    /**
+     * Profile endpoint: accepts a member access token or {@link #APP_TOKEN}, and validates the ETag.
+     */
+    private void profile(HttpExchange exchange) throws IOException {
+        delay();
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String token = authorization == null ? "" : authorization.replaceFirst("(?i)^Bearer ", "");
+        if (!APP_TOKEN.equals(token) && !accessTokens.containsKey(token)) {
+            send(exchange, 401, Map.of("error", "invalid_token"));
+            return;
+        }
+        String email = URLDecoder.decode(exchange.getRequestURI().getRawPath().substring(PROFILE_PATH.length()),
+                StandardCharsets.UTF_8);
+        if (!email.startsWith("member-") || !email.endsWith("@loadtest.local")) {
+            send(exchange, 404, Map.of("error", "not_found"));
+            return;
+        }
+
+        int version = profileVersion;
+        String etag = "\"" + email + "-v" + version + "\"";
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.getResponseHeaders().add("Last-Modified",
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(PROFILES_CREATED.plus(Duration.ofDays(version))
+                        .atOffset(ZoneOffset.UTC)));
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModifiedResponses.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        profileResponses.incrementAndGet();
+        String member = email.substring("member-".length(), email.indexOf('@'));
+        send(exchange, 200, Map.of(
+                "headline", "Engineer #" + member + " (v" + version + ")",
+                "company", "Load Test Company " + Long.parseLong(member) % 100,
+                "pictureUrl", baseUrl() + "/pictures/" + member + ".jpg"));
+    }
+
+    private void jwks(HttpExchange exchange) throws IOException {
+        send(exchange, 200, new JWKSet(signingKey.toPublicJWK()).toJSONObject());
+    }
+
+    private String idToken(long member) {
+        Instant now = Instant.now();
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(issuer())
+                .audience(CLIENT_ID)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(3600)));
+        memberClaims(member).forEach(claims::claim);
+
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(),
+                claims.build());
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not sign the ID token", e);
+        }
+        return jwt.serialize();
+    }
+
+    private static Map<String, Object> memberClaims(long member) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", "member-" + member);
+        claims.put("name", "Load Test Member " + member);
+        claims.put("given_name", "Member");
+        claims.put("family_name", String.valueOf(member));
+        claims.put("email", "member-" + member + "@loadtest.local");
+        claims.put("email_verified", true);
+        claims.put("locale", "en_US");
+        return claims;
+    }
+
+    private void delay() {
+        Duration delay = responseDelay;
+        if (!delay.isZero()) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,129 @@
+package com.linkedme.loadtest;
+
+import com.linkedme.enrichment.ProfileEnrichmentService;
+import com.linkedme.persistence.entity.User;
+import com.linkedme.persistence.repository.UserProfileRepository;
+import com.linkedme.persistence.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and lag of {@link ProfileEnrichmentService} against the profile API of {@link MockLinkedinProvider}.
+ *
+ * <p>{@code loadtest.enrichment.users} users (20,000 by default) are submitted as fast as the queue accepts them,
+ * twice: the first pass fetches every profile, the second one only revalidates them and must be answered with
+ * "304 Not Modified". {@code refresh-after} is zero so that the second pass is not skipped as fresh.</p>
+ *
+ * <p>Run with {@code mvn -Pperf test -Dtest=ProfileEnrichmentLoadTest}; {@code loadtest.delay} (milliseconds,
+ * default 20) is the latency of the mock profile API.</p>
+ */
+@Tag("perf")
+@SpringBootTest
+class ProfileEnrichmentLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.enrichment.users", 20_000);
+    private static final MockLinkedinProvider PROVIDER = new MockLinkedinProvider(USERS);
+
+    @Autowired
+    ProfileEnrichmentService profileEnrichmentService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserProfileRepository userProfileRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void profileApi(DynamicPropertyRegistry registry) {
+        registry.add("linkedme.enrichment.profile-uri", PROVIDER::profileUri);
+        registry.add("linkedme.enrichment.api-token", () -> MockLinkedinProvider.APP_TOKEN);
+        registry.add("linkedme.enrichment.refresh-after", () -> "PT0S");
+        // The mock has no quota, the LinkedIn limits would cap the measured throughput
+        registry.add("linkedme.linkedin-api.enabled", () -> "false");
+        registry.add("logging.level.root", () -> "INFO");
+    }
+
+    @AfterAll
+    static void stopProvider() {
+        PROVIDER.close();
+    }
+
+    @Test
+    void enrichment() throws InterruptedException {
+        PROVIDER.setResponseDelay(Duration.ofMillis(Long.getLong("loadtest.delay", 20)));
+        List<Long> userIds = createUsers();
+
+        pass("fetch", userIds);
+        assertThat(PROVIDER.profileResponses()).isEqualTo(USERS);
+        assertThat(userProfileRepository.count()).isGreaterThanOrEqualTo(USERS);
+
+        pass("revalidate", userIds);
+        assertThat(PROVIDER.notModifiedResponses()).isEqualTo(USERS);
+        assertThat(PROVIDER.profileResponses()).isEqualTo(USERS);
+    }
+
+    /**
+     * Submits every user, waits until all of them were written back and prints the metrics of the pass.
+     */
+    private void pass(String name, List<Long> userIds) throws InterruptedException {
+        Timer lag = meterRegistry.get("linkedme.enrichment.lag").timer();
+        long expected = lag.count() + userIds.size();
+        int maxQueueDepth = 0;
+        long start = System.nanoTime();
+        for (long userId : userIds) {
+            // The queue never blocks its producers, a full queue is retried like a later login would be
+            while (!profileEnrichmentService.submit(userId, null)) {
+                maxQueueDepth = Math.max(maxQueueDepth, profileEnrichmentService.queueDepth());
+                Thread.sleep(1);
+            }
+        }
+        while (lag.count() < expected) {
+            maxQueueDepth = Math.max(maxQueueDepth, profileEnrichmentService.queueDepth());
+            Thread.sleep(10);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("enrichment pass=%s users=%d throughput=%.0f/s maxQueueDepth=%d lag %s dropped=%.0f%n",
+                name, userIds.size(), userIds.size() / seconds, maxQueueDepth, percentiles(lag),
+                meterRegistry.get("linkedme.enrichment.profiles").tag("outcome", "dropped").counter().count());
+    }
+
+    private List<Long> createUsers() {
+        List<Long> userIds = new ArrayList<>(USERS);
+        List<User> batch = new ArrayList<>(1_000);
+        for (int member = 0; member < USERS; member++) {
+            batch.add(User.builder().name("Member " + member).email("member-" + member + "@loadtest.local").build());
+            if (batch.size() == 1_000 || member == USERS - 1) {
+                userRepository.saveAll(batch).forEach(user -> userIds.add(user.getId()));
+                batch.clear();
+            }
+        }
+        return userIds;
+    }
+
+    private static String percentiles(Timer timer) {
+        StringBuilder result = new StringBuilder();
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            result.append(String.format("p%.0f=%.0fms ", value.percentile() * 100, value.value(TimeUnit.MILLISECONDS)));
+        }
+        return result.toString().trim();
+    }
+}
@@ -0,0 +1,177 @@
+package com.linkedme.loadtest;
+
+import com.linkedme.model.UserImportResult;
+import com.linkedme.persistence.entity.Role;
+import com.linkedme.service.UserTransferService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Peak live heap while {@code /admins/users/export} streams every user, for two numbers of users.
+ *
+ * <p>The database is seeded with {@code loadtest.export.users} users (20,000 by default) through the NDJSON
+ * import, the export is streamed over HTTP by an administrator logged in against {@link MockLinkedinProvider},
+ * then the database is seeded up to ten times as many users and the export runs again. While the response is
+ * read, a sampler runs a full collection every {@value #SAMPLE_MILLIS} ms and keeps the largest heap still in
+ * use; the report shows it above the heap in use before the export. The export holds no more than a batch of
+ * users at a time, so the peak must not grow with the number of users.</p>
+ *
+ * <p>Run with {@code mvn -Pperf test -Dtest=UserExportLoadTest}.</p>
+ */
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UserExportLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.export.users", 20_000);
+    private static final int SCALE = 10;
+    private static final long SAMPLE_MILLIS = 100;
+    private static final MockLinkedinProvider PROVIDER = new MockLinkedinProvider(1);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    UserTransferService userTransferService;
+
+    @DynamicPropertySource
+    static void linkedinProvider(DynamicPropertyRegistry registry) {
+        registry.add("linkedin-client-id", () -> MockLinkedinProvider.CLIENT_ID);
+        registry.add("linkedin-client-secret", () -> MockLinkedinProvider.CLIENT_SECRET);
+        registry.add("spring.security.oauth2.client.provider.linkedin.authorization-uri", PROVIDER::authorizationUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.token-uri", PROVIDER::tokenUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.user-info-uri", PROVIDER::userInfoUri);
+        registry.add("spring.security.oauth2.client.provider.linkedin.jwk-set-uri", PROVIDER::jwkSetUri);
+        registry.add("linkedme.linkedin-api.enabled", () -> "false");
+        registry.add("linkedme.enrichment.enabled", () -> "false");
+        registry.add("logging.level.root", () -> "INFO");
+    }
+
+    @AfterAll
+    static void stopProvider() {
+        PROVIDER.close();
+    }
+
+    @Test
+    void peakHeapDoesNotGrowWithUsers() throws Exception {
+        // member-0, the only member of the provider, is the administrator; it exists before logging in so that
+        // the login keeps its roles
+        seed(0, 1, true);
+        LoginFlow.Login login = new LoginFlow("http://localhost:" + port).login();
+        assertThat(login.failure()).isNull();
+
+        seed(1, USERS, false);
+        Export small = export(login.session());
+        seed(USERS, USERS * SCALE, false);
+        Export large = export(login.session());
+
+        System.out.printf("""
+                        user export              users   peak live heap above baseline (MB)   duration (ms)
+                          small      %14d %38d %15d
+                          large      %14d %38d %15d
+                        %n""",
+                small.users(), small.peakBytes() >> 20, small.millis(),
+                large.users(), large.peakBytes() >> 20, large.millis());
+        assertThat(small.users()).isEqualTo(USERS);
+        assertThat(large.users()).isEqualTo((long) USERS * SCALE);
+        // Ten times the users, less than twice the memory, with some room for the noise of the samples
+        assertThat(large.peakBytes()).isLessThan(Math.max(2 * small.peakBytes(), 16L << 20));
+    }
+
+    /**
+     * Imports the users numbered from {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    private void seed(int from, int to, boolean admin) throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        String roles = admin ? "\"" + Role.ROLE_USER + "\",\"" + Role.ROLE_ADMIN + "\"" : "\"" + Role.ROLE_USER + "\"";
+        for (int i = from; i < to; i++) {
+            ndjson.append("{\"name\":\"Member ").append(i).append("\",\"email\":\"member-").append(i)
+                    .append("@loadtest.local\",\"roles\":[").append(roles).append("]}\n");
+        }
+        UserImportResult result = userTransferService.importUsers(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+        assertThat(result.created()).isEqualTo(to - from);
+    }
+
+    /**
+     * Streams the export as an administrator, sampling the live heap until the response is read.
+     */
+    private Export export(String session) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/admins/users/export"))
+                .header("Cookie", "JSESSIONID=" + session)
+                .GET()
+                .build();
+
+        long baseline = liveHeap();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean reading = new AtomicBoolean(true);
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (reading.get()) {
+                peak.accumulateAndGet(liveHeap(), Math::max);
+                try {
+                    Thread.sleep(SAMPLE_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long start = System.nanoTime();
+        long lines = 0;
+        try {
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            assertThat(response.statusCode()).isEqualTo(200);
+            try (InputStream body = response.body()) {
+                byte[] buffer = new byte[64 * 1024];
+                for (int read; (read = body.read(buffer)) >= 0; ) {
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] == '\n') {
+                            lines++;
+                        }
+                    }
+                }
+            }
+        } finally {
+            reading.set(false);
+            sampler.join();
+        }
+        return new Export(lines, peak.get() - baseline, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Runs a full collection and returns the heap still in use.
+     */
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * @param users     the number of exported users, the administrator included.
+     * @param peakBytes the largest live heap seen during the export, above the live heap before it.
+     * @param millis    the time to read the whole response.
+     */
+    private record Export(long users, long peakBytes, long millis) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.linkedme.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests of {@link TypeaheadIndex}, on users replaced in place.
+ */
+class TypeaheadIndexTest {
+
+    @Test
+    void anEmailIsASingleTermWithoutWhitespace() {
+        assertThat(TypeaheadIndex.termsOf("John Doe", " john doe@Example.com "))
+                .containsExactly("john", "doe", "johndoe@example.com", "johndoe");
+        assertThat(TypeaheadIndex.queryWords("John Doe@example.com")).containsExactly("johndoe@example.com");
+    }
+
+    @Test
+    void replacingAUserWhoseEmailHasWhitespaceUnindexesItsOldTerms() {
+        TypeaheadIndex index = new TypeaheadIndex();
+        index.putUser(1, "John Doe", "john doe@example.com", null);
+
+        index.putUser(1, "Jane Roe", "jane roe@example.com", null);
+        index.putUser(1, "Jane Roe", "jane roe@example.com", null);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("john", 10, TypeaheadIndex.Proximity.NONE)).isEmpty();
+        assertThat(index.search("roe", 10, TypeaheadIndex.Proximity.NONE))
+                .extracting(SearchResult::id)
+                .containsExactly(1L);
+        assertThat(index.search("janeroe@example.com", 10, TypeaheadIndex.Proximity.NONE))
+                .extracting(SearchResult::id)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void replacingAUserKeepsTheTermsItStillHas() {
+        TypeaheadIndex index = new TypeaheadIndex();
+        index.putUser(1, "John Doe", "john@example.com", null);
+
+        index.putUser(1, "John Roe", "john@example.com", null);
+
+        assertThat(index.search("doe", 10, TypeaheadIndex.Proximity.NONE)).isEmpty();
+        assertThat(index.search("john", 10, TypeaheadIndex.Proximity.NONE))
+                .extracting(SearchResult::id)
+                .containsExactly(1L);
+    }
+}
@@ -0,0 +1,120 @@
+package com.linkedme.service;
+
+import com.linkedme.model.ConnectionPage;
+import com.linkedme.model.ConnectionSort;
+import com.linkedme.persistence.projection.ConnectionSummary;
+import com.linkedme.persistence.repository.UserConnectionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests of the keyset cursors of {@link ConnectionPageService}, over a mocked repository.
+ */
+class ConnectionPageServiceTest {
+
+    private static final long USER_ID = 1;
+
+    private final UserConnectionRepository repository = mock(UserConnectionRepository.class);
+    private final ConnectionPageService service = new ConnectionPageService(repository);
+
+    @Test
+    void firstPageStartsBeforeEveryContact() {
+        service.page(USER_ID, ConnectionSort.NAME, null, 2);
+        service.page(USER_ID, ConnectionSort.COMPANY, null, 2);
+
+        verify(repository).findPageByName(USER_ID, "", Long.MIN_VALUE, Limit.of(3));
+        verify(repository).findPageByCompany(USER_ID, "", "", Long.MIN_VALUE, Limit.of(3));
+    }
+
+    @Test
+    void nextPageStartsAfterTheLastContactByName() {
+        when(repository.findPageByName(USER_ID, "", Long.MIN_VALUE, Limit.of(3))).thenReturn(List.of(
+                new ConnectionSummary(7, "Ada Lovelace", 10L, "Acme"),
+                new ConnectionSummary(3, "Zoë Ødegaard", null, null),
+                new ConnectionSummary(5, "Zoë Ødegaard", null, null)));
+
+        ConnectionPage first = service.page(USER_ID, ConnectionSort.NAME, null, 2);
+        service.page(USER_ID, ConnectionSort.NAME, first.next(), 2);
+
+        assertThat(first.connections()).extracting(ConnectionSummary::contactId).containsExactly(7L, 3L);
+        assertThat(first.next()).isNotNull().doesNotContain("=", "+", "/");
+        verify(repository).findPageByName(USER_ID, "Zoë Ødegaard", 3, Limit.of(3));
+    }
+
+    @Test
+    void nextPageStartsAfterTheLastContactByCompany() {
+        when(repository.findPageByCompany(USER_ID, "", "", Long.MIN_VALUE, Limit.of(2))).thenReturn(List.of(
+                new ConnectionSummary(4, "Grace Hopper", null, null),
+                new ConnectionSummary(2, "Ada Lovelace", 10L, "Acme")));
+        when(repository.findPageByCompany(USER_ID, "", "Grace Hopper", 4, Limit.of(2))).thenReturn(List.of(
+                new ConnectionSummary(2, "Ada Lovelace", 10L, "Acme"),
+                new ConnectionSummary(9, "Alan Turing", 10L, "Acme")));
+
+        ConnectionPage first = service.page(USER_ID, ConnectionSort.COMPANY, null, 1);
+        ConnectionPage second = service.page(USER_ID, ConnectionSort.COMPANY, first.next(), 1);
+        service.page(USER_ID, ConnectionSort.COMPANY, second.next(), 1);
+
+        // A contact without a company sorts under the empty name
+        verify(repository).findPageByCompany(USER_ID, "", "Grace Hopper", 4, Limit.of(2));
+        verify(repository).findPageByCompany(USER_ID, "Acme", "Ada Lovelace", 2, Limit.of(2));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(repository.findPageByName(USER_ID, "", Long.MIN_VALUE, Limit.of(3))).thenReturn(List.of(
+                new ConnectionSummary(7, "Ada Lovelace", null, null),
+                new ConnectionSummary(3, "Alan Turing", null, null)));
+
+        ConnectionPage page = service.page(USER_ID, ConnectionSort.NAME, null, 2);
+
+        assertThat(page.connections()).hasSize(2);
+        assertThat(page.next()).isNull();
+    }
+
+    @Test
+    void clampsThePageSize() {
+        service.page(USER_ID, ConnectionSort.NAME, null, 0);
+        service.page(USER_ID, ConnectionSort.NAME, null, 10_000);
+
+        verify(repository).findPageByName(USER_ID, "", Long.MIN_VALUE, Limit.of(2));
+        verify(repository).findPageByName(USER_ID, "", Long.MIN_VALUE,
+                Limit.of(ConnectionPageService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void rejectsTheCursorOfAnotherOrder() {
+        when(repository.findPageByName(anyLong(), anyString(), anyLong(), any())).thenReturn(List.of(
+                new ConnectionSummary(7, "Ada Lovelace", null, null),
+                new ConnectionSummary(3, "Alan Turing", null, null)));
+        String cursor = service.page(USER_ID, ConnectionSort.NAME, null, 1).next();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> service.page(USER_ID, ConnectionSort.COMPANY, cursor, 1));
+    }
+
+    @Test
+    void rejectsForgedCursors() {
+        for (String cursor : List.of("not base64!", "", encode("NAME\0\0Ada"), encode("NAME\0\0Ada\0seven"),
+                encode("NAME\0\0Ada\0" + 1 + "\0extra"), encode("SIZE\0\0Ada\0" + 1))) {
+            assertThatIllegalArgumentException().as("cursor %s", cursor)
+                    .isThrownBy(() -> service.page(USER_ID, ConnectionSort.NAME, cursor, 1));
+        }
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+}